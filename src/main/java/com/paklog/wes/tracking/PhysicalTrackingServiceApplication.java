@@ -1,13 +1,18 @@
 package com.paklog.wes.tracking;
 
+import com.paklog.wes.tracking.infrastructure.config.TrackingRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Physical Tracking Service - WES
  * Handles license plate management, movements, and real-time location state
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(TrackingRuntimeHints.class)
 public class PhysicalTrackingServiceApplication {
 
     public static void main(String[] args) {
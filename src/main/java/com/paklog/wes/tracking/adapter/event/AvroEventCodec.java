@@ -0,0 +1,134 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro binary codec for tracking event data
+ *
+ * Encodes the event data map with the latest schema for the event type and
+ * decodes with Avro schema resolution from the writer schema named by the
+ * event's dataschema, so consumers on a newer schema read older events.
+ */
+@Component
+public class AvroEventCodec {
+
+    public static final String CONTENT_TYPE = "application/avro";
+
+    private final TrackingEventSchemas schemas;
+    private final Map<Schema, GenericDatumWriter<GenericRecord>> writers = new ConcurrentHashMap<>();
+    private final Map<ReaderKey, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    public AvroEventCodec(TrackingEventSchemas schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * Encode event data with the latest schema for its type
+     */
+    public Encoded encode(String type, Map<String, Object> data) {
+        Schema schema = schemas.latest(type);
+        GenericRecord record = new GenericData.Record(schema);
+        for (Schema.Field field : schema.getFields()) {
+            record.put(field.pos(), toAvro(field.schema(), data.get(field.name())));
+        }
+
+        Buffer buffer = buffers.get();
+        buffer.out.reset();
+        buffer.encoder = EncoderFactory.get().binaryEncoder(buffer.out, buffer.encoder);
+        try {
+            writers.computeIfAbsent(schema, GenericDatumWriter::new).write(record, buffer.encoder);
+            buffer.encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode " + type, e);
+        }
+        return new Encoded(TrackingEventSchemas.uri(schema), buffer.out.toByteArray());
+    }
+
+    /**
+     * Decode event data written with the schema named by dataschema
+     */
+    public Map<String, Object> decode(String type, URI dataschema, byte[] bytes) {
+        Schema reader = schemas.latest(type);
+        Schema writer = dataschema != null ? schemas.find(dataschema).orElseThrow(() ->
+            new IllegalArgumentException("Unknown dataschema " + dataschema)) : reader;
+        return decode(writer, reader, bytes);
+    }
+
+    Map<String, Object> decode(Schema writer, Schema reader, byte[] bytes) {
+        GenericDatumReader<GenericRecord> datumReader = readers.computeIfAbsent(
+            new ReaderKey(writer, reader), key -> new GenericDatumReader<>(key.writer(), key.reader())
+        );
+
+        GenericRecord record;
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(bytes, null);
+            record = datumReader.read(null, decoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode " + reader.getFullName(), e);
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (Schema.Field field : reader.getFields()) {
+            data.put(field.name(), fromAvro(field.schema(), record.get(field.pos())));
+        }
+        return data;
+    }
+
+    private static Object toAvro(Schema schema, Object value) {
+        if (value == null) {
+            return schema.getType() == Schema.Type.STRING ? "" : null;
+        }
+        LogicalType logicalType = schema.getLogicalType();
+        if (logicalType instanceof LogicalTypes.LocalTimestampMillis && value instanceof LocalDateTime timestamp) {
+            return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        return switch (schema.getType()) {
+            case STRING -> value.toString();
+            case INT -> ((Number) value).intValue();
+            case LONG -> ((Number) value).longValue();
+            default -> value;
+        };
+    }
+
+    private static Object fromAvro(Schema schema, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (schema.getLogicalType() instanceof LogicalTypes.LocalTimestampMillis && value instanceof Long millis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+        return value instanceof CharSequence text ? text.toString() : value;
+    }
+
+    public record Encoded(URI dataschema, byte[] bytes) {}
+
+    private record ReaderKey(Schema writer, Schema reader) {}
+
+    private static final class Buffer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,116 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Events that could not be handed to Kafka after their change was stored,
+ * kept in the default database until PublishSpoolRelay re-sends them
+ *
+ * Entries are claimed before they are re-sent, so only one pod sends each;
+ * a claim left by a pod that stopped lapses after CLAIM. An entry is removed
+ * once the broker acknowledges it, so delivery is at least once and a
+ * re-sent event keeps its CloudEvent id.
+ */
+@Component
+public class PublishSpool {
+
+    static final String COLLECTION = "publish_spool";
+    private static final Duration CLAIM = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+
+    public PublishSpool(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Store event for a later send
+     */
+    public void add(String topic, String key, CloudEvent event) {
+        Document document = new Document("_id", event.getId())
+            .append("topic", topic)
+            .append("key", key)
+            .append("source", event.getSource().toString())
+            .append("type", event.getType())
+            .append("subject", event.getSubject())
+            .append("time", event.getTime() != null ? event.getTime().toString() : null)
+            .append("dataContentType", event.getDataContentType())
+            .append("dataSchema", event.getDataSchema() != null ? event.getDataSchema().toString() : null)
+            .append("data", event.getData() != null ? new Binary(event.getData().toBytes()) : null)
+            .append("spooledAt", new Date())
+            .append("claimedUntil", new Date(0));
+        WarehouseContext.run(null, () -> mongoTemplate.getCollection(COLLECTION).insertOne(document));
+    }
+
+    /**
+     * Claim up to limit unclaimed entries, oldest first
+     */
+    public List<Spooled> claim(int limit) {
+        return WarehouseContext.call(null, () -> {
+            List<Spooled> claimed = new ArrayList<>();
+            Date now = new Date();
+            Query query = new Query(Criteria.where("claimedUntil").lt(now))
+                .with(Sort.by("spooledAt"));
+            Update update = new Update().set("claimedUntil", new Date(now.getTime() + CLAIM.toMillis()));
+
+            while (claimed.size() < limit) {
+                Document document = mongoTemplate.findAndModify(
+                    query, update, FindAndModifyOptions.options().returnNew(true), Document.class, COLLECTION
+                );
+                if (document == null) {
+                    break;
+                }
+                claimed.add(toSpooled(document));
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Drop an entry the broker has acknowledged
+     */
+    public void remove(String id) {
+        WarehouseContext.run(null, () -> mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), COLLECTION));
+    }
+
+    private static Spooled toSpooled(Document document) {
+        CloudEventBuilder builder = CloudEventBuilder.v1()
+            .withId(document.getString("_id"))
+            .withSource(URI.create(document.getString("source")))
+            .withType(document.getString("type"))
+            .withSubject(document.getString("subject"))
+            .withDataContentType(document.getString("dataContentType"));
+        if (document.getString("time") != null) {
+            builder.withTime(OffsetDateTime.parse(document.getString("time")));
+        }
+        if (document.getString("dataSchema") != null) {
+            builder.withDataSchema(URI.create(document.getString("dataSchema")));
+        }
+        Binary data = document.get("data", Binary.class);
+        if (data != null) {
+            builder.withData(data.getData());
+        }
+        return new Spooled(document.getString("_id"), document.getString("topic"), document.getString("key"),
+            builder.build());
+    }
+
+    public record Spooled(String id, String topic, String key, CloudEvent event) {}
+}
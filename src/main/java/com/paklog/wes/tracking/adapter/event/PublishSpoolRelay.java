@@ -0,0 +1,83 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-sends spooled events on a fixed delay
+ *
+ * Each pass claims a batch and sends it through the publisher's in-flight
+ * bound; entries that find no free slot keep their claim and are picked up
+ * again once it lapses.
+ */
+@Component
+public class PublishSpoolRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishSpoolRelay.class);
+
+    private final PublishSpool spool;
+    private final TrackingEventPublisher publisher;
+    private final KafkaPublishProperties properties;
+
+    private ScheduledExecutorService relay;
+
+    public PublishSpoolRelay(PublishSpool spool, TrackingEventPublisher publisher,
+                             KafkaPublishProperties properties) {
+        this.spool = spool;
+        this.publisher = publisher;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long delayMillis = properties.getSpoolRetry().toMillis();
+        relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "publish-spool-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relay.scheduleWithFixedDelay(this::relay, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (relay != null) {
+            relay.shutdownNow();
+        }
+    }
+
+    /**
+     * Claim one batch and hand it to the publisher
+     *
+     * @return entries handed to the producer
+     */
+    int relay() {
+        try {
+            List<PublishSpool.Spooled> claimed = spool.claim(properties.getSpoolBatchSize());
+            int sent = 0;
+            for (PublishSpool.Spooled spooled : claimed) {
+                if (!publisher.resend(spooled)) {
+                    break;
+                }
+                sent++;
+            }
+            if (!claimed.isEmpty()) {
+                logger.info("Re-sent {} of {} spooled events", sent, claimed.size());
+            }
+            return sent;
+        } catch (Exception e) {
+            logger.error("Failed to relay spooled events", e);
+            return 0;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.paklog.wes.tracking.adapter.event;
 
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import org.slf4j.Logger;
@@ -8,24 +10,70 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Event publisher for Physical Tracking Service
  * Publishes CloudEvents to Kafka for downstream consumption
+ *
+ * Sends are asynchronous: the caller returns once the record is handed to the
+ * producer, and the outcome is handled on the producer's completion callback.
+ * In-flight sends are bounded; when the bound is reached a publish waits at
+ * most the configured backpressure window and is then spooled, so a slow
+ * broker cannot stall request threads. Events are published after their
+ * change is stored, so an event that is rejected, fails to send or is never
+ * acknowledged goes to the PublishSpool and is re-sent later rather than
+ * dropped; re-sent events may arrive after later events for the same key.
+ *
+ * send() itself can still block the caller for up to max-block (producer
+ * max.block.ms) while topic metadata is fetched or the producer buffer is
+ * full; a send that times out there is spooled as well.
  */
 @Component
 public class TrackingEventPublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(TrackingEventPublisher.class);
     private static final String SOURCE = "physical-tracking-service";
+    private static final URI SOURCE_URI = URI.create(SOURCE);
 
     private final KafkaTemplate<String, CloudEvent> kafkaTemplate;
+    private final TrackingMetrics metrics;
+    private final AvroEventCodec codec;
+    private final PublishSpool spool;
+    private final boolean binary;
+    private final int maxInFlight;
+    private final long backpressureWaitNanos;
+    private final Semaphore inFlight;
 
-    public TrackingEventPublisher(KafkaTemplate<String, CloudEvent> kafkaTemplate) {
+    public TrackingEventPublisher(
+            KafkaTemplate<String, CloudEvent> kafkaTemplate,
+            TrackingMetrics metrics,
+            AvroEventCodec codec,
+            PublishSpool spool,
+            KafkaPublishProperties properties
+    ) {
         this.kafkaTemplate = kafkaTemplate;
+        this.metrics = metrics;
+        this.codec = codec;
+        this.spool = spool;
+        this.binary = properties.getEncoding() == KafkaPublishProperties.Encoding.BINARY;
+        this.maxInFlight = properties.getMaxInFlight();
+        this.backpressureWaitNanos = properties.getBackpressureWait().toNanos();
+        this.inFlight = new Semaphore(maxInFlight);
+        metrics.gauge(TrackingMetrics.PUBLISH_IN_FLIGHT, this, TrackingEventPublisher::inFlightCount);
+    }
+
+    /**
+     * Sends handed to the producer and not yet acknowledged
+     */
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
     }
 
     /**
@@ -66,7 +114,7 @@ public class TrackingEventPublisher {
         Map<String, Object> data = Map.of(
             "licensePlateId", licensePlateId,
             "fromLocationId", fromLocationId != null ? fromLocationId : "",
-            "toLocationId", toLocationId,
+            "toLocationId", toLocationId != null ? toLocationId : "",
             "movementType", movementType,
             "performedBy", performedBy
         );
@@ -174,32 +222,167 @@ public class TrackingEventPublisher {
         publishEvent("tracking-events", locationId, event);
     }
 
+    /**
+     * Publish stale location alert (occupied, no movement for the configured period)
+     */
+    public void publishLocationStale(
+            String locationId,
+            String warehouseId,
+            LocalDateTime lastMovementAt,
+            long idleSeconds
+    ) {
+        Map<String, Object> data = Map.of(
+            "locationId", locationId,
+            "warehouseId", warehouseId != null ? warehouseId : "",
+            "lastMovementAt", lastMovementAt,
+            "idleSeconds", idleSeconds
+        );
+
+        CloudEvent event = buildEvent(
+            "com.paklog.tracking.location.stale",
+            locationId,
+            data
+        );
+
+        publishEvent("tracking-events", locationId, event);
+    }
+
+    /**
+     * Publish license plate overstayed alert (at one location past the configured dwell)
+     */
+    public void publishLicensePlateOverstayed(
+            String licensePlateId,
+            String warehouseId,
+            String locationId,
+            LocalDateTime arrivedAt,
+            long dwellSeconds
+    ) {
+        Map<String, Object> data = Map.of(
+            "licensePlateId", licensePlateId,
+            "warehouseId", warehouseId != null ? warehouseId : "",
+            "locationId", locationId != null ? locationId : "",
+            "arrivedAt", arrivedAt,
+            "dwellSeconds", dwellSeconds
+        );
+
+        CloudEvent event = buildEvent(
+            "com.paklog.tracking.licenseplate.overstayed",
+            licensePlateId,
+            data
+        );
+
+        publishEvent("tracking-events", licensePlateId, event);
+    }
+
     /**
      * Build CloudEvent
      */
-    private CloudEvent buildEvent(String type, String subject, Map<String, Object> data) {
-        return CloudEventBuilder.v1()
+    CloudEvent buildEvent(String type, String subject, Map<String, Object> data) {
+        CloudEventBuilder builder = CloudEventBuilder.v1()
             .withId(UUID.randomUUID().toString())
-            .withSource(URI.create(SOURCE))
+            .withSource(SOURCE_URI)
             .withType(type)
             .withSubject(subject)
-            .withTime(OffsetDateTime.now())
+            .withTime(OffsetDateTime.now());
+
+        if (binary) {
+            AvroEventCodec.Encoded encoded = codec.encode(type, data);
+            return builder
+                .withDataContentType(AvroEventCodec.CONTENT_TYPE)
+                .withDataSchema(encoded.dataschema())
+                .withData(encoded.bytes())
+                .build();
+        }
+
+        return builder
             .withDataContentType("application/json")
             .withData(convertToJson(data).getBytes())
             .build();
     }
 
+    /**
+     * Re-send a spooled event, removing it from the spool once acknowledged
+     *
+     * @return false when no send slot is free, leaving the entry for the next pass
+     */
+    public boolean resend(PublishSpool.Spooled spooled) {
+        if (!inFlight.tryAcquire()) {
+            return false;
+        }
+        send(spooled.topic(), spooled.key(), spooled.event(), failure -> {
+            if (failure == null) {
+                spool.remove(spooled.id());
+                metrics.recordPublishSpool(spooled.event().getType(), "resent");
+            }
+            // Otherwise the claim lapses and the next pass retries
+        });
+        return true;
+    }
+
     /**
      * Publish event to Kafka
      */
     private void publishEvent(String topic, String key, CloudEvent event) {
+        if (!acquireSendSlot()) {
+            metrics.recordPublishRejected(event.getType());
+            logger.warn("Publish rejected, {} sends awaiting acknowledgement; spooling: type={}, subject={}",
+                inFlightCount(), event.getType(), event.getSubject());
+            spool(topic, key, event);
+            return;
+        }
+
+        send(topic, key, event, failure -> {
+            if (failure != null) {
+                spool(topic, key, event);
+            }
+        });
+    }
+
+    private void send(String topic, String key, CloudEvent event, Consumer<Throwable> outcome) {
+        long sentAt = System.nanoTime();
         try {
-            kafkaTemplate.send(topic, key, event);
-            logger.info("Published event: type={}, subject={}, topic={}",
-                event.getType(), event.getSubject(), topic);
+            kafkaTemplate.send(topic, key, event).whenComplete((result, failure) -> {
+                inFlight.release();
+                // Publish-to-ack latency as seen by the producer
+                metrics.recordPublish(event.getType(), System.nanoTime() - sentAt, failure);
+                if (failure != null) {
+                    logger.error("Event not acknowledged: type={}, subject={}",
+                        event.getType(), event.getSubject(), failure);
+                } else {
+                    logger.debug("Published event: type={}, subject={}, topic={}",
+                        event.getType(), event.getSubject(), topic);
+                }
+                outcome.accept(failure);
+            });
         } catch (Exception e) {
+            inFlight.release();
+            metrics.recordPublish(event.getType(), System.nanoTime() - sentAt, e);
             logger.error("Failed to publish event: type={}, subject={}",
                 event.getType(), event.getSubject(), e);
+            outcome.accept(e);
+        }
+    }
+
+    private void spool(String topic, String key, CloudEvent event) {
+        try {
+            spool.add(topic, key, event);
+            metrics.recordPublishSpool(event.getType(), "spooled");
+        } catch (Exception e) {
+            metrics.recordPublishSpool(event.getType(), "lost");
+            logger.error("Failed to spool unpublished event: type={}, subject={}, id={}",
+                event.getType(), event.getSubject(), event.getId(), e);
+        }
+    }
+
+    private boolean acquireSendSlot() {
+        if (inFlight.tryAcquire()) {
+            return true;
+        }
+        try {
+            return inFlight.tryAcquire(backpressureWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
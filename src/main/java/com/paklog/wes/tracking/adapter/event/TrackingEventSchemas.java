@@ -0,0 +1,108 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Versioned Avro schemas for tracking event data
+ *
+ * Schemas live in src/main/resources/schemas/tracking as {name}.v{N}.avsc and
+ * carry the CloudEvent type they describe ("ce-type") and their version. Every
+ * version stays on the classpath so events written with an older schema can be
+ * decoded with the latest one. A schema is identified on the wire by its
+ * dataschema URI, urn:paklog:schema:{ce-type}:v{N}.
+ */
+@Component
+public class TrackingEventSchemas {
+
+    static final String DEFAULT_LOCATION = "classpath*:schemas/tracking/*.avsc";
+
+    private final Map<String, TreeMap<Integer, Schema>> versionsByType = new HashMap<>();
+    private final Map<URI, Schema> byUri = new HashMap<>();
+
+    public TrackingEventSchemas() {
+        this(DEFAULT_LOCATION);
+    }
+
+    TrackingEventSchemas(String location) {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+                try (InputStream in = resource.getInputStream()) {
+                    // One parser per file: versions of a record share a full name
+                    register(new Schema.Parser().parse(in));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load tracking event schemas from " + location, e);
+        }
+    }
+
+    /**
+     * Latest schema for a CloudEvent type
+     */
+    public Schema latest(String type) {
+        TreeMap<Integer, Schema> versions = versionsByType.get(type);
+        if (versions == null) {
+            throw new IllegalArgumentException("No schema for event type " + type);
+        }
+        return versions.lastEntry().getValue();
+    }
+
+    /**
+     * Schema referenced by a dataschema URI
+     */
+    public Optional<Schema> find(URI dataschema) {
+        return Optional.ofNullable(byUri.get(dataschema));
+    }
+
+    /**
+     * All versions of a CloudEvent type, oldest first
+     */
+    public Collection<Schema> versions(String type) {
+        TreeMap<Integer, Schema> versions = versionsByType.get(type);
+        return versions != null ? versions.values() : List.of();
+    }
+
+    public Collection<String> types() {
+        return versionsByType.keySet();
+    }
+
+    public static URI uri(Schema schema) {
+        return URI.create("urn:paklog:schema:" + type(schema) + ":v" + version(schema));
+    }
+
+    static String type(Schema schema) {
+        return schema.getProp("ce-type");
+    }
+
+    static int version(Schema schema) {
+        Object version = schema.getObjectProp("version");
+        return version instanceof Number number ? number.intValue() : 1;
+    }
+
+    private void register(Schema schema) {
+        String type = type(schema);
+        if (type == null) {
+            throw new IllegalStateException("Schema " + schema.getFullName() + " has no ce-type");
+        }
+        Schema previous = versionsByType.computeIfAbsent(type, ignored -> new TreeMap<>())
+            .put(version(schema), schema);
+        if (previous != null) {
+            throw new IllegalStateException("Duplicate schema version " + uri(schema));
+        }
+        byUri.put(uri(schema), schema);
+    }
+}
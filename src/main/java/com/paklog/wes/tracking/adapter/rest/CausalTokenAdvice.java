@@ -0,0 +1,35 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.infrastructure.persistence.CausalContext;
+import com.paklog.wes.tracking.infrastructure.persistence.CausalToken;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Returns the operation time of the request's writes as X-Causal-Token,
+ * added before the body commits the response
+ */
+@RestControllerAdvice
+public class CausalTokenAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        CausalToken token = CausalContext.lastWrite();
+        if (token != null) {
+            response.getHeaders().set(CausalTokenFilter.HEADER, token.encode());
+        }
+        return body;
+    }
+}
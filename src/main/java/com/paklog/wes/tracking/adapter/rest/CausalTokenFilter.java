@@ -0,0 +1,45 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.infrastructure.persistence.CausalContext;
+import com.paklog.wes.tracking.infrastructure.persistence.CausalToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the client's causal token to the request thread so routed reads wait
+ * for the client's own writes
+ *
+ * Clients echo the X-Causal-Token returned by their last write; see
+ * CausalTokenAdvice for the response side.
+ */
+@Component
+public class CausalTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Causal-Token";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HEADER);
+        try {
+            if (header != null && !header.isBlank()) {
+                try {
+                    CausalContext.observe(CausalToken.decode(header.trim()));
+                } catch (IllegalArgumentException e) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HEADER);
+                    return;
+                }
+            }
+            chain.doFilter(request, response);
+        } finally {
+            CausalContext.clear();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.application.service.TrackingChange;
+import com.paklog.wes.tracking.application.service.TrackingChangeFeed;
+import com.paklog.wes.tracking.infrastructure.config.ChangeFeedProperties;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Server-Sent Events stream of location and license plate changes
+ */
+@RestController
+@RequestMapping("/api/v1/tracking")
+@Tag(name = "Change Feed", description = "Push location and license plate deltas to screens and the WCS")
+public class ChangeFeedController {
+
+    private final TrackingChangeFeed feed;
+    private final ChangeFeedProperties properties;
+
+    public ChangeFeedController(TrackingChangeFeed feed, ChangeFeedProperties properties) {
+        this.feed = feed;
+        this.properties = properties;
+    }
+
+    /**
+     * Subscribe to changes in a warehouse
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to changes",
+        description = "Stream location and license plate deltas for a warehouse, optionally narrowed to "
+            + "zones and locations. A resync event means deltas were dropped: reload and resubscribe.")
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestParam String warehouseId,
+            @RequestParam(required = false) List<String> zone,
+            @RequestParam(required = false) List<String> locationId
+    ) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        TrackingChangeFeed.Filter filter = new TrackingChangeFeed.Filter(
+            warehouseId,
+            zone == null ? null : new HashSet<>(zone),
+            locationId == null ? null : new HashSet<>(locationId)
+        );
+        Optional<TrackingChangeFeed.Subscription> subscription = feed.subscribe(filter, new EmitterSink(emitter));
+        if (subscription.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        TrackingChangeFeed.Subscription subscribed = subscription.get();
+        emitter.onCompletion(subscribed::cancel);
+        emitter.onTimeout(subscribed::cancel);
+        emitter.onError(error -> subscribed.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements TrackingChangeFeed.Sink {
+
+        @Override
+        public void send(TrackingChange change) throws IOException {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(change.sequence()))
+                .name(change.type())
+                .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close(String reason) {
+            if (reason != null) {
+                try {
+                    emitter.send(SseEmitter.event().name("resync").data(Map.of("reason", reason),
+                        MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // Client already gone
+                }
+            }
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.adapter.rest.dto.UtilizationBucketResponse;
+import com.paklog.wes.tracking.application.service.OccupancyHistoryService;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Utilization history of locations and zones, read from minute and hour buckets
+ */
+@RestController
+@RequestMapping("/api/v1/tracking")
+@Tag(name = "Occupancy History", description = "Utilization curves for capacity planning")
+public class OccupancyHistoryController {
+
+    private final OccupancyHistoryService historyService;
+
+    public OccupancyHistoryController(OccupancyHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    /**
+     * Utilization curve of a location
+     */
+    @GetMapping("/locations/{id}/utilization")
+    @Operation(summary = "Get location utilization history",
+        description = "Minute or hour utilization buckets starting in [from, to); to defaults to now and "
+            + "from to one hour (MINUTE) or seven days (HOUR) earlier")
+    public ResponseEntity<List<UtilizationBucketResponse>> getLocationUtilization(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "MINUTE") UtilizationBucket.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(granularity.defaultRange());
+        if (!isValidRange(granularity, start, end)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(toResponses(historyService.locationCurve(id, granularity, start, end)));
+    }
+
+    /**
+     * Utilization curve of a zone
+     */
+    @GetMapping("/zones/{zone}/utilization")
+    @Operation(summary = "Get zone utilization history",
+        description = "Minute or hour utilization buckets combined across the zone's locations")
+    public ResponseEntity<List<UtilizationBucketResponse>> getZoneUtilization(
+            @PathVariable String zone,
+            @RequestParam String warehouseId,
+            @RequestParam(defaultValue = "MINUTE") UtilizationBucket.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(granularity.defaultRange());
+        if (!isValidRange(granularity, start, end)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(toResponses(historyService.zoneCurve(warehouseId, zone, granularity, start, end)));
+    }
+
+    private static boolean isValidRange(UtilizationBucket.Granularity granularity,
+                                        LocalDateTime from, LocalDateTime to) {
+        return from.isBefore(to) && Duration.between(from, to).compareTo(granularity.maxRange()) <= 0;
+    }
+
+    private static List<UtilizationBucketResponse> toResponses(List<UtilizationBucket> buckets) {
+        return buckets.stream()
+            .map(UtilizationBucketResponse::from)
+            .toList();
+    }
+}
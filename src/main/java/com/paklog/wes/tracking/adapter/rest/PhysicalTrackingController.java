@@ -4,18 +4,37 @@ import com.paklog.wes.tracking.adapter.rest.dto.*;
 import com.paklog.wes.tracking.application.service.PhysicalTrackingService;
 import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
 import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.ReadRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseDirectory;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * REST API for physical tracking operations
+ *
+ * Calls naming a license plate or location only by id run in its warehouse:
+ * the one the request names, else the one WarehouseDirectory finds. With
+ * routing enabled, a call whose warehouse cannot be found is rejected with 400
+ * instead of being served from the default database.
  */
 @RestController
 @RequestMapping("/api/v1/tracking")
@@ -23,9 +42,18 @@ import java.util.stream.Collectors;
 public class PhysicalTrackingController {
 
     private final PhysicalTrackingService trackingService;
+    private final ReadRoutingProperties readProperties;
+    private final ResponseBodyCache responseCache;
+    private final WarehouseDirectory directory;
 
-    public PhysicalTrackingController(PhysicalTrackingService trackingService) {
+    public PhysicalTrackingController(PhysicalTrackingService trackingService,
+                                      ReadRoutingProperties readProperties,
+                                      ResponseBodyCache responseCache,
+                                      WarehouseDirectory directory) {
         this.trackingService = trackingService;
+        this.readProperties = readProperties;
+        this.responseCache = responseCache;
+        this.directory = directory;
     }
 
     /**
@@ -37,13 +65,13 @@ public class PhysicalTrackingController {
             @Valid @RequestBody CreateLicensePlateRequest request,
             @RequestHeader(value = "X-User-Id", required = false, defaultValue = "system") String userId
     ) {
-        LicensePlate lp = trackingService.createLicensePlate(
+        LicensePlate lp = WarehouseContext.call(request.warehouseId(), () -> trackingService.createLicensePlate(
             request.licensePlateId(),
             request.warehouseId(),
             request.type(),
             request.containerCode(),
             userId
-        );
+        ));
 
         return ResponseEntity.status(HttpStatus.CREATED)
             .body(LicensePlateResponse.from(lp));
@@ -54,13 +82,63 @@ public class PhysicalTrackingController {
      */
     @GetMapping("/license-plates/{id}")
     @Operation(summary = "Get license plate", description = "Get license plate details by ID")
-    public ResponseEntity<LicensePlateResponse> getLicensePlate(@PathVariable String id) {
-        return trackingService.getLicensePlate(id)
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = LicensePlateResponse.class)))
+    public ResponseEntity<byte[]> getLicensePlate(@PathVariable String id) {
+        return inLicensePlateWarehouse(id, () -> trackingService.getLicensePlate(id)
+            .map(lp -> responseCache.licensePlate(lp, effectiveLocationId(lp)))
+            .map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+            .orElse(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Get many license plates by ID
+     */
+    @PostMapping("/license-plates/lookup")
+    @Operation(summary = "Get license plates",
+        description = "Resolve a batch of license plate IDs in one call; results keep request order "
+            + "and mark IDs that were not found")
+    public ResponseEntity<BatchGetResponse<LicensePlateResponse>> getLicensePlates(
+            @Valid @RequestBody BatchGetRequest request
+    ) {
+        if (request.ids().size() > readProperties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, LicensePlate> licensePlates = trackingService.getLicensePlates(request.ids());
+        Map<String, String> locations = trackingService.getEffectiveLocationIds(licensePlates.values());
+        return ResponseEntity.ok(BatchGetResponse.of(request.ids(), licensePlates, lp -> LicensePlateResponse.from(
+            lp, locations.getOrDefault(lp.getLicensePlateId(), lp.getCurrentLocationId()))
+        ));
+    }
+
+    /**
+     * Allocate an empty license plate
+     */
+    @PostMapping("/license-plates/allocate")
+    @Operation(summary = "Allocate empty license plate",
+        description = "Atomically claim one empty license plate of a type in a warehouse")
+    public ResponseEntity<LicensePlateResponse> allocateEmptyLicensePlate(
+            @Valid @RequestBody AllocateLicensePlateRequest request,
+            @RequestHeader(value = "X-User-Id", required = false, defaultValue = "system") String userId
+    ) {
+        return WarehouseContext.call(request.warehouseId(),
+                () -> trackingService.allocateEmptyLicensePlate(request.warehouseId(), request.type(), userId))
             .map(LicensePlateResponse::from)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Release an allocated license plate
+     */
+    @PostMapping("/license-plates/{id}/release")
+    @Operation(summary = "Release license plate", description = "Release an allocation claim on a license plate")
+    public ResponseEntity<LicensePlateResponse> releaseLicensePlate(@PathVariable String id) {
+        return inLicensePlateWarehouse(id,
+            () -> ResponseEntity.ok(response(trackingService.releaseLicensePlate(id))));
+    }
+
     /**
      * List license plates at a location
      */
@@ -72,14 +150,15 @@ public class PhysicalTrackingController {
         List<LicensePlate> licensePlates;
 
         if (locationId != null) {
-            licensePlates = trackingService.getLicensePlatesAtLocation(locationId);
+            licensePlates = inLocationWarehouse(locationId,
+                () -> trackingService.getLicensePlatesAtLocation(locationId));
         } else {
             licensePlates = List.of(); // In production, would support warehouse-level queries
         }
 
         return ResponseEntity.ok(
             licensePlates.stream()
-                .map(LicensePlateResponse::from)
+                .map(lp -> LicensePlateResponse.from(lp, locationId))
                 .collect(Collectors.toList())
         );
     }
@@ -94,17 +173,36 @@ public class PhysicalTrackingController {
             @Valid @RequestBody MoveLicensePlateRequest request,
             @RequestHeader(value = "X-User-Id", required = false, defaultValue = "system") String userId
     ) {
-        LicensePlate lp = trackingService.moveLicensePlate(
+        LicensePlate lp = inLicensePlateWarehouse(id, () -> trackingService.moveLicensePlate(
             id,
             request.toLocationId(),
             request.movementType(),
             userId,
             request.reason()
-        );
+        ));
 
         return ResponseEntity.ok(LicensePlateResponse.from(lp));
     }
 
+    /**
+     * Nest license plate in another
+     */
+    @PostMapping("/license-plates/{id}/consolidate")
+    @Operation(summary = "Consolidate license plate",
+        description = "Nest license plate in a parent license plate; it then moves with the parent")
+    public ResponseEntity<LicensePlateResponse> consolidateLicensePlate(
+            @PathVariable String id,
+            @Valid @RequestBody ConsolidateLicensePlateRequest request,
+            @RequestHeader(value = "X-User-Id", required = false, defaultValue = "system") String userId
+    ) {
+        return inLicensePlateWarehouse(id, () -> ResponseEntity.ok(response(trackingService.consolidateLicensePlate(
+            id,
+            request.parentLicensePlateId(),
+            userId,
+            request.reason()
+        ))));
+    }
+
     /**
      * Add item to license plate
      */
@@ -114,7 +212,7 @@ public class PhysicalTrackingController {
             @PathVariable String id,
             @Valid @RequestBody AddItemRequest request
     ) {
-        LicensePlate lp = trackingService.addItemToLicensePlate(
+        return inLicensePlateWarehouse(id, () -> ResponseEntity.ok(response(trackingService.addItemToLicensePlate(
             id,
             request.sku(),
             request.lotNumber(),
@@ -122,9 +220,7 @@ public class PhysicalTrackingController {
             request.weight(),
             request.volume(),
             request.uom()
-        );
-
-        return ResponseEntity.ok(LicensePlateResponse.from(lp));
+        ))));
     }
 
     /**
@@ -138,14 +234,12 @@ public class PhysicalTrackingController {
             @RequestParam(required = false) String lotNumber,
             @RequestParam Integer quantity
     ) {
-        LicensePlate lp = trackingService.removeItemFromLicensePlate(
+        return inLicensePlateWarehouse(id, () -> ResponseEntity.ok(response(trackingService.removeItemFromLicensePlate(
             id,
             sku,
             lotNumber,
             quantity
-        );
-
-        return ResponseEntity.ok(LicensePlateResponse.from(lp));
+        ))));
     }
 
     /**
@@ -153,14 +247,39 @@ public class PhysicalTrackingController {
      */
     @GetMapping("/locations/{id}/state")
     @Operation(summary = "Get location state", description = "Get current location state and occupancy")
-    public ResponseEntity<LocationStateResponse> getLocationState(@PathVariable String id) {
-        LocationState state = trackingService.getLocationState(id);
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+        schema = @Schema(implementation = LocationStateResponse.class)))
+    public ResponseEntity<byte[]> getLocationState(@PathVariable String id) {
+        return inLocationWarehouse(id, () -> {
+            LocationState state = trackingService.getLocationState(id);
 
-        if (state == null) {
-            return ResponseEntity.notFound().build();
+            if (state == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.locationState(state));
+        });
+    }
+
+    /**
+     * Get many location states by ID
+     */
+    @PostMapping("/locations/state/lookup")
+    @Operation(summary = "Get location states",
+        description = "Resolve a batch of location IDs in one call; results keep request order "
+            + "and mark IDs that were not found")
+    public ResponseEntity<BatchGetResponse<LocationStateResponse>> getLocationStates(
+            @Valid @RequestBody BatchGetRequest request
+    ) {
+        if (request.ids().size() > readProperties.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().build();
         }
 
-        return ResponseEntity.ok(LocationStateResponse.from(state));
+        return ResponseEntity.ok(BatchGetResponse.of(
+            request.ids(), trackingService.getLocationStates(request.ids()), LocationStateResponse::from
+        ));
     }
 
     /**
@@ -180,6 +299,69 @@ public class PhysicalTrackingController {
         );
     }
 
+    /**
+     * Count locations per occupancy status
+     */
+    @GetMapping("/locations/occupancy")
+    @Operation(summary = "Count locations by occupancy",
+        description = "Number of a warehouse's locations in each occupancy status")
+    public ResponseEntity<Map<OccupancyStatus, Long>> getOccupancyCounts(
+            @RequestParam String warehouseId
+    ) {
+        return ResponseEntity.ok(trackingService.getOccupancyCounts(warehouseId));
+    }
+
+    /**
+     * Bulk import location master data
+     */
+    @PostMapping("/locations/import")
+    @Operation(summary = "Import locations",
+        description = "Create or update location states with capacity, zone and coordinates in bulk")
+    public ResponseEntity<LocationImportResponse> importLocations(
+            @Valid @RequestBody ImportLocationsRequest request
+    ) {
+        // One provisioning call per warehouse, each against that warehouse's database
+        Map<String, List<LocationDefinition>> byWarehouse = request.locations().stream()
+            .map(LocationDefinitionRequest::toDefinition)
+            .collect(Collectors.groupingBy(LocationDefinition::warehouseId, LinkedHashMap::new, Collectors.toList()));
+
+        UpsertCounts counts = UpsertCounts.NONE;
+        int total = 0;
+        for (Map.Entry<String, List<LocationDefinition>> warehouse : byWarehouse.entrySet()) {
+            counts = counts.plus(WarehouseContext.call(warehouse.getKey(),
+                () -> trackingService.provisionLocations(warehouse.getValue())));
+            total += warehouse.getValue().size();
+        }
+        return ResponseEntity.ok(LocationImportResponse.from(total, counts));
+    }
+
+    /**
+     * Find locations holding a SKU
+     */
+    @GetMapping("/skus/{sku}/locations")
+    @Operation(summary = "Find SKU locations", description = "List locations and on-hand quantity for a SKU")
+    public ResponseEntity<List<SkuLocationResponse>> findSkuLocations(
+            @PathVariable String sku,
+            @RequestParam String warehouseId,
+            @RequestParam(required = false) String lotNumber
+    ) {
+        return ResponseEntity.ok(
+            trackingService.getSkuLocations(warehouseId, sku, lotNumber).stream()
+                .map(SkuLocationResponse::from)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Rebuild SKU-to-location projection
+     */
+    @PostMapping("/skus/projection/rebuild")
+    @Operation(summary = "Rebuild SKU projection",
+        description = "Recompute the SKU-to-location projection for a warehouse from license plates")
+    public ResponseEntity<Long> rebuildSkuProjection(@RequestParam String warehouseId) {
+        return ResponseEntity.ok(trackingService.rebuildSkuInventory(warehouseId));
+    }
+
     /**
      * Block location
      */
@@ -189,7 +371,7 @@ public class PhysicalTrackingController {
             @PathVariable String id,
             @RequestParam String reason
     ) {
-        LocationState state = trackingService.blockLocation(id, reason);
+        LocationState state = inLocationWarehouse(id, () -> trackingService.blockLocation(id, reason));
         return ResponseEntity.ok(LocationStateResponse.from(state));
     }
 
@@ -199,7 +381,37 @@ public class PhysicalTrackingController {
     @PostMapping("/locations/{id}/unblock")
     @Operation(summary = "Unblock location", description = "Unblock a location")
     public ResponseEntity<LocationStateResponse> unblockLocation(@PathVariable String id) {
-        LocationState state = trackingService.unblockLocation(id);
+        LocationState state = inLocationWarehouse(id, () -> trackingService.unblockLocation(id));
         return ResponseEntity.ok(LocationStateResponse.from(state));
     }
+
+    private <T> T inLicensePlateWarehouse(String licensePlateId, Supplier<T> action) {
+        return inWarehouse(() -> directory.licensePlateWarehouse(licensePlateId),
+            "license plate " + licensePlateId, action);
+    }
+
+    private <T> T inLocationWarehouse(String locationId, Supplier<T> action) {
+        return inWarehouse(() -> directory.locationWarehouse(locationId), "location " + locationId, action);
+    }
+
+    private <T> T inWarehouse(Supplier<String> lookup, String subject, Supplier<T> action) {
+        if (WarehouseContext.current() != null || !directory.isRouted()) {
+            return action.get();
+        }
+        String warehouseId = lookup.get();
+        if (warehouseId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "No warehouse found for " + subject + "; send " + WarehouseContextFilter.HEADER);
+        }
+        return WarehouseContext.call(warehouseId, action);
+    }
+
+    private LicensePlateResponse response(LicensePlate lp) {
+        return LicensePlateResponse.from(lp, effectiveLocationId(lp));
+    }
+
+    // Only a nested license plate needs its parent read to report where it is
+    private String effectiveLocationId(LicensePlate lp) {
+        return lp.isNested() ? trackingService.getEffectiveLocationId(lp) : lp.getCurrentLocationId();
+    }
 }
@@ -0,0 +1,50 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.application.service.LocationStateReconciler;
+import com.paklog.wes.tracking.application.service.ReconciliationReport;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin API for LocationState reconciliation
+ */
+@RestController
+@RequestMapping("/api/v1/tracking/admin/reconciliation")
+@Tag(name = "Reconciliation", description = "Rebuild location state totals from license plates")
+public class ReconciliationController {
+
+    private final LocationStateReconciler reconciler;
+
+    public ReconciliationController(LocationStateReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    /**
+     * Start a reconciliation run
+     */
+    @PostMapping("/location-states")
+    @Operation(summary = "Reconcile location states",
+        description = "Recompute location contents and totals from license plates in the background")
+    public ResponseEntity<ReconciliationReport> startReconciliation(
+            @RequestParam(required = false) String warehouseId,
+            @RequestParam(defaultValue = "false") boolean dryRun
+    ) {
+        return reconciler.start(warehouseId, dryRun)
+            .map(report -> ResponseEntity.status(HttpStatus.ACCEPTED).body(report))
+            .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Get the current or last reconciliation report
+     */
+    @GetMapping("/location-states")
+    @Operation(summary = "Get reconciliation report", description = "Progress or outcome of the last run")
+    public ResponseEntity<ReconciliationReport> getReconciliationReport() {
+        return reconciler.lastReport()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
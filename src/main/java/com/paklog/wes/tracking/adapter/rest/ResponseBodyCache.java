@@ -0,0 +1,206 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.wes.tracking.adapter.rest.dto.LicensePlateResponse;
+import com.paklog.wes.tracking.adapter.rest.dto.LocationStateResponse;
+import com.paklog.wes.tracking.application.service.TrackingChangeListener;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.ResponseCacheProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serialized JSON of recently read license plates and location states
+ *
+ * Each entry holds the bytes of one version of an aggregate, the optimistic
+ * lock version every write increments; modification times can repeat within
+ * a millisecond. Reading any other version serializes again and replaces the
+ * entry, so writes made by another pod are never served stale; changes saved
+ * on this pod evict the entry straight away. Memory is bounded by bytes:
+ * the cache is split into segments, each a least-recently-read list under its
+ * own lock holding an equal share of the budget. Keys include the bound
+ * warehouse, since location codes repeat across warehouse databases.
+ */
+@Component
+public class ResponseBodyCache implements TrackingChangeListener {
+
+    static final String LICENSE_PLATE = "license_plate";
+    static final String LOCATION_STATE = "location_state";
+
+    private static final int SEGMENTS = 16;
+    // Estimated map entry, key and version footprint beyond the serialized bytes
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final ObjectMapper objectMapper;
+    private final TrackingMetrics metrics;
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public ResponseBodyCache(ObjectMapper objectMapper, ResponseCacheProperties properties, TrackingMetrics metrics) {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.enabled = properties.isEnabled();
+        long segmentBytes = properties.getMaxSize().toBytes() / SEGMENTS;
+        this.maxEntryBytes = Math.min(properties.getMaxEntrySize().toBytes(), segmentBytes - ENTRY_OVERHEAD);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentBytes);
+        }
+        metrics.gauge(TrackingMetrics.RESPONSE_CACHE_BYTES, this, ResponseBodyCache::bytes);
+    }
+
+    /**
+     * JSON of LicensePlateResponse for this license plate at locationId, its
+     * effective location
+     *
+     * A nested license plate is not cached: its location is its parent's,
+     * which changes without the child's version changing.
+     */
+    public byte[] licensePlate(LicensePlate licensePlate, String locationId) {
+        if (licensePlate.isNested()) {
+            return serialize(LicensePlateResponse.from(licensePlate, locationId));
+        }
+        return serialized(LICENSE_PLATE, licensePlate.getLicensePlateId(), licensePlate.getVersion(),
+            licensePlate, LicensePlateResponse::from);
+    }
+
+    /**
+     * JSON of LocationStateResponse for this location state
+     */
+    public byte[] locationState(LocationState state) {
+        return serialized(LOCATION_STATE, state.getLocationId(), state.getVersion(),
+            state, LocationStateResponse::from);
+    }
+
+    @Override
+    public void onLocationStateChanged(LocationState state) {
+        evict(LOCATION_STATE, state.getLocationId());
+    }
+
+    @Override
+    public void onLicensePlateMoved(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+        evict(LICENSE_PLATE, licensePlate.getLicensePlateId());
+    }
+
+    @Override
+    public void onItemAdded(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        evict(LICENSE_PLATE, licensePlate.getLicensePlateId());
+    }
+
+    @Override
+    public void onItemRemoved(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        evict(LICENSE_PLATE, licensePlate.getLicensePlateId());
+    }
+
+    /**
+     * Bytes held across all segments, including estimated entry overhead
+     */
+    long bytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.bytes();
+        }
+        return total;
+    }
+
+    private <A> byte[] serialized(String aggregate, String id, Long version, A value,
+                                  Function<A, ?> toResponse) {
+        if (!enabled || version == null) {
+            return serialize(toResponse.apply(value));
+        }
+        String key = key(aggregate, id);
+        Segment segment = segment(key);
+        byte[] cached = segment.get(key, version);
+        if (cached != null) {
+            metrics.recordResponseCache(aggregate, "hit");
+            return cached;
+        }
+
+        byte[] bytes = serialize(toResponse.apply(value));
+        if (bytes.length > maxEntryBytes) {
+            metrics.recordResponseCache(aggregate, "too_large");
+            return bytes;
+        }
+        segment.put(key, new Entry(version, bytes));
+        metrics.recordResponseCache(aggregate, "miss");
+        return bytes;
+    }
+
+    private void evict(String aggregate, String id) {
+        String key = key(aggregate, id);
+        segment(key).remove(key);
+    }
+
+    private static String key(String aggregate, String id) {
+        return aggregate + ':' + WarehouseContext.key(id);
+    }
+
+    private Segment segment(String key) {
+        return segments[Math.floorMod(key.hashCode(), SEGMENTS)];
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(Long version, byte[] bytes) {
+
+        long weight(String key) {
+            return bytes.length + 2L * key.length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static final class Segment {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String key, Long version) {
+            Entry entry = entries.get(key);
+            return entry != null && entry.version().equals(version) ? entry.bytes() : null;
+        }
+
+        synchronized void put(String key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.weight(key);
+            }
+            bytes += entry.weight(key);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                bytes -= evicted.getValue().weight(evicted.getKey());
+                eldest.remove();
+            }
+        }
+
+        synchronized void remove(String key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes -= removed.weight(key);
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.telemetry.AdaptiveTraceSampler;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Names the sampling operation of a request before its server span starts
+ *
+ * Root spans are named "http post" and carry no route when the sampler sees
+ * them, so per-operation trace rates could never match. This runs ahead of
+ * the observation filter and puts the operation of the first matching route
+ * (paklog.tracking.sampling.routes) into the current Context, where
+ * AdaptiveTraceSampler reads it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceOperationFilter extends OncePerRequestFilter {
+
+    private final List<Route> routes;
+
+    public TraceOperationFilter(TelemetrySamplingProperties properties) {
+        this.routes = properties.getRoutes().entrySet().stream()
+            .map(entry -> Route.parse(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String operation = operation(request.getMethod(), request.getRequestURI());
+        if (operation == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (Scope ignored = Context.current().with(AdaptiveTraceSampler.OPERATION, operation).makeCurrent()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    String operation(String method, String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.method().equalsIgnoreCase(method) && route.pattern().matches(container)) {
+                return route.operation();
+            }
+        }
+        return null;
+    }
+
+    private record Route(String operation, String method, PathPattern pattern) {
+
+        static Route parse(String operation, String route) {
+            String[] parts = route.trim().split("\\s+", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(
+                    String.format("Route for %s must be \"METHOD /path\": %s", operation, route));
+            }
+            return new Route(operation, parts[0], PathPatternParser.defaultInstance.parse(parts[1]));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the request's warehouse to the request thread so persistence is
+ * routed to that warehouse's database
+ *
+ * Taken from the X-Warehouse-Id header, else the warehouseId query parameter.
+ * Calls addressing a license plate or location only by id may leave both out;
+ * the controller then looks their warehouse up in WarehouseDirectory.
+ */
+@Component
+public class WarehouseContextFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Warehouse-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String warehouseId = request.getHeader(HEADER);
+        if (warehouseId == null || warehouseId.isBlank()) {
+            warehouseId = request.getParameter("warehouseId");
+        }
+        try {
+            WarehouseContext.set(warehouseId != null ? warehouseId.trim() : null);
+            chain.doFilter(request, response);
+        } finally {
+            WarehouseContext.clear();
+        }
+    }
+}
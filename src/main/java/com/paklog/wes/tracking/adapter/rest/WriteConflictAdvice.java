@@ -0,0 +1,25 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers 409 when a command lost a race with another writer; the command
+ * can be sent again against the current state
+ */
+@RestControllerAdvice
+public class WriteConflictAdvice {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteConflictAdvice.class);
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> writeConflict(OptimisticLockingFailureException e) {
+        logger.debug("Write conflict: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BatchGetRequest(
+    @NotEmpty(message = "At least one id is required")
+    List<@NotBlank String> ids
+) {}
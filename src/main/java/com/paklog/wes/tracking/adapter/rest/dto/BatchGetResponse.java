@@ -0,0 +1,35 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-get results in request order, one per requested id
+ */
+public record BatchGetResponse<T>(
+    List<Result<T>> results,
+    int found,
+    int notFound
+) {
+    /**
+     * One requested id; value is null when found is false
+     */
+    public record Result<T>(String id, boolean found, T value) {}
+
+    public static <A, T> BatchGetResponse<T> of(List<String> ids, Map<String, A> aggregates, Function<A, T> mapper) {
+        int found = 0;
+        List<Result<T>> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            A aggregate = aggregates.get(id);
+            if (aggregate != null) {
+                found++;
+                results.add(new Result<>(id, true, mapper.apply(aggregate)));
+            } else {
+                results.add(new Result<>(id, false, null));
+            }
+        }
+        return new BatchGetResponse<>(results, found, ids.size() - found);
+    }
+}
@@ -0,0 +1,10 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record ConsolidateLicensePlateRequest(
+    @NotBlank(message = "Parent license plate is required")
+    String parentLicensePlateId,
+
+    String reason
+) {}
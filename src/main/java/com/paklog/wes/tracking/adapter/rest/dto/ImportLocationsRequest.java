@@ -0,0 +1,13 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ImportLocationsRequest(
+    @NotEmpty(message = "At least one location is required")
+    @Size(max = 50_000, message = "At most 50000 locations per import")
+    List<@Valid LocationDefinitionRequest> locations
+) {}
@@ -8,6 +8,7 @@ import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 public record LicensePlateResponse(
     String licensePlateId,
@@ -15,6 +16,8 @@ public record LicensePlateResponse(
     LicensePlateType type,
     LicensePlateStatus status,
     String currentLocationId,
+    String parentLicensePlateId,
+    Set<String> childLicensePlateIds,
     String containerCode,
     Integer totalQuantity,
     BigDecimal totalWeight,
@@ -24,12 +27,22 @@ public record LicensePlateResponse(
     LocalDateTime updatedAt
 ) {
     public static LicensePlateResponse from(LicensePlate lp) {
+        return from(lp, lp.getCurrentLocationId());
+    }
+
+    /**
+     * Response reporting locationId as the current location; for a nested
+     * license plate this is its parent's location
+     */
+    public static LicensePlateResponse from(LicensePlate lp, String locationId) {
         return new LicensePlateResponse(
             lp.getLicensePlateId(),
             lp.getWarehouseId(),
             lp.getType(),
             lp.getStatus(),
-            lp.getCurrentLocationId(),
+            locationId,
+            lp.getParentLicensePlateId(),
+            lp.getChildLicensePlateIds(),
             lp.getContainerCode(),
             lp.getTotalQuantity(),
             lp.getTotalWeight(),
@@ -0,0 +1,43 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record LocationDefinitionRequest(
+    @NotBlank(message = "Location ID is required")
+    String locationId,
+
+    @NotBlank(message = "Warehouse ID is required")
+    String warehouseId,
+
+    String zone,
+
+    @NotNull(message = "Max quantity is required")
+    @Positive(message = "Max quantity must be positive")
+    Integer maxQuantity,
+
+    @NotNull(message = "Max weight is required")
+    @Positive(message = "Max weight must be positive")
+    BigDecimal maxWeight,
+
+    @NotNull(message = "Max volume is required")
+    @Positive(message = "Max volume must be positive")
+    BigDecimal maxVolume,
+
+    Double xCoordinate,
+
+    Double yCoordinate,
+
+    Double zCoordinate,
+
+    String rfidZone
+) {
+    public LocationDefinition toDefinition() {
+        return new LocationDefinition(locationId, warehouseId, zone, maxQuantity, maxWeight, maxVolume,
+            xCoordinate, yCoordinate, zCoordinate, rfidZone);
+    }
+}
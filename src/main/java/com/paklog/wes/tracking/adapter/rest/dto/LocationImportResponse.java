@@ -0,0 +1,13 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
+
+public record LocationImportResponse(
+    int received,
+    int created,
+    int updated
+) {
+    public static LocationImportResponse from(int received, UpsertCounts counts) {
+        return new LocationImportResponse(received, counts.created(), counts.updated());
+    }
+}
@@ -0,0 +1,23 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+
+import java.time.LocalDateTime;
+
+public record SkuLocationResponse(
+    String sku,
+    String lotNumber,
+    String locationId,
+    Integer quantity,
+    LocalDateTime lastUpdated
+) {
+    public static SkuLocationResponse from(SkuLocationInventory inventory) {
+        return new SkuLocationResponse(
+            inventory.getSku(),
+            inventory.getLotNumber(),
+            inventory.getLocationId(),
+            inventory.getQuantity(),
+            inventory.getLastUpdated()
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.paklog.wes.tracking.adapter.rest.dto;
+
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+
+import java.time.LocalDateTime;
+
+public record UtilizationBucketResponse(
+    LocalDateTime bucketStart,
+    long samples,
+    double averageUtilization,
+    double minUtilization,
+    double maxUtilization,
+    double lastUtilization,
+    int locations
+) {
+    public static UtilizationBucketResponse from(UtilizationBucket bucket) {
+        return new UtilizationBucketResponse(
+            bucket.bucketStart(),
+            bucket.samples(),
+            bucket.averageUtilization(),
+            bucket.minUtilization(),
+            bucket.maxUtilization(),
+            bucket.lastUtilization(),
+            bucket.locations()
+        );
+    }
+}
@@ -0,0 +1,409 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.adapter.event.TrackingEventPublisher;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.entity.Movement;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.infrastructure.config.DwellAlertProperties;
+import com.paklog.wes.tracking.infrastructure.persistence.MongoLease;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import com.paklog.wes.tracking.infrastructure.scheduling.HierarchicalTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Stale location and license plate overstay alerting
+ *
+ * Keeps one deadline per occupied location and per located license plate in a
+ * hierarchical timing wheel. Deadlines are re-armed from lastMovementAt on every
+ * change, so an alert fires only when nothing has moved for the configured
+ * period. Only license plates that are not nested have timers.
+ *
+ * Every pod rebuilds its timers from MongoDB on startup and keeps them current
+ * from its own commands and the change stream, so writes made through other
+ * pods re-arm them too. Only the pod holding the alert lease publishes, and it
+ * re-reads the location or license plate first: an alert is dropped when the
+ * target has emptied, left or been nested since, and re-armed when it has
+ * moved again.
+ *
+ * Other pods discard the timers that expire while they do not hold the lease.
+ * Deadlines that passed after the previous holder stopped and before this pod
+ * took the lease over would be lost that way, so on acquiring the lease a pod
+ * re-arms from MongoDB every timer due since two lease durations ago, firing
+ * those already past that still hold. Alerts around a failover are therefore
+ * delivered at least once.
+ */
+@Component
+public class DwellAlertScheduler implements TrackingChangeListener, StoredChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DwellAlertScheduler.class);
+    private static final int WHEEL_LEVELS = 4;
+
+    private final DwellAlertProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final TrackingEventPublisher eventPublisher;
+    private final WarehouseRouting routing;
+    private final HierarchicalTimingWheel<AlertKey, Deadline> wheel;
+    private final MongoLease lease;
+
+    private ScheduledExecutorService ticker;
+    private long nextRenewalMillis;
+    // Deadlines from this time on are recovered from MongoDB before the next tick fires; null when none are due
+    private LocalDateTime recoverFrom;
+
+    public DwellAlertScheduler(
+            DwellAlertProperties properties,
+            MongoTemplate mongoTemplate,
+            TrackingEventPublisher eventPublisher,
+            WarehouseRouting routing
+    ) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.routing = routing;
+        this.wheel = new HierarchicalTimingWheel<>(
+            properties.getTick(), WHEEL_LEVELS, System.currentTimeMillis()
+        );
+        this.lease = new MongoLease(mongoTemplate, "dwell-alerts",
+            System.getenv().getOrDefault("HOSTNAME", "tracking") + '-' + UUID.randomUUID(),
+            properties.getLeaseDuration());
+    }
+
+    @Override
+    public void onLocationStateChanged(LocationState state) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        AlertKey key = AlertKey.location(state.getWarehouseId(), state.getLocationId());
+        if (state.isEmpty() || state.getLastMovementAt() == null) {
+            wheel.cancel(key);
+            return;
+        }
+
+        armLocation(state.getLocationId(), state.getWarehouseId(), state.getLastMovementAt());
+    }
+
+    @Override
+    public void onLicensePlateMoved(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        // A nested license plate dwells with its parent, which carries the timer
+        if (toLocationId == null || licensePlate.isNested()) {
+            wheel.cancel(AlertKey.licensePlate(licensePlate));
+            return;
+        }
+
+        licensePlate.getLatestMovement().ifPresent(movement -> armLicensePlate(licensePlate, movement));
+    }
+
+    @Override
+    public void onItemRemoved(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        if (properties.isEnabled() && licensePlate.getStatus().isFinalState()) {
+            wheel.cancel(AlertKey.licensePlate(licensePlate));
+        }
+    }
+
+    @Override
+    public void onLocationStateStored(LocationState state) {
+        onLocationStateChanged(state);
+    }
+
+    @Override
+    public void onLicensePlateStored(LicensePlate licensePlate, String previousLocationId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        if (!hasTimer(licensePlate)) {
+            wheel.cancel(AlertKey.licensePlate(licensePlate));
+            return;
+        }
+
+        licensePlate.getLatestMovement().ifPresent(movement -> armLicensePlate(licensePlate, movement));
+    }
+
+    /**
+     * Rebuild timers from MongoDB and start the wheel
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Dwell alerting disabled");
+            return;
+        }
+
+        try {
+            // Every warehouse database, concurrently
+            routing.fanOut(() -> {
+                rehydrate(null);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to rehydrate dwell alert timers; only new changes will be tracked", e);
+        }
+
+        long tickMillis = properties.getTick().toMillis();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dwell-alert-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(
+            () -> tick(System.currentTimeMillis()), tickMillis, tickMillis, TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            try {
+                lease.release();
+            } catch (Exception e) {
+                logger.warn("Failed to release dwell alert lease", e);
+            }
+        }
+    }
+
+    /**
+     * Advance the wheel to now and, on the lease holder, publish every expired
+     * alert that still holds
+     */
+    void tick(long nowMillis) {
+        try {
+            boolean owner = holdsLease(nowMillis);
+            if (owner && recoverFrom != null) {
+                recoverMissed();
+            }
+            List<HierarchicalTimingWheel.Timeout<AlertKey, Deadline>> expired = wheel.advanceTo(nowMillis);
+            if (!owner) {
+                // The lease holder has the same timers and alerts for them
+                return;
+            }
+            for (HierarchicalTimingWheel.Timeout<AlertKey, Deadline> timeout : expired) {
+                fire(timeout.key(), timeout.payload());
+            }
+        } catch (Exception e) {
+            logger.error("Error advancing dwell alert wheel", e);
+        }
+    }
+
+    int scheduledCount() {
+        return wheel.size();
+    }
+
+    private boolean holdsLease(long nowMillis) {
+        if (nowMillis >= nextRenewalMillis) {
+            nextRenewalMillis = nowMillis + properties.getLeaseDuration().toMillis() / 3;
+            try {
+                boolean wasHeld = lease.isHeld(nowMillis);
+                boolean held = lease.renew(nowMillis);
+                if (held != wasHeld) {
+                    logger.info("Dwell alert lease {} by {}", wasHeld ? "lost" : "acquired", lease.getOwner());
+                }
+                if (held && !wasHeld) {
+                    // The previous holder stopped at most about a lease duration and a renewal before expiry
+                    recoverFrom = toLocalDateTime(nowMillis - 2 * properties.getLeaseDuration().toMillis());
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to renew dwell alert lease", e);
+            }
+        }
+        return lease.isHeld(nowMillis);
+    }
+
+    /**
+     * Arm the timers whose deadlines passed while no pod held the lease; they
+     * fire in the tick that follows. Retried on the next tick when it fails.
+     */
+    private void recoverMissed() {
+        LocalDateTime from = recoverFrom;
+        try {
+            routing.fanOut(() -> {
+                rehydrate(from);
+                return null;
+            });
+            recoverFrom = null;
+        } catch (Exception e) {
+            logger.warn("Failed to recover dwell alerts due since {}; retrying", from, e);
+        }
+    }
+
+    /**
+     * Arm timers from MongoDB, all of them or only those whose deadline is at
+     * or after deadlinesFrom
+     */
+    private void rehydrate(LocalDateTime deadlinesFrom) {
+        Criteria movedAt = Criteria.where("lastMovementAt").ne(null);
+        if (deadlinesFrom != null) {
+            movedAt = movedAt.gte(deadlinesFrom.minus(properties.getStaleLocationAfter()));
+        }
+        Query locations = new Query(movedAt.and("licensePlateIds.0").exists(true));
+        locations.fields().include("warehouseId", "lastMovementAt");
+
+        int locationCount = 0;
+        try (Stream<LocationState> stream = mongoTemplate.stream(locations, LocationState.class)) {
+            for (LocationState state : (Iterable<LocationState>) stream::iterator) {
+                armLocation(state.getLocationId(), state.getWarehouseId(), state.getLastMovementAt());
+                locationCount++;
+            }
+        }
+
+        Criteria located = Criteria.where("status").is(LicensePlateStatus.AT_LOCATION);
+        if (deadlinesFrom != null) {
+            // Some movement that recent means the latest one is at least that recent
+            located = located.and("movements.occurredAt")
+                .gte(deadlinesFrom.minus(properties.getLicensePlateOverstayAfter()));
+        }
+        Query licensePlates = new Query(located);
+        licensePlates.fields().include("warehouseId", "currentLocationId", "status", "parentLicensePlateId")
+            .slice("movements", -1);
+
+        int licensePlateCount = 0;
+        try (Stream<LicensePlate> stream = mongoTemplate.stream(licensePlates, LicensePlate.class)) {
+            for (LicensePlate lp : (Iterable<LicensePlate>) stream::iterator) {
+                // AT_LOCATION implies at least one movement, so the sliced array is present
+                if (hasTimer(lp)) {
+                    lp.getLatestMovement().ifPresent(movement -> armLicensePlate(lp, movement));
+                    licensePlateCount++;
+                }
+            }
+        }
+
+        logger.info("Rehydrated dwell alert timers{}: {} locations, {} license plates",
+            deadlinesFrom != null ? " due since " + deadlinesFrom : "", locationCount, licensePlateCount);
+    }
+
+    // A nested license plate dwells with its parent, which carries the timer
+    private static boolean hasTimer(LicensePlate licensePlate) {
+        return licensePlate.getStatus() == LicensePlateStatus.AT_LOCATION
+            && licensePlate.getCurrentLocationId() != null
+            && !licensePlate.isNested();
+    }
+
+    private void armLocation(String locationId, String warehouseId, LocalDateTime lastMovementAt) {
+        wheel.schedule(
+            AlertKey.location(warehouseId, locationId),
+            toEpochMillis(lastMovementAt) + properties.getStaleLocationAfter().toMillis(),
+            new Deadline(locationId, warehouseId, locationId, lastMovementAt)
+        );
+    }
+
+    private void armLicensePlate(LicensePlate licensePlate, Movement movement) {
+        wheel.schedule(
+            AlertKey.licensePlate(licensePlate),
+            toEpochMillis(movement.getOccurredAt()) + properties.getLicensePlateOverstayAfter().toMillis(),
+            new Deadline(
+                licensePlate.getLicensePlateId(),
+                licensePlate.getWarehouseId(),
+                licensePlate.getCurrentLocationId(),
+                movement.getOccurredAt()
+            )
+        );
+    }
+
+    private void fire(AlertKey key, Deadline deadline) {
+        WarehouseContext.run(deadline.warehouseId(), () -> {
+            switch (key.type()) {
+                case STALE_LOCATION -> fireLocation(deadline);
+                case LICENSE_PLATE_OVERSTAY -> fireLicensePlate(deadline);
+            }
+        });
+    }
+
+    private void fireLocation(Deadline deadline) {
+        Query query = new Query(Criteria.where("_id").is(deadline.id()));
+        query.fields().include("warehouseId", "lastMovementAt", "licensePlateIds", "currentQuantity");
+        LocationState current = mongoTemplate.findOne(query, LocationState.class);
+
+        if (current == null || current.isEmpty() || current.getLastMovementAt() == null) {
+            logger.debug("Dropping stale alert for location {}: emptied since", deadline.id());
+            return;
+        }
+        if (current.getLastMovementAt().isAfter(deadline.since())) {
+            armLocation(current.getLocationId(), current.getWarehouseId(), current.getLastMovementAt());
+            return;
+        }
+
+        eventPublisher.publishLocationStale(
+            deadline.id(), deadline.warehouseId(), deadline.since(), idleSeconds(deadline)
+        );
+    }
+
+    private void fireLicensePlate(Deadline deadline) {
+        Query query = new Query(Criteria.where("_id").is(deadline.id()));
+        query.fields().include("warehouseId", "currentLocationId", "status", "parentLicensePlateId")
+            .slice("movements", -1);
+        LicensePlate current = mongoTemplate.findOne(query, LicensePlate.class);
+
+        Movement latest = current != null && hasTimer(current) ? current.getLatestMovement().orElse(null) : null;
+        if (latest == null) {
+            logger.debug("Dropping overstay alert for license plate {}: left, nested or archived since",
+                deadline.id());
+            return;
+        }
+        if (latest.getOccurredAt().isAfter(deadline.since())) {
+            armLicensePlate(current, latest);
+            return;
+        }
+
+        eventPublisher.publishLicensePlateOverstayed(
+            deadline.id(), deadline.warehouseId(), deadline.locationId(), deadline.since(), idleSeconds(deadline)
+        );
+    }
+
+    private static long idleSeconds(Deadline deadline) {
+        return Duration.between(deadline.since(), LocalDateTime.now()).getSeconds();
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    enum AlertType {
+        STALE_LOCATION,
+        LICENSE_PLATE_OVERSTAY
+    }
+
+    // Scoped by warehouse; location codes repeat across warehouse databases
+    record AlertKey(AlertType type, String warehouseId, String id) {
+        static AlertKey location(String warehouseId, String locationId) {
+            return new AlertKey(AlertType.STALE_LOCATION, warehouseId, locationId);
+        }
+
+        static AlertKey licensePlate(LicensePlate licensePlate) {
+            return new AlertKey(
+                AlertType.LICENSE_PLATE_OVERSTAY, licensePlate.getWarehouseId(), licensePlate.getLicensePlateId()
+            );
+        }
+    }
+
+    record Deadline(String id, String warehouseId, String locationId, LocalDateTime since) {}
+}
@@ -0,0 +1,16 @@
+package com.paklog.wes.tracking.application.service;
+
+/**
+ * Callback for components that adapt to locations written unusually often
+ *
+ * Invoked by HotspotTracker on the command thread that pushed the location over
+ * the threshold. Implementations must be cheap and must not throw.
+ */
+public interface HotLocationListener {
+
+    /**
+     * Location has had at least writes writes in the current window; called at
+     * most once per location and window
+     */
+    void onHotLocation(String warehouseId, String locationId, long writes);
+}
@@ -0,0 +1,210 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.infrastructure.config.HotspotProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.SpaceSaving;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Most written locations and license plates, per window, in fixed memory
+ *
+ * Every move and item change counts one write for the license plate and one
+ * for each location it touched, in a Space-Saving counter per kind. Counters
+ * restart every window; the top ids of the last complete window are published
+ * as tracking.hotspot.writes gauges and through the hotspots actuator
+ * endpoint. A location whose guaranteed count reaches the threshold within a
+ * window is reported once to every HotLocationListener.
+ */
+@Component
+public class HotspotTracker implements TrackingChangeListener {
+
+    public static final String LOCATION = "location";
+    public static final String LICENSE_PLATE = "license_plate";
+
+    private static final Logger logger = LoggerFactory.getLogger(HotspotTracker.class);
+
+    /**
+     * One id among the most written of a window
+     */
+    public record Hotspot(String id, long writes, long error, double writesPerSecond) {
+    }
+
+    /**
+     * Most written ids of a window, highest first
+     */
+    public record Report(Instant from, Instant to, List<Hotspot> locations, List<Hotspot> licensePlates) {
+    }
+
+    private final HotspotProperties properties;
+    private final TrackingMetrics metrics;
+    private final List<HotLocationListener> hotLocationListeners;
+
+    private volatile Window current;
+    private volatile Window previous;
+    private volatile Report lastReport;
+    private ScheduledExecutorService rotator;
+
+    public HotspotTracker(HotspotProperties properties, TrackingMetrics metrics,
+                          ObjectProvider<HotLocationListener> hotLocationListeners) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.hotLocationListeners = hotLocationListeners.orderedStream().toList();
+        this.current = new Window(Instant.now(), Math.max(1, properties.getCapacity()));
+    }
+
+    @Override
+    public void onLicensePlateMoved(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+        recordLicensePlate(licensePlate);
+        recordLocation(licensePlate.getWarehouseId(), fromLocationId);
+        recordLocation(licensePlate.getWarehouseId(), toLocationId);
+    }
+
+    @Override
+    public void onItemAdded(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        recordLicensePlate(licensePlate);
+        recordLocation(licensePlate.getWarehouseId(), licensePlate.getCurrentLocationId());
+    }
+
+    @Override
+    public void onItemRemoved(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        recordLicensePlate(licensePlate);
+        recordLocation(licensePlate.getWarehouseId(), licensePlate.getCurrentLocationId());
+    }
+
+    /**
+     * True when the location crossed the threshold in this or the last window
+     */
+    public boolean isHot(String locationId) {
+        Window last = previous;
+        return current.hinted.contains(locationId) || (last != null && last.hinted.contains(locationId));
+    }
+
+    /**
+     * Most written ids of the window in progress
+     */
+    public Report currentWindow() {
+        return current.report(Instant.now(), properties.getTop());
+    }
+
+    /**
+     * Most written ids of the last complete window, if one has ended
+     */
+    public Report lastWindow() {
+        return lastReport;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Hotspot tracking disabled");
+            return;
+        }
+        long windowMillis = properties.getWindow().toMillis();
+        rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hotspot-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rotator.scheduleAtFixedRate(() -> rotate(Instant.now()), windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+        }
+    }
+
+    /**
+     * End the current window: report it and start counting afresh
+     */
+    void rotate(Instant now) {
+        try {
+            Window ended = current;
+            current = new Window(now, Math.max(1, properties.getCapacity()));
+            previous = ended;
+
+            Report report = ended.report(now, properties.getTop());
+            lastReport = report;
+            metrics.recordHotspots(LOCATION, ended.locations.top(properties.getTop()));
+            metrics.recordHotspots(LICENSE_PLATE, ended.licensePlates.top(properties.getTop()));
+            if (!report.locations().isEmpty()) {
+                Hotspot hottest = report.locations().get(0);
+                logger.debug("Hottest location {} with {} writes ({}/s)",
+                    hottest.id(), hottest.writes(), hottest.writesPerSecond());
+            }
+        } catch (Exception e) {
+            logger.error("Error rotating hotspot window", e);
+        }
+    }
+
+    private void recordLicensePlate(LicensePlate licensePlate) {
+        if (properties.isEnabled()) {
+            current.licensePlates.offer(licensePlate.getLicensePlateId());
+        }
+    }
+
+    private void recordLocation(String warehouseId, String locationId) {
+        if (!properties.isEnabled() || locationId == null) {
+            return;
+        }
+        Window window = current;
+        SpaceSaving.Counter<String> counter = window.locations.offer(locationId);
+        long threshold = properties.getLocationThreshold();
+        if (threshold > 0 && counter.guaranteed() >= threshold && window.hinted.add(locationId)) {
+            metrics.recordHotspotHint(warehouseId);
+            logger.info("Location {} in warehouse {} is hot: {} writes since {}",
+                locationId, warehouseId, counter.guaranteed(), window.startedAt);
+            for (HotLocationListener listener : hotLocationListeners) {
+                try {
+                    listener.onHotLocation(warehouseId, locationId, counter.guaranteed());
+                } catch (Exception e) {
+                    logger.error("Hot location listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+    private static final class Window {
+
+        private final Instant startedAt;
+        private final SpaceSaving<String> locations;
+        private final SpaceSaving<String> licensePlates;
+        private final Set<String> hinted = ConcurrentHashMap.newKeySet();
+
+        private Window(Instant startedAt, int capacity) {
+            this.startedAt = startedAt;
+            this.locations = new SpaceSaving<>(capacity);
+            this.licensePlates = new SpaceSaving<>(capacity);
+        }
+
+        private Report report(Instant endedAt, int top) {
+            double seconds = Math.max(1, Duration.between(startedAt, endedAt).toMillis()) / 1000.0;
+            return new Report(startedAt, endedAt, hotspots(locations, top, seconds),
+                hotspots(licensePlates, top, seconds));
+        }
+
+        private static List<Hotspot> hotspots(SpaceSaving<String> counters, int top, double seconds) {
+            return counters.top(top).stream()
+                .map(counter -> new Hotspot(counter.key(), counter.count(), counter.error(),
+                    counter.count() / seconds))
+                .toList();
+        }
+    }
+}
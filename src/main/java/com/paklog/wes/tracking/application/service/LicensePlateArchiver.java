@@ -0,0 +1,112 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.infrastructure.config.LicensePlateArchiveProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves shipped, consumed and closed license plates out of license_plates
+ *
+ * Each run archives final-state plates not updated within the configured age,
+ * in bulk batches separated by a pause and capped per run, so a large backlog
+ * drains over several runs instead of competing with commands. Batches are
+ * idempotent, so pods archiving at the same time only repeat each other's work.
+ */
+@Component
+public class LicensePlateArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LicensePlateArchiver.class);
+
+    private final LicensePlateArchiveProperties properties;
+    private final LicensePlateRepository licensePlateRepository;
+    private final TrackingMetrics metrics;
+    private final WarehouseRouting routing;
+
+    private ScheduledExecutorService scheduler;
+
+    public LicensePlateArchiver(LicensePlateArchiveProperties properties,
+                                LicensePlateRepository licensePlateRepository, TrackingMetrics metrics,
+                                WarehouseRouting routing) {
+        this.properties = properties;
+        this.licensePlateRepository = licensePlateRepository;
+        this.metrics = metrics;
+        this.routing = routing;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("License plate archiving disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "license-plate-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Each warehouse database is archived concurrently, each with its own throttle
+            routing.fanOut(() -> archive(now));
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archive plates in final state since before now less the age, in the
+     * database of the bound warehouse; returns the plates moved
+     */
+    int archive(LocalDateTime now) {
+        LocalDateTime updatedBefore = now.minus(properties.getAge());
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int archived = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int moved;
+            try {
+                moved = licensePlateRepository.archiveFinalStates(updatedBefore, batchSize);
+            } catch (Exception e) {
+                metrics.recordArchive("failed", 1);
+                logger.warn("Failed to archive license plates updated before {}", updatedBefore, e);
+                break;
+            }
+            metrics.recordArchive("archived", moved);
+            archived += moved;
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} final-state license plates updated before {}", archived, updatedBefore);
+        }
+        return archived;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
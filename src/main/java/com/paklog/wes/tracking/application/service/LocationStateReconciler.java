@@ -0,0 +1,368 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.infrastructure.config.ReconciliationProperties;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds LocationState contents and totals from license_plates
+ *
+ * Location totals are maintained by delta and drift under concurrent writes.
+ * The job splits the work into warehouse/zone partitions processed in parallel.
+ * Each partition runs one aggregation that joins locations to the license plates
+ * located there, recomputes totals server-side and streams back only the
+ * locations that differ. Corrections are bulk-written as a compare-and-set on
+ * version, so a location changed by a writer mid-run is left alone and
+ * counted as a conflict rather than overwritten. No locks are taken. With
+ * warehouse routing, partitions are discovered in every database concurrently
+ * and each is reconciled in its warehouse's database.
+ */
+@Component
+public class LocationStateReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationStateReconciler.class);
+
+    private static final List<String> SYNCED_FIELDS = List.of(
+        "licensePlateIds", "currentQuantity", "currentWeight", "currentVolume", "occupancyStatus", "lastUpdated"
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final ReconciliationProperties properties;
+    private final WarehouseRouting routing;
+    private final ExecutorService runner;
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+
+    public LocationStateReconciler(MongoTemplate mongoTemplate, ReconciliationProperties properties,
+                                   WarehouseRouting routing) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.routing = routing;
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start a run in the background; returns empty if one is already running
+     */
+    public Optional<ReconciliationReport> start(String warehouseId, boolean dryRun) {
+        ReconciliationReport running = ReconciliationReport.running(warehouseId, dryRun, LocalDateTime.now());
+        ReconciliationReport previous = lastReport.get();
+        if (previous != null && previous.status() == ReconciliationReport.RunStatus.RUNNING) {
+            return Optional.empty();
+        }
+        if (!lastReport.compareAndSet(previous, running)) {
+            return Optional.empty();
+        }
+
+        runner.submit(() -> {
+            try {
+                lastReport.set(run(warehouseId, dryRun));
+            } catch (Exception e) {
+                logger.error("Location state reconciliation failed", e);
+                lastReport.set(new ReconciliationReport(warehouseId, dryRun, ReconciliationReport.RunStatus.FAILED,
+                    0, 0, 0, 0, 0, 0, 0, running.startedAt(),
+                    Duration.between(running.startedAt(), LocalDateTime.now()), 0.0));
+            }
+        });
+        return Optional.of(running);
+    }
+
+    /**
+     * Report of the current or most recent run
+     */
+    public Optional<ReconciliationReport> lastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Reconcile every location (or one warehouse when warehouseId is set) and block until done
+     */
+    public ReconciliationReport run(String warehouseId, boolean dryRun) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+
+        List<Partition> partitions = partitions(warehouseId);
+        logger.info("Reconciling location states: warehouse={}, partitions={}, dryRun={}",
+            warehouseId != null ? warehouseId : "*", partitions.size(), dryRun);
+
+        ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(properties.getParallelism(), partitions.size())),
+            new WorkerFactory()
+        );
+        List<PartitionResult> results;
+        try {
+            List<CompletableFuture<PartitionResult>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> reconcile(partition, dryRun), workers))
+                .toList();
+            results = futures.stream().map(CompletableFuture::join).toList();
+        } finally {
+            workers.shutdown();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        long scanned = results.stream().mapToLong(PartitionResult::scanned).sum();
+        double seconds = Math.max(elapsed.toNanos() / 1_000_000_000.0, 0.001);
+
+        ReconciliationReport report = new ReconciliationReport(
+            warehouseId,
+            dryRun,
+            ReconciliationReport.RunStatus.COMPLETED,
+            partitions.size(),
+            (int) results.stream().filter(PartitionResult::failed).count(),
+            scanned,
+            results.stream().mapToLong(PartitionResult::drifted).sum(),
+            results.stream().mapToLong(PartitionResult::corrected).sum(),
+            results.stream().mapToLong(PartitionResult::conflicts).sum(),
+            results.stream().mapToLong(PartitionResult::quantityDrift).sum(),
+            startedAt,
+            elapsed,
+            scanned / seconds
+        );
+
+        logger.info("Reconciled location states: scanned={}, drifted={}, corrected={}, conflicts={}, "
+                + "quantityDrift={}, failedPartitions={}, elapsed={}ms, rate={}/s",
+            report.scanned(), report.drifted(), report.corrected(), report.conflicts(),
+            report.quantityDrift(), report.failedPartitions(), elapsed.toMillis(),
+            Math.round(report.locationsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Partitions of one warehouse, or of every warehouse database queried concurrently
+     */
+    private List<Partition> partitions(String warehouseId) {
+        if (warehouseId != null) {
+            return WarehouseContext.call(warehouseId, () -> partitionsIn(warehouseId));
+        }
+        return routing.fanOut(() -> partitionsIn(null)).stream()
+            .flatMap(List::stream)
+            .distinct()
+            .toList();
+    }
+
+    private List<Partition> partitionsIn(String warehouseId) {
+        List<Document> pipeline = new ArrayList<>();
+        if (warehouseId != null) {
+            pipeline.add(new Document("$match", new Document("warehouseId", warehouseId)));
+        }
+        pipeline.add(new Document("$group", new Document("_id",
+            new Document("warehouseId", "$warehouseId").append("zone", "$zone"))));
+
+        List<Partition> partitions = new ArrayList<>();
+        for (Document group : locationStates().aggregate(pipeline)) {
+            Document id = group.get("_id", Document.class);
+            partitions.add(new Partition(id.getString("warehouseId"), id.getString("zone")));
+        }
+        return partitions;
+    }
+
+    private PartitionResult reconcile(Partition partition, boolean dryRun) {
+        return WarehouseContext.call(partition.warehouseId(), () -> reconcileIn(partition, dryRun));
+    }
+
+    private PartitionResult reconcileIn(Partition partition, boolean dryRun) {
+        Bson match = Filters.and(Filters.eq("warehouseId", partition.warehouseId()),
+            Filters.eq("zone", partition.zone()));
+
+        long scanned = 0;
+        long drifted = 0;
+        long corrected = 0;
+        long quantityDrift = 0;
+        List<UpdateOneModel<Document>> batch = new ArrayList<>();
+
+        try {
+            scanned = locationStates().countDocuments(match);
+
+            try (MongoCursor<Document> cursor = locationStates()
+                    .aggregate(driftPipeline(match))
+                    .allowDiskUse(true)
+                    .batchSize(properties.getCursorBatchSize())
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    Document document = cursor.next();
+                    drifted++;
+                    quantityDrift += Math.abs(number(document.get("expectedQuantity")).longValue()
+                        - number(document.get("currentQuantity")).longValue());
+
+                    if (!dryRun) {
+                        batch.add(correction(document));
+                        if (batch.size() >= properties.getBatchSize()) {
+                            corrected += flush(batch);
+                        }
+                    }
+                }
+            }
+            corrected += flush(batch);
+
+            return new PartitionResult(scanned, drifted, corrected, dryRun ? 0 : drifted - corrected,
+                quantityDrift, false);
+        } catch (Exception e) {
+            logger.error("Failed to reconcile partition warehouse={}, zone={}",
+                partition.warehouseId(), partition.zone(), e);
+            return new PartitionResult(scanned, drifted, corrected, 0, quantityDrift, true);
+        }
+    }
+
+    /**
+     * Join each location to its license plates, recompute totals and keep only drifted locations
+     */
+    private List<Document> driftPipeline(Bson match) {
+        List<String> finalStates = Arrays.stream(LicensePlateStatus.values())
+            .filter(LicensePlateStatus::isFinalState)
+            .map(Enum::name)
+            .toList();
+
+        // Served by the location_status index on license_plates
+        Document lookup = new Document("from", mongoTemplate.getCollectionName(LicensePlate.class))
+            .append("localField", "_id")
+            .append("foreignField", "currentLocationId")
+            .append("pipeline", List.of(
+                new Document("$match", new Document("status", new Document("$nin", finalStates))),
+                new Document("$project", new Document("totalQuantity", 1)
+                    .append("totalWeight", 1)
+                    .append("totalVolume", 1))))
+            .append("as", "plates");
+
+        Document expected = new Document("expectedIds", "$plates._id")
+            .append("expectedQuantity", new Document("$sum", "$plates.totalQuantity"))
+            .append("expectedWeight", decimalSum("$$this.totalWeight"))
+            .append("expectedVolume", decimalSum("$$this.totalVolume"));
+
+        Document drift = new Document("$or", List.of(
+            new Document("$not", List.of(new Document("$setEquals", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$licensePlateIds", List.of())), "$expectedIds")))),
+            new Document("$ne", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$currentQuantity", 0)), "$expectedQuantity")),
+            new Document("$ne", Arrays.asList(decimal("$currentWeight"), "$expectedWeight")),
+            new Document("$ne", Arrays.asList(decimal("$currentVolume"), "$expectedVolume"))
+        ));
+
+        return List.of(
+            new Document("$match", match),
+            new Document("$lookup", lookup),
+            new Document("$set", expected),
+            new Document("$match", new Document("$expr", drift)),
+            new Document("$project", new Document("plates", 0))
+        );
+    }
+
+    /**
+     * Build the guarded update for one drifted location using the aggregate's own rules
+     */
+    private UpdateOneModel<Document> correction(Document document) {
+        Object observedVersion = document.get("version");
+
+        LocationState state = mongoTemplate.getConverter().read(LocationState.class, document);
+        state.reconcile(
+            document.getList("expectedIds", String.class),
+            number(document.get("expectedQuantity")).intValue(),
+            decimalValue(document.get("expectedWeight")),
+            decimalValue(document.get("expectedVolume"))
+        );
+
+        Document written = new Document();
+        mongoTemplate.getConverter().write(state, written);
+        Document set = new Document();
+        for (String field : SYNCED_FIELDS) {
+            set.append(field, written.get(field));
+        }
+
+        return new UpdateOneModel<>(
+            Filters.and(Filters.eq("_id", document.get("_id")), Filters.eq("version", observedVersion)),
+            new Document("$set", set).append("$inc", new Document("version", 1L))
+        );
+    }
+
+    private long flush(List<UpdateOneModel<Document>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long modified = locationStates()
+            .bulkWrite(batch, new BulkWriteOptions().ordered(false))
+            .getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+
+    private MongoCollection<Document> locationStates() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(LocationState.class));
+    }
+
+    private static Document decimalSum(String element) {
+        return new Document("$sum", new Document("$map", new Document("input", "$plates")
+            .append("in", decimal(element))));
+    }
+
+    private static Document decimal(String field) {
+        // BigDecimal fields are stored as strings
+        return new Document("$toDecimal", new Document("$ifNull", Arrays.asList(field, "0")));
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number number ? number : 0;
+    }
+
+    private static BigDecimal decimalValue(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private record Partition(String warehouseId, String zone) {}
+
+    private record PartitionResult(long scanned, long drifted, long corrected, long conflicts,
+                                   long quantityDrift, boolean failed) {}
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "location-reconciler-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
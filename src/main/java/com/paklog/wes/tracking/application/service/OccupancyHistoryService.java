@@ -0,0 +1,177 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.OccupancySample;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import com.paklog.wes.tracking.domain.repository.OccupancyHistoryRepository;
+import com.paklog.wes.tracking.infrastructure.config.OccupancyHistoryProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location utilization history
+ *
+ * Every saved location state is sampled into a bounded buffer on the command
+ * thread; a background writer inserts the buffer in batches and periodically
+ * rolls samples up into minute and hour buckets on the server. History is best
+ * effort: when the buffer is full or a batch fails to insert, samples are
+ * dropped and counted rather than slowing commands down.
+ */
+@Service
+public class OccupancyHistoryService implements TrackingChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyHistoryService.class);
+
+    private final OccupancyHistoryProperties properties;
+    private final OccupancyHistoryRepository repository;
+    private final TrackingMetrics metrics;
+    private final BlockingQueue<OccupancySample> buffer;
+
+    private ScheduledExecutorService writer;
+    private LocalDateTime rolledUpTo;
+    private volatile boolean collectionsReady;
+
+    public OccupancyHistoryService(OccupancyHistoryProperties properties, OccupancyHistoryRepository repository,
+                                   TrackingMetrics metrics) {
+        this.properties = properties;
+        this.repository = repository;
+        this.metrics = metrics;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, properties.getBufferSize()));
+        metrics.gauge(TrackingMetrics.HISTORY_BUFFERED, buffer, BlockingQueue::size);
+    }
+
+    @Override
+    public void onLocationStateChanged(LocationState state) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!buffer.offer(OccupancySample.from(state))) {
+            metrics.recordHistorySamples("buffer", "dropped", 1);
+        }
+    }
+
+    /**
+     * Utilization curve of one location
+     */
+    public List<UtilizationBucket> locationCurve(String locationId, UtilizationBucket.Granularity granularity,
+                                                 LocalDateTime from, LocalDateTime to) {
+        return repository.findLocationCurve(locationId, granularity, from, to);
+    }
+
+    /**
+     * Utilization curve of a zone, combined across its locations
+     */
+    public List<UtilizationBucket> zoneCurve(String warehouseId, String zone, UtilizationBucket.Granularity granularity,
+                                             LocalDateTime from, LocalDateTime to) {
+        return repository.findZoneCurve(warehouseId, zone, granularity, from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Occupancy history disabled");
+            return;
+        }
+        ensureCollections();
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "occupancy-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMillis = properties.getFlushInterval().toMillis();
+        long rollupMillis = properties.getRollupInterval().toMillis();
+        writer.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        writer.scheduleWithFixedDelay(() -> rollUp(LocalDateTime.now()), rollupMillis, rollupMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Write everything buffered, in batches; returns the samples written
+     */
+    int flush() {
+        // Inserting before the time-series collection exists would create a plain one
+        if (!ensureCollections()) {
+            return 0;
+        }
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int written = 0;
+        List<OccupancySample> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                repository.insertSamples(batch);
+                metrics.recordHistorySamples("write", "written", batch.size());
+                written += batch.size();
+            } catch (Exception e) {
+                metrics.recordHistorySamples("write", "failed", batch.size());
+                logger.warn("Failed to write {} occupancy samples", batch.size(), e);
+            }
+            batch.clear();
+        }
+        return written;
+    }
+
+    /**
+     * Recompute minute then hour buckets from the last roll-up, less lateness, to now
+     */
+    void rollUp(LocalDateTime now) {
+        if (!ensureCollections()) {
+            return;
+        }
+        LocalDateTime since = (rolledUpTo != null ? rolledUpTo : now.minus(properties.getRollupInterval()))
+            .minus(properties.getLateness());
+        for (UtilizationBucket.Granularity granularity : UtilizationBucket.Granularity.values()) {
+            long start = System.nanoTime();
+            try {
+                repository.rollUp(granularity, since);
+                metrics.recordHistoryRollup(granularity.name(), "ok", System.nanoTime() - start);
+            } catch (Exception e) {
+                metrics.recordHistoryRollup(granularity.name(), "failed", System.nanoTime() - start);
+                logger.warn("Failed to roll up {} occupancy buckets since {}", granularity, since, e);
+                return;
+            }
+        }
+        rolledUpTo = now;
+    }
+
+    private boolean ensureCollections() {
+        if (collectionsReady) {
+            return true;
+        }
+        try {
+            repository.ensureCollections(properties.getSampleRetention(), properties.getMinuteRetention());
+            collectionsReady = true;
+        } catch (Exception e) {
+            logger.warn("Failed to create occupancy history collections; samples stay buffered", e);
+        }
+        return collectionsReady;
+    }
+}
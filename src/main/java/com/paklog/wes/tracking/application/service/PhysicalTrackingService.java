@@ -3,18 +3,35 @@ package com.paklog.wes.tracking.application.service;
 import com.paklog.wes.tracking.adapter.event.TrackingEventPublisher;
 import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
 import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.repository.AggregateLoader;
 import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
 import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.domain.repository.TrackingReadRepository;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.LocationProvisioningProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Application service for physical tracking operations
@@ -25,18 +42,61 @@ public class PhysicalTrackingService {
 
     private static final Logger logger = LoggerFactory.getLogger(PhysicalTrackingService.class);
 
+    // Command names used as metric tags and sampling keys
+    private static final String CREATE = "create_license_plate";
+    private static final String ALLOCATE = "allocate_license_plate";
+    private static final String RELEASE = "release_license_plate";
+    private static final String MOVE = "move_license_plate";
+    private static final String CONSOLIDATE = "consolidate_license_plate";
+    private static final String ADD_ITEM = "add_item";
+    private static final String REMOVE_ITEM = "remove_item";
+    private static final String BLOCK = "block_location";
+    private static final String UNBLOCK = "unblock_location";
+    private static final String PROVISION = "provision_locations";
+
+    // Aggregate names used as metric tags
+    private static final String LICENSE_PLATE = "license_plate";
+    private static final String LOCATION_STATE = "location_state";
+
+    // Attempts at saving a location state or parent license plate that other writers keep changing
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+
     private final LicensePlateRepository licensePlateRepository;
     private final LocationStateRepository locationStateRepository;
+    private final SkuLocationInventoryRepository skuInventoryRepository;
+    private final TrackingReadRepository readRepository;
+    private final AggregateLoader aggregateLoader;
     private final TrackingEventPublisher eventPublisher;
+    private final List<TrackingChangeListener> changeListeners;
+    private final TrackingMetrics metrics;
+    private final TelemetrySampler sampler;
+    private final LocationProvisioningProperties locationProperties;
+    private final WarehouseStateView stateView;
 
     public PhysicalTrackingService(
             LicensePlateRepository licensePlateRepository,
             LocationStateRepository locationStateRepository,
-            TrackingEventPublisher eventPublisher
+            SkuLocationInventoryRepository skuInventoryRepository,
+            TrackingReadRepository readRepository,
+            AggregateLoader aggregateLoader,
+            TrackingEventPublisher eventPublisher,
+            List<TrackingChangeListener> changeListeners,
+            TrackingMetrics metrics,
+            TelemetrySampler sampler,
+            LocationProvisioningProperties locationProperties,
+            WarehouseStateView stateView
     ) {
         this.licensePlateRepository = licensePlateRepository;
         this.locationStateRepository = locationStateRepository;
+        this.skuInventoryRepository = skuInventoryRepository;
+        this.readRepository = readRepository;
+        this.aggregateLoader = aggregateLoader;
         this.eventPublisher = eventPublisher;
+        this.changeListeners = changeListeners;
+        this.metrics = metrics;
+        this.sampler = sampler;
+        this.locationProperties = locationProperties;
+        this.stateView = stateView;
     }
 
     /**
@@ -49,20 +109,23 @@ public class PhysicalTrackingService {
             String containerCode,
             String createdBy
     ) {
-        logger.info("Creating license plate: {} in warehouse {}", licensePlateId, warehouseId);
+        return metrics.recordCommand(CREATE, () -> {
+            sampler.atInfo(logger, CREATE)
+                .log("Creating license plate: {} in warehouse {}", licensePlateId, warehouseId);
 
-        LicensePlate lp = LicensePlate.create(
-            licensePlateId, warehouseId, type, containerCode, createdBy
-        );
+            LicensePlate lp = LicensePlate.create(
+                licensePlateId, warehouseId, type, containerCode, createdBy
+            );
 
-        lp = licensePlateRepository.save(lp);
+            lp = saveLicensePlate(CREATE, lp);
 
-        // Publish event
-        eventPublisher.publishLicensePlateCreated(
-            licensePlateId, warehouseId, type.name(), createdBy
-        );
+            // Publish event
+            metrics.recordPhase(CREATE, "publish", () -> eventPublisher.publishLicensePlateCreated(
+                licensePlateId, warehouseId, type.name(), createdBy
+            ));
 
-        return lp;
+            return lp;
+        });
     }
 
     /**
@@ -70,11 +133,52 @@ public class PhysicalTrackingService {
      */
     @Transactional(readOnly = true)
     public Optional<LicensePlate> getLicensePlate(String licensePlateId) {
-        return licensePlateRepository.findById(licensePlateId);
+        return readRepository.findLicensePlate(licensePlateId);
+    }
+
+    /**
+     * Atomically claim an empty license plate of the given type
+     */
+    public Optional<LicensePlate> allocateEmptyLicensePlate(
+            String warehouseId,
+            LicensePlateType type,
+            String allocatedTo
+    ) {
+        return metrics.recordCommand(ALLOCATE, () -> {
+            Optional<LicensePlate> allocated = licensePlateRepository.allocateEmptyLicensePlate(
+                warehouseId, type, allocatedTo
+            );
+
+            if (allocated.isPresent()) {
+                sampler.atInfo(logger, ALLOCATE).log("Allocated empty {} {} in warehouse {} to {}",
+                    type, allocated.get().getLicensePlateId(), warehouseId, allocatedTo);
+            } else {
+                logger.warn("No empty {} available in warehouse {}", type, warehouseId);
+            }
+
+            return allocated;
+        });
+    }
+
+    /**
+     * Release an allocation claim on a license plate
+     */
+    public LicensePlate releaseLicensePlate(String licensePlateId) {
+        return metrics.recordCommand(RELEASE, () -> {
+            sampler.atInfo(logger, RELEASE).log("Releasing allocation on license plate {}", licensePlateId);
+
+            LicensePlate lp = getLicensePlateOrThrow(RELEASE, licensePlateId);
+            lp.releaseAllocation();
+            return saveLicensePlate(RELEASE, lp);
+        });
     }
 
     /**
      * Move license plate to location
+     *
+     * A license plate holding nested ones carries them along: its totals
+     * include theirs, and they are not rewritten. A nested license plate is
+     * taken out of its parent at the parent's location first.
      */
     public LicensePlate moveLicensePlate(
             String licensePlateId,
@@ -83,45 +187,139 @@ public class PhysicalTrackingService {
             String performedBy,
             String reason
     ) {
-        logger.info("Moving license plate {} to location {}", licensePlateId, toLocationId);
-
-        LicensePlate lp = getLicensePlateOrThrow(licensePlateId);
-        String fromLocationId = lp.getCurrentLocationId();
-
-        // Remove from previous location state
-        if (fromLocationId != null) {
-            LocationState fromState = getOrCreateLocationState(fromLocationId, lp.getWarehouseId(), null);
-            fromState.removeLicensePlate(
-                licensePlateId,
-                lp.getTotalQuantity(),
-                lp.getTotalWeight(),
-                lp.getTotalVolume()
-            );
-            locationStateRepository.save(fromState);
-        }
+        return metrics.recordCommand(MOVE, () -> {
+            sampler.atInfo(logger, MOVE).log("Moving license plate {} to location {}", licensePlateId, toLocationId);
+
+            LicensePlate lp = getLicensePlateOrThrow(MOVE, licensePlateId);
+            LicensePlate parent = lp.isNested() ? getLicensePlateOrThrow(MOVE, lp.getParentLicensePlateId()) : null;
+            String fromLocationId = parent != null ? parent.getCurrentLocationId() : lp.getCurrentLocationId();
+            Totals totals = Totals.of(lp);
+
+            // Leave the previous location; a nested license plate only shrinks its parent there
+            LocationWrite leave = null;
+            if (fromLocationId != null) {
+                leave = changeLocationState(MOVE, fromLocationId, lp.getWarehouseId(), parent != null
+                    ? state -> state.resizeLicensePlate(parent.getLicensePlateId(),
+                        -totals.quantity(), totals.weight().negate(), totals.volume().negate())
+                    : state -> state.removeLicensePlate(licensePlateId,
+                        totals.quantity(), totals.weight(), totals.volume()));
+            }
 
-        // Move license plate
-        lp.moveTo(toLocationId, movementType, performedBy, reason);
-        lp = licensePlateRepository.save(lp);
-
-        // Add to new location state
-        if (toLocationId != null) {
-            LocationState toState = getOrCreateLocationState(toLocationId, lp.getWarehouseId(), null);
-            toState.addLicensePlate(
-                licensePlateId,
-                lp.getTotalQuantity(),
-                lp.getTotalWeight(),
-                lp.getTotalVolume()
-            );
-            locationStateRepository.save(toState);
-        }
+            LicensePlateWrite parentWrite = null;
+            if (parent != null) {
+                LicensePlate child = lp;
+                Consumer<LicensePlate> detach = current -> current.detachChild(child);
+                detach.accept(parent);
+                parentWrite = new LicensePlateWrite(parent, detach);
+                lp.leaveParent(fromLocationId);
+            }
+
+            // Move license plate
+            lp.moveTo(toLocationId, movementType, performedBy, reason);
+
+            // Add to new location state, the same one when it is also the previous location
+            LocationWrite arrive = null;
+            if (toLocationId != null) {
+                Consumer<LocationState> add = state ->
+                    state.addLicensePlate(licensePlateId, totals.quantity(), totals.weight(), totals.volume());
+                if (leave != null && toLocationId.equals(fromLocationId)) {
+                    LocationState shared = leave.state();
+                    metrics.recordPhase(MOVE, "capacity_check", () -> add.accept(shared));
+                    leave = new LocationWrite(shared, leave.change().andThen(add));
+                } else {
+                    arrive = changeLocationState(MOVE, toLocationId, lp.getWarehouseId(), add);
+                }
+            }
+
+            lp = saveLicensePlate(MOVE, lp);
+            if (parentWrite != null) {
+                saveLicensePlate(MOVE, parentWrite);
+            }
+            if (leave != null) {
+                saveLocationState(MOVE, leave);
+            }
+            if (arrive != null) {
+                LocationState toState = saveLocationState(MOVE, arrive);
+                // toString computes utilization; only evaluated when the statement is kept
+                sampler.atDebug(logger, MOVE).addArgument(toState::toString).log("Placed at {}");
+            }
 
-        // Publish event
-        eventPublisher.publishLicensePlateMoved(
-            licensePlateId, fromLocationId, toLocationId, movementType.name(), performedBy
-        );
+            LicensePlate moved = lp;
+            notifyListeners(MOVE, listener -> listener.onLicensePlateMoved(moved, fromLocationId, toLocationId));
 
-        return lp;
+            // Publish event
+            metrics.recordPhase(MOVE, "publish", () -> eventPublisher.publishLicensePlateMoved(
+                licensePlateId, fromLocationId, toLocationId, movementType.name(), performedBy
+            ));
+
+            return lp;
+        });
+    }
+
+    /**
+     * Nest a license plate in another (CONSOLIDATION)
+     *
+     * The license plate leaves its location and its totals roll up into the
+     * parent's at the parent's location, so one location update covers it
+     * and later moves of the parent carry it without rewriting it.
+     */
+    public LicensePlate consolidateLicensePlate(
+            String licensePlateId,
+            String parentLicensePlateId,
+            String performedBy,
+            String reason
+    ) {
+        return metrics.recordCommand(CONSOLIDATE, () -> {
+            sampler.atInfo(logger, CONSOLIDATE)
+                .log("Consolidating license plate {} into {}", licensePlateId, parentLicensePlateId);
+
+            LicensePlate lp = getLicensePlateOrThrow(CONSOLIDATE, licensePlateId);
+            LicensePlate parent = getLicensePlateOrThrow(CONSOLIDATE, parentLicensePlateId);
+            if (!Objects.equals(lp.getWarehouseId(), parent.getWarehouseId())) {
+                throw new IllegalArgumentException(String.format(
+                    "License plate %s is in warehouse %s, %s in %s", licensePlateId, lp.getWarehouseId(),
+                    parentLicensePlateId, parent.getWarehouseId()));
+            }
+            String fromLocationId = lp.getCurrentLocationId();
+            String toLocationId = parent.getCurrentLocationId();
+            Totals totals = Totals.of(lp);
+
+            lp.nestInto(parent, performedBy, reason);
+            Consumer<LicensePlate> attach = current -> current.attachChild(lp);
+            attach.accept(parent);
+
+            Consumer<LocationState> leave = state -> state.removeLicensePlate(
+                licensePlateId, totals.quantity(), totals.weight(), totals.volume());
+            Consumer<LocationState> grow = state -> state.resizeLicensePlate(
+                parentLicensePlateId, totals.quantity(), totals.weight(), totals.volume());
+
+            // Both location changes go to one state when they coincide
+            List<LocationWrite> writes = new ArrayList<>(2);
+            if (fromLocationId != null && fromLocationId.equals(toLocationId)) {
+                writes.add(changeLocationState(CONSOLIDATE, toLocationId, parent.getWarehouseId(),
+                    leave.andThen(grow)));
+            } else {
+                if (fromLocationId != null) {
+                    writes.add(changeLocationState(CONSOLIDATE, fromLocationId, lp.getWarehouseId(), leave));
+                }
+                if (toLocationId != null) {
+                    writes.add(changeLocationState(CONSOLIDATE, toLocationId, parent.getWarehouseId(), grow));
+                }
+            }
+
+            LicensePlate nested = saveLicensePlate(CONSOLIDATE, lp);
+            saveLicensePlate(CONSOLIDATE, new LicensePlateWrite(parent, attach));
+            writes.forEach(write -> saveLocationState(CONSOLIDATE, write));
+            notifyListeners(CONSOLIDATE,
+                listener -> listener.onLicensePlateMoved(nested, fromLocationId, toLocationId));
+
+            // Publish event
+            metrics.recordPhase(CONSOLIDATE, "publish", () -> eventPublisher.publishLicensePlateMoved(
+                licensePlateId, fromLocationId, toLocationId, MovementType.CONSOLIDATION.name(), performedBy
+            ));
+
+            return nested;
+        });
     }
 
     /**
@@ -136,35 +334,40 @@ public class PhysicalTrackingService {
             BigDecimal volume,
             String uom
     ) {
-        logger.info("Adding item {} (qty={}) to license plate {}", sku, quantity, licensePlateId);
-
-        LicensePlate lp = getLicensePlateOrThrow(licensePlateId);
-        lp.addItem(sku, lotNumber, quantity, weight, volume, uom);
-
-        // Update location state if at location
-        if (lp.getCurrentLocationId() != null) {
-            LocationState state = getOrCreateLocationState(
-                lp.getCurrentLocationId(), lp.getWarehouseId(), null
-            );
-            // Recalculate by removing and re-adding
-            state.removeLicensePlate(licensePlateId, 0, BigDecimal.ZERO, BigDecimal.ZERO);
-            state.addLicensePlate(
-                licensePlateId,
-                lp.getTotalQuantity(),
-                lp.getTotalWeight(),
-                lp.getTotalVolume()
-            );
-            locationStateRepository.save(state);
-        }
+        return metrics.recordCommand(ADD_ITEM, () -> {
+            sampler.atInfo(logger, ADD_ITEM)
+                .log("Adding item {} (qty={}) to license plate {}", sku, quantity, licensePlateId);
+
+            LicensePlate lp = getLicensePlateOrThrow(ADD_ITEM, licensePlateId);
+            Totals before = Totals.of(lp);
+            lp.addItem(sku, lotNumber, quantity, weight, volume, uom);
+            List<LocationWrite> writes = new ArrayList<>(1);
+            LicensePlateWrite parent = rollUpToParent(ADD_ITEM, lp, before, writes);
+
+            // Update location state if at location
+            if (lp.getCurrentLocationId() != null) {
+                Totals after = Totals.of(lp);
+                // Recalculate by removing and re-adding
+                writes.add(changeLocationState(ADD_ITEM, lp.getCurrentLocationId(), lp.getWarehouseId(), state -> {
+                    state.removeLicensePlate(licensePlateId, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+                    state.addLicensePlate(licensePlateId, after.quantity(), after.weight(), after.volume());
+                }));
+            }
 
-        lp = licensePlateRepository.save(lp);
+            LicensePlate updated = saveLicensePlate(ADD_ITEM, lp);
+            if (parent != null) {
+                saveLicensePlate(ADD_ITEM, parent);
+            }
+            writes.forEach(write -> saveLocationState(ADD_ITEM, write));
+            notifyListeners(ADD_ITEM, listener -> listener.onItemAdded(updated, sku, lotNumber, quantity));
 
-        // Publish event
-        eventPublisher.publishItemAdded(
-            licensePlateId, sku, quantity, lp.getCurrentLocationId()
-        );
+            // Publish event
+            metrics.recordPhase(ADD_ITEM, "publish", () -> eventPublisher.publishItemAdded(
+                licensePlateId, sku, quantity, updated.getCurrentLocationId()
+            ));
 
-        return lp;
+            return updated;
+        });
     }
 
     /**
@@ -176,76 +379,92 @@ public class PhysicalTrackingService {
             String lotNumber,
             Integer quantity
     ) {
-        logger.info("Removing item {} (qty={}) from license plate {}", sku, quantity, licensePlateId);
-
-        LicensePlate lp = getLicensePlateOrThrow(licensePlateId);
-        lp.removeItem(sku, lotNumber, quantity);
-
-        // Update location state if at location
-        if (lp.getCurrentLocationId() != null) {
-            LocationState state = getOrCreateLocationState(
-                lp.getCurrentLocationId(), lp.getWarehouseId(), null
-            );
-            state.removeLicensePlate(licensePlateId, 0, BigDecimal.ZERO, BigDecimal.ZERO);
-            if (!lp.isEmpty()) {
-                state.addLicensePlate(
-                    licensePlateId,
-                    lp.getTotalQuantity(),
-                    lp.getTotalWeight(),
-                    lp.getTotalVolume()
-                );
+        return metrics.recordCommand(REMOVE_ITEM, () -> {
+            sampler.atInfo(logger, REMOVE_ITEM)
+                .log("Removing item {} (qty={}) from license plate {}", sku, quantity, licensePlateId);
+
+            LicensePlate lp = getLicensePlateOrThrow(REMOVE_ITEM, licensePlateId);
+            Totals before = Totals.of(lp);
+            lp.removeItem(sku, lotNumber, quantity);
+            List<LocationWrite> writes = new ArrayList<>(1);
+            LicensePlateWrite parent = rollUpToParent(REMOVE_ITEM, lp, before, writes);
+
+            // Update location state if at location
+            if (lp.getCurrentLocationId() != null) {
+                Totals after = Totals.of(lp);
+                boolean empty = lp.isEmpty();
+                writes.add(changeLocationState(REMOVE_ITEM, lp.getCurrentLocationId(), lp.getWarehouseId(), state -> {
+                    state.removeLicensePlate(licensePlateId, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+                    if (!empty) {
+                        state.addLicensePlate(licensePlateId, after.quantity(), after.weight(), after.volume());
+                    }
+                }));
             }
-            locationStateRepository.save(state);
-        }
 
-        lp = licensePlateRepository.save(lp);
+            LicensePlate updated = saveLicensePlate(REMOVE_ITEM, lp);
+            if (parent != null) {
+                saveLicensePlate(REMOVE_ITEM, parent);
+            }
+            writes.forEach(write -> saveLocationState(REMOVE_ITEM, write));
+            notifyListeners(REMOVE_ITEM, listener -> listener.onItemRemoved(updated, sku, lotNumber, quantity));
 
-        // Publish event
-        eventPublisher.publishItemRemoved(
-            licensePlateId, sku, quantity, lp.getCurrentLocationId()
-        );
+            // Publish event
+            metrics.recordPhase(REMOVE_ITEM, "publish", () -> eventPublisher.publishItemRemoved(
+                licensePlateId, sku, quantity, updated.getCurrentLocationId()
+            ));
 
-        return lp;
+            return updated;
+        });
     }
 
     /**
      * Block location
      */
     public LocationState blockLocation(String locationId, String reason) {
-        logger.info("Blocking location {}: {}", locationId, reason);
+        return metrics.recordCommand(BLOCK, () -> {
+            sampler.atInfo(logger, BLOCK).log("Blocking location {}: {}", locationId, reason);
 
-        LocationState state = locationStateRepository.findById(locationId)
-            .orElseThrow(() -> new IllegalArgumentException("Location state not found: " + locationId));
+            LocationState state = getLocationStateOrThrow(BLOCK, locationId);
+            Consumer<LocationState> block = current -> current.block(reason);
+            block.accept(state);
+            LocationState blocked = saveLocationState(BLOCK, new LocationWrite(state, block));
 
-        state.block(reason);
-        state = locationStateRepository.save(state);
-
-        // Publish event
-        eventPublisher.publishLocationBlocked(
-            locationId, state.getWarehouseId(), reason
-        );
+            // Publish event
+            metrics.recordPhase(BLOCK, "publish", () -> eventPublisher.publishLocationBlocked(
+                locationId, blocked.getWarehouseId(), reason
+            ));
 
-        return state;
+            return blocked;
+        });
     }
 
     /**
      * Unblock location
      */
     public LocationState unblockLocation(String locationId) {
-        logger.info("Unblocking location {}", locationId);
+        return metrics.recordCommand(UNBLOCK, () -> {
+            sampler.atInfo(logger, UNBLOCK).log("Unblocking location {}", locationId);
 
-        LocationState state = locationStateRepository.findById(locationId)
-            .orElseThrow(() -> new IllegalArgumentException("Location state not found: " + locationId));
+            LocationState state = getLocationStateOrThrow(UNBLOCK, locationId);
+            Consumer<LocationState> unblock = LocationState::unblock;
+            unblock.accept(state);
+            LocationState unblocked = saveLocationState(UNBLOCK, new LocationWrite(state, unblock));
 
-        state.unblock();
-        state = locationStateRepository.save(state);
+            // Publish event
+            metrics.recordPhase(UNBLOCK, "publish", () -> eventPublisher.publishLocationUnblocked(
+                locationId, unblocked.getWarehouseId()
+            ));
 
-        // Publish event
-        eventPublisher.publishLocationUnblocked(
-            locationId, state.getWarehouseId()
-        );
+            return unblocked;
+        });
+    }
 
-        return state;
+    /**
+     * Get license plates by ID, keyed by ID; missing IDs have no entry
+     */
+    @Transactional(readOnly = true)
+    public Map<String, LicensePlate> getLicensePlates(Collection<String> licensePlateIds) {
+        return readRepository.findLicensePlatesByIds(licensePlateIds);
     }
 
     /**
@@ -253,7 +472,47 @@ public class PhysicalTrackingService {
      */
     @Transactional(readOnly = true)
     public List<LicensePlate> getLicensePlatesAtLocation(String locationId) {
-        return licensePlateRepository.findByCurrentLocationId(locationId);
+        return readRepository.findLicensePlatesAtLocation(locationId);
+    }
+
+    /**
+     * Location of the license plate, or of its parent when nested; nested
+     * license plates hold no location of their own
+     */
+    @Transactional(readOnly = true)
+    public String getEffectiveLocationId(LicensePlate licensePlate) {
+        if (!licensePlate.isNested()) {
+            return licensePlate.getCurrentLocationId();
+        }
+        return readRepository.findLicensePlate(licensePlate.getParentLicensePlateId())
+            .map(LicensePlate::getCurrentLocationId)
+            .orElse(null);
+    }
+
+    /**
+     * Effective locations of the license plates, keyed by license plate ID;
+     * parents are resolved with one batch read
+     */
+    @Transactional(readOnly = true)
+    public Map<String, String> getEffectiveLocationIds(Collection<LicensePlate> licensePlates) {
+        List<String> parentIds = licensePlates.stream()
+            .filter(LicensePlate::isNested)
+            .map(LicensePlate::getParentLicensePlateId)
+            .distinct()
+            .toList();
+        Map<String, LicensePlate> parents = parentIds.isEmpty()
+            ? Map.of()
+            : readRepository.findLicensePlatesByIds(parentIds);
+
+        Map<String, String> locations = new HashMap<>();
+        for (LicensePlate licensePlate : licensePlates) {
+            LicensePlate parent = licensePlate.isNested() ? parents.get(licensePlate.getParentLicensePlateId()) : null;
+            String locationId = licensePlate.isNested()
+                ? (parent != null ? parent.getCurrentLocationId() : null)
+                : licensePlate.getCurrentLocationId();
+            locations.put(licensePlate.getLicensePlateId(), locationId);
+        }
+        return locations;
     }
 
     /**
@@ -261,7 +520,7 @@ public class PhysicalTrackingService {
      */
     @Transactional(readOnly = true)
     public LocationState getLocationState(String locationId) {
-        return locationStateRepository.findById(locationId)
+        return readRepository.findLocationState(locationId)
             .orElse(null);
     }
 
@@ -270,20 +529,246 @@ public class PhysicalTrackingService {
      */
     @Transactional(readOnly = true)
     public List<LocationState> getLocationStates(String warehouseId) {
-        return locationStateRepository.findByWarehouseId(warehouseId);
+        return readRepository.findLocationStates(warehouseId);
+    }
+
+    /**
+     * Count a warehouse's locations per occupancy status
+     *
+     * Served from WarehouseStateView when the warehouse is held there and
+     * warm, otherwise read from MongoDB.
+     */
+    @Transactional(readOnly = true)
+    public Map<OccupancyStatus, Long> getOccupancyCounts(String warehouseId) {
+        if (stateView.isWarm(warehouseId)) {
+            return stateView.occupancyCounts(warehouseId);
+        }
+        return readRepository.countLocationsByOccupancy(warehouseId);
+    }
+
+    /**
+     * Get location states by ID, keyed by ID; missing IDs have no entry
+     */
+    @Transactional(readOnly = true)
+    public Map<String, LocationState> getLocationStates(Collection<String> locationIds) {
+        return readRepository.findLocationStatesByIds(locationIds);
+    }
+
+    /**
+     * Get locations holding a SKU, optionally narrowed to one lot
+     */
+    @Transactional(readOnly = true)
+    public List<SkuLocationInventory> getSkuLocations(String warehouseId, String sku, String lotNumber) {
+        return readRepository.findSkuLocations(warehouseId, sku, lotNumber);
     }
 
-    private LicensePlate getLicensePlateOrThrow(String licensePlateId) {
-        return licensePlateRepository.findById(licensePlateId)
+    /**
+     * Create or update location states from location master data, in bulk
+     * writes of paklog.tracking.locations.batch-size
+     */
+    public UpsertCounts provisionLocations(List<LocationDefinition> definitions) {
+        return metrics.recordCommand(PROVISION, () -> {
+            UpsertCounts total = UpsertCounts.NONE;
+            int batchSize = Math.max(1, locationProperties.getBatchSize());
+            for (int from = 0; from < definitions.size(); from += batchSize) {
+                List<LocationDefinition> batch = definitions.subList(from, Math.min(from + batchSize, definitions.size()));
+                UpsertCounts counts = metrics.recordPhase(PROVISION, "save",
+                    () -> locationStateRepository.upsertDefinitions(batch));
+                batch.forEach(definition -> aggregateLoader.locationStateSaved(definition.locationId()));
+                total = total.plus(counts);
+            }
+            sampler.atInfo(logger, PROVISION).log("Provisioned {} locations: {} created, {} updated",
+                definitions.size(), total.created(), total.updated());
+            return total;
+        });
+    }
+
+    /**
+     * Recompute the SKU-to-location projection for a warehouse from license plates
+     */
+    public long rebuildSkuInventory(String warehouseId) {
+        long rows = skuInventoryRepository.rebuild(warehouseId);
+        logger.info("Rebuilt SKU inventory projection: warehouse={}, rows={}", warehouseId, rows);
+        return rows;
+    }
+
+    /**
+     * Totals of a license plate before a change, to roll the difference up to its parent
+     */
+    private record Totals(int quantity, BigDecimal weight, BigDecimal volume) {
+
+        static Totals of(LicensePlate lp) {
+            return new Totals(lp.getTotalQuantity(), lp.getTotalWeight(), lp.getTotalVolume());
+        }
+    }
+
+    /**
+     * Apply a nested license plate's change in contents to its parent, adding
+     * the change to the parent's location to writes; returns the parent's
+     * write, or null when the license plate is not nested
+     */
+    private LicensePlateWrite rollUpToParent(String command, LicensePlate lp, Totals before, List<LocationWrite> writes) {
+        if (!lp.isNested()) {
+            return null;
+        }
+        int quantity = lp.getTotalQuantity() - before.quantity();
+        BigDecimal weight = lp.getTotalWeight().subtract(before.weight());
+        BigDecimal volume = lp.getTotalVolume().subtract(before.volume());
+
+        LicensePlate parent = getLicensePlateOrThrow(command, lp.getParentLicensePlateId());
+        Consumer<LicensePlate> adjust = current -> current.adjustNestedTotals(quantity, weight, volume);
+        adjust.accept(parent);
+        if (parent.getCurrentLocationId() != null) {
+            writes.add(changeLocationState(command, parent.getCurrentLocationId(), parent.getWarehouseId(),
+                state -> state.resizeLicensePlate(parent.getLicensePlateId(), quantity, weight, volume)));
+        }
+        return new LicensePlateWrite(parent, adjust);
+    }
+
+    private LicensePlate getLicensePlateOrThrow(String command, String licensePlateId) {
+        return metrics.recordPhase(command, "load", () -> aggregateLoader.loadLicensePlate(licensePlateId)
             .orElseThrow(() -> new IllegalArgumentException(
-                "License plate not found: " + licensePlateId));
+                "License plate not found: " + licensePlateId)));
     }
 
-    private LocationState getOrCreateLocationState(String locationId, String warehouseId, String zone) {
-        return locationStateRepository.findById(locationId)
-            .orElseGet(() -> LocationState.create(
-                locationId, warehouseId, zone, 1000,
-                new BigDecimal("1000"), new BigDecimal("10")
-            ));
+    private LocationState getLocationStateOrThrow(String command, String locationId) {
+        return metrics.recordPhase(command, "load", () -> aggregateLoader.loadLocationState(locationId)
+            .orElseThrow(() -> new IllegalArgumentException("Location state not found: " + locationId)));
+    }
+
+    /**
+     * Save the license plate a command acts on; fails with
+     * OptimisticLockingFailureException when another writer saved it since
+     * it was loaded
+     *
+     * Commands save this license plate first, so a command failing here has
+     * written nothing. Its version also guards what depends on it: another
+     * command nesting or un-nesting it, or changing its contents, saves it
+     * too, and would fail here.
+     */
+    private LicensePlate saveLicensePlate(String command, LicensePlate lp) {
+        try {
+            return metrics.recordPhase(command, "save", () -> licensePlateRepository.save(lp));
+        } catch (OptimisticLockingFailureException e) {
+            metrics.recordWriteConflict(command, LICENSE_PLATE);
+            throw e;
+        } finally {
+            aggregateLoader.licensePlateSaved(lp.getLicensePlateId());
+        }
+    }
+
+    /**
+     * A change already applied to a loaded parent license plate, kept to be
+     * applied again if another writer saves the parent first
+     */
+    private record LicensePlateWrite(LicensePlate licensePlate, Consumer<LicensePlate> change) {
+    }
+
+    /**
+     * Save a changed parent license plate, after the license plate the
+     * command acts on has been saved
+     *
+     * Parent changes are deltas (a child attached, detached or resized), so
+     * when another writer saved the parent since it was loaded, the change
+     * is applied again to a fresh copy instead of failing a command that has
+     * already written its own license plate.
+     */
+    private LicensePlate saveLicensePlate(String command, LicensePlateWrite write) {
+        LicensePlate lp = write.licensePlate();
+        for (int attempt = 1; ; attempt++) {
+            LicensePlate current = lp;
+            try {
+                LicensePlate saved = metrics.recordPhase(command, "save",
+                    () -> licensePlateRepository.save(current));
+                aggregateLoader.licensePlateSaved(current.getLicensePlateId());
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                metrics.recordWriteConflict(command, LICENSE_PLATE);
+                // Drop any shared load of the stale copy before reloading
+                aggregateLoader.licensePlateSaved(current.getLicensePlateId());
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                lp = getLicensePlateOrThrow(command, current.getLicensePlateId());
+                write.change().accept(lp);
+            }
+        }
+    }
+
+    /**
+     * A change already applied to a loaded location state, kept to be applied
+     * again if another writer saves the location first
+     */
+    private record LocationWrite(LocationState state, Consumer<LocationState> change) {
+    }
+
+    /**
+     * Load a location state and apply change to it, so capacity and block
+     * checks fail before the command writes anything
+     */
+    private LocationWrite changeLocationState(String command, String locationId, String warehouseId,
+                                              Consumer<LocationState> change) {
+        LocationState state = getOrCreateLocationState(command, locationId, warehouseId, null);
+        metrics.recordPhase(command, "capacity_check", () -> change.accept(state));
+        return new LocationWrite(state, change);
+    }
+
+    /**
+     * Save a changed location state and notify listeners
+     *
+     * Location changes are deltas (a license plate added, removed or
+     * resized), so when another writer saved the location since it was
+     * loaded, the change is applied again to a fresh copy, checks included,
+     * instead of overwriting the other write.
+     */
+    private LocationState saveLocationState(String command, LocationWrite write) {
+        LocationState state = write.state();
+        for (int attempt = 1; ; attempt++) {
+            LocationState current = state;
+            try {
+                LocationState saved = metrics.recordPhase(command, "save",
+                    () -> locationStateRepository.save(current));
+                aggregateLoader.locationStateSaved(current.getLocationId());
+                notifyListeners(command, listener -> listener.onLocationStateChanged(saved));
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                metrics.recordWriteConflict(command, LOCATION_STATE);
+                // Drop any shared load of the stale copy before reloading
+                aggregateLoader.locationStateSaved(current.getLocationId());
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                state = getLocationStateOrThrow(command, current.getLocationId());
+                LocationState reloaded = state;
+                metrics.recordPhase(command, "capacity_check", () -> write.change().accept(reloaded));
+            }
+        }
+    }
+
+    private void notifyListeners(String command, Consumer<TrackingChangeListener> notification) {
+        metrics.recordPhase(command, "listeners", () -> {
+            for (TrackingChangeListener listener : changeListeners) {
+                try {
+                    notification.accept(listener);
+                } catch (Exception e) {
+                    logger.error("Tracking change listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        });
+    }
+
+    private LocationState getOrCreateLocationState(String command, String locationId, String warehouseId,
+                                                   String zone) {
+        return metrics.recordPhase(command, "load", () -> aggregateLoader.loadOrCreateLocationState(
+            locationId, () -> {
+                // Master data not yet provisioned (LocationCreatedEvent or bulk import)
+                metrics.recordLocationFallback(command, warehouseId);
+                logger.warn("Location {} in warehouse {} not provisioned, creating with fallback capacity",
+                    locationId, warehouseId);
+                return LocationState.create(
+                    locationId, warehouseId, zone, locationProperties.getFallbackMaxQuantity(),
+                    locationProperties.getFallbackMaxWeight(), locationProperties.getFallbackMaxVolume()
+                );
+            }));
     }
 }
@@ -0,0 +1,41 @@
+package com.paklog.wes.tracking.application.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a LocationState reconciliation run
+ *
+ * @param scanned     locations examined
+ * @param drifted     locations whose stored totals differed from their license plates
+ * @param corrected   drifted locations rewritten
+ * @param conflicts   drifted locations skipped because a writer changed them mid-run
+ * @param quantityDrift sum of absolute quantity differences across drifted locations
+ */
+public record ReconciliationReport(
+    String warehouseId,
+    boolean dryRun,
+    RunStatus status,
+    int partitions,
+    int failedPartitions,
+    long scanned,
+    long drifted,
+    long corrected,
+    long conflicts,
+    long quantityDrift,
+    LocalDateTime startedAt,
+    Duration elapsed,
+    double locationsPerSecond
+) {
+
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    static ReconciliationReport running(String warehouseId, boolean dryRun, LocalDateTime startedAt) {
+        return new ReconciliationReport(warehouseId, dryRun, RunStatus.RUNNING,
+            0, 0, 0, 0, 0, 0, 0, startedAt, Duration.ZERO, 0.0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.entity.LPItem;
+import com.paklog.wes.tracking.domain.readmodel.SkuQuantityDelta;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the SKU-to-location inventory projection in step with license plates
+ *
+ * Only license plates at a location contribute; items added in transit are
+ * counted when the license plate arrives. Nested license plates count at their
+ * parent's location, and move with it.
+ *
+ * Deltas are applied after the license plate is saved. When applying them
+ * fails the warehouse is counted in tracking.sku_projection{outcome=failed}
+ * and marked for SkuProjectionRepairer to rebuild.
+ */
+@Component
+public class SkuInventoryProjector implements TrackingChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuInventoryProjector.class);
+
+    private final SkuLocationInventoryRepository inventoryRepository;
+    private final LicensePlateRepository licensePlateRepository;
+    private final SkuProjectionRepairer repairer;
+    private final TrackingMetrics metrics;
+
+    public SkuInventoryProjector(SkuLocationInventoryRepository inventoryRepository,
+                                 LicensePlateRepository licensePlateRepository,
+                                 SkuProjectionRepairer repairer, TrackingMetrics metrics) {
+        this.inventoryRepository = inventoryRepository;
+        this.licensePlateRepository = licensePlateRepository;
+        this.repairer = repairer;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onItemAdded(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        project(licensePlate, () -> applyAtCurrentLocation(licensePlate, sku, lotNumber, quantity));
+    }
+
+    @Override
+    public void onItemRemoved(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        project(licensePlate, () -> applyAtCurrentLocation(licensePlate, sku, lotNumber, -quantity));
+    }
+
+    @Override
+    public void onLicensePlateMoved(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+        project(licensePlate, () -> applyMove(licensePlate, fromLocationId, toLocationId));
+    }
+
+    private void project(LicensePlate licensePlate, Runnable apply) {
+        try {
+            apply.run();
+        } catch (Exception e) {
+            metrics.recordSkuProjection(licensePlate.getWarehouseId(), "failed");
+            repairer.markForRepair(licensePlate.getWarehouseId());
+            logger.warn("Failed to apply SKU projection deltas of license plate {}; warehouse {} will be rebuilt",
+                licensePlate.getLicensePlateId(), licensePlate.getWarehouseId(), e);
+        }
+    }
+
+    private void applyMove(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+        List<LPItem> items = new ArrayList<>(licensePlate.getItems());
+        if (licensePlate.hasChildren()) {
+            licensePlateRepository.findAllById(licensePlate.getChildLicensePlateIds())
+                .forEach(child -> items.addAll(child.getItems()));
+        }
+
+        List<SkuQuantityDelta> deltas = new ArrayList<>();
+        for (LPItem item : items) {
+            if (fromLocationId != null) {
+                deltas.add(delta(licensePlate, item.getSku(), item.getLotNumber(), fromLocationId, -item.getQuantity()));
+            }
+            if (toLocationId != null) {
+                deltas.add(delta(licensePlate, item.getSku(), item.getLotNumber(), toLocationId, item.getQuantity()));
+            }
+        }
+        if (!deltas.isEmpty()) {
+            inventoryRepository.applyDeltas(deltas);
+        }
+    }
+
+    private void applyAtCurrentLocation(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+        String locationId = licensePlate.isNested()
+            ? licensePlateRepository.findById(licensePlate.getParentLicensePlateId())
+                .map(LicensePlate::getCurrentLocationId)
+                .orElse(null)
+            : licensePlate.getCurrentLocationId();
+        if (locationId == null) {
+            return;
+        }
+        inventoryRepository.applyDeltas(List.of(delta(licensePlate, sku, lotNumber, locationId, quantity)));
+    }
+
+    private static SkuQuantityDelta delta(LicensePlate licensePlate, String sku, String lotNumber,
+                                          String locationId, int quantity) {
+        return new SkuQuantityDelta(licensePlate.getWarehouseId(), sku, lotNumber, locationId, quantity);
+    }
+}
@@ -0,0 +1,147 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.infrastructure.config.SkuProjectionProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.MongoLease;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the SKU-to-location projection where its deltas may have been lost
+ *
+ * SkuInventoryProjector marks a warehouse when its deltas fail to apply, and
+ * marked warehouses are rebuilt every repair-interval until a rebuild
+ * succeeds. Deltas lost without a failure being seen, such as when a pod stops
+ * between saving a license plate and applying its deltas, are corrected by a
+ * sweep rebuilding every warehouse each sweep-interval, run by the pod holding
+ * the sweep lease.
+ */
+@Component
+public class SkuProjectionRepairer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkuProjectionRepairer.class);
+
+    private final SkuProjectionProperties properties;
+    private final SkuLocationInventoryRepository inventoryRepository;
+    private final TrackingMetrics metrics;
+    private final WarehouseRouting routing;
+    private final MongoLease sweepLease;
+    private final Set<String> marked = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    public SkuProjectionRepairer(SkuProjectionProperties properties,
+                                 SkuLocationInventoryRepository inventoryRepository,
+                                 TrackingMetrics metrics, WarehouseRouting routing, MongoTemplate mongoTemplate) {
+        this.properties = properties;
+        this.inventoryRepository = inventoryRepository;
+        this.metrics = metrics;
+        this.routing = routing;
+        // Held across sweeps: the holder renews it every sweep, well before it expires
+        this.sweepLease = new MongoLease(mongoTemplate, "sku-projection-sweep",
+            System.getenv().getOrDefault("HOSTNAME", "tracking") + '-' + UUID.randomUUID(),
+            properties.getSweepInterval().multipliedBy(2));
+    }
+
+    /**
+     * Have warehouseId's projection rebuilt at the next repair
+     */
+    public void markForRepair(String warehouseId) {
+        if (warehouseId != null) {
+            marked.add(warehouseId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("SKU projection repair disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sku-projection-repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long repairMillis = properties.getRepairInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::repairMarked, repairMillis, repairMillis, TimeUnit.MILLISECONDS);
+        long sweepMillis = properties.getSweepInterval().toMillis();
+        if (sweepMillis > 0) {
+            scheduler.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()),
+                sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuild every marked warehouse; one whose rebuild fails stays marked
+     */
+    void repairMarked() {
+        for (String warehouseId : List.copyOf(marked)) {
+            // Unmarked first, so a failure during the rebuild marks it again
+            marked.remove(warehouseId);
+            if (!rebuild(warehouseId, "repaired")) {
+                marked.add(warehouseId);
+            }
+        }
+    }
+
+    /**
+     * Rebuild every warehouse in every database, on the lease holder only
+     */
+    void sweep(long nowMillis) {
+        try {
+            if (!sweepLease.renew(nowMillis)) {
+                return;
+            }
+            List<String> warehouses = routing.fanOut(inventoryRepository::findWarehouseIds).stream()
+                .flatMap(List::stream)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+            warehouses.forEach(warehouseId -> rebuild(warehouseId, "swept"));
+        } catch (Exception e) {
+            logger.warn("SKU projection sweep failed", e);
+        }
+    }
+
+    boolean isMarked(String warehouseId) {
+        return marked.contains(warehouseId);
+    }
+
+    private boolean rebuild(String warehouseId, String outcome) {
+        try {
+            long rows = WarehouseContext.call(warehouseId, () -> inventoryRepository.rebuild(warehouseId));
+            metrics.recordSkuProjection(warehouseId, outcome);
+            logger.info("Rebuilt SKU projection of warehouse {}: {} rows", warehouseId, rows);
+            return true;
+        } catch (Exception e) {
+            metrics.recordSkuProjection(warehouseId, "rebuild_failed");
+            logger.warn("Failed to rebuild SKU projection of warehouse {}", warehouseId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+
+/**
+ * Callback for location states and license plates read back from the MongoDB
+ * change stream
+ *
+ * Unlike TrackingChangeListener, which only hears commands run on this pod,
+ * this sees every write to the collections: other pods, bulk provisioning and
+ * reconciliation included. Invoked on the stream's thread, one change at a
+ * time per database, with the warehouse bound. Implementations must be cheap
+ * and must not throw; failures are logged and the stream moves on.
+ */
+public interface StoredChangeListener {
+
+    /**
+     * Location state was inserted or updated
+     */
+    default void onLocationStateStored(LocationState state) {
+    }
+
+    /**
+     * License plate was inserted or updated; previousLocationId is its
+     * location before the write, or null when it had none or it is unknown
+     *
+     * Only the latest movement is loaded.
+     */
+    default void onLicensePlateStored(LicensePlate licensePlate, String previousLocationId) {
+    }
+}
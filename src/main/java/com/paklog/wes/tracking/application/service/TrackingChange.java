@@ -0,0 +1,94 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Compact delta streamed by TrackingChangeFeed
+ *
+ * Carries only what a screen needs to update one row; clients that need the
+ * full aggregate read it by id. Sequence numbers are per pod and increase by
+ * one per change, so a gap tells a client it missed something.
+ */
+public sealed interface TrackingChange {
+
+    long sequence();
+
+    String warehouseId();
+
+    /**
+     * SSE event name
+     */
+    String type();
+
+    boolean inAnyZone(Set<String> zones);
+
+    boolean atAnyLocation(Set<String> locationIds);
+
+    /**
+     * Location occupancy or block state changed
+     */
+    record LocationChanged(
+        long sequence,
+        String warehouseId,
+        String zone,
+        String locationId,
+        OccupancyStatus occupancyStatus,
+        int currentQuantity,
+        int licensePlateCount,
+        boolean blocked,
+        LocalDateTime at
+    ) implements TrackingChange {
+
+        @Override
+        public String type() {
+            return "location";
+        }
+
+        @Override
+        public boolean inAnyZone(Set<String> zones) {
+            return zone != null && zones.contains(zone);
+        }
+
+        @Override
+        public boolean atAnyLocation(Set<String> locationIds) {
+            return locationIds.contains(locationId);
+        }
+    }
+
+    /**
+     * License plate moved or its contents changed; fromLocationId is set on moves
+     */
+    record LicensePlateChanged(
+        long sequence,
+        String warehouseId,
+        String licensePlateId,
+        LicensePlateStatus status,
+        String locationId,
+        String zone,
+        String fromLocationId,
+        String fromZone,
+        int totalQuantity,
+        LocalDateTime at
+    ) implements TrackingChange {
+
+        @Override
+        public String type() {
+            return "license_plate";
+        }
+
+        @Override
+        public boolean inAnyZone(Set<String> zones) {
+            return (zone != null && zones.contains(zone)) || (fromZone != null && zones.contains(fromZone));
+        }
+
+        @Override
+        public boolean atAnyLocation(Set<String> locationIds) {
+            return (locationId != null && locationIds.contains(locationId))
+                || (fromLocationId != null && locationIds.contains(fromLocationId));
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.ChangeFeedProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans out location and license plate changes read from the change stream to
+ * subscribers, each with its own filter and bounded buffer
+ *
+ * Each change is turned into one compact delta and offered to every matching
+ * subscriber's buffer; the command thread never waits on a client. Buffers are
+ * drained by virtual threads, one at a time per subscriber. A subscriber whose
+ * buffer is full is shed: it gets a resync event and is closed, so one slow
+ * screen cannot hold memory or delay others. Clients reconnect and reload.
+ *
+ * TrackingChangeStream is the only source, so every pod sees writes made
+ * through any pod and bulk provisioning; a subscriber can connect to any pod.
+ */
+@Component
+public class TrackingChangeFeed implements StoredChangeListener {
+
+    public static final String SLOW_CONSUMER = "slow_consumer";
+    public static final String SHUTDOWN = "shutdown";
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingChangeFeed.class);
+
+    /**
+     * Delivery target of one subscription; send and heartbeat may block
+     */
+    public interface Sink {
+
+        void send(TrackingChange change) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        /**
+         * Close the subscription, telling the client why when reason is not null
+         */
+        void close(String reason);
+    }
+
+    /**
+     * Changes for one warehouse, narrowed to zones and locations when not empty
+     */
+    public record Filter(String warehouseId, Set<String> zones, Set<String> locationIds) {
+
+        public Filter {
+            zones = zones == null ? Set.of() : Set.copyOf(zones);
+            locationIds = locationIds == null ? Set.of() : Set.copyOf(locationIds);
+        }
+
+        boolean matches(TrackingChange change) {
+            return warehouseId.equals(change.warehouseId())
+                && (zones.isEmpty() || change.inAnyZone(zones))
+                && (locationIds.isEmpty() || change.atAnyLocation(locationIds));
+        }
+    }
+
+    private final ChangeFeedProperties properties;
+    private final TrackingMetrics metrics;
+    private final Executor sender;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    // Zone of every location seen while subscribed, to place license plate moves
+    private final Map<String, String> locationZones = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService heartbeats;
+
+    public TrackingChangeFeed(ChangeFeedProperties properties, TrackingMetrics metrics) {
+        this(properties, metrics, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    TrackingChangeFeed(ChangeFeedProperties properties, TrackingMetrics metrics, Executor sender) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.sender = sender;
+        metrics.gauge(TrackingMetrics.FEED_SUBSCRIBERS, subscriptions, Map::size);
+    }
+
+    /**
+     * Register a subscriber; empty when the feed is disabled or full
+     */
+    public Optional<Subscription> subscribe(Filter filter, Sink sink) {
+        if (!properties.isEnabled() || subscriptions.size() >= properties.getMaxSubscribers()) {
+            return Optional.empty();
+        }
+        Subscription subscription = new Subscription(subscriptionIds.incrementAndGet(), filter, sink,
+            Math.max(1, properties.getBufferSize()));
+        subscriptions.put(subscription.id, subscription);
+        return Optional.of(subscription);
+    }
+
+    @Override
+    public void onLocationStateStored(LocationState state) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (state.getZone() != null) {
+            locationZones.put(state.getLocationId(), state.getZone());
+        }
+        publish(new TrackingChange.LocationChanged(
+            sequence.incrementAndGet(),
+            state.getWarehouseId(),
+            state.getZone(),
+            state.getLocationId(),
+            state.getOccupancyStatus(),
+            state.getCurrentQuantity() != null ? state.getCurrentQuantity() : 0,
+            state.getLicensePlateCount(),
+            Boolean.TRUE.equals(state.getIsBlocked()),
+            state.getLastUpdated()
+        ));
+    }
+
+    @Override
+    public void onLicensePlateStored(LicensePlate licensePlate, String previousLocationId) {
+        // A move is a write that changed the location; anything else changed contents or status
+        boolean moved = previousLocationId != null
+            && !previousLocationId.equals(licensePlate.getCurrentLocationId());
+        publishLicensePlate(licensePlate, moved ? previousLocationId : null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Tracking change feed disabled");
+            return;
+        }
+        long heartbeatMillis = properties.getHeartbeat().toMillis();
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.close(SHUTDOWN);
+        }
+    }
+
+    Collection<Subscription> subscriptions() {
+        return subscriptions.values();
+    }
+
+    /**
+     * Send a heartbeat to every subscription with nothing in flight
+     */
+    void heartbeat() {
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.heartbeat();
+        }
+    }
+
+    private void publishLicensePlate(LicensePlate licensePlate, String fromLocationId) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        String locationId = licensePlate.getCurrentLocationId();
+        publish(new TrackingChange.LicensePlateChanged(
+            sequence.incrementAndGet(),
+            licensePlate.getWarehouseId(),
+            licensePlate.getLicensePlateId(),
+            licensePlate.getStatus(),
+            locationId,
+            locationId != null ? locationZones.get(locationId) : null,
+            fromLocationId,
+            fromLocationId != null ? locationZones.get(fromLocationId) : null,
+            licensePlate.getTotalQuantity() != null ? licensePlate.getTotalQuantity() : 0,
+            LocalDateTime.now()
+        ));
+    }
+
+    private void publish(TrackingChange change) {
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.filter.matches(change)) {
+                subscription.offer(change);
+            }
+        }
+    }
+
+    /**
+     * One subscriber: its filter, buffer and drain state
+     */
+    public final class Subscription {
+
+        private final long id;
+        private final Filter filter;
+        private final Sink sink;
+        private final BlockingQueue<TrackingChange> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(long id, Filter filter, Sink sink, int bufferSize) {
+            this.id = id;
+            this.filter = filter;
+            this.sink = sink;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Stop delivering; called when the client goes away
+         */
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(id);
+                buffer.clear();
+            }
+        }
+
+        int buffered() {
+            return buffer.size();
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        private void offer(TrackingChange change) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(change)) {
+                metrics.recordFeedShed(filter.warehouseId());
+                logger.warn("Shedding change feed subscriber {} for warehouse {}: {} changes behind",
+                    id, filter.warehouseId(), buffer.size());
+                close(SLOW_CONSUMER);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                TrackingChange change;
+                while (!closed.get() && (change = buffer.poll()) != null) {
+                    sink.send(change);
+                }
+            } catch (Exception e) {
+                close(null);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A change offered after the last poll but before draining was reset would otherwise wait
+            if (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void heartbeat() {
+            if (closed.get() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            sender.execute(() -> {
+                try {
+                    sink.heartbeat();
+                } catch (Exception e) {
+                    close(null);
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+                if (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                    sender.execute(this::drain);
+                }
+            });
+        }
+
+        private void close(String reason) {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(id);
+                buffer.clear();
+                sender.execute(() -> sink.close(reason));
+            }
+        }
+    }
+}
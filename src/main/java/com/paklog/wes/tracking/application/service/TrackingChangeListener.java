@@ -0,0 +1,38 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+
+/**
+ * Callback for components that react to tracking state changes
+ *
+ * Invoked by PhysicalTrackingService after the change has been persisted.
+ * Implementations must be cheap and must not throw; failures are logged and
+ * never fail the command.
+ */
+public interface TrackingChangeListener {
+
+    /**
+     * Location state was saved
+     */
+    default void onLocationStateChanged(LocationState state) {
+    }
+
+    /**
+     * License plate was moved between locations
+     */
+    default void onLicensePlateMoved(LicensePlate licensePlate, String fromLocationId, String toLocationId) {
+    }
+
+    /**
+     * Item quantity was added to a license plate
+     */
+    default void onItemAdded(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+    }
+
+    /**
+     * Item quantity was removed from a license plate
+     */
+    default void onItemRemoved(LicensePlate licensePlate, String sku, String lotNumber, int quantity) {
+    }
+}
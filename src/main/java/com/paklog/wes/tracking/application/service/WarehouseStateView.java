@@ -0,0 +1,127 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory occupancy and license plate membership of tracked warehouses
+ *
+ * A warehouse is tracked from the start of its warm-up (see
+ * WarehouseSnapshotter) and serves reads once warm; changes for other
+ * warehouses are ignored. Every source (snapshot, replay from MongoDB, changes
+ * saved by this pod, and every write seen on the change stream, bulk location
+ * provisioning and other pods included) is merged by lastUpdated, so they can
+ * be applied in any order and overlapping replays are harmless.
+ */
+@Component
+public class WarehouseStateView implements TrackingChangeListener, StoredChangeListener {
+
+    private final Map<String, Map<String, LocationOccupancy>> warehouses = new ConcurrentHashMap<>();
+    private final Set<String> warm = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onLocationStateChanged(LocationState state) {
+        if (isTracked(state.getWarehouseId())) {
+            apply(LocationOccupancy.from(state));
+        }
+    }
+
+    @Override
+    public void onLocationStateStored(LocationState state) {
+        onLocationStateChanged(state);
+    }
+
+    /**
+     * Start tracking a warehouse; already tracked warehouses keep their state
+     */
+    public void track(String warehouseId) {
+        warehouses.computeIfAbsent(warehouseId, ignored -> new ConcurrentHashMap<>());
+    }
+
+    public boolean isTracked(String warehouseId) {
+        return warehouseId != null && warehouses.containsKey(warehouseId);
+    }
+
+    /**
+     * Mark a tracked warehouse as fully loaded, so reads may be served from the view
+     */
+    public void markWarm(String warehouseId) {
+        if (isTracked(warehouseId)) {
+            warm.add(warehouseId);
+        }
+    }
+
+    /**
+     * Whether the warehouse has been loaded in full; a warehouse still warming
+     * up holds only part of its locations
+     */
+    public boolean isWarm(String warehouseId) {
+        return warehouseId != null && warm.contains(warehouseId);
+    }
+
+    /**
+     * Merge a location version, keeping the newer one; returns false when the
+     * warehouse is not tracked or the version is older than the one held
+     */
+    public boolean apply(LocationOccupancy location) {
+        if (!isTracked(location.warehouseId())) {
+            return false;
+        }
+        Map<String, LocationOccupancy> locations = warehouses.get(location.warehouseId());
+        LocationOccupancy merged = locations.merge(location.locationId(), location,
+            (current, incoming) -> incoming.isNewerThan(current) ? incoming : current);
+        return merged == location;
+    }
+
+    public Optional<LocationOccupancy> find(String warehouseId, String locationId) {
+        Map<String, LocationOccupancy> locations = warehouses.get(warehouseId);
+        return locations == null ? Optional.empty() : Optional.ofNullable(locations.get(locationId));
+    }
+
+    /**
+     * Weakly consistent view of a warehouse's locations; empty when not tracked
+     */
+    public Collection<LocationOccupancy> locations(String warehouseId) {
+        Map<String, LocationOccupancy> locations = warehouses.get(warehouseId);
+        return locations == null ? List.of() : locations.values();
+    }
+
+    public int size(String warehouseId) {
+        Map<String, LocationOccupancy> locations = warehouses.get(warehouseId);
+        return locations == null ? 0 : locations.size();
+    }
+
+    public Map<OccupancyStatus, Long> occupancyCounts(String warehouseId) {
+        Map<OccupancyStatus, Long> counts = new EnumMap<>(OccupancyStatus.class);
+        for (LocationOccupancy location : locations(warehouseId)) {
+            OccupancyStatus status = location.occupancyStatus();
+            counts.merge(status != null ? status : OccupancyStatus.UNKNOWN, 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Latest lastUpdated held for a warehouse, or null when nothing is held
+     */
+    public LocalDateTime highWaterMark(String warehouseId) {
+        LocalDateTime highWaterMark = null;
+        for (LocationOccupancy location : locations(warehouseId)) {
+            LocalDateTime lastUpdated = location.lastUpdated();
+            if (lastUpdated != null && (highWaterMark == null || lastUpdated.isAfter(highWaterMark))) {
+                highWaterMark = lastUpdated;
+            }
+        }
+        return highWaterMark;
+    }
+}
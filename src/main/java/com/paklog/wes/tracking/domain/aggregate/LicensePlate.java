@@ -6,14 +6,19 @@ import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,23 +26,47 @@ import java.util.stream.Collectors;
  *
  * Represents a physical container (pallet, tote, carton) that holds inventory
  * and can move through the warehouse.
+ *
+ * A license plate can be nested one level deep in another (totes in a cage,
+ * cartons on a pallet). The parent's totals include its children's, so moving
+ * the parent places the whole load with one location update; children keep
+ * no location of their own and are where their parent is.
  */
 @Document(collection = "license_plates")
+@CompoundIndexes({
+    @CompoundIndex(name = "warehouse_status", def = "{'warehouseId': 1, 'status': 1}"),
+    @CompoundIndex(name = "warehouse_type", def = "{'warehouseId': 1, 'type': 1}"),
+    @CompoundIndex(name = "warehouse_created", def = "{'warehouseId': 1, 'createdAt': 1}"),
+    @CompoundIndex(name = "location_status", def = "{'currentLocationId': 1, 'status': 1}"),
+    @CompoundIndex(name = "location_sku", def = "{'currentLocationId': 1, 'items.sku': 1}"),
+    @CompoundIndex(name = "sku", def = "{'items.sku': 1}"),
+    @CompoundIndex(name = "status_updated", def = "{'status': 1, 'updatedAt': 1}"),
+    @CompoundIndex(name = "empty", def = "{'itemCount': 1}", partialFilter = "{'itemCount': 0}"),
+    @CompoundIndex(name = "empty_available", def = "{'warehouseId': 1, 'type': 1}",
+        partialFilter = "{'emptyAvailable': true}")
+})
 public class LicensePlate {
 
     @Id
     private String licensePlateId;
 
-    @Indexed
     private String warehouseId;
 
     private LicensePlateType type;
-    private LicensePlateStatus status;
 
     @Indexed
+    private LicensePlateStatus status;
+
     private String currentLocationId;
 
+    // Nesting: a child resolves its location through its parent
+    @Indexed(sparse = true)
+    private String parentLicensePlateId;
+    private Set<String> childLicensePlateIds;
+
+    @Indexed
     private String containerCode; // Physical barcode/RFID
+    @Indexed(sparse = true)
     private String ownerId; // Customer/owner if applicable
 
     // Contents
@@ -46,11 +75,25 @@ public class LicensePlate {
     // Movement history
     private List<Movement> movements;
 
-    // Totals
+    // Totals, including nested license plates
     private Integer totalQuantity;
     private BigDecimal totalWeight;
     private BigDecimal totalVolume;
 
+    // Rolled-up totals of nested license plates
+    private Integer nestedQuantity;
+    private BigDecimal nestedWeight;
+    private BigDecimal nestedVolume;
+
+    // Maintained for indexed emptiness queries ($size cannot use an index);
+    // itemCount counts nested license plates too
+    private Integer itemCount;
+    private Boolean emptyAvailable;
+
+    // Claim on an empty license plate handed out by allocation
+    private String allocatedTo;
+    private LocalDateTime allocatedAt;
+
     // Lifecycle
     @Indexed
     private LocalDateTime createdAt;
@@ -58,6 +101,10 @@ public class LicensePlate {
     private LocalDateTime closedAt;
     private String createdBy;
 
+    // Optimistic lock: a save based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     protected LicensePlate() {
         // MongoDB constructor
     }
@@ -83,9 +130,13 @@ public class LicensePlate {
         lp.totalQuantity = 0;
         lp.totalWeight = BigDecimal.ZERO;
         lp.totalVolume = BigDecimal.ZERO;
+        lp.childLicensePlateIds = new LinkedHashSet<>();
+        lp.nestedQuantity = 0;
+        lp.nestedWeight = BigDecimal.ZERO;
+        lp.nestedVolume = BigDecimal.ZERO;
         lp.createdAt = LocalDateTime.now();
-        lp.updatedAt = LocalDateTime.now();
         lp.createdBy = createdBy;
+        lp.touch();
 
         return lp;
     }
@@ -122,7 +173,11 @@ public class LicensePlate {
             this.status = LicensePlateStatus.ACTIVE;
         }
 
-        this.updatedAt = LocalDateTime.now();
+        // Claim is fulfilled once the license plate is filled
+        this.allocatedTo = null;
+        this.allocatedAt = null;
+
+        touch();
     }
 
     /**
@@ -151,11 +206,11 @@ public class LicensePlate {
         recalculateTotals();
 
         // Mark as consumed if empty
-        if (items.isEmpty()) {
+        if (isEmpty()) {
             this.status = LicensePlateStatus.CONSUMED;
         }
 
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -167,6 +222,11 @@ public class LicensePlate {
             throw new IllegalStateException(
                 String.format("Cannot move license plate in status %s", status));
         }
+        if (isNested()) {
+            throw new IllegalStateException(
+                String.format("License plate %s is nested in %s; take it out first", licensePlateId,
+                    parentLicensePlateId));
+        }
 
         String previousLocation = this.currentLocationId;
 
@@ -190,7 +250,107 @@ public class LicensePlate {
             this.status = LicensePlateStatus.IN_TRANSIT;
         }
 
-        this.updatedAt = LocalDateTime.now();
+        touch();
+    }
+
+    /**
+     * Nest this license plate in parent (CONSOLIDATION)
+     *
+     * Records the movement from this license plate's location to the
+     * parent's and drops its own location. The caller adds it to the parent
+     * with attachChild.
+     */
+    public void nestInto(LicensePlate parent, String performedBy, String reason) {
+        if (!status.canBeMoved()) {
+            throw new IllegalStateException(
+                String.format("Cannot consolidate license plate in status %s", status));
+        }
+        if (parent == this || licensePlateId.equals(parent.licensePlateId)) {
+            throw new IllegalArgumentException("License plate cannot be nested in itself");
+        }
+        if (isNested()) {
+            throw new IllegalStateException(
+                String.format("License plate %s is already nested in %s", licensePlateId, parentLicensePlateId));
+        }
+        if (hasChildren()) {
+            throw new IllegalStateException(
+                String.format("License plate %s holds nested license plates and cannot be nested", licensePlateId));
+        }
+
+        movements.add(Movement.create(
+            MovementType.CONSOLIDATION,
+            currentLocationId,
+            parent.currentLocationId,
+            performedBy,
+            reason
+        ));
+        this.parentLicensePlateId = parent.licensePlateId;
+        this.currentLocationId = null;
+        this.status = LicensePlateStatus.ACTIVE;
+        touch();
+    }
+
+    /**
+     * Take this license plate out of its parent, leaving it at locationId (the
+     * parent's location); the caller removes it from the parent with detachChild
+     */
+    public void leaveParent(String locationId) {
+        if (!isNested()) {
+            throw new IllegalStateException(
+                String.format("License plate %s is not nested", licensePlateId));
+        }
+        this.parentLicensePlateId = null;
+        this.currentLocationId = locationId;
+        touch();
+    }
+
+    /**
+     * Add a nested license plate and roll its totals into this one's
+     */
+    public void attachChild(LicensePlate child) {
+        if (!status.canAddItems()) {
+            throw new IllegalStateException(
+                String.format("Cannot nest license plates in license plate in status %s", status));
+        }
+        if (isNested()) {
+            throw new IllegalStateException(
+                String.format("License plate %s is nested in %s and cannot hold license plates",
+                    licensePlateId, parentLicensePlateId));
+        }
+        if (!childLicensePlateIds().add(child.licensePlateId)) {
+            return;
+        }
+        adjustNestedTotals(child.totalQuantity, child.totalWeight, child.totalVolume);
+
+        if (status == LicensePlateStatus.CREATED) {
+            this.status = LicensePlateStatus.ACTIVE;
+        }
+        this.allocatedTo = null;
+        this.allocatedAt = null;
+        touch();
+    }
+
+    /**
+     * Remove a nested license plate and its totals from this one's
+     */
+    public void detachChild(LicensePlate child) {
+        if (!childLicensePlateIds().remove(child.licensePlateId)) {
+            throw new IllegalArgumentException(
+                String.format("License plate %s is not nested in %s", child.licensePlateId, licensePlateId));
+        }
+        adjustNestedTotals(-value(child.totalQuantity), negate(child.totalWeight), negate(child.totalVolume));
+        touch();
+    }
+
+    /**
+     * Apply a change in a nested license plate's contents to the rolled-up totals
+     */
+    public void adjustNestedTotals(Integer quantity, BigDecimal weight, BigDecimal volume) {
+        this.nestedQuantity = Math.max(0, value(nestedQuantity) + value(quantity));
+        this.nestedWeight = value(nestedWeight).add(value(weight)).max(BigDecimal.ZERO);
+        this.nestedVolume = value(nestedVolume).add(value(volume)).max(BigDecimal.ZERO);
+        recalculateTotals();
+        touch();
     }
 
     /**
@@ -203,7 +363,7 @@ public class LicensePlate {
         }
 
         this.status = LicensePlateStatus.PICKED;
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -220,7 +380,7 @@ public class LicensePlate {
             this.status = LicensePlateStatus.AT_LOCATION;
         }
 
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -233,7 +393,7 @@ public class LicensePlate {
         }
 
         this.status = LicensePlateStatus.PACKED;
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -245,7 +405,7 @@ public class LicensePlate {
         }
 
         this.status = LicensePlateStatus.SHIPPED;
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -254,7 +414,7 @@ public class LicensePlate {
     public void close() {
         this.status = LicensePlateStatus.CLOSED;
         this.closedAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        touch();
     }
 
     /**
@@ -262,7 +422,16 @@ public class LicensePlate {
      */
     public void setOwner(String ownerId) {
         this.ownerId = ownerId;
-        this.updatedAt = LocalDateTime.now();
+        touch();
+    }
+
+    /**
+     * Release an allocation claim without filling the license plate
+     */
+    public void releaseAllocation() {
+        this.allocatedTo = null;
+        this.allocatedAt = null;
+        touch();
     }
 
     /**
@@ -284,10 +453,24 @@ public class LicensePlate {
     }
 
     /**
-     * Check if license plate is empty
+     * Check if license plate is empty (no items and nothing nested)
      */
     public boolean isEmpty() {
-        return items.isEmpty();
+        return items.isEmpty() && !hasChildren();
+    }
+
+    /**
+     * Check if license plate is nested in another
+     */
+    public boolean isNested() {
+        return parentLicensePlateId != null;
+    }
+
+    /**
+     * Check if license plate holds nested license plates
+     */
+    public boolean hasChildren() {
+        return childLicensePlateIds != null && !childLicensePlateIds.isEmpty();
     }
 
     /**
@@ -326,22 +509,52 @@ public class LicensePlate {
     }
 
     /**
-     * Recalculate totals from items
+     * Stamp the update and refresh the fields maintained for indexed queries
+     */
+    private void touch() {
+        this.itemCount = items.size() + (childLicensePlateIds != null ? childLicensePlateIds.size() : 0);
+        // A nested license plate is inside another and cannot be handed out
+        this.emptyAvailable = isEmpty() && !isNested() && !status.isFinalState() && allocatedTo == null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Recalculate totals from items and nested license plates
      */
     private void recalculateTotals() {
         this.totalQuantity = items.stream()
             .mapToInt(LPItem::getQuantity)
-            .sum();
+            .sum() + value(nestedQuantity);
 
         this.totalWeight = items.stream()
             .map(LPItem::getWeight)
             .filter(w -> w != null)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .reduce(value(nestedWeight), BigDecimal::add);
 
         this.totalVolume = items.stream()
             .map(LPItem::getVolume)
             .filter(v -> v != null)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .reduce(value(nestedVolume), BigDecimal::add);
+    }
+
+    // Documents written before nesting have no child set
+    private Set<String> childLicensePlateIds() {
+        if (childLicensePlateIds == null) {
+            childLicensePlateIds = new LinkedHashSet<>();
+        }
+        return childLicensePlateIds;
+    }
+
+    private static int value(Integer quantity) {
+        return quantity != null ? quantity : 0;
+    }
+
+    private static BigDecimal value(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal negate(BigDecimal amount) {
+        return value(amount).negate();
     }
 
     // Getters
@@ -365,6 +578,14 @@ public class LicensePlate {
         return currentLocationId;
     }
 
+    public String getParentLicensePlateId() {
+        return parentLicensePlateId;
+    }
+
+    public Set<String> getChildLicensePlateIds() {
+        return childLicensePlateIds != null ? new LinkedHashSet<>(childLicensePlateIds) : new LinkedHashSet<>();
+    }
+
     public String getContainerCode() {
         return containerCode;
     }
@@ -393,6 +614,34 @@ public class LicensePlate {
         return totalVolume;
     }
 
+    public Integer getNestedQuantity() {
+        return nestedQuantity;
+    }
+
+    public BigDecimal getNestedWeight() {
+        return nestedWeight;
+    }
+
+    public BigDecimal getNestedVolume() {
+        return nestedVolume;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public Boolean getEmptyAvailable() {
+        return emptyAvailable;
+    }
+
+    public String getAllocatedTo() {
+        return allocatedTo;
+    }
+
+    public LocalDateTime getAllocatedAt() {
+        return allocatedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -409,6 +658,10 @@ public class LicensePlate {
         return createdBy;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return String.format("LicensePlate[id=%s, type=%s, status=%s, location=%s, items=%d]",
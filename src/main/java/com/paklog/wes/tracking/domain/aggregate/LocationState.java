@@ -2,6 +2,9 @@ package com.paklog.wes.tracking.domain.aggregate;
 
 import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -18,20 +21,28 @@ import java.util.List;
  * license plates present, and capacity utilization.
  */
 @Document(collection = "location_states")
+@CompoundIndexes({
+    @CompoundIndex(name = "warehouse_zone_status_blocked",
+        def = "{'warehouseId': 1, 'zone': 1, 'occupancyStatus': 1, 'isBlocked': 1}"),
+    @CompoundIndex(name = "warehouse_status", def = "{'warehouseId': 1, 'occupancyStatus': 1}"),
+    @CompoundIndex(name = "warehouse_blocked", def = "{'warehouseId': 1, 'isBlocked': 1}"),
+    @CompoundIndex(name = "warehouse_last_movement", def = "{'warehouseId': 1, 'lastMovementAt': 1}"),
+    @CompoundIndex(name = "warehouse_last_updated", def = "{'warehouseId': 1, 'lastUpdated': 1}"),
+    @CompoundIndex(name = "warehouse_rfid_zone", def = "{'warehouseId': 1, 'rfidZone': 1}")
+})
 public class LocationState {
 
     @Id
     private String locationId;
 
-    @Indexed
     private String warehouseId;
 
-    @Indexed
     private String zone;
 
     private OccupancyStatus occupancyStatus;
 
     // License plates at this location
+    @Indexed
     private List<String> licensePlateIds;
 
     // Capacity tracking
@@ -48,8 +59,8 @@ public class LocationState {
     private LocalDateTime blockedAt;
 
     // Timestamps
-    @Indexed
     private LocalDateTime lastUpdated;
+    @Indexed
     private LocalDateTime lastMovementAt;
 
     // RTLS integration
@@ -58,6 +69,10 @@ public class LocationState {
     private Double zCoordinate;
     private String rfidZone; // RTLS zone identifier
 
+    // Optimistic lock: a save based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     protected LocationState() {
         // MongoDB constructor
     }
@@ -157,6 +172,42 @@ public class LocationState {
         this.lastUpdated = LocalDateTime.now();
     }
 
+    /**
+     * Apply a change in the totals of a license plate already at this location
+     * (a license plate nested into or taken out of it); growth is capacity checked
+     */
+    public void resizeLicensePlate(String licensePlateId, Integer quantityDelta,
+                                   BigDecimal weightDelta, BigDecimal volumeDelta) {
+        if (!licensePlateIds.contains(licensePlateId)) {
+            throw new IllegalArgumentException(
+                String.format("License plate %s not at location %s", licensePlateId, locationId));
+        }
+
+        int quantity = quantityDelta != null ? quantityDelta : 0;
+        BigDecimal weight = weightDelta != null ? weightDelta : BigDecimal.ZERO;
+        BigDecimal volume = volumeDelta != null ? volumeDelta : BigDecimal.ZERO;
+        boolean grows = quantity > 0 || weight.signum() > 0 || volume.signum() > 0;
+        if (grows) {
+            if (isBlocked) {
+                throw new IllegalStateException(
+                    String.format("Location %s is blocked: %s", locationId, blockReason));
+            }
+            if (!canAccept(Math.max(0, quantity), weight.max(BigDecimal.ZERO), volume.max(BigDecimal.ZERO))) {
+                throw new IllegalStateException(
+                    String.format("Location %s does not have sufficient capacity", locationId));
+            }
+        }
+
+        this.currentQuantity = Math.max(0, this.currentQuantity + quantity);
+        this.currentWeight = this.currentWeight.add(weight).max(BigDecimal.ZERO);
+        this.currentVolume = this.currentVolume.add(volume).max(BigDecimal.ZERO);
+
+        updateOccupancyStatus();
+
+        this.lastMovementAt = LocalDateTime.now();
+        this.lastUpdated = LocalDateTime.now();
+    }
+
     /**
      * Block location
      */
@@ -190,6 +241,19 @@ public class LocationState {
         this.lastUpdated = LocalDateTime.now();
     }
 
+    /**
+     * Replace contents and totals with values recomputed from license plates
+     */
+    public void reconcile(List<String> licensePlateIds, Integer quantity,
+                          BigDecimal weight, BigDecimal volume) {
+        this.licensePlateIds = new ArrayList<>(licensePlateIds);
+        this.currentQuantity = quantity;
+        this.currentWeight = weight;
+        this.currentVolume = volume;
+        updateOccupancyStatus();
+        this.lastUpdated = LocalDateTime.now();
+    }
+
     /**
      * Set RTLS coordinates
      */
@@ -404,6 +468,10 @@ public class LocationState {
         return rfidZone;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return String.format("LocationState[id=%s, status=%s, LPs=%d, util=%s%%, blocked=%s]",
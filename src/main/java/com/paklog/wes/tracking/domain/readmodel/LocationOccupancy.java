@@ -0,0 +1,59 @@
+package com.paklog.wes.tracking.domain.readmodel;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Occupancy and license plate membership of one location, as held in memory
+ * by WarehouseStateView and written to warehouse snapshots
+ *
+ * lastUpdated orders versions of the same location: a view keeps the newest.
+ */
+public record LocationOccupancy(
+    String locationId,
+    String warehouseId,
+    String zone,
+    OccupancyStatus occupancyStatus,
+    boolean blocked,
+    int currentQuantity,
+    Integer maxQuantity,
+    BigDecimal currentWeight,
+    BigDecimal currentVolume,
+    LocalDateTime lastUpdated,
+    List<String> licensePlateIds
+) {
+    public LocationOccupancy {
+        licensePlateIds = List.copyOf(licensePlateIds);
+    }
+
+    public static LocationOccupancy from(LocationState state) {
+        return new LocationOccupancy(
+            state.getLocationId(),
+            state.getWarehouseId(),
+            state.getZone(),
+            state.getOccupancyStatus(),
+            Boolean.TRUE.equals(state.getIsBlocked()),
+            state.getCurrentQuantity() != null ? state.getCurrentQuantity() : 0,
+            state.getMaxQuantity(),
+            state.getCurrentWeight(),
+            state.getCurrentVolume(),
+            state.getLastUpdated(),
+            state.getLicensePlateIds()
+        );
+    }
+
+    /**
+     * True when this version should replace the other; versions without a
+     * timestamp never replace one that has it
+     */
+    public boolean isNewerThan(LocationOccupancy other) {
+        if (other == null || other.lastUpdated == null) {
+            return true;
+        }
+        return lastUpdated != null && !lastUpdated.isBefore(other.lastUpdated);
+    }
+}
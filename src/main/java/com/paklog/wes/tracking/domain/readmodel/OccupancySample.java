@@ -0,0 +1,33 @@
+package com.paklog.wes.tracking.domain.readmodel;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Utilization of one location at the moment its occupancy changed
+ */
+public record OccupancySample(
+    String warehouseId,
+    String zone,
+    String locationId,
+    LocalDateTime sampledAt,
+    double utilization,
+    int quantity,
+    OccupancyStatus occupancyStatus
+) {
+    public static OccupancySample from(LocationState state) {
+        BigDecimal utilization = state.getUtilizationPercentage();
+        return new OccupancySample(
+            state.getWarehouseId(),
+            state.getZone(),
+            state.getLocationId(),
+            state.getLastUpdated() != null ? state.getLastUpdated() : LocalDateTime.now(),
+            utilization != null ? utilization.doubleValue() : 0.0,
+            state.getCurrentQuantity() != null ? state.getCurrentQuantity() : 0,
+            state.getOccupancyStatus()
+        );
+    }
+}
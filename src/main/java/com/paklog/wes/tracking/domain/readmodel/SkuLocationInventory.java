@@ -0,0 +1,75 @@
+package com.paklog.wes.tracking.domain.readmodel;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * SkuLocationInventory - Denormalized on-hand quantity per SKU, lot and location
+ *
+ * Projection of the items on license plates at each location, maintained by
+ * delta as license plates are filled, emptied and moved. Answers "where is SKU X"
+ * without scanning embedded item arrays.
+ */
+@Document(collection = "sku_location_inventory")
+@CompoundIndex(name = "warehouse_sku", def = "{'warehouseId': 1, 'sku': 1, 'lotNumber': 1, 'locationId': 1}")
+public class SkuLocationInventory {
+
+    @Id
+    private String id;
+
+    private String warehouseId;
+    private String sku;
+    private String lotNumber;
+    private String locationId;
+    private Integer quantity;
+    private LocalDateTime lastUpdated;
+
+    protected SkuLocationInventory() {
+        // MongoDB constructor
+    }
+
+    /**
+     * Build the projection key for a warehouse, SKU, lot and location
+     */
+    public static String key(String warehouseId, String sku, String lotNumber, String locationId) {
+        return warehouseId + "|" + sku + "|" + (lotNumber != null ? lotNumber : "") + "|" + locationId;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getWarehouseId() {
+        return warehouseId;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public String getLotNumber() {
+        return lotNumber;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SkuLocationInventory[sku=%s, lot=%s, location=%s, qty=%d]",
+            sku, lotNumber, locationId, quantity);
+    }
+}
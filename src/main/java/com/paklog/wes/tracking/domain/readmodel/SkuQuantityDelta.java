@@ -0,0 +1,20 @@
+package com.paklog.wes.tracking.domain.readmodel;
+
+/**
+ * Signed change to the on-hand quantity of a SKU/lot at a location
+ */
+public record SkuQuantityDelta(
+    String warehouseId,
+    String sku,
+    String lotNumber,
+    String locationId,
+    int quantity
+) {
+    public String key() {
+        return SkuLocationInventory.key(warehouseId, sku, lotNumber, locationId);
+    }
+
+    public SkuQuantityDelta plus(int additionalQuantity) {
+        return new SkuQuantityDelta(warehouseId, sku, lotNumber, locationId, quantity + additionalQuantity);
+    }
+}
@@ -0,0 +1,55 @@
+package com.paklog.wes.tracking.domain.readmodel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Utilization of a location, or of the locations of a zone, over one minute or hour
+ *
+ * Samples are taken when occupancy changes, so average, min and max cover the
+ * values recorded in the bucket and lastUtilization is the value the bucket
+ * closed on. For a zone, locations counts the locations that changed in the
+ * bucket and lastUtilization is their mean closing value.
+ */
+public record UtilizationBucket(
+    LocalDateTime bucketStart,
+    long samples,
+    double averageUtilization,
+    double minUtilization,
+    double maxUtilization,
+    double lastUtilization,
+    int locations
+) {
+    public enum Granularity {
+        MINUTE(Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofDays(7)),
+        HOUR(Duration.ofHours(1), Duration.ofDays(7), Duration.ofDays(366));
+
+        private final Duration width;
+        private final Duration defaultRange;
+        private final Duration maxRange;
+
+        Granularity(Duration width, Duration defaultRange, Duration maxRange) {
+            this.width = width;
+            this.defaultRange = defaultRange;
+            this.maxRange = maxRange;
+        }
+
+        public Duration width() {
+            return width;
+        }
+
+        /**
+         * Range returned when a query gives no start
+         */
+        public Duration defaultRange() {
+            return defaultRange;
+        }
+
+        /**
+         * Widest range one query may ask for
+         */
+        public Duration maxRange() {
+            return maxRange;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Loads aggregates by id for command handling, from the primary
+ *
+ * Concurrent loads of the same id may share one database call; every caller
+ * still receives its own instance to mutate and save. A shared load may have
+ * started before another caller's save, so the instance can be stale; both
+ * aggregates are versioned, and saving a stale one fails with
+ * OptimisticLockingFailureException instead of overwriting the newer write.
+ */
+public interface AggregateLoader {
+
+    Optional<LicensePlate> loadLicensePlate(String licensePlateId);
+
+    Optional<LocationState> loadLocationState(String locationId);
+
+    /**
+     * Load a location state, creating it from initial if absent
+     *
+     * Creation is atomic: when several callers race on a missing id, exactly one
+     * document is created and every caller loads that one.
+     */
+    LocationState loadOrCreateLocationState(String locationId, Supplier<LocationState> initial);
+
+    /**
+     * Called after saving a license plate so later loads observe the write
+     */
+    void licensePlateSaved(String licensePlateId);
+
+    /**
+     * Called after saving a location state so later loads observe the write
+     */
+    void locationStateSaved(String locationId);
+}
@@ -15,7 +15,7 @@ import java.util.Optional;
  * Repository for LicensePlate aggregate
  */
 @Repository
-public interface LicensePlateRepository extends MongoRepository<LicensePlate, String> {
+public interface LicensePlateRepository extends MongoRepository<LicensePlate, String>, LicensePlateRepositoryCustom {
 
     /**
      * Find license plates by warehouse
@@ -94,13 +94,13 @@ public interface LicensePlateRepository extends MongoRepository<LicensePlate, St
     /**
      * Find empty license plates
      */
-    @Query("{'items': {$size: 0}}")
+    @Query("{'itemCount': 0}")
     List<LicensePlate> findEmptyLicensePlates();
 
     /**
-     * Find license plates by warehouse and empty status
+     * Find empty, non-final, unclaimed license plates in warehouse
      */
-    @Query("{'warehouseId': ?0, 'items': {$size: 0}, 'status': {$nin: ['CONSUMED', 'CLOSED']}}")
+    @Query("{'warehouseId': ?0, 'emptyAvailable': true}")
     List<LicensePlate> findEmptyAvailableLicensePlates(String warehouseId);
 
     /**
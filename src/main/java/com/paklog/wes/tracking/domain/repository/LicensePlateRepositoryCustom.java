@@ -0,0 +1,36 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Custom LicensePlate operations that need atomic server-side updates
+ */
+public interface LicensePlateRepositoryCustom {
+
+    /**
+     * Atomically claim one empty, non-final, unclaimed license plate
+     */
+    Optional<LicensePlate> allocateEmptyLicensePlate(String warehouseId, LicensePlateType type, String allocatedTo);
+
+    /**
+     * Populate itemCount/emptyAvailable on documents written before they
+     * existed, and recompute them on documents involved in nesting
+     */
+    long backfillEmptinessFields();
+
+    /**
+     * Set version 0 on documents written before license plates were versioned
+     */
+    long backfillVersions();
+
+    /**
+     * Move up to batchSize final-state license plates last updated before
+     * updatedBefore, and holding no nested license plates, into the archive
+     * collection; returns the number moved
+     */
+    int archiveFinalStates(LocalDateTime updatedBefore, int batchSize);
+}
@@ -13,7 +13,8 @@ import java.util.List;
  * Repository for LocationState aggregate
  */
 @Repository
-public interface LocationStateRepository extends MongoRepository<LocationState, String> {
+public interface LocationStateRepository
+        extends MongoRepository<LocationState, String>, LocationStateRepositoryCustom {
 
     /**
      * Find location states by warehouse
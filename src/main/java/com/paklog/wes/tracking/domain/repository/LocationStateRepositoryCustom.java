@@ -0,0 +1,33 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+
+import java.util.Collection;
+
+/**
+ * Custom LocationState operations that need bulk server-side writes
+ */
+public interface LocationStateRepositoryCustom {
+
+    record UpsertCounts(int created, int updated) {
+
+        public static final UpsertCounts NONE = new UpsertCounts(0, 0);
+
+        public UpsertCounts plus(UpsertCounts other) {
+            return new UpsertCounts(created + other.created, updated + other.updated);
+        }
+    }
+
+    /**
+     * Create or update location states from master data in one unordered bulk write
+     *
+     * Capacity, zone and coordinates are overwritten; occupancy, contents and
+     * block state of existing locations are left untouched.
+     */
+    UpsertCounts upsertDefinitions(Collection<LocationDefinition> definitions);
+
+    /**
+     * Set version 0 on documents written before location states were versioned
+     */
+    long backfillVersions();
+}
@@ -0,0 +1,46 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.readmodel.OccupancySample;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Location utilization history: raw samples in a time-series collection and
+ * minute and hour buckets aggregated from them on the server
+ */
+public interface OccupancyHistoryRepository {
+
+    /**
+     * Create the sample time-series collection and bucket indexes if missing
+     */
+    void ensureCollections(Duration sampleRetention, Duration minuteRetention);
+
+    /**
+     * Append samples in one unordered insert
+     */
+    void insertSamples(List<OccupancySample> samples);
+
+    /**
+     * Recompute every bucket of the granularity from the one containing since onwards
+     *
+     * Minute buckets are built from samples and hour buckets from minute
+     * buckets, so roll up minutes first. Whole buckets are replaced, which makes
+     * repeated and concurrent roll-ups of the same range safe.
+     */
+    void rollUp(UtilizationBucket.Granularity granularity, LocalDateTime since);
+
+    /**
+     * Buckets of one location starting in [from, to), oldest first
+     */
+    List<UtilizationBucket> findLocationCurve(String locationId, UtilizationBucket.Granularity granularity,
+                                              LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Buckets of a zone starting in [from, to), combined across its locations, oldest first
+     */
+    List<UtilizationBucket> findZoneCurve(String warehouseId, String zone, UtilizationBucket.Granularity granularity,
+                                          LocalDateTime from, LocalDateTime to);
+}
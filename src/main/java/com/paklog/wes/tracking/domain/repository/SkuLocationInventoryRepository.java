@@ -0,0 +1,25 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the SKU-to-location inventory projection
+ */
+@Repository
+public interface SkuLocationInventoryRepository
+        extends MongoRepository<SkuLocationInventory, String>, SkuLocationInventoryRepositoryCustom {
+
+    /**
+     * Find every location holding a SKU in a warehouse
+     */
+    List<SkuLocationInventory> findByWarehouseIdAndSku(String warehouseId, String sku);
+
+    /**
+     * Find every location holding a SKU lot in a warehouse
+     */
+    List<SkuLocationInventory> findByWarehouseIdAndSkuAndLotNumber(String warehouseId, String sku, String lotNumber);
+}
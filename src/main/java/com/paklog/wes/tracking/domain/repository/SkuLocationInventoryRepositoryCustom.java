@@ -0,0 +1,31 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.readmodel.SkuQuantityDelta;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delta maintenance for the SKU-to-location inventory projection
+ */
+public interface SkuLocationInventoryRepositoryCustom {
+
+    /**
+     * Apply signed quantity deltas in one bulk write; rows that reach zero are removed
+     */
+    void applyDeltas(Collection<SkuQuantityDelta> deltas);
+
+    /**
+     * Recompute the projection for a warehouse from license_plates
+     *
+     * Rows are replaced in place, then rows the run did not produce are
+     * removed, so the warehouse never reads as empty. Rows changed by deltas
+     * while the run is in progress are left as the deltas made them.
+     */
+    long rebuild(String warehouseId);
+
+    /**
+     * Warehouses with license plates or projection rows in this database
+     */
+    List<String> findWarehouseIds();
+}
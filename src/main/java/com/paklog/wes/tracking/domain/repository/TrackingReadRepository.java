@@ -0,0 +1,51 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only queries that may be served by replica set secondaries
+ *
+ * Implementations must return data at least as recent as the caller's last
+ * write. Command paths load aggregates through the primary-bound repositories.
+ */
+public interface TrackingReadRepository {
+
+    Optional<LicensePlate> findLicensePlate(String licensePlateId);
+
+    /**
+     * License plates at the location, followed by those nested in them
+     */
+    List<LicensePlate> findLicensePlatesAtLocation(String locationId);
+
+    /**
+     * License plates among the ids, keyed by id; ids not found have no entry
+     */
+    Map<String, LicensePlate> findLicensePlatesByIds(Collection<String> licensePlateIds);
+
+    Optional<LocationState> findLocationState(String locationId);
+
+    List<LocationState> findLocationStates(String warehouseId);
+
+    /**
+     * Locations of a warehouse per occupancy status; locations without one count as UNKNOWN
+     */
+    Map<OccupancyStatus, Long> countLocationsByOccupancy(String warehouseId);
+
+    /**
+     * Location states among the ids, keyed by id; ids not found have no entry
+     */
+    Map<String, LocationState> findLocationStatesByIds(Collection<String> locationIds);
+
+    /**
+     * Locations holding a SKU, narrowed to one lot when lotNumber is not null
+     */
+    List<SkuLocationInventory> findSkuLocations(String warehouseId, String sku, String lotNumber);
+}
@@ -0,0 +1,23 @@
+package com.paklog.wes.tracking.domain.valueobject;
+
+import java.math.BigDecimal;
+
+/**
+ * Master data for a storage location as configured in location-master-service
+ *
+ * Capacity, zone and coordinates only; occupancy and contents are owned by
+ * LocationState.
+ */
+public record LocationDefinition(
+    String locationId,
+    String warehouseId,
+    String zone,
+    Integer maxQuantity,
+    BigDecimal maxWeight,
+    BigDecimal maxVolume,
+    Double xCoordinate,
+    Double yCoordinate,
+    Double zCoordinate,
+    String rfidZone
+) {
+}
@@ -0,0 +1,66 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Location and license plate change feed configuration
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.feed")
+public class ChangeFeedProperties {
+
+    private boolean enabled = true;
+
+    // Changes buffered per subscriber; a subscriber that falls this far behind is shed
+    private int bufferSize = 256;
+
+    // Concurrent subscriptions per pod
+    private int maxSubscribers = 500;
+
+    // Comment line sent to idle subscriptions so proxies keep the connection open
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // Subscriptions are closed after this long; EventSource clients reconnect
+    private Duration timeout = Duration.ofMinutes(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,48 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * MongoDB change stream configuration
+ *
+ * Off by default. Change streams need a replica set or sharded cluster;
+ * pre-images also need MongoDB 6.0+ and changeStreamPreAndPostImages on
+ * license_plates in each warehouse database.
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.change-stream")
+public class ChangeStreamProperties {
+
+    private boolean enabled = false;
+
+    // Pause before reopening a stream that failed
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    // Record pre-images on license_plates so moves report where the license plate came from
+    private boolean preImages = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public boolean isPreImages() {
+        return preImages;
+    }
+
+    public void setPreImages(boolean preImages) {
+        this.preImages = preImages;
+    }
+}
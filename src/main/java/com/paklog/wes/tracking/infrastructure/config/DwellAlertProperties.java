@@ -0,0 +1,66 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Stale location and license plate overstay alerting configuration
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.alerts")
+public class DwellAlertProperties {
+
+    private boolean enabled = true;
+
+    // Timer wheel resolution
+    private Duration tick = Duration.ofSeconds(1);
+
+    // Occupied location with no movement for this long is stale
+    private Duration staleLocationAfter = Duration.ofHours(24);
+
+    // License plate sitting at one location for this long has overstayed
+    private Duration licensePlateOverstayAfter = Duration.ofHours(8);
+
+    // Only the pod holding the alert lease publishes; it renews at a third of this
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public Duration getStaleLocationAfter() {
+        return staleLocationAfter;
+    }
+
+    public void setStaleLocationAfter(Duration staleLocationAfter) {
+        this.staleLocationAfter = staleLocationAfter;
+    }
+
+    public Duration getLicensePlateOverstayAfter() {
+        return licensePlateOverstayAfter;
+    }
+
+    public void setLicensePlateOverstayAfter(Duration licensePlateOverstayAfter) {
+        this.licensePlateOverstayAfter = licensePlateOverstayAfter;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public void setLeaseDuration(Duration leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+}
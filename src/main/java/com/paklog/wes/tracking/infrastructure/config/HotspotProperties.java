@@ -0,0 +1,66 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Heavy-hitter tracking of written locations and license plates
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.hotspots")
+public class HotspotProperties {
+
+    private boolean enabled = true;
+
+    // Ids counted per kind and window; fixes memory and bounds the error at writes / capacity
+    private int capacity = 1_000;
+
+    // Ids reported through actuator and Prometheus per kind
+    private int top = 20;
+
+    // Counts restart every window; reports cover the last complete window
+    private Duration window = Duration.ofMinutes(1);
+
+    // Writes to one location within a window that make it hot; 0 turns hints off
+    private long locationThreshold = 600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public long getLocationThreshold() {
+        return locationThreshold;
+    }
+
+    public void setLocationThreshold(long locationThreshold) {
+        this.locationThreshold = locationThreshold;
+    }
+}
@@ -0,0 +1,50 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import com.paklog.wes.tracking.infrastructure.events.KeyOrderedDispatcher;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Listener container factories beyond the auto-configured per-record one
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+    public static final String KEY_ORDERED_LISTENER_FACTORY = "keyOrderedListenerContainerFactory";
+
+    /**
+     * Same settings as the default factory, but hands each poll to the listener as a list
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory
+    ) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    /**
+     * Same settings as the default factory, but offsets are committed only as
+     * KeyOrderedDispatcher acknowledges them, and revoked partitions are drained first
+     */
+    @Bean(KEY_ORDERED_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> keyOrderedListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KeyOrderedDispatcher dispatcher
+    ) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(dispatcher);
+        return factory;
+    }
+}
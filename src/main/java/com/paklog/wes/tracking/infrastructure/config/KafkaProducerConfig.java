@@ -0,0 +1,84 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.jackson.JsonFormat;
+import io.cloudevents.kafka.CloudEventSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the paklog producer profile and CloudEvents encoding to the
+ * auto-configured producer factory
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer trackingProducerProfile(KafkaPublishProperties properties) {
+        Map<String, Object> configs = producerConfigs(properties);
+        return factory -> factory.updateConfigs(configs);
+    }
+
+    /**
+     * Resolve producer configs from the profile and explicit overrides
+     */
+    static Map<String, Object> producerConfigs(KafkaPublishProperties properties) {
+        Map<String, Object> configs = new HashMap<>();
+
+        switch (properties.getProfile()) {
+            case LOW_LATENCY -> {
+                configs.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+                configs.put(ProducerConfig.BATCH_SIZE_CONFIG, 16_384);
+                configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            }
+            case BALANCED -> {
+                configs.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+                configs.put(ProducerConfig.BATCH_SIZE_CONFIG, 65_536);
+                configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            }
+            case THROUGHPUT -> {
+                configs.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+                configs.put(ProducerConfig.BATCH_SIZE_CONFIG, 262_144);
+                configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+                configs.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 67_108_864L);
+            }
+        }
+
+        boolean idempotent = properties.getIdempotent() == null || properties.getIdempotent();
+        configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotent);
+        if (idempotent) {
+            // Required by idempotence; keeps per-partition ordering across retries
+            configs.put(ProducerConfig.ACKS_CONFIG, "all");
+            configs.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        }
+
+        if (properties.getCompressionType() != null) {
+            configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, properties.getCompressionType());
+        }
+        if (properties.getLinger() != null) {
+            configs.put(ProducerConfig.LINGER_MS_CONFIG, (int) properties.getLinger().toMillis());
+        }
+        if (properties.getBatchSize() != null) {
+            configs.put(ProducerConfig.BATCH_SIZE_CONFIG, properties.getBatchSize());
+        }
+        if (properties.getBufferMemory() != null) {
+            configs.put(ProducerConfig.BUFFER_MEMORY_CONFIG, properties.getBufferMemory());
+        }
+        configs.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, properties.getMaxBlock().toMillis());
+
+        configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, CloudEventSerializer.class);
+        if (properties.getEncoding() == KafkaPublishProperties.Encoding.BINARY) {
+            configs.put(CloudEventSerializer.ENCODING_CONFIG, Encoding.BINARY);
+        } else {
+            configs.put(CloudEventSerializer.ENCODING_CONFIG, Encoding.STRUCTURED);
+            configs.put(CloudEventSerializer.EVENT_FORMAT_CONFIG, JsonFormat.CONTENT_TYPE);
+        }
+
+        return configs;
+    }
+}
@@ -0,0 +1,152 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tracking event producer configuration
+ *
+ * A profile picks batching and compression defaults; any explicitly set
+ * property overrides the profile. Idempotence is on for every profile.
+ */
+@ConfigurationProperties(prefix = "paklog.kafka.producer")
+public class KafkaPublishProperties {
+
+    public enum Profile {
+        // Send as soon as possible, small batches
+        LOW_LATENCY,
+        // Short linger, lz4
+        BALANCED,
+        // Long linger, large batches, zstd
+        THROUGHPUT
+    }
+
+    public enum Encoding {
+        // Structured-mode CloudEvents JSON; data is JSON
+        JSON,
+        // Binary-mode CloudEvents: attributes in headers, data is Avro binary
+        BINARY
+    }
+
+    private Profile profile = Profile.BALANCED;
+
+    private Encoding encoding = Encoding.JSON;
+
+    // Overrides; null means use the profile default
+    private Boolean idempotent;
+    private String compressionType;
+    private Duration linger;
+    private Integer batchSize;
+    private Long bufferMemory;
+
+    // Upper bound on how long send() may block the calling request thread on a
+    // full buffer or missing metadata; a send that times out is spooled
+    private Duration maxBlock = Duration.ofSeconds(1);
+
+    // Sends awaiting broker acknowledgement before new publishes are held back
+    private int maxInFlight = 10_000;
+
+    // How long a publish waits for an in-flight slot before it is spooled
+    private Duration backpressureWait = Duration.ofMillis(50);
+
+    // How often spooled events are re-sent, and how many per pass
+    private Duration spoolRetry = Duration.ofSeconds(5);
+    private int spoolBatchSize = 500;
+
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public Boolean getIdempotent() {
+        return idempotent;
+    }
+
+    public void setIdempotent(Boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public String getCompressionType() {
+        return compressionType;
+    }
+
+    public void setCompressionType(String compressionType) {
+        this.compressionType = compressionType;
+    }
+
+    public Duration getLinger() {
+        return linger;
+    }
+
+    public void setLinger(Duration linger) {
+        this.linger = linger;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Long getBufferMemory() {
+        return bufferMemory;
+    }
+
+    public void setBufferMemory(Long bufferMemory) {
+        this.bufferMemory = bufferMemory;
+    }
+
+    public Duration getMaxBlock() {
+        return maxBlock;
+    }
+
+    public void setMaxBlock(Duration maxBlock) {
+        this.maxBlock = maxBlock;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getBackpressureWait() {
+        return backpressureWait;
+    }
+
+    public void setBackpressureWait(Duration backpressureWait) {
+        this.backpressureWait = backpressureWait;
+    }
+
+    public Duration getSpoolRetry() {
+        return spoolRetry;
+    }
+
+    public void setSpoolRetry(Duration spoolRetry) {
+        this.spoolRetry = spoolRetry;
+    }
+
+    public int getSpoolBatchSize() {
+        return spoolBatchSize;
+    }
+
+    public void setSpoolBatchSize(int spoolBatchSize) {
+        this.spoolBatchSize = spoolBatchSize;
+    }
+}
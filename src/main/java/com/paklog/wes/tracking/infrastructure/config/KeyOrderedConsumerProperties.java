@@ -0,0 +1,60 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Key-ordered parallel processing of per-record listeners
+ *
+ * When enabled, records of one partition are handled concurrently on a worker
+ * pool, in order per key; offsets are committed up to the lowest record not
+ * yet handled. When disabled, records are handled on the consumer thread one
+ * at a time.
+ */
+@ConfigurationProperties(prefix = "paklog.kafka.consumer.key-ordered")
+public class KeyOrderedConsumerProperties {
+
+    private boolean enabled = false;
+
+    // Worker threads shared by all key-ordered listeners
+    private int workers = 16;
+
+    // Records dispatched and not yet handled before the consumer thread waits
+    private int maxInFlight = 1_000;
+
+    // How long a revoked partition's in-flight records may finish before its offsets are committed
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public void setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+}
@@ -0,0 +1,77 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Archiving of final-state license plates out of the live collection
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.archive")
+public class LicensePlateArchiveProperties {
+
+    private boolean enabled = true;
+
+    // Final-state license plates untouched for this long are archived
+    private Duration age = Duration.ofDays(30);
+
+    // Delay between archive runs
+    private Duration interval = Duration.ofHours(1);
+
+    // License plates moved per bulk copy and delete
+    private int batchSize = 500;
+
+    // Pause between batches, keeping the archiver's share of primary write capacity small
+    private Duration pause = Duration.ofMillis(200);
+
+    // Batches per run; the rest waits for the next run
+    private int maxBatchesPerRun = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getAge() {
+        return age;
+    }
+
+    public void setAge(Duration age) {
+        this.age = age;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
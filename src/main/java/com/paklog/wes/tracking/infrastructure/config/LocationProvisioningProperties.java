@@ -0,0 +1,52 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Location master ingestion and the fallback for locations never provisioned
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.locations")
+public class LocationProvisioningProperties {
+
+    // Definitions per bulk write
+    private int batchSize = 1000;
+
+    // Capacity given to a location first seen on a move, before its master data arrives
+    private int fallbackMaxQuantity = 1000;
+    private BigDecimal fallbackMaxWeight = new BigDecimal("1000");
+    private BigDecimal fallbackMaxVolume = new BigDecimal("10");
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getFallbackMaxQuantity() {
+        return fallbackMaxQuantity;
+    }
+
+    public void setFallbackMaxQuantity(int fallbackMaxQuantity) {
+        this.fallbackMaxQuantity = fallbackMaxQuantity;
+    }
+
+    public BigDecimal getFallbackMaxWeight() {
+        return fallbackMaxWeight;
+    }
+
+    public void setFallbackMaxWeight(BigDecimal fallbackMaxWeight) {
+        this.fallbackMaxWeight = fallbackMaxWeight;
+    }
+
+    public BigDecimal getFallbackMaxVolume() {
+        return fallbackMaxVolume;
+    }
+
+    public void setFallbackMaxVolume(BigDecimal fallbackMaxVolume) {
+        this.fallbackMaxVolume = fallbackMaxVolume;
+    }
+}
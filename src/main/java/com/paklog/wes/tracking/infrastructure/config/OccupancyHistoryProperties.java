@@ -0,0 +1,99 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Location utilization history configuration
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.history")
+public class OccupancyHistoryProperties {
+
+    private boolean enabled = true;
+
+    // Samples held between writes; further samples are dropped until the writer catches up
+    private int bufferSize = 10_000;
+
+    // Samples per insert
+    private int batchSize = 500;
+
+    // Buffered samples are written this often
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    // Minute and hour buckets are recomputed this often
+    private Duration rollupInterval = Duration.ofMinutes(1);
+
+    // Roll-ups reach back this far, picking up samples flushed late by other pods
+    private Duration lateness = Duration.ofMinutes(2);
+
+    // Raw samples expire after this long
+    private Duration sampleRetention = Duration.ofDays(7);
+
+    // Minute buckets expire after this long; hour buckets are kept
+    private Duration minuteRetention = Duration.ofDays(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getRollupInterval() {
+        return rollupInterval;
+    }
+
+    public void setRollupInterval(Duration rollupInterval) {
+        this.rollupInterval = rollupInterval;
+    }
+
+    public Duration getLateness() {
+        return lateness;
+    }
+
+    public void setLateness(Duration lateness) {
+        this.lateness = lateness;
+    }
+
+    public Duration getSampleRetention() {
+        return sampleRetention;
+    }
+
+    public void setSampleRetention(Duration sampleRetention) {
+        this.sampleRetention = sampleRetention;
+    }
+
+    public Duration getMinuteRetention() {
+        return minuteRetention;
+    }
+
+    public void setMinuteRetention(Duration minuteRetention) {
+        this.minuteRetention = minuteRetention;
+    }
+}
@@ -0,0 +1,18 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import com.paklog.wes.tracking.infrastructure.persistence.WriteTimeListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the write-time listener that feeds causal tokens to routed reads
+ */
+@Configuration
+public class ReadRoutingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer writeTimeListener() {
+        return settings -> settings.addCommandListener(new WriteTimeListener());
+    }
+}
@@ -0,0 +1,98 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Read preference and staleness bound per read-only query type
+ *
+ * Reads run in causally consistent sessions, so a routed query never returns
+ * data older than the caller's last write regardless of the node it hits.
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.reads")
+public class ReadRoutingProperties {
+
+    public enum Query {
+        LICENSE_PLATE,
+        LICENSE_PLATES_AT_LOCATION,
+        LOCATION_STATE,
+        LOCATION_STATES,
+        SKU_LOCATIONS
+    }
+
+    // Off: every query reads from the primary without a session. Turned on per environment once its
+    // secondaries are sized for the read load
+    private boolean enabled = false;
+
+    // Applied to query types without an entry in queries
+    private Route defaults = new Route();
+
+    private Map<Query, Route> queries = new EnumMap<>(Query.class);
+
+    // Most ids accepted by one multi-get request
+    private int maxBatchSize = 200;
+
+    public Route route(Query query) {
+        return queries.getOrDefault(query, defaults);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Route getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Route defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<Query, Route> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(Map<Query, Route> queries) {
+        this.queries = queries;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public static class Route {
+
+        // primary | primaryPreferred | secondary | secondaryPreferred | nearest
+        private String readPreference = "secondaryPreferred";
+
+        // Server minimum is 90s; ignored for primary
+        private Duration maxStaleness = Duration.ofSeconds(90);
+
+        public String getReadPreference() {
+            return readPreference;
+        }
+
+        public void setReadPreference(String readPreference) {
+            this.readPreference = readPreference;
+        }
+
+        public Duration getMaxStaleness() {
+            return maxStaleness;
+        }
+
+        public void setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+    }
+}
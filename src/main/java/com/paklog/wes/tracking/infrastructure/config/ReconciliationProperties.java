@@ -0,0 +1,43 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * LocationState reconciliation job configuration
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.reconciliation")
+public class ReconciliationProperties {
+
+    // Warehouse/zone partitions processed concurrently
+    private int parallelism = 4;
+
+    // Corrections per bulk write
+    private int batchSize = 500;
+
+    // Cursor batch size for the drift aggregation
+    private int cursorBatchSize = 1000;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getCursorBatchSize() {
+        return cursorBatchSize;
+    }
+
+    public void setCursorBatchSize(int cursorBatchSize) {
+        this.cursorBatchSize = cursorBatchSize;
+    }
+}
@@ -0,0 +1,44 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Serialized response cache for single license plate and location state reads
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.response-cache")
+public class ResponseCacheProperties {
+
+    // Off: every read is mapped and serialized
+    private boolean enabled = true;
+
+    // Total serialized bytes held per pod; least recently read responses go first
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Larger responses are serialized on every read rather than crowd out many small ones
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+}
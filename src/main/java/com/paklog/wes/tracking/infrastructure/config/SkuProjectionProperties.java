@@ -0,0 +1,44 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Automatic rebuilds of the SKU-to-location projection
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.sku-projection")
+public class SkuProjectionProperties {
+
+    private boolean enabled = true;
+
+    // Delay between rebuilds of warehouses whose deltas failed to apply
+    private Duration repairInterval = Duration.ofMinutes(1);
+
+    // Delay between rebuilds of every warehouse, catching deltas lost without a failure; zero turns sweeps off
+    private Duration sweepInterval = Duration.ofHours(24);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRepairInterval() {
+        return repairInterval;
+    }
+
+    public void setRepairInterval(Duration repairInterval) {
+        this.repairInterval = repairInterval;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+}
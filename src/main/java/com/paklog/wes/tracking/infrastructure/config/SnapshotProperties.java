@@ -0,0 +1,68 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warehouse state snapshot configuration
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.snapshots")
+public class SnapshotProperties {
+
+    private boolean enabled = false;
+
+    // Local disk or mounted volume; one file per warehouse
+    private String directory = "snapshots";
+
+    // Warehouses held in WarehouseStateView
+    private List<String> warehouses = new ArrayList<>();
+
+    // Catch up from MongoDB and rewrite the snapshot this often
+    private Duration interval = Duration.ofMinutes(5);
+
+    // Replay starts this far before the high-water mark, covering clock skew between pods
+    private Duration replayOverlap = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public List<String> getWarehouses() {
+        return warehouses;
+    }
+
+    public void setWarehouses(List<String> warehouses) {
+        this.warehouses = warehouses;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getReplayOverlap() {
+        return replayOverlap;
+    }
+
+    public void setReplayOverlap(Duration replayOverlap) {
+        this.replayOverlap = replayOverlap;
+    }
+}
@@ -0,0 +1,85 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trace and log sampling configuration
+ *
+ * Operations are command names (move_license_plate) and inbound event types
+ * (InventoryMovedEvent) for logs. A trace is keyed by the operation of the
+ * HTTP route that started it (routes), else by its root span name. Errors and
+ * operations slower than the slow threshold are always kept.
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.sampling")
+public class TelemetrySamplingProperties {
+
+    // false keeps everything, as before sampling was introduced
+    private boolean enabled = true;
+
+    // Fraction of normal operations kept when no per-operation rate is set
+    private double defaultRate = 0.05;
+
+    // Per-operation overrides of the default rate
+    private Map<String, Double> rates = new HashMap<>();
+
+    // Operation per HTTP route, "METHOD /path/{pattern}", so traces started by a request share its rate
+    private Map<String, String> routes = new HashMap<>();
+
+    // Upper bound on sampled operations per second, per operation
+    private int maxPerSecond = 50;
+
+    // Operations at least this slow are always kept
+    private Duration slowThreshold = Duration.ofMillis(250);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public void setRates(Map<String, Double> rates) {
+        this.rates = rates;
+    }
+
+    public Map<String, String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, String> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+}
@@ -0,0 +1,31 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import com.paklog.wes.tracking.infrastructure.telemetry.AdaptiveTraceSampler;
+import com.paklog.wes.tracking.infrastructure.telemetry.SlowOrFailedSpanProcessor;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces the fixed-probability trace sampler with per-operation sampling
+ * that still exports failed and slow spans
+ */
+@Configuration
+@ConditionalOnClass(Sampler.class)
+public class TracingSamplingConfig {
+
+    @Bean
+    public Sampler trackingTraceSampler(TelemetrySampler sampler) {
+        return new AdaptiveTraceSampler(sampler);
+    }
+
+    @Bean
+    public SpanProcessor slowOrFailedSpanProcessor(ObjectProvider<SpanExporter> exporters, TelemetrySampler sampler) {
+        return new SlowOrFailedSpanProcessor(SpanExporter.composite(exporters.orderedStream().toList()), sampler);
+    }
+}
@@ -0,0 +1,83 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.entity.LPItem;
+import com.paklog.wes.tracking.domain.entity.Movement;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Native-image hints the framework cannot infer
+ *
+ * Mongo-mapped documents are read and written field by field through
+ * reflection, including those only reached through aggregation results and
+ * bulk writes. CloudEvents resolves its event formats and Kafka its
+ * serializers by name. Inbound event records are bound by Jackson, Avro
+ * schemas are loaded from the classpath, and the logback configuration
+ * instantiates its appenders and encoders reflectively.
+ */
+public class TrackingRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> MAPPED_TYPES = List.of(
+        LicensePlate.class,
+        LocationState.class,
+        LPItem.class,
+        Movement.class,
+        SkuLocationInventory.class,
+        LicensePlateStatus.class,
+        LicensePlateType.class,
+        MovementType.class,
+        OccupancyStatus.class
+    );
+
+    static final List<String> INBOUND_EVENTS = List.of(
+        "com.paklog.wes.tracking.infrastructure.events.PickingCompletedEvent",
+        "com.paklog.wes.tracking.infrastructure.events.PackingCompletedEvent",
+        "com.paklog.wes.tracking.infrastructure.events.LocationCreatedEvent",
+        "com.paklog.wes.tracking.infrastructure.events.InventoryMovedEvent"
+    );
+
+    static final List<String> INSTANTIATED_BY_NAME = List.of(
+        "io.cloudevents.kafka.CloudEventSerializer",
+        "io.cloudevents.jackson.JsonFormat",
+        "org.apache.kafka.common.serialization.ByteArrayDeserializer",
+        "org.apache.kafka.common.serialization.StringSerializer",
+        "org.apache.kafka.common.serialization.StringDeserializer",
+        "com.github.loki4j.logback.Loki4jAppender",
+        "net.logstash.logback.encoder.LogstashEncoder"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : MAPPED_TYPES) {
+            hints.reflection().registerType(type,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        for (String type : INBOUND_EVENTS) {
+            hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String type : INSTANTIATED_BY_NAME) {
+            hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.resources().registerPattern("schemas/tracking/*.avsc");
+        hints.resources().registerPattern("META-INF/services/io.cloudevents.core.format.EventFormat");
+    }
+}
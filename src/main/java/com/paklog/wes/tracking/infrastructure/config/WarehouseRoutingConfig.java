@@ -0,0 +1,66 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import com.mongodb.client.MongoClient;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRoutingMongoDatabaseFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Replaces the Mongo database factory with one routed by warehouse, and
+ * creates the entity indexes in every routed database
+ *
+ * Spring Data creates indexes only in the default database at startup.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "paklog.tracking.routing", name = "enabled", havingValue = "true")
+public class WarehouseRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarehouseRoutingConfig.class);
+
+    private static final List<Class<?>> ROUTED_ENTITIES =
+        List.of(LicensePlate.class, LocationState.class, SkuLocationInventory.class);
+
+    @Bean
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient, WarehouseRouting routing) {
+        return new WarehouseRoutingMongoDatabaseFactory(mongoClient, routing);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> routedIndexes(WarehouseRouting routing,
+                                                                    MongoTemplate mongoTemplate,
+                                                                    MongoMappingContext mappingContext) {
+        return event -> {
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+            for (WarehouseRouting.Route route : routing.routes()) {
+                try {
+                    WarehouseContext.run(route.warehouseId(), () -> {
+                        for (Class<?> entity : ROUTED_ENTITIES) {
+                            IndexOperations indexes = mongoTemplate.indexOps(entity);
+                            resolver.resolveIndexFor(entity).forEach(indexes::ensureIndex);
+                        }
+                    });
+                } catch (Exception e) {
+                    logger.warn("Failed to create indexes in database {}", route.database(), e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-warehouse database routing
+ */
+@ConfigurationProperties(prefix = "paklog.tracking.routing")
+public class WarehouseRoutingProperties {
+
+    private boolean enabled = false;
+
+    // warehouseId to database; warehouses not listed stay in the default database
+    private Map<String, String> databases = new LinkedHashMap<>();
+
+    // Databases queried concurrently by cross-warehouse admin queries
+    private int fanOutParallelism = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, String> getDatabases() {
+        return databases;
+    }
+
+    public void setDatabases(Map<String, String> databases) {
+        this.databases = databases;
+    }
+
+    public int getFanOutParallelism() {
+        return fanOutParallelism;
+    }
+
+    public void setFanOutParallelism(int fanOutParallelism) {
+        this.fanOutParallelism = fanOutParallelism;
+    }
+}
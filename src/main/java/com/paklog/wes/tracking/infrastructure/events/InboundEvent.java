@@ -0,0 +1,51 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Typed payload of an inbound warehouse event
+ */
+interface InboundEvent {
+
+    String type();
+
+    /**
+     * Warehouse the event belongs to, or null when the payload does not say
+     */
+    default String warehouseId() {
+        return null;
+    }
+
+    /**
+     * Every aggregate handling the event writes (license plates, locations),
+     * or the entity whose events must stay in order when it writes none;
+     * empty to fall back to the record key
+     *
+     * Records sharing any key are handled one after another, so two events
+     * writing the same location never load and save it concurrently.
+     */
+    default List<String> orderingKeys() {
+        return List.of();
+    }
+
+    static String licensePlateKey(String licensePlateId) {
+        return licensePlateId != null ? "license-plate:" + licensePlateId : null;
+    }
+
+    static String locationKey(String locationId) {
+        return locationId != null ? "location:" + locationId : null;
+    }
+
+    static String orderKey(String orderId) {
+        return orderId != null ? "order:" + orderId : null;
+    }
+
+    /**
+     * Non-null keys, without duplicates
+     */
+    static List<String> keys(String... keys) {
+        return Arrays.stream(keys).filter(Objects::nonNull).distinct().toList();
+    }
+}
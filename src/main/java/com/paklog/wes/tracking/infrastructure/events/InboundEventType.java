@@ -0,0 +1,138 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Determines the event type of an inbound record without parsing its payload
+ *
+ * Binary-mode CloudEvents carry the type in the ce_type header. Otherwise the
+ * first bytes of the JSON payload are scanned for a top-level "type" member;
+ * the scan tracks nesting and string state but builds no tree, and gives up
+ * (source NONE) on escapes or when the member is not within the scan window.
+ */
+final class InboundEventType {
+
+    static final String TYPE_HEADER = "ce_type";
+    static final int SCAN_LIMIT = 1024;
+
+    private static final byte[] TYPE_KEY = "type".getBytes(StandardCharsets.US_ASCII);
+
+    enum Source {
+        HEADER("header"),
+        PREFIX_SCAN("prefix_scan"),
+        NONE("parsed");
+
+        private final String tag;
+
+        Source(String tag) {
+            this.tag = tag;
+        }
+
+        String tag() {
+            return tag;
+        }
+    }
+
+    record Peek(String type, Source source) {
+
+        static final Peek UNKNOWN = new Peek(null, Source.NONE);
+
+        boolean known() {
+            return type != null;
+        }
+    }
+
+    private InboundEventType() {
+    }
+
+    static Peek peek(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(TYPE_HEADER);
+        if (header != null && header.value() != null) {
+            return new Peek(new String(header.value(), StandardCharsets.UTF_8), Source.HEADER);
+        }
+        String scanned = scan(record.value());
+        return scanned != null ? new Peek(scanned, Source.PREFIX_SCAN) : Peek.UNKNOWN;
+    }
+
+    /**
+     * Value of the top-level "type" string member within the first SCAN_LIMIT bytes
+     */
+    static String scan(byte[] json) {
+        if (json == null) {
+            return null;
+        }
+        int limit = Math.min(json.length, SCAN_LIMIT);
+        int depth = 0;
+        int i = 0;
+        while (i < limit) {
+            byte b = json[i];
+            if (b == '"') {
+                int start = i + 1;
+                int end = endOfString(json, start, limit);
+                if (end < 0) {
+                    return null;
+                }
+                i = end + 1;
+                if (depth == 1 && isTypeKey(json, start, end)) {
+                    int colon = skipWhitespace(json, i, limit);
+                    if (colon >= limit || json[colon] != ':') {
+                        continue;
+                    }
+                    int valueStart = skipWhitespace(json, colon + 1, limit);
+                    if (valueStart >= limit || json[valueStart] != '"') {
+                        return null;
+                    }
+                    int valueEnd = endOfString(json, valueStart + 1, limit);
+                    return valueEnd < 0 ? null
+                        : new String(json, valueStart + 1, valueEnd - valueStart - 1, StandardCharsets.UTF_8);
+                }
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /**
+     * Index of the closing quote, or -1 if the string is escaped or runs past the limit
+     */
+    private static int endOfString(byte[] json, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (json[i] == '\\') {
+                return -1;
+            }
+            if (json[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isTypeKey(byte[] json, int start, int end) {
+        if (end - start != TYPE_KEY.length) {
+            return false;
+        }
+        for (int i = 0; i < TYPE_KEY.length; i++) {
+            if (json[start + i] != TYPE_KEY[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(byte[] json, int from, int limit) {
+        int i = from;
+        while (i < limit && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+}
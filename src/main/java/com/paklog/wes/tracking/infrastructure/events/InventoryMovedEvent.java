@@ -0,0 +1,33 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * InventoryMovedEvent from inventory-service
+ *
+ * Producers that predate warehouseId leave it out; the license plate's
+ * warehouse is then looked up by its id.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record InventoryMovedEvent(
+        String type,
+        String warehouseId,
+        String licensePlateId,
+        String fromLocation,
+        String toLocation,
+        String performedBy
+) implements InboundEvent {
+
+    /**
+     * The license plate and both locations; the from-location is the one the
+     * event reports, which is where the license plate is when events for it
+     * arrive in order
+     */
+    @Override
+    public List<String> orderingKeys() {
+        return InboundEvent.keys(InboundEvent.licensePlateKey(licensePlateId),
+            InboundEvent.locationKey(fromLocation), InboundEvent.locationKey(toLocation));
+    }
+}
@@ -0,0 +1,242 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.paklog.wes.tracking.infrastructure.config.KeyOrderedConsumerProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs records of one partition concurrently while keeping them in order per key
+ *
+ * Each record is dispatched with the keys of every aggregate it writes (its
+ * license plate and the locations it leaves and enters; the record key when
+ * the event names none). A record starts only after every earlier record
+ * sharing any of its keys finished, so no two records load and save the same
+ * license plate or location at once; records with disjoint keys run side by
+ * side on the worker pool. Keys are registered for one record at a time, so
+ * the waits follow dispatch order and cannot form a cycle. The consumer
+ * thread waits once paklog.kafka.consumer.key-ordered.max-in-flight records
+ * are dispatched and not yet handled.
+ *
+ * Each record is acknowledged through its partition's PartitionOffsets, which
+ * only acknowledges the newest record below which everything has been
+ * handled; the container commits that offset on its next poll. When
+ * partitions are revoked, their in-flight records get up to drain-timeout to
+ * finish before the container's final commit; records still running after
+ * that are redelivered to the new owner, as with any at-least-once consumer.
+ *
+ * When disabled, records run on the consumer thread and are acknowledged as
+ * they finish, exactly as a per-record listener would.
+ */
+@Component
+public class KeyOrderedDispatcher implements ConsumerAwareRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final TrackingMetrics metrics;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final long drainTimeoutNanos;
+    private final Semaphore inFlight;
+    private final ExecutorService pool;
+    private final Executor executor;
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedDispatcher(KeyOrderedConsumerProperties properties, TrackingMetrics metrics) {
+        this.metrics = metrics;
+        this.enabled = properties.isEnabled();
+        this.maxInFlight = Math.max(1, properties.getMaxInFlight());
+        this.drainTimeoutNanos = properties.getDrainTimeout().toNanos();
+        this.inFlight = new Semaphore(maxInFlight);
+
+        if (enabled) {
+            AtomicInteger threads = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()), runnable -> {
+                Thread thread = new Thread(runnable, "key-ordered-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Once the pool is shut down, remaining records finish on the calling thread
+            this.executor = command -> {
+                try {
+                    pool.execute(command);
+                } catch (RejectedExecutionException e) {
+                    command.run();
+                }
+            };
+        } else {
+            this.pool = null;
+            this.executor = Runnable::run;
+        }
+
+        metrics.gauge(TrackingMetrics.CONSUME_IN_FLIGHT, this, KeyOrderedDispatcher::inFlightCount);
+        metrics.gauge(TrackingMetrics.CONSUME_UNCOMMITTED, this, KeyOrderedDispatcher::uncommittedCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records dispatched and not yet handled
+     */
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Records handled or in flight whose offsets cannot be committed yet
+     */
+    public int uncommittedCount() {
+        return partitions.values().stream().mapToInt(PartitionOffsets::uncommitted).sum();
+    }
+
+    /**
+     * Run task for record after every earlier record sharing one of its keys,
+     * then acknowledge as far as the partition allows
+     *
+     * keys are the aggregates the record writes; empty falls back to the record key.
+     */
+    public void dispatch(String listener, ConsumerRecord<?, ?> record, Acknowledgment acknowledgment,
+                         Collection<String> keys, Runnable task) {
+        if (!enabled) {
+            task.run();
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        inFlight.acquireUninterruptibly();
+        PartitionOffsets offsets = offsets(record);
+        PartitionOffsets.Pending pending = offsets.add(record.offset(), acknowledgment);
+        List<String> chainKeys = chainKeys(record, keys);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<CompletableFuture<Void>> previous = new ArrayList<>(chainKeys.size());
+        // Listeners share the dispatcher from their own consumer threads
+        synchronized (tails) {
+            for (String chainKey : chainKeys) {
+                CompletableFuture<Void> tail = tails.put(chainKey, done);
+                if (tail != null && !tail.isDone()) {
+                    previous.add(tail);
+                }
+            }
+        }
+        boolean blocked = !previous.isEmpty();
+        long submitted = System.nanoTime();
+
+        Runnable run = () -> {
+            metrics.recordKeyWait(listener, blocked, System.nanoTime() - submitted);
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Error handling record {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            } finally {
+                chainKeys.forEach(chainKey -> tails.remove(chainKey, done));
+                done.complete(null);
+                offsets.complete(pending);
+                inFlight.release();
+            }
+        };
+        if (blocked) {
+            CompletableFuture.allOf(previous.toArray(CompletableFuture[]::new))
+                .whenCompleteAsync((ignored, failure) -> run.run(), executor);
+        } else {
+            executor.execute(run);
+        }
+    }
+
+    /**
+     * Acknowledge a record that needs no handling, in turn with the records around it
+     */
+    public void skip(ConsumerRecord<?, ?> record, Acknowledgment acknowledgment) {
+        if (!enabled) {
+            acknowledgment.acknowledge();
+            return;
+        }
+        PartitionOffsets offsets = offsets(record);
+        offsets.complete(offsets.add(record.offset(), acknowledgment));
+    }
+
+    /**
+     * Let revoked partitions finish before the container commits their offsets
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        long deadline = System.nanoTime() + drainTimeoutNanos;
+        for (TopicPartition partition : revoked) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            if (offsets == null) {
+                continue;
+            }
+            try {
+                if (!offsets.awaitDrained(Math.max(0, deadline - System.nanoTime()))) {
+                    logger.warn("{} records of revoked partition {} still running after {}; committed through {}",
+                        offsets.uncommitted(), partition, Duration.ofNanos(drainTimeoutNanos),
+                        offsets.watermark());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            offsets.revoke();
+        }
+    }
+
+    /**
+     * Partitions already reassigned; nothing may be committed for them
+     */
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        for (TopicPartition partition : lost) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            if (offsets != null) {
+                offsets.revoke();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private PartitionOffsets offsets(ConsumerRecord<?, ?> record) {
+        return partitions.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+            ignored -> new PartitionOffsets());
+    }
+
+    private static List<String> chainKeys(ConsumerRecord<?, ?> record, Collection<String> keys) {
+        if (keys != null && !keys.isEmpty()) {
+            // Aggregates are shared across topics: a pack-out and an inventory move may write the same location
+            return List.copyOf(new LinkedHashSet<>(keys));
+        }
+        if (record.key() != null) {
+            return List.of(record.topic() + '/' + record.key());
+        }
+        // No key at all: the partition's records stay in offset order
+        return List.of(record.topic() + '-' + record.partition());
+    }
+}
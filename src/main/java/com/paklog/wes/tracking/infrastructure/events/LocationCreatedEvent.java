@@ -0,0 +1,44 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * LocationCreatedEvent from location-master-service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record LocationCreatedEvent(
+        String type,
+        String locationId,
+        String warehouseId,
+        String zone,
+        Integer maxQuantity,
+        BigDecimal maxWeight,
+        BigDecimal maxVolume,
+        Double xCoordinate,
+        Double yCoordinate,
+        Double zCoordinate,
+        String rfidZone
+) implements InboundEvent {
+
+    @Override
+    public List<String> orderingKeys() {
+        return InboundEvent.keys(InboundEvent.locationKey(locationId));
+    }
+
+    /**
+     * Whether the event carries enough to provision the location
+     */
+    boolean complete() {
+        return locationId != null && warehouseId != null
+            && maxQuantity != null && maxWeight != null && maxVolume != null;
+    }
+
+    LocationDefinition toDefinition() {
+        return new LocationDefinition(locationId, warehouseId, zone, maxQuantity, maxWeight, maxVolume,
+            xCoordinate, yCoordinate, zCoordinate, rfidZone);
+    }
+}
@@ -0,0 +1,41 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * PackingCompletedEvent from pack-ship-service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record PackingCompletedEvent(
+        String type,
+        String orderId,
+        String warehouseId,
+        String cartonId,
+        String stationId
+) implements InboundEvent {
+
+    /**
+     * The carton's license plate and the staging location it is moved to
+     */
+    @Override
+    public List<String> orderingKeys() {
+        if (cartonId == null) {
+            return InboundEvent.keys(InboundEvent.orderKey(orderId));
+        }
+        return InboundEvent.keys(InboundEvent.licensePlateKey(licensePlateId()),
+            InboundEvent.locationKey(stagingLocationId()));
+    }
+
+    String licensePlateId() {
+        return "LP-" + orderId + "-" + cartonId;
+    }
+
+    /**
+     * Shipping staging location of the station, or null when the station is unknown
+     */
+    String stagingLocationId() {
+        return stationId != null ? "STAGE-" + stationId : null;
+    }
+}
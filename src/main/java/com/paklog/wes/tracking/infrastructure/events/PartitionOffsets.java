@@ -0,0 +1,101 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Commit watermark of one partition under out-of-order completion
+ *
+ * Records are added in offset order as they are dispatched and may complete
+ * in any order. Only the newest record of the completed prefix is
+ * acknowledged, so the committed offset never passes a record that is still
+ * being handled. Completing the oldest pending record advances past every
+ * record completed behind it, amortized O(1) per record. Acknowledgements are
+ * made under the lock so they reach the container in offset order.
+ */
+final class PartitionOffsets {
+
+    /**
+     * One dispatched record
+     */
+    static final class Pending {
+
+        private final long offset;
+        private final Acknowledgment acknowledgment;
+        private boolean completed;
+
+        private Pending(long offset, Acknowledgment acknowledgment) {
+            this.offset = offset;
+            this.acknowledgment = acknowledgment;
+        }
+    }
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private long watermark = -1;
+    private boolean revoked;
+
+    synchronized Pending add(long offset, Acknowledgment acknowledgment) {
+        Pending record = new Pending(offset, acknowledgment);
+        pending.addLast(record);
+        return record;
+    }
+
+    /**
+     * Mark a record completed and acknowledge the new watermark if it advanced
+     */
+    synchronized void complete(Pending record) {
+        record.completed = true;
+        Pending advancedTo = null;
+        while (!pending.isEmpty() && pending.peekFirst().completed) {
+            advancedTo = pending.pollFirst();
+        }
+        if (advancedTo == null) {
+            return;
+        }
+        watermark = advancedTo.offset;
+        if (!revoked) {
+            advancedTo.acknowledgment.acknowledge();
+        }
+        if (pending.isEmpty()) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Highest offset with everything at or below it completed, -1 before any
+     */
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    /**
+     * Records dispatched and not yet acknowledged
+     */
+    synchronized int uncommitted() {
+        return pending.size();
+    }
+
+    /**
+     * Wait until every dispatched record completed; false if it timed out first
+     */
+    synchronized boolean awaitDrained(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (!pending.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return true;
+    }
+
+    /**
+     * Stop acknowledging; the partition now belongs to another consumer
+     */
+    synchronized void revoke() {
+        revoked = true;
+    }
+}
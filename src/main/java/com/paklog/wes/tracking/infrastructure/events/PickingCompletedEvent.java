@@ -0,0 +1,21 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * PickingCompletedEvent from pick-execution-service
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record PickingCompletedEvent(
+        String type,
+        String orderId,
+        String warehouseId
+) implements InboundEvent {
+
+    @Override
+    public List<String> orderingKeys() {
+        return InboundEvent.keys(InboundEvent.orderKey(orderId));
+    }
+}
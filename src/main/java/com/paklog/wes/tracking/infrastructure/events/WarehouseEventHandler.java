@@ -1,18 +1,49 @@
 package com.paklog.wes.tracking.infrastructure.events;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.paklog.wes.tracking.application.service.PhysicalTrackingService;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.KafkaConsumerConfig;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseDirectory;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Event handler for warehouse operation events
  * Listens to events that affect physical tracking
+ *
+ * Records arrive as raw bytes. The event type is taken from the ce_type header
+ * or a prefix scan of the payload, and records for other types are dropped
+ * before any parsing; only matching records are deserialized, straight into a
+ * typed event. Each event is handled with its warehouse bound, so writes go to
+ * that warehouse's database when routing is enabled. A move that does not say
+ * its warehouse takes the license plate's from WarehouseDirectory, and fails
+ * rather than falling back to the default database when routing is enabled
+ * and the license plate is not found. Failed events are counted in
+ * tracking.event.consume.failed.
+ *
+ * Per-record listeners hand events to KeyOrderedDispatcher, which may run them
+ * concurrently but runs events writing a common license plate or location one
+ * after another, and acknowledges offsets once everything before them has
+ * been handled.
  */
 @Component
 public class WarehouseEventHandler {
@@ -20,9 +51,22 @@ public class WarehouseEventHandler {
     private static final Logger logger = LoggerFactory.getLogger(WarehouseEventHandler.class);
 
     private final PhysicalTrackingService trackingService;
-
-    public WarehouseEventHandler(PhysicalTrackingService trackingService) {
+    private final TrackingMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final TelemetrySampler sampler;
+    private final KeyOrderedDispatcher dispatcher;
+    private final WarehouseDirectory directory;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public WarehouseEventHandler(PhysicalTrackingService trackingService, TrackingMetrics metrics,
+                                 ObjectMapper objectMapper, TelemetrySampler sampler,
+                                 KeyOrderedDispatcher dispatcher, WarehouseDirectory directory) {
         this.trackingService = trackingService;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.sampler = sampler;
+        this.dispatcher = dispatcher;
+        this.directory = directory;
     }
 
     /**
@@ -31,28 +75,19 @@ public class WarehouseEventHandler {
      */
     @KafkaListener(
             topics = "${paklog.kafka.topics.pick-events:wes-pick-events}",
-            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}"
+            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}",
+            containerFactory = KafkaConsumerConfig.KEY_ORDERED_LISTENER_FACTORY
     )
-    public void handlePickingCompleted(Map<String, Object> eventData) {
-        try {
-            String eventType = (String) eventData.get("type");
-
-            if (!"PickingCompletedEvent".equals(eventType)) {
-                return;
-            }
-
-            logger.info("Received PickingCompletedEvent: {}", eventData);
-
-            String orderId = (String) eventData.get("orderId");
-            String warehouseId = (String) eventData.get("warehouseId");
+    public void handlePickingCompleted(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        dispatch("handlePickingCompleted", "PickingCompletedEvent", PickingCompletedEvent.class,
+                record, acknowledgment, event -> {
+            sampler.atInfo(logger, "PickingCompletedEvent").log("Received PickingCompletedEvent: {}", event);
 
             // In a real system, this would update location states
             // based on the items picked
-            logger.debug("Updated location states after picking for order {}", orderId);
-
-        } catch (Exception e) {
-            logger.error("Error handling PickingCompletedEvent", e);
-        }
+            sampler.atDebug(logger, "PickingCompletedEvent")
+                .log("Updated location states after picking for order {}", event.orderId());
+        });
     }
 
     /**
@@ -61,39 +96,27 @@ public class WarehouseEventHandler {
      */
     @KafkaListener(
             topics = "${paklog.kafka.topics.pack-events:wes-pack-events}",
-            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}"
+            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}",
+            containerFactory = KafkaConsumerConfig.KEY_ORDERED_LISTENER_FACTORY
     )
-    public void handlePackingCompleted(Map<String, Object> eventData) {
-        try {
-            String eventType = (String) eventData.get("type");
-
-            if (!"PackingCompletedEvent".equals(eventType)) {
-                return;
-            }
-
-            logger.info("Received PackingCompletedEvent: {}", eventData);
-
-            String orderId = (String) eventData.get("orderId");
-            String warehouseId = (String) eventData.get("warehouseId");
-            String cartonId = (String) eventData.get("cartonId");
-            String stationId = (String) eventData.get("stationId");
+    public void handlePackingCompleted(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        dispatch("handlePackingCompleted", "PackingCompletedEvent", PackingCompletedEvent.class,
+                record, acknowledgment, event -> {
+            sampler.atInfo(logger, "PackingCompletedEvent").log("Received PackingCompletedEvent: {}", event);
 
             // Create license plate for the packed carton
-            if (cartonId != null) {
-                createPackedLicensePlate(orderId, warehouseId, cartonId, stationId);
+            if (event.cartonId() != null) {
+                createPackedLicensePlate(event);
             }
 
-            logger.info("Created license plate for packed order {}", orderId);
-
-        } catch (Exception e) {
-            logger.error("Error handling PackingCompletedEvent", e);
-        }
+            sampler.atInfo(logger, "PackingCompletedEvent")
+                .log("Created license plate for packed order {}", event.orderId());
+        });
     }
 
-    private void createPackedLicensePlate(String orderId, String warehouseId,
-                                         String cartonId, String stationId) {
+    private void createPackedLicensePlate(PackingCompletedEvent event) {
         try {
-            String licensePlateId = "LP-" + orderId + "-" + cartonId;
+            String licensePlateId = event.licensePlateId();
 
             // Check if license plate already exists
             if (trackingService.getLicensePlate(licensePlateId).isPresent()) {
@@ -104,15 +127,15 @@ public class WarehouseEventHandler {
             // Create new license plate
             trackingService.createLicensePlate(
                     licensePlateId,
-                    warehouseId,
+                    event.warehouseId(),
                     LicensePlateType.CARTON,
-                    cartonId,
+                    event.cartonId(),
                     "system"
             );
 
             // Move to shipping staging location if station is known
-            if (stationId != null) {
-                String stagingLocation = "STAGE-" + stationId;
+            String stagingLocation = event.stagingLocationId();
+            if (stagingLocation != null) {
                 trackingService.moveLicensePlate(
                         licensePlateId,
                         stagingLocation,
@@ -125,37 +148,50 @@ public class WarehouseEventHandler {
             logger.debug("Created and moved license plate {} to staging", licensePlateId);
 
         } catch (Exception e) {
-            logger.error("Error creating packed license plate for order {}", orderId, e);
+            logger.error("Error creating packed license plate for order {}", event.orderId(), e);
         }
     }
 
     /**
      * Handle LocationCreatedEvent from location-master-service
-     * Creates initial location state when new locations are configured
+     * Provisions location states with their real capacity, zone and coordinates
+     *
+     * Batch listener: every poll is upserted with one bulk write per
+     * paklog.tracking.locations.batch-size, so a warehouse go-live that emits
+     * thousands of locations does not cost a round trip per location.
      */
     @KafkaListener(
             topics = "${paklog.kafka.topics.location-events:wms-location-events}",
-            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}"
+            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}",
+            containerFactory = KafkaConsumerConfig.BATCH_LISTENER_FACTORY
     )
-    public void handleLocationCreated(Map<String, Object> eventData) {
-        try {
-            String eventType = (String) eventData.get("type");
+    public void handleLocationCreated(List<ConsumerRecord<String, byte[]>> records) {
+        List<LocationDefinition> definitions = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            consume("handleLocationCreated", "LocationCreatedEvent", LocationCreatedEvent.class, record, event -> {
+                if (!event.complete()) {
+                    logger.warn("Ignoring incomplete LocationCreatedEvent: {}", event);
+                    return;
+                }
+                sampler.atDebug(logger, "LocationCreatedEvent")
+                    .log("Location {} created in warehouse {}", event.locationId(), event.warehouseId());
+                definitions.add(event.toDefinition());
+            });
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
 
-            if (!"LocationCreatedEvent".equals(eventType)) {
-                return;
+        // One provisioning call per warehouse, each against that warehouse's database
+        Map<String, List<LocationDefinition>> byWarehouse = definitions.stream()
+            .collect(Collectors.groupingBy(LocationDefinition::warehouseId, LinkedHashMap::new, Collectors.toList()));
+        byWarehouse.forEach((warehouseId, batch) -> {
+            try {
+                WarehouseContext.run(warehouseId, () -> trackingService.provisionLocations(batch));
+            } catch (Exception e) {
+                logger.error("Error provisioning {} locations in warehouse {}", batch.size(), warehouseId, e);
             }
-
-            logger.info("Received LocationCreatedEvent: {}", eventData);
-
-            String locationId = (String) eventData.get("locationId");
-            String warehouseId = (String) eventData.get("warehouseId");
-
-            // Location state will be created on-demand when first used
-            logger.debug("Location {} created in warehouse {}", locationId, warehouseId);
-
-        } catch (Exception e) {
-            logger.error("Error handling LocationCreatedEvent", e);
-        }
+        });
     }
 
     /**
@@ -164,38 +200,112 @@ public class WarehouseEventHandler {
      */
     @KafkaListener(
             topics = "${paklog.kafka.topics.inventory-events:wms-inventory-events}",
-            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}"
+            groupId = "${paklog.kafka.consumer.group-id:physical-tracking-service}",
+            containerFactory = KafkaConsumerConfig.KEY_ORDERED_LISTENER_FACTORY
     )
-    public void handleInventoryMoved(Map<String, Object> eventData) {
-        try {
-            String eventType = (String) eventData.get("type");
-
-            if (!"InventoryMovedEvent".equals(eventType)) {
-                return;
+    public void handleInventoryMoved(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
+        dispatch("handleInventoryMoved", "InventoryMovedEvent", InventoryMovedEvent.class,
+                record, acknowledgment, event -> {
+            sampler.atInfo(logger, "InventoryMovedEvent").log("Received InventoryMovedEvent: {}", event);
+
+            if (event.licensePlateId() != null && event.toLocation() != null) {
+                WarehouseContext.run(warehouseOf(event), () -> trackingService.moveLicensePlate(
+                        event.licensePlateId(),
+                        event.toLocation(),
+                        MovementType.REPLENISHMENT,
+                        event.performedBy() != null ? event.performedBy() : "system",
+                        "Inventory movement"
+                ));
             }
 
-            logger.info("Received InventoryMovedEvent: {}", eventData);
+            sampler.atDebug(logger, "InventoryMovedEvent").log("Moved license plate {} from {} to {}",
+                    event.licensePlateId(), event.fromLocation(), event.toLocation());
+        });
+    }
 
-            String licensePlateId = (String) eventData.get("licensePlateId");
-            String fromLocation = (String) eventData.get("fromLocation");
-            String toLocation = (String) eventData.get("toLocation");
-            String performedBy = (String) eventData.get("performedBy");
+    private String warehouseOf(InventoryMovedEvent event) {
+        if (event.warehouseId() != null) {
+            return event.warehouseId();
+        }
+        String warehouseId = directory.licensePlateWarehouse(event.licensePlateId());
+        if (warehouseId == null && directory.isRouted()) {
+            throw new IllegalStateException("No warehouse found for license plate " + event.licensePlateId());
+        }
+        return warehouseId;
+    }
 
-            if (licensePlateId != null && toLocation != null) {
-                trackingService.moveLicensePlate(
-                        licensePlateId,
-                        toLocation,
-                        MovementType.REPLENISHMENT,
-                        performedBy != null ? performedBy : "system",
-                        "Inventory movement"
-                );
-            }
+    /**
+     * Filter and deserialize one record, then hand it to the dispatcher
+     *
+     * Records not addressed to the listener are acknowledged without being handled.
+     */
+    private <T extends InboundEvent> void dispatch(String listener, String expectedType, Class<T> eventClass,
+                                                   ConsumerRecord<String, byte[]> record,
+                                                   Acknowledgment acknowledgment, Consumer<T> handler) {
+        T event = read(listener, expectedType, eventClass, record);
+        if (event == null) {
+            dispatcher.skip(record, acknowledgment);
+            return;
+        }
+        dispatcher.dispatch(listener, record, acknowledgment, event.orderingKeys(),
+            () -> handle(listener, expectedType, event, handler));
+    }
+
+    /**
+     * Filter, deserialize and handle one record on the calling thread
+     */
+    private <T extends InboundEvent> void consume(String listener, String expectedType, Class<T> eventClass,
+                                                  ConsumerRecord<String, byte[]> record, Consumer<T> handler) {
+        T event = read(listener, expectedType, eventClass, record);
+        if (event != null) {
+            handle(listener, expectedType, event, handler);
+        }
+    }
 
-            logger.debug("Moved license plate {} from {} to {}",
-                    licensePlateId, fromLocation, toLocation);
+    /**
+     * Deserialize a record addressed to the listener; null if it is not, or is unreadable
+     *
+     * Records whose type is known up front and is not the expected one are
+     * counted as skipped and never parsed. Records whose type could not be
+     * determined cheaply are parsed and then checked.
+     */
+    private <T extends InboundEvent> T read(String listener, String expectedType, Class<T> eventClass,
+                                            ConsumerRecord<String, byte[]> record) {
+        InboundEventType.Peek peek = InboundEventType.peek(record);
+        if (peek.known() && !expectedType.equals(peek.type())) {
+            metrics.recordConsumeSkipped(listener, peek.source().tag());
+            return null;
+        }
 
+        T event;
+        try {
+            event = reader(eventClass).readValue(record.value());
         } catch (Exception e) {
-            logger.error("Error handling InventoryMovedEvent", e);
+            logger.error("Error reading {}", expectedType, e);
+            return null;
         }
+        if (!peek.known() && !expectedType.equals(event.type())) {
+            metrics.recordConsumeSkipped(listener, peek.source().tag());
+            return null;
+        }
+        return event;
+    }
+
+    /**
+     * Handle one event with its warehouse bound, timed by listener and event type
+     */
+    private <T extends InboundEvent> void handle(String listener, String expectedType, T event, Consumer<T> handler) {
+        metrics.recordConsume(listener, expectedType, () -> {
+            try {
+                WarehouseContext.run(event.warehouseId(), () -> handler.accept(event));
+            } catch (Exception e) {
+                metrics.recordConsumeFailed(listener, expectedType);
+                logger.error("Error handling {}", expectedType, e);
+            }
+        });
+    }
+
+    private ObjectReader reader(Class<?> eventClass) {
+        return readers.computeIfAbsent(eventClass, objectMapper::readerFor);
     }
 }
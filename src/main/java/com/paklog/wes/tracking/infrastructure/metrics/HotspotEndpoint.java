@@ -0,0 +1,28 @@
+package com.paklog.wes.tracking.infrastructure.metrics;
+
+import com.paklog.wes.tracking.application.service.HotspotTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/hotspots: most written locations and license plates
+ */
+@Component
+@Endpoint(id = "hotspots")
+public class HotspotEndpoint {
+
+    private final HotspotTracker tracker;
+
+    public HotspotEndpoint(HotspotTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    public record Hotspots(HotspotTracker.Report current, HotspotTracker.Report last) {
+    }
+
+    @ReadOperation
+    public Hotspots hotspots() {
+        return new Hotspots(tracker.currentWindow(), tracker.lastWindow());
+    }
+}
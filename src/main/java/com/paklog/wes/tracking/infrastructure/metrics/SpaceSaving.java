@@ -0,0 +1,188 @@
+package com.paklog.wes.tracking.infrastructure.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter counter over a stream of keys, in fixed memory
+ *
+ * Tracks at most capacity keys. When a new key arrives and the table is full,
+ * it takes over the slot of a key with the lowest count and inherits that count
+ * as its error, so count never underestimates and count - error never
+ * overestimates. Any key seen more than n / capacity times out of n is
+ * guaranteed to be tracked. Counters live in a stream summary (a list of count
+ * buckets in ascending order), making every offer O(1).
+ *
+ * Thread-safe; offers serialize on the instance.
+ */
+public final class SpaceSaving<K> {
+
+    /**
+     * Estimated occurrences of a key: between count - error and count
+     */
+    public record Counter<K>(K key, long count, long error) {
+
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<K, Node<K>> nodes;
+    // Lowest-count bucket; buckets are linked in ascending count order
+    private Bucket<K> min;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.nodes = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Count one occurrence of key and return its updated estimate
+     */
+    public synchronized Counter<K> offer(K key) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            increment(node);
+        } else if (nodes.size() < capacity) {
+            node = new Node<>(key, 0);
+            nodes.put(key, node);
+            insertWithCountOne(node);
+        } else {
+            // Evict a key with the lowest count; the newcomer may have been it all along
+            node = min.head;
+            nodes.remove(node.key);
+            node.key = key;
+            node.error = min.count;
+            nodes.put(key, node);
+            increment(node);
+        }
+        return new Counter<>(key, node.bucket.count, node.error);
+    }
+
+    /**
+     * Estimate for key, or empty counts when it is not tracked
+     */
+    public synchronized Counter<K> estimate(K key) {
+        Node<K> node = nodes.get(key);
+        return node != null ? new Counter<>(key, node.bucket.count, node.error) : new Counter<>(key, 0, 0);
+    }
+
+    /**
+     * Up to limit keys with the highest counts, highest first
+     */
+    public synchronized List<Counter<K>> top(int limit) {
+        List<Counter<K>> counters = new ArrayList<>(nodes.size());
+        for (Node<K> node : nodes.values()) {
+            counters.add(new Counter<>(node.key, node.bucket.count, node.error));
+        }
+        counters.sort(Comparator.comparingLong((Counter<K> counter) -> counter.count()).reversed());
+        return List.copyOf(counters.subList(0, Math.min(limit, counters.size())));
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void insertWithCountOne(Node<K> node) {
+        if (min == null || min.count != 1) {
+            Bucket<K> bucket = new Bucket<>(1);
+            bucket.next = min;
+            if (min != null) {
+                min.prev = bucket;
+            }
+            min = bucket;
+        }
+        min.add(node);
+    }
+
+    private void increment(Node<K> node) {
+        Bucket<K> from = node.bucket;
+        long target = from.count + 1;
+        Bucket<K> to = from.next;
+        if (to == null || to.count != target) {
+            to = new Bucket<>(target);
+            to.prev = from;
+            to.next = from.next;
+            if (from.next != null) {
+                from.next.prev = to;
+            }
+            from.next = to;
+        }
+        from.remove(node);
+        to.add(node);
+        if (from.head == null) {
+            unlink(from);
+        }
+    }
+
+    private void unlink(Bucket<K> bucket) {
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            min = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    private static final class Bucket<K> {
+
+        private final long count;
+        private Bucket<K> prev;
+        private Bucket<K> next;
+        private Node<K> head;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void add(Node<K> node) {
+            node.bucket = this;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            }
+            head = node;
+        }
+
+        private void remove(Node<K> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private static final class Node<K> {
+
+        private K key;
+        private long error;
+        private Bucket<K> bucket;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key, long error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+}
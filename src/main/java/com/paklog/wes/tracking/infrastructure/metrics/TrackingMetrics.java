@@ -0,0 +1,334 @@
+package com.paklog.wes.tracking.infrastructure.metrics;
+
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer timers for the tracking hot path
+ *
+ * Timers are cached per tag combination so recording costs a map lookup, not a
+ * registry lookup. Percentile histograms are switched on per metric prefix in
+ * application.yml (management.metrics.distribution).
+ *
+ * Failed and slow commands, and slow record processing, are always logged
+ * here; logging of normal operations is sampled at the call sites.
+ */
+@Component
+public class TrackingMetrics {
+
+    public static final String COMMAND = "tracking.command";
+    public static final String PHASE = "tracking.command.phase";
+    public static final String WRITE_CONFLICTS = "tracking.command.write_conflicts";
+    public static final String PUBLISH = "tracking.event.publish";
+    public static final String CONSUME = "tracking.event.consume";
+    public static final String CONSUME_SKIPPED = "tracking.event.consume.skipped";
+    public static final String CONSUME_FAILED = "tracking.event.consume.failed";
+    public static final String CONSUME_IN_FLIGHT = "tracking.event.consume.in_flight";
+    public static final String CONSUME_UNCOMMITTED = "tracking.event.consume.uncommitted";
+    public static final String CONSUME_KEY_WAIT = "tracking.event.consume.key_wait";
+    public static final String PUBLISH_FAILURES = "tracking.event.publish.failures";
+    public static final String PUBLISH_REJECTED = "tracking.event.publish.rejected";
+    public static final String PUBLISH_IN_FLIGHT = "tracking.event.publish.in_flight";
+    public static final String PUBLISH_SPOOL = "tracking.event.publish.spool";
+    public static final String LOAD = "tracking.load";
+    public static final String LOCATION_FALLBACK = "tracking.location.fallback_created";
+    public static final String SNAPSHOT = "tracking.snapshot";
+    public static final String FEED_SUBSCRIBERS = "tracking.feed.subscribers";
+    public static final String FEED_SHED = "tracking.feed.shed";
+    public static final String CHANGE_STREAM = "tracking.change_stream";
+    public static final String RESPONSE_CACHE = "tracking.response.cache";
+    public static final String RESPONSE_CACHE_BYTES = "tracking.response.cache.bytes";
+    public static final String HISTORY_SAMPLES = "tracking.history.samples";
+    public static final String HISTORY_BUFFERED = "tracking.history.buffered";
+    public static final String HISTORY_ROLLUP = "tracking.history.rollup";
+    public static final String HOTSPOT_WRITES = "tracking.hotspot.writes";
+    public static final String HOTSPOT_HINTS = "tracking.hotspot.hints";
+    public static final String ARCHIVE = "tracking.archive";
+    public static final String SKU_PROJECTION = "tracking.sku_projection";
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingMetrics.class);
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final TelemetrySampler sampler;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, MultiGauge> hotspots = new ConcurrentHashMap<>();
+
+    public TrackingMetrics(MeterRegistry registry, TelemetrySampler sampler) {
+        this.registry = registry;
+        this.sampler = sampler;
+    }
+
+    /**
+     * Time a whole command, tagged by command name and exception
+     */
+    public <T> T recordCommand(String command, Supplier<T> body) {
+        long start = System.nanoTime();
+        String exception = NONE;
+        try {
+            return body.get();
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer(COMMAND, "command", command, "exception", exception)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            if (!NONE.equals(exception)) {
+                logger.warn("Command {} failed after {} ms: {}", command, TimeUnit.NANOSECONDS.toMillis(elapsed), exception);
+            } else if (sampler.isSlow(elapsed)) {
+                logger.warn("Slow command {}: {} ms", command, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    /**
+     * Time one phase of a command (load, capacity_check, save, listeners, publish)
+     */
+    public <T> T recordPhase(String command, String phase, Supplier<T> body) {
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            timer(PHASE, "command", command, "phase", phase)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordPhase(String command, String phase, Runnable body) {
+        recordPhase(command, phase, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Record send-to-broker-ack latency for a published event
+     */
+    public void recordPublish(String eventType, long elapsedNanos, Throwable failure) {
+        timer(PUBLISH, "type", eventType, "outcome", failure == null ? "acked" : "failed")
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            counter(PUBLISH_FAILURES, "type", eventType, "exception", rootCause(failure).getClass().getSimpleName())
+                .increment();
+        }
+    }
+
+    /**
+     * Count a publish rejected because too many sends were awaiting acknowledgement
+     */
+    public void recordPublishRejected(String eventType) {
+        counter(PUBLISH_REJECTED, "type", eventType, "reason", "backpressure").increment();
+    }
+
+    /**
+     * Count an unpublished event spooled, re-sent from the spool, or lost
+     * because the spool could not be written
+     */
+    public void recordPublishSpool(String eventType, String outcome) {
+        counter(PUBLISH_SPOOL, "type", eventType, "outcome", outcome).increment();
+    }
+
+    /**
+     * Register a gauge sampled from a state object
+     */
+    public <T> void gauge(String name, T state, ToDoubleFunction<T> value) {
+        Gauge.builder(name, state, value).register(registry);
+    }
+
+    /**
+     * Time processing of one consumed record, tagged by listener and event type
+     */
+    public void recordConsume(String listener, String eventType, Runnable body) {
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer(CONSUME, "listener", listener, "type", eventType)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            if (sampler.isSlow(elapsed)) {
+                logger.warn("Slow record in {} ({}): {} ms", listener, eventType, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    /**
+     * Count a record whose handling threw, by listener and event type
+     */
+    public void recordConsumeFailed(String listener, String eventType) {
+        counter(CONSUME_FAILED, "listener", listener, "type", eventType).increment();
+    }
+
+    /**
+     * Count a consumed record dropped as not addressed to the listener, tagged
+     * by how its type was determined (header, prefix_scan, or parsed)
+     */
+    public void recordConsumeSkipped(String listener, String source) {
+        counter(CONSUME_SKIPPED, "listener", listener, "source", source).increment();
+    }
+
+    /**
+     * Time from dispatching a record to a worker starting it, tagged by whether
+     * it had to wait for an earlier record with the same key
+     */
+    public void recordKeyWait(String listener, boolean blocked, long elapsedNanos) {
+        timer(CONSUME_KEY_WAIT, "listener", listener, "blocked", String.valueOf(blocked))
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a versioned save rejected because another writer saved the aggregate first
+     */
+    public void recordWriteConflict(String command, String aggregate) {
+        counter(WRITE_CONFLICTS, "command", command, "aggregate", aggregate).increment();
+    }
+
+    /**
+     * Count an aggregate load by outcome: fetched (own database call), coalesced
+     * (shared another caller's call), created, create_conflict or archived
+     */
+    public void recordLoad(String aggregate, String outcome) {
+        counter(LOAD, "aggregate", aggregate, "outcome", outcome).increment();
+    }
+
+    /**
+     * Count aggregates resolved by a multi-get: cache_hit, batch_fetched or archived
+     */
+    public void recordLoads(String aggregate, String outcome, int count) {
+        if (count > 0) {
+            counter(LOAD, "aggregate", aggregate, "outcome", outcome).increment(count);
+        }
+    }
+
+    /**
+     * Count a location state created with fallback capacity because no master
+     * data had been provisioned for it
+     */
+    public void recordLocationFallback(String command, String warehouseId) {
+        counter(LOCATION_FALLBACK, "command", command, "warehouse", String.valueOf(warehouseId)).increment();
+    }
+
+    /**
+     * Time a warehouse snapshot operation (load, replay, write), tagged by
+     * outcome (ok, missing, invalid, failed)
+     */
+    public void recordSnapshot(String operation, String outcome, long elapsedNanos) {
+        timer(SNAPSHOT, "operation", operation, "outcome", outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a change feed subscription closed because its buffer overflowed
+     */
+    public void recordFeedShed(String warehouseId) {
+        counter(FEED_SHED, "warehouse", String.valueOf(warehouseId), "reason", "slow_consumer").increment();
+    }
+
+    /**
+     * Count change stream events by database and outcome (delivered, restarted)
+     */
+    public void recordChangeStream(String database, String outcome) {
+        counter(CHANGE_STREAM, "database", String.valueOf(database), "outcome", outcome).increment();
+    }
+
+    /**
+     * Count a single-aggregate read by response cache outcome (hit, miss, too_large)
+     */
+    public void recordResponseCache(String aggregate, String outcome) {
+        counter(RESPONSE_CACHE, "aggregate", aggregate, "outcome", outcome).increment();
+    }
+
+    /**
+     * Count utilization samples by stage (buffer, write) and outcome (dropped, written, failed)
+     */
+    public void recordHistorySamples(String stage, String outcome, int count) {
+        if (count > 0) {
+            counter(HISTORY_SAMPLES, "stage", stage, "outcome", outcome).increment(count);
+        }
+    }
+
+    /**
+     * Time a utilization roll-up, tagged by granularity and outcome (ok, failed)
+     */
+    public void recordHistoryRollup(String granularity, String outcome, long elapsedNanos) {
+        timer(HISTORY_ROLLUP, "granularity", granularity, "outcome", outcome)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publish the top writers of a window as one gauge per id, replacing the
+     * previous window's ids so the series stay bounded by top-K
+     */
+    public void recordHotspots(String kind, List<SpaceSaving.Counter<String>> top) {
+        MultiGauge gauge = hotspots.computeIfAbsent(kind, ignored -> MultiGauge.builder(HOTSPOT_WRITES)
+            .description("Writes per window of the most written ids")
+            .register(registry));
+        gauge.register(top.stream()
+            .<MultiGauge.Row<?>>map(counter ->
+                MultiGauge.Row.of(Tags.of("kind", kind, "id", counter.key()), counter.count()))
+            .toList(), true);
+    }
+
+    /**
+     * Count a location crossing the hotness threshold
+     */
+    public void recordHotspotHint(String warehouseId) {
+        counter(HOTSPOT_HINTS, "kind", "location", "warehouse", String.valueOf(warehouseId)).increment();
+    }
+
+    /**
+     * Count license plates moved to the archive (archived), or archive batches
+     * that failed and left their plates in place (failed)
+     */
+    public void recordArchive(String outcome, int count) {
+        if (count > 0) {
+            counter(ARCHIVE, "aggregate", "license_plate", "outcome", outcome).increment(count);
+        }
+    }
+
+    /**
+     * Count SKU projection deltas that failed to apply (failed), and rebuilds
+     * of marked (repaired) or all warehouses (swept) or that failed (rebuild_failed)
+     */
+    public void recordSkuProjection(String warehouseId, String outcome) {
+        counter(SKU_PROJECTION, "warehouse", String.valueOf(warehouseId), "outcome", outcome).increment();
+    }
+
+    private Counter counter(String name, String key1, String value1, String key2, String value2) {
+        return counters.computeIfAbsent(name + '|' + value1 + '|' + value2, ignored -> Counter.builder(name)
+            .tag(key1, value1)
+            .tag(key2, value2)
+            .register(registry));
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private Timer timer(String name, String key1, String value1, String key2, String value2) {
+        return timers.computeIfAbsent(name + '|' + value1 + '|' + value2, ignored -> Timer.builder(name)
+            .tag(key1, value1)
+            .tag(key2, value2)
+            .register(registry));
+    }
+}
@@ -0,0 +1,52 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets version 0 on license plates and location states written before they were versioned
+ *
+ * A loaded aggregate without a version would be saved as new and collide
+ * with its own document, so this runs once the context is built and before
+ * listener containers and the web server start. Idempotent: only documents
+ * without a version are touched.
+ */
+@Component
+public class AggregateVersionBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateVersionBackfill.class);
+
+    private final LicensePlateRepository licensePlateRepository;
+    private final LocationStateRepository locationStateRepository;
+    private final WarehouseRouting routing;
+
+    public AggregateVersionBackfill(LicensePlateRepository licensePlateRepository,
+                                    LocationStateRepository locationStateRepository,
+                                    WarehouseRouting routing) {
+        this.licensePlateRepository = licensePlateRepository;
+        this.locationStateRepository = locationStateRepository;
+        this.routing = routing;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            long licensePlates = routing.fanOut(licensePlateRepository::backfillVersions).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+            long locationStates = routing.fanOut(locationStateRepository::backfillVersions).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+            if (licensePlates + locationStates > 0) {
+                logger.info("Backfilled versions on {} license plates and {} location states",
+                    licensePlates, locationStates);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to backfill aggregate versions", e);
+        }
+    }
+}
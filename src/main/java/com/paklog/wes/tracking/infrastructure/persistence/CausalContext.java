@@ -0,0 +1,50 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+/**
+ * Causal position of the current thread: the token a client presented and the
+ * last write this thread performed
+ *
+ * Request threads are cleared when the request completes. Listener threads
+ * keep their last write, so a consumer always reads what it has written.
+ */
+public final class CausalContext {
+
+    private static final ThreadLocal<CausalToken> OBSERVED = new ThreadLocal<>();
+    private static final ThreadLocal<CausalToken> LAST_WRITE = new ThreadLocal<>();
+
+    private CausalContext() {
+    }
+
+    /**
+     * Record a token presented by the client
+     */
+    public static void observe(CausalToken token) {
+        OBSERVED.set(CausalToken.later(OBSERVED.get(), token));
+    }
+
+    /**
+     * Record the operation time of a write on this thread
+     */
+    public static void recordWrite(CausalToken token) {
+        LAST_WRITE.set(CausalToken.later(LAST_WRITE.get(), token));
+    }
+
+    /**
+     * Last write performed on this thread, or null
+     */
+    public static CausalToken lastWrite() {
+        return LAST_WRITE.get();
+    }
+
+    /**
+     * Point reads must wait for, or null for no constraint
+     */
+    public static CausalToken current() {
+        return CausalToken.later(OBSERVED.get(), LAST_WRITE.get());
+    }
+
+    public static void clear() {
+        OBSERVED.remove();
+        LAST_WRITE.remove();
+    }
+}
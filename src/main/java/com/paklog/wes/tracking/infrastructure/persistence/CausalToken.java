@@ -0,0 +1,79 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Operation and cluster time of a write, carried between requests so a later
+ * read can wait for that write on whichever member it is routed to
+ *
+ * The cluster time document is passed through as received, signature included,
+ * so a node that has not yet seen that time can still accept it.
+ */
+public record CausalToken(BsonTimestamp operationTime, BsonDocument clusterTime) {
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    /**
+     * Token from a command response, or null when the deployment reports no operation time
+     */
+    public static CausalToken from(BsonDocument response) {
+        if (response == null || !response.isTimestamp("operationTime")) {
+            return null;
+        }
+        BsonDocument clusterTime = response.isDocument("$clusterTime") ? response.getDocument("$clusterTime") : null;
+        return new CausalToken(response.getTimestamp("operationTime"), clusterTime);
+    }
+
+    /**
+     * The later of two tokens; either may be null
+     */
+    public static CausalToken later(CausalToken a, CausalToken b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.operationTime.compareTo(b.operationTime) >= 0 ? a : b;
+    }
+
+    /**
+     * URL-safe header value
+     */
+    public String encode() {
+        BsonDocument document = new BsonDocument("t", operationTime);
+        if (clusterTime != null) {
+            document.put("c", clusterTime);
+        }
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+             BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            CODEC.encode(writer, document, EncoderContext.builder().build());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.toByteArray());
+        }
+    }
+
+    /**
+     * Parse a header value
+     *
+     * @throws IllegalArgumentException if the value is not a token
+     */
+    public static CausalToken decode(String value) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(Base64.getUrlDecoder().decode(value)))) {
+            BsonDocument document = CODEC.decode(reader, DecoderContext.builder().build());
+            BsonDocument clusterTime = document.isDocument("c") ? document.getDocument("c") : null;
+            return new CausalToken(document.getTimestamp("t"), clusterTime);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid causal token", e);
+        }
+    }
+}
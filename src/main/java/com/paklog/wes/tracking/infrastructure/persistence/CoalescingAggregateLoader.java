@@ -0,0 +1,96 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.AggregateLoader;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * AggregateLoader that single-flights findById per aggregate type
+ *
+ * What is shared between concurrent callers is the raw document; each caller
+ * maps its own aggregate from it, so no two commands ever mutate the same
+ * instance. A caller joining a load that began before another command's save
+ * gets the older version; its own save is then rejected by the version check
+ * rather than clobbering that command's write. Missing location states are
+ * created with insert, which the unique _id makes atomic across threads and
+ * instances. Saves also evict the aggregate from the multi-get TrackingCache.
+ */
+@Repository
+public class CoalescingAggregateLoader implements AggregateLoader {
+
+    static final String LICENSE_PLATE = "license_plate";
+    static final String LOCATION_STATE = "location_state";
+
+    private final MongoTemplate mongoTemplate;
+    private final TrackingMetrics metrics;
+    private final TrackingCache cache;
+    private final String licensePlates;
+    private final String locationStates;
+    private final SingleFlight<String, Optional<Document>> licensePlateLoads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Document>> locationStateLoads = new SingleFlight<>();
+
+    public CoalescingAggregateLoader(MongoTemplate mongoTemplate, TrackingMetrics metrics, TrackingCache cache) {
+        this.mongoTemplate = mongoTemplate;
+        this.metrics = metrics;
+        this.cache = cache;
+        this.licensePlates = mongoTemplate.getCollectionName(LicensePlate.class);
+        this.locationStates = mongoTemplate.getCollectionName(LocationState.class);
+    }
+
+    @Override
+    public Optional<LicensePlate> loadLicensePlate(String licensePlateId) {
+        return load(LICENSE_PLATE, licensePlateLoads, licensePlates, licensePlateId, LicensePlate.class);
+    }
+
+    @Override
+    public Optional<LocationState> loadLocationState(String locationId) {
+        return load(LOCATION_STATE, locationStateLoads, locationStates, locationId, LocationState.class);
+    }
+
+    @Override
+    public LocationState loadOrCreateLocationState(String locationId, Supplier<LocationState> initial) {
+        Optional<LocationState> existing = loadLocationState(locationId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            LocationState created = mongoTemplate.insert(initial.get());
+            locationStateLoads.forget(WarehouseContext.key(locationId));
+            metrics.recordLoad(LOCATION_STATE, "created");
+            return created;
+        } catch (DuplicateKeyException e) {
+            // Another caller created it between our load and insert
+            metrics.recordLoad(LOCATION_STATE, "create_conflict");
+            return mongoTemplate.findById(locationId, LocationState.class);
+        }
+    }
+
+    @Override
+    public void licensePlateSaved(String licensePlateId) {
+        licensePlateLoads.forget(WarehouseContext.key(licensePlateId));
+        cache.evict(TrackingCache.LICENSE_PLATES, licensePlateId);
+    }
+
+    @Override
+    public void locationStateSaved(String locationId) {
+        locationStateLoads.forget(WarehouseContext.key(locationId));
+        cache.evict(TrackingCache.LOCATION_STATES, locationId);
+    }
+
+    private <T> Optional<T> load(String aggregate, SingleFlight<String, Optional<Document>> flights,
+                                 String collection, String id, Class<T> type) {
+        // Keyed by warehouse too: callers routed to different databases must not share a load
+        SingleFlight.Result<Optional<Document>> result = flights.load(WarehouseContext.key(id), ignored ->
+            Optional.ofNullable(mongoTemplate.findById(id, Document.class, collection)));
+        metrics.recordLoad(aggregate, result.coalesced() ? "coalesced" : "fetched");
+        return result.value().map(document -> mongoTemplate.getConverter().read(type, document));
+    }
+}
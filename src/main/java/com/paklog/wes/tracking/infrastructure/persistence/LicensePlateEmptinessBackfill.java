@@ -0,0 +1,42 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Populates the indexed emptiness fields on license plates written before they existed
+ *
+ * Idempotent: only documents without itemCount, or involved in nesting, are
+ * recomputed, and unchanged results are not rewritten.
+ */
+@Component
+public class LicensePlateEmptinessBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(LicensePlateEmptinessBackfill.class);
+
+    private final LicensePlateRepository licensePlateRepository;
+    private final WarehouseRouting routing;
+
+    public LicensePlateEmptinessBackfill(LicensePlateRepository licensePlateRepository, WarehouseRouting routing) {
+        this.licensePlateRepository = licensePlateRepository;
+        this.routing = routing;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long updated = routing.fanOut(licensePlateRepository::backfillEmptinessFields).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+            if (updated > 0) {
+                logger.info("Backfilled emptiness fields on {} license plates", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to backfill license plate emptiness fields", e);
+        }
+    }
+}
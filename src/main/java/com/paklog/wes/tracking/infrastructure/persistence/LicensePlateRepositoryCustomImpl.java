@@ -0,0 +1,130 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.client.model.Filters;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepositoryCustom;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * MongoTemplate-backed implementation of LicensePlateRepositoryCustom
+ */
+public class LicensePlateRepositoryCustomImpl implements LicensePlateRepositoryCustom {
+
+    // Final-state license plates moved out of license_plates; only read by id
+    public static final String ARCHIVE = "license_plates_archive";
+
+    private final MongoTemplate mongoTemplate;
+
+    public LicensePlateRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<LicensePlate> allocateEmptyLicensePlate(String warehouseId, LicensePlateType type,
+                                                           String allocatedTo) {
+        // Served by the partial empty_available index
+        Query query = new Query(Criteria.where("warehouseId").is(warehouseId)
+            .and("type").is(type)
+            .and("emptyAvailable").is(true));
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+            .set("allocatedTo", allocatedTo)
+            .set("allocatedAt", now)
+            .set("emptyAvailable", false)
+            .set("updatedAt", now)
+            .inc("version", 1);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+            query, update, FindAndModifyOptions.options().returnNew(true), LicensePlate.class
+        ));
+    }
+
+    @Override
+    public long backfillEmptinessFields() {
+        Document itemCount = new Document("$add", List.of(
+            new Document("$size", new Document("$ifNull", Arrays.asList("$items", List.of()))),
+            new Document("$size", new Document("$ifNull", Arrays.asList("$childLicensePlateIds", List.of())))
+        ));
+        List<String> finalStates = finalStates();
+
+        Document emptyAvailable = new Document("$and", List.of(
+            new Document("$eq", Arrays.asList(itemCount, 0)),
+            new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList("$parentLicensePlateId", null)), null)),
+            new Document("$not", List.of(new Document("$in", Arrays.asList("$status", finalStates)))),
+            new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList("$allocatedTo", null)), null))
+        ));
+
+        List<Document> pipeline = List.of(new Document("$set", new Document("itemCount", itemCount)
+            .append("emptyAvailable", emptyAvailable)));
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(LicensePlate.class))
+            .updateMany(Filters.or(
+                Filters.exists("itemCount", false),
+                // Written before nested license plates counted: parents counted empty
+                // (empty index) and children could be allocated (parent index)
+                Filters.and(Filters.eq("itemCount", 0), Filters.exists("childLicensePlateIds.0")),
+                Filters.exists("parentLicensePlateId")
+            ), pipeline)
+            .getModifiedCount();
+    }
+
+    @Override
+    public long backfillVersions() {
+        return mongoTemplate.updateMulti(
+            new Query(Criteria.where("version").exists(false)), new Update().set("version", 0L), LicensePlate.class
+        ).getModifiedCount();
+    }
+
+    @Override
+    public int archiveFinalStates(LocalDateTime updatedBefore, int batchSize) {
+        // Served by the status_updated index; a plate still holding nested plates
+        // stays live, since they resolve their location through it
+        Query candidates = new Query(Criteria.where("status").in(finalStates())
+            .and("updatedAt").lt(updatedBefore)
+            .and("childLicensePlateIds.0").exists(false))
+            .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, LicensePlate.class).stream()
+            .map(LicensePlate::getLicensePlateId)
+            .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Copy before deleting: an interrupted batch leaves a duplicate, never a loss,
+        // and replacing makes a repeated copy harmless
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(LicensePlate.class)).aggregate(List.of(
+            new Document("$match", new Document("_id", new Document("$in", ids))),
+            new Document("$merge", new Document("into", ARCHIVE)
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert"))
+        )).toCollection();
+
+        // A plate changed since it was selected stays hot and is archived again later
+        Query archived = new Query(Criteria.where("_id").in(ids)
+            .and("status").in(finalStates())
+            .and("updatedAt").lt(updatedBefore)
+            .and("childLicensePlateIds.0").exists(false));
+        return (int) mongoTemplate.remove(archived, LicensePlate.class).getDeletedCount();
+    }
+
+    private static List<String> finalStates() {
+        return Arrays.stream(LicensePlateStatus.values())
+            .filter(LicensePlateStatus::isFinalState)
+            .map(Enum::name)
+            .toList();
+    }
+}
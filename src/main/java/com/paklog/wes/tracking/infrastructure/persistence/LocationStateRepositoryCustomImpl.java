@@ -0,0 +1,71 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of LocationStateRepositoryCustom
+ */
+public class LocationStateRepositoryCustomImpl implements LocationStateRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public LocationStateRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public UpsertCounts upsertDefinitions(Collection<LocationDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return UpsertCounts.NONE;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LocationState.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (LocationDefinition definition : definitions) {
+            Update update = new Update()
+                .set("warehouseId", definition.warehouseId())
+                .set("zone", definition.zone())
+                .set("maxQuantity", definition.maxQuantity())
+                .set("maxWeight", definition.maxWeight())
+                .set("maxVolume", definition.maxVolume())
+                .set("xCoordinate", definition.xCoordinate())
+                .set("yCoordinate", definition.yCoordinate())
+                .set("zCoordinate", definition.zCoordinate())
+                .set("rfidZone", definition.rfidZone())
+                .set("lastUpdated", now)
+                // Commands holding the previous version must reload before saving
+                .inc("version", 1)
+                .setOnInsert("occupancyStatus", OccupancyStatus.EMPTY)
+                .setOnInsert("licensePlateIds", List.of())
+                .setOnInsert("currentQuantity", 0)
+                .setOnInsert("currentWeight", BigDecimal.ZERO)
+                .setOnInsert("currentVolume", BigDecimal.ZERO)
+                .setOnInsert("isBlocked", false);
+            bulk.upsert(new Query(Criteria.where("_id").is(definition.locationId())), update);
+        }
+
+        BulkWriteResult result = bulk.execute();
+        return new UpsertCounts(result.getUpserts().size(), result.getMatchedCount());
+    }
+
+    @Override
+    public long backfillVersions() {
+        return mongoTemplate.updateMulti(
+            new Query(Criteria.where("version").exists(false)), new Update().set("version", 0L), LocationState.class
+        ).getModifiedCount();
+    }
+}
@@ -0,0 +1,80 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Named lease in the default database, held by at most one pod at a time
+ *
+ * The holder renews before it expires; when the holder stops renewing,
+ * another pod takes the lease over once it has expired. Expiry is compared
+ * against each pod's own clock, so holders overlap by at most the clock skew
+ * between pods.
+ */
+public class MongoLease {
+
+    static final String COLLECTION = "leases";
+
+    private final MongoTemplate mongoTemplate;
+    private final String name;
+    private final String owner;
+    private final Duration duration;
+
+    private volatile long heldUntilMillis;
+
+    public MongoLease(MongoTemplate mongoTemplate, String name, String owner, Duration duration) {
+        this.mongoTemplate = mongoTemplate;
+        this.name = name;
+        this.owner = owner;
+        this.duration = duration;
+    }
+
+    /**
+     * Acquire the lease or extend it when already held
+     *
+     * @return whether this pod holds the lease
+     */
+    public boolean renew(long nowMillis) {
+        long expiresAt = nowMillis + duration.toMillis();
+        Query query = new Query(Criteria.where("_id").is(name).orOperator(
+            Criteria.where("owner").is(owner),
+            Criteria.where("expiresAt").lt(new Date(nowMillis))
+        ));
+        Update update = new Update()
+            .set("owner", owner)
+            .set("expiresAt", new Date(expiresAt));
+
+        try {
+            // Someone else's live lease makes the upsert insert a second _id, which is rejected
+            WarehouseContext.run(null, () -> mongoTemplate.upsert(query, update, COLLECTION));
+            heldUntilMillis = expiresAt;
+        } catch (DuplicateKeyException e) {
+            heldUntilMillis = 0;
+        }
+        return isHeld(nowMillis);
+    }
+
+    public boolean isHeld(long nowMillis) {
+        return nowMillis < heldUntilMillis;
+    }
+
+    /**
+     * Give the lease up so another pod can take it without waiting for expiry
+     */
+    public void release() {
+        heldUntilMillis = 0;
+        WarehouseContext.run(null, () -> mongoTemplate.remove(
+            new Query(Criteria.where("_id").is(name).and("owner").is(owner)), COLLECTION
+        ));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
@@ -0,0 +1,212 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.paklog.wes.tracking.domain.readmodel.OccupancySample;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import com.paklog.wes.tracking.domain.repository.OccupancyHistoryRepository;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoTemplate-backed OccupancyHistoryRepository
+ *
+ * Samples go to the occupancy_samples time-series collection, with the
+ * location as meta field so each location's samples share buckets on disk.
+ * Roll-ups are aggregation pipelines that $merge into occupancy_minutes and
+ * occupancy_hours, one document per location and bucket. Buckets keep the sum
+ * of utilization next to the sample count, so hours are exact averages of the
+ * minutes they contain. Bucket boundaries are in UTC.
+ */
+@Repository
+public class MongoOccupancyHistoryRepository implements OccupancyHistoryRepository {
+
+    static final String SAMPLES = "occupancy_samples";
+    static final String MINUTES = "occupancy_minutes";
+    static final String HOURS = "occupancy_hours";
+
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoOccupancyHistoryRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void ensureCollections(Duration sampleRetention, Duration minuteRetention) {
+        if (!mongoTemplate.collectionExists(SAMPLES)) {
+            try {
+                mongoTemplate.getDb().createCollection(SAMPLES, new CreateCollectionOptions()
+                    .timeSeriesOptions(new TimeSeriesOptions("sampledAt")
+                        .metaField("location")
+                        .granularity(TimeSeriesGranularity.SECONDS))
+                    .expireAfter(sampleRetention.toSeconds(), TimeUnit.SECONDS));
+            } catch (MongoCommandException e) {
+                // Another pod created it first
+                if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                    throw e;
+                }
+            }
+        }
+
+        for (String collection : List.of(MINUTES, HOURS)) {
+            IndexOperations indexes = mongoTemplate.indexOps(collection);
+            indexes.ensureIndex(new Index().on("locationId", Sort.Direction.ASC)
+                .on("bucketStart", Sort.Direction.ASC).named("location_bucket"));
+            indexes.ensureIndex(new Index().on("warehouseId", Sort.Direction.ASC).on("zone", Sort.Direction.ASC)
+                .on("bucketStart", Sort.Direction.ASC).named("zone_bucket"));
+        }
+        mongoTemplate.indexOps(MINUTES).ensureIndex(new Index().on("bucketStart", Sort.Direction.ASC)
+            .expire(minuteRetention).named("retention"));
+    }
+
+    @Override
+    public void insertSamples(List<OccupancySample> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>(samples.size());
+        for (OccupancySample sample : samples) {
+            documents.add(new Document("sampledAt", toDate(sample.sampledAt()))
+                .append("location", new Document("warehouseId", sample.warehouseId())
+                    .append("zone", sample.zone())
+                    .append("locationId", sample.locationId()))
+                .append("utilization", sample.utilization())
+                .append("quantity", sample.quantity())
+                .append("occupancyStatus", sample.occupancyStatus() != null ? sample.occupancyStatus().name() : null));
+        }
+        mongoTemplate.getCollection(SAMPLES).insertMany(documents, new InsertManyOptions().ordered(false));
+    }
+
+    @Override
+    public void rollUp(UtilizationBucket.Granularity granularity, LocalDateTime since) {
+        boolean minutes = granularity == UtilizationBucket.Granularity.MINUTE;
+        Date start = Date.from(since.atZone(ZoneId.systemDefault()).toInstant()
+            .truncatedTo(minutes ? ChronoUnit.MINUTES : ChronoUnit.HOURS));
+
+        // Minutes aggregate raw samples; hours aggregate minute buckets
+        String source = minutes ? SAMPLES : MINUTES;
+        String time = minutes ? "$sampledAt" : "$bucketStart";
+        String locationId = minutes ? "$location.locationId" : "$locationId";
+        String warehouseId = minutes ? "$location.warehouseId" : "$warehouseId";
+        String zone = minutes ? "$location.zone" : "$zone";
+
+        Document group = new Document("_id", new Document("locationId", locationId)
+                .append("bucketStart", new Document("$dateTrunc", new Document("date", time)
+                    .append("unit", minutes ? "minute" : "hour"))))
+            .append("warehouseId", new Document("$last", warehouseId))
+            .append("zone", new Document("$last", zone))
+            .append("samples", new Document("$sum", minutes ? 1 : "$samples"))
+            .append("sumUtilization", new Document("$sum", minutes ? "$utilization" : "$sumUtilization"))
+            .append("minUtilization", new Document("$min", minutes ? "$utilization" : "$minUtilization"))
+            .append("maxUtilization", new Document("$max", minutes ? "$utilization" : "$maxUtilization"))
+            .append("lastUtilization", new Document("$last", minutes ? "$utilization" : "$lastUtilization"))
+            .append("lastQuantity", new Document("$last", minutes ? "$quantity" : "$lastQuantity"));
+
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document(minutes ? "sampledAt" : "bucketStart", new Document("$gte", start))),
+            new Document("$sort", new Document(minutes ? "sampledAt" : "bucketStart", 1)),
+            new Document("$group", group),
+            new Document("$set", new Document("locationId", "$_id.locationId")
+                .append("bucketStart", "$_id.bucketStart")
+                .append("averageUtilization", new Document("$divide", List.of("$sumUtilization", "$samples")))),
+            new Document("$merge", new Document("into", minutes ? MINUTES : HOURS)
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert"))
+        );
+
+        mongoTemplate.getCollection(source).aggregate(pipeline).toCollection();
+    }
+
+    @Override
+    public List<UtilizationBucket> findLocationCurve(String locationId, UtilizationBucket.Granularity granularity,
+                                                     LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(Criteria.where("locationId").is(locationId)
+            .and("bucketStart").gte(toDate(from)).lt(toDate(to)))
+            .with(Sort.by("bucketStart"));
+
+        List<UtilizationBucket> curve = new ArrayList<>();
+        for (Document bucket : mongoTemplate.find(query, Document.class, collection(granularity))) {
+            curve.add(new UtilizationBucket(
+                toLocalDateTime(bucket.getDate("bucketStart")),
+                number(bucket, "samples").longValue(),
+                number(bucket, "averageUtilization").doubleValue(),
+                number(bucket, "minUtilization").doubleValue(),
+                number(bucket, "maxUtilization").doubleValue(),
+                number(bucket, "lastUtilization").doubleValue(),
+                1
+            ));
+        }
+        return curve;
+    }
+
+    @Override
+    public List<UtilizationBucket> findZoneCurve(String warehouseId, String zone,
+                                                 UtilizationBucket.Granularity granularity,
+                                                 LocalDateTime from, LocalDateTime to) {
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("warehouseId", warehouseId)
+                .append("zone", zone)
+                .append("bucketStart", new Document("$gte", toDate(from)).append("$lt", toDate(to)))),
+            new Document("$group", new Document("_id", "$bucketStart")
+                .append("samples", new Document("$sum", "$samples"))
+                .append("sumUtilization", new Document("$sum", "$sumUtilization"))
+                .append("minUtilization", new Document("$min", "$minUtilization"))
+                .append("maxUtilization", new Document("$max", "$maxUtilization"))
+                .append("lastUtilization", new Document("$avg", "$lastUtilization"))
+                .append("locations", new Document("$sum", 1))),
+            new Document("$sort", new Document("_id", 1))
+        );
+
+        List<UtilizationBucket> curve = new ArrayList<>();
+        for (Document bucket : mongoTemplate.getCollection(collection(granularity)).aggregate(pipeline)) {
+            long samples = number(bucket, "samples").longValue();
+            curve.add(new UtilizationBucket(
+                toLocalDateTime(bucket.getDate("_id")),
+                samples,
+                samples > 0 ? number(bucket, "sumUtilization").doubleValue() / samples : 0.0,
+                number(bucket, "minUtilization").doubleValue(),
+                number(bucket, "maxUtilization").doubleValue(),
+                number(bucket, "lastUtilization").doubleValue(),
+                number(bucket, "locations").intValue()
+            ));
+        }
+        return curve;
+    }
+
+    private static String collection(UtilizationBucket.Granularity granularity) {
+        return granularity == UtilizationBucket.Granularity.MINUTE ? MINUTES : HOURS;
+    }
+
+    private static Number number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number : 0;
+    }
+
+    private static Date toDate(LocalDateTime timestamp) {
+        return Date.from(timestamp.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,256 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.repository.TrackingReadRepository;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.ReadRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * TrackingReadRepository that routes each query type by its configured read
+ * preference inside a causally consistent session
+ *
+ * The session is advanced to CausalContext.current() before the query, so the
+ * driver sends afterClusterTime and a lagging secondary waits until it has
+ * applied the caller's write instead of returning older data.
+ *
+ * Point reads are single-flighted on id and causal token, so concurrent polls
+ * for the same plate or location share one query, while a caller with a newer
+ * token never joins a read that may predate its write.
+ *
+ * Multi-gets check TrackingCache first and resolve the misses with one $in
+ * query. Callers presenting a causal token bypass the cache, which may hold a
+ * copy older than their write.
+ *
+ * License plates not found by id are looked up in the archive, which the
+ * archiver fills before deleting from license_plates, so a plate is always in
+ * at least one of them. Queries by anything other than id see only live plates.
+ */
+@Repository
+public class RoutedTrackingReadRepository implements TrackingReadRepository {
+
+    // Lowest maxStaleness the server accepts
+    static final Duration MIN_MAX_STALENESS = Duration.ofSeconds(90);
+
+    private static final ClientSessionOptions CAUSAL = ClientSessionOptions.builder()
+        .causallyConsistent(true)
+        .build();
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoClient mongoClient;
+    private final TrackingMetrics metrics;
+    private final TrackingCache cache;
+    private final boolean enabled;
+    private final SingleFlight<String, Optional<Document>> licensePlateReads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Document>> locationStateReads = new SingleFlight<>();
+    private final Map<ReadRoutingProperties.Query, ReadPreference> preferences =
+        new EnumMap<>(ReadRoutingProperties.Query.class);
+
+    public RoutedTrackingReadRepository(MongoTemplate mongoTemplate, MongoClient mongoClient,
+                                        ReadRoutingProperties properties, TrackingMetrics metrics,
+                                        TrackingCache cache) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoClient = mongoClient;
+        this.metrics = metrics;
+        this.cache = cache;
+        this.enabled = properties.isEnabled();
+        for (ReadRoutingProperties.Query query : ReadRoutingProperties.Query.values()) {
+            preferences.put(query, readPreference(properties.route(query)));
+        }
+    }
+
+    @Override
+    public Optional<LicensePlate> findLicensePlate(String licensePlateId) {
+        Optional<LicensePlate> live = findById(ReadRoutingProperties.Query.LICENSE_PLATE,
+            CoalescingAggregateLoader.LICENSE_PLATE, licensePlateReads, licensePlateId, LicensePlate.class);
+        if (live.isPresent()) {
+            return live;
+        }
+        Document archived = read(ReadRoutingProperties.Query.LICENSE_PLATE,
+            new Query(Criteria.where("_id").is(licensePlateId)),
+            (ops, q) -> ops.findOne(q, Document.class, LicensePlateRepositoryCustomImpl.ARCHIVE));
+        if (archived == null) {
+            return Optional.empty();
+        }
+        metrics.recordLoad(CoalescingAggregateLoader.LICENSE_PLATE, "archived");
+        return Optional.of(mongoTemplate.getConverter().read(LicensePlate.class, archived));
+    }
+
+    @Override
+    public List<LicensePlate> findLicensePlatesAtLocation(String locationId) {
+        Query query = new Query(Criteria.where("currentLocationId").is(locationId));
+        List<LicensePlate> atLocation = read(ReadRoutingProperties.Query.LICENSE_PLATES_AT_LOCATION, query,
+            (ops, q) -> ops.find(q, LicensePlate.class));
+
+        // Nested license plates hold no location; they are wherever their parent is
+        List<String> parents = atLocation.stream()
+            .filter(LicensePlate::hasChildren)
+            .map(LicensePlate::getLicensePlateId)
+            .toList();
+        if (parents.isEmpty()) {
+            return atLocation;
+        }
+        List<LicensePlate> nested = read(ReadRoutingProperties.Query.LICENSE_PLATES_AT_LOCATION,
+            new Query(Criteria.where("parentLicensePlateId").in(parents)), (ops, q) -> ops.find(q, LicensePlate.class));
+        List<LicensePlate> all = new ArrayList<>(atLocation.size() + nested.size());
+        all.addAll(atLocation);
+        all.addAll(nested);
+        return all;
+    }
+
+    @Override
+    public Map<String, LicensePlate> findLicensePlatesByIds(Collection<String> licensePlateIds) {
+        Map<String, LicensePlate> found = findByIds(ReadRoutingProperties.Query.LICENSE_PLATE,
+            CoalescingAggregateLoader.LICENSE_PLATE, TrackingCache.LICENSE_PLATES, licensePlateIds,
+            LicensePlate.class, LicensePlate::getLicensePlateId);
+
+        List<String> missing = licensePlateIds.stream().distinct().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<LicensePlate> archived = read(ReadRoutingProperties.Query.LICENSE_PLATE,
+                new Query(Criteria.where("_id").in(missing)),
+                (ops, q) -> ops.find(q, LicensePlate.class, LicensePlateRepositoryCustomImpl.ARCHIVE));
+            archived.forEach(plate -> found.put(plate.getLicensePlateId(), plate));
+            metrics.recordLoads(CoalescingAggregateLoader.LICENSE_PLATE, "archived", archived.size());
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<LocationState> findLocationState(String locationId) {
+        return findById(ReadRoutingProperties.Query.LOCATION_STATE, CoalescingAggregateLoader.LOCATION_STATE,
+            locationStateReads, locationId, LocationState.class);
+    }
+
+    @Override
+    public List<LocationState> findLocationStates(String warehouseId) {
+        Query query = new Query(Criteria.where("warehouseId").is(warehouseId));
+        return read(ReadRoutingProperties.Query.LOCATION_STATES, query,
+            (ops, q) -> ops.find(q, LocationState.class));
+    }
+
+    @Override
+    public Map<OccupancyStatus, Long> countLocationsByOccupancy(String warehouseId) {
+        Query query = new Query(Criteria.where("warehouseId").is(warehouseId));
+        query.fields().include("occupancyStatus");
+        return read(ReadRoutingProperties.Query.LOCATION_STATES, query, (ops, q) -> {
+            Map<OccupancyStatus, Long> counts = new EnumMap<>(OccupancyStatus.class);
+            for (LocationState state : ops.find(q, LocationState.class)) {
+                OccupancyStatus status = state.getOccupancyStatus();
+                counts.merge(status != null ? status : OccupancyStatus.UNKNOWN, 1L, Long::sum);
+            }
+            return counts;
+        });
+    }
+
+    @Override
+    public Map<String, LocationState> findLocationStatesByIds(Collection<String> locationIds) {
+        return findByIds(ReadRoutingProperties.Query.LOCATION_STATE, CoalescingAggregateLoader.LOCATION_STATE,
+            TrackingCache.LOCATION_STATES, locationIds, LocationState.class, LocationState::getLocationId);
+    }
+
+    @Override
+    public List<SkuLocationInventory> findSkuLocations(String warehouseId, String sku, String lotNumber) {
+        Criteria criteria = Criteria.where("warehouseId").is(warehouseId).and("sku").is(sku);
+        if (lotNumber != null) {
+            criteria = criteria.and("lotNumber").is(lotNumber);
+        }
+        return read(ReadRoutingProperties.Query.SKU_LOCATIONS, new Query(criteria),
+            (ops, q) -> ops.find(q, SkuLocationInventory.class));
+    }
+
+    ReadPreference preference(ReadRoutingProperties.Query query) {
+        return preferences.get(query);
+    }
+
+    private <T> Optional<T> findById(ReadRoutingProperties.Query type, String aggregate,
+                                     SingleFlight<String, Optional<Document>> flights, String id, Class<T> entity) {
+        CausalToken token = CausalContext.current();
+        String scoped = WarehouseContext.key(id);
+        String key = token == null ? scoped : scoped + '@' + token.operationTime().getValue();
+        String collection = mongoTemplate.getCollectionName(entity);
+        SingleFlight.Result<Optional<Document>> result = flights.load(key, ignored -> Optional.ofNullable(
+            read(type, new Query(Criteria.where("_id").is(id)), (ops, q) -> ops.findOne(q, Document.class, collection))
+        ));
+        metrics.recordLoad(aggregate, result.coalesced() ? "coalesced" : "fetched");
+        return result.value().map(document -> mongoTemplate.getConverter().read(entity, document));
+    }
+
+    private <T> Map<String, T> findByIds(ReadRoutingProperties.Query type, String aggregate, String cacheName,
+                                         Collection<String> ids, Class<T> entity, Function<T, String> idOf) {
+        Set<String> unique = new LinkedHashSet<>(ids);
+        boolean cacheable = CausalContext.current() == null;
+        Map<String, T> found = new HashMap<>(cacheable ? cache.getAll(cacheName, unique, entity) : Map.of());
+        metrics.recordLoads(aggregate, "cache_hit", found.size());
+
+        List<String> missing = unique.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            List<T> loaded = read(type, new Query(Criteria.where("_id").in(missing)), (ops, q) -> ops.find(q, entity));
+            Map<String, T> fetched = new HashMap<>();
+            for (T value : loaded) {
+                fetched.put(idOf.apply(value), value);
+            }
+            metrics.recordLoads(aggregate, "batch_fetched", fetched.size());
+            if (cacheable) {
+                cache.putAll(cacheName, fetched);
+            }
+            found.putAll(fetched);
+        }
+        return found;
+    }
+
+    private <T> T read(ReadRoutingProperties.Query type, Query query, BiFunction<MongoOperations, Query, T> action) {
+        if (!enabled) {
+            return action.apply(mongoTemplate, query);
+        }
+        query.withReadPreference(preferences.get(type));
+        try (ClientSession session = mongoClient.startSession(CAUSAL)) {
+            CausalToken token = CausalContext.current();
+            if (token != null) {
+                if (token.clusterTime() != null) {
+                    session.advanceClusterTime(token.clusterTime());
+                }
+                session.advanceOperationTime(token.operationTime());
+            }
+            return mongoTemplate.withSession(session).execute(ops -> action.apply(ops, query));
+        }
+    }
+
+    static ReadPreference readPreference(ReadRoutingProperties.Route route) {
+        ReadPreference preference = ReadPreference.valueOf(route.getReadPreference());
+        if (preference.equals(ReadPreference.primary()) || route.getMaxStaleness() == null) {
+            return preference;
+        }
+        if (route.getMaxStaleness().compareTo(MIN_MAX_STALENESS) < 0) {
+            throw new IllegalArgumentException("maxStaleness for " + route.getReadPreference()
+                + " must be at least " + MIN_MAX_STALENESS.toSeconds() + "s, was " + route.getMaxStaleness());
+        }
+        return ReadPreference.valueOf(route.getReadPreference(), List.of(),
+            route.getMaxStaleness().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
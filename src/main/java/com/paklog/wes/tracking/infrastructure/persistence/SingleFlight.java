@@ -0,0 +1,79 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into one call
+ *
+ * The first caller for a key runs the loader; callers arriving while it is in
+ * flight wait for and share its result or exception. Nothing is cached: once
+ * the call completes, the next caller starts a new one. Shared values are
+ * handed to every waiter, so they must not be mutated.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * Value and whether it came from another caller's load
+     */
+    public record Result<V>(V value, boolean coalesced) {}
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Result<V> load(K key, Function<K, V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return new Result<>(await(existing), true);
+        }
+        try {
+            V value = loader.apply(key);
+            own.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Detach the in-flight load for a key, so later callers start a new one
+     *
+     * Call after writing the key: a load sent before the write may not see it.
+     * Callers already waiting keep the detached load's result.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Callers currently waiting on the in-flight load for a key
+     */
+    int waiters(K key) {
+        CompletableFuture<V> future = inFlight.get(key);
+        return future == null ? 0 : future.getNumberOfDependents();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.readmodel.SkuQuantityDelta;
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepositoryCustom;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * MongoTemplate-backed implementation of SkuLocationInventoryRepositoryCustom
+ */
+public class SkuLocationInventoryRepositoryCustomImpl implements SkuLocationInventoryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SkuLocationInventoryRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void applyDeltas(Collection<SkuQuantityDelta> deltas) {
+        // Net out deltas on the same row (e.g. a move within one location)
+        Map<String, SkuQuantityDelta> netted = new LinkedHashMap<>();
+        for (SkuQuantityDelta delta : deltas) {
+            netted.merge(delta.key(), delta, (current, next) -> current.plus(next.quantity()));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SkuLocationInventory.class);
+        List<String> decremented = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        int operations = 0;
+
+        for (Map.Entry<String, SkuQuantityDelta> entry : netted.entrySet()) {
+            SkuQuantityDelta delta = entry.getValue();
+            if (delta.quantity() == 0) {
+                continue;
+            }
+            Update update = new Update()
+                .inc("quantity", delta.quantity())
+                .set("lastUpdated", now)
+                .setOnInsert("warehouseId", delta.warehouseId())
+                .setOnInsert("sku", delta.sku())
+                .setOnInsert("lotNumber", delta.lotNumber())
+                .setOnInsert("locationId", delta.locationId());
+            bulk.upsert(new Query(Criteria.where("_id").is(entry.getKey())), update);
+            operations++;
+            if (delta.quantity() < 0) {
+                decremented.add(entry.getKey());
+            }
+        }
+
+        if (operations == 0) {
+            return;
+        }
+        bulk.execute();
+
+        if (!decremented.isEmpty()) {
+            mongoTemplate.remove(
+                new Query(Criteria.where("_id").in(decremented).and("quantity").lte(0)),
+                SkuLocationInventory.class
+            );
+        }
+    }
+
+    @Override
+    public long rebuild(String warehouseId) {
+        // Rows are replaced in place and stale ones removed afterwards, so reads never see the warehouse empty
+        String runId = UUID.randomUUID().toString();
+        Date runStart = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+
+        List<String> finalStates = Arrays.stream(LicensePlateStatus.values())
+            .filter(LicensePlateStatus::isFinalState)
+            .map(Enum::name)
+            .toList();
+
+        Document key = new Document("$concat", List.of(
+            "$warehouseId", "|", "$items.sku", "|",
+            new Document("$ifNull", Arrays.asList("$items.lotNumber", "")), "|", "$locationId"
+        ));
+
+        // Nested license plates are at their parent's location
+        String licensePlates = mongoTemplate.getCollectionName(LicensePlate.class);
+        Document parent = new Document("from", licensePlates)
+            .append("localField", "parentLicensePlateId")
+            .append("foreignField", "_id")
+            .append("pipeline", List.of(new Document("$project", new Document("currentLocationId", 1))))
+            .append("as", "parent");
+        Document locationId = new Document("$ifNull", Arrays.asList(
+            "$currentLocationId", new Document("$first", "$parent.currentLocationId")));
+
+        String target = mongoTemplate.getCollectionName(SkuLocationInventory.class);
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("warehouseId", warehouseId)
+                .append("$or", List.of(
+                    new Document("currentLocationId", new Document("$ne", null)),
+                    new Document("parentLicensePlateId", new Document("$ne", null))))
+                .append("status", new Document("$nin", finalStates))),
+            new Document("$lookup", parent),
+            new Document("$set", new Document("locationId", locationId)),
+            new Document("$match", new Document("locationId", new Document("$ne", null))),
+            new Document("$unwind", "$items"),
+            new Document("$group", new Document("_id", key)
+                .append("warehouseId", new Document("$first", "$warehouseId"))
+                .append("sku", new Document("$first", "$items.sku"))
+                .append("lotNumber", new Document("$first", "$items.lotNumber"))
+                .append("locationId", new Document("$first", "$locationId"))
+                .append("quantity", new Document("$sum", "$items.quantity"))),
+            new Document("$match", new Document("quantity", new Document("$gt", 0))),
+            new Document("$set", new Document("lastUpdated", "$$NOW").append("rebuildId", runId)),
+            // A row a delta has changed since the run started is already current; keep it
+            new Document("$merge", new Document("into", target)
+                .append("whenMatched", List.of(new Document("$replaceWith", new Document("$cond", Arrays.asList(
+                    new Document("$gte", Arrays.asList("$lastUpdated", runStart)), "$$ROOT", "$$new")))))
+                .append("whenNotMatched", "insert"))
+        );
+
+        mongoTemplate.getCollection(licensePlates)
+            .aggregate(pipeline)
+            .toCollection();
+
+        // Rows this run did not produce and no delta touched while it ran no longer hold stock
+        mongoTemplate.remove(new Query(Criteria.where("warehouseId").is(warehouseId)
+            .and("rebuildId").ne(runId)
+            .and("lastUpdated").lt(runStart)), SkuLocationInventory.class);
+
+        return mongoTemplate.count(new Query(Criteria.where("warehouseId").is(warehouseId)), SkuLocationInventory.class);
+    }
+
+    @Override
+    public List<String> findWarehouseIds() {
+        // Both sides: a warehouse whose last license plate left still has rows to clear
+        Query withWarehouse = new Query(Criteria.where("warehouseId").ne(null));
+        Set<String> warehouseIds = new TreeSet<>();
+        warehouseIds.addAll(mongoTemplate.findDistinct(withWarehouse, "warehouseId", LicensePlate.class, String.class));
+        warehouseIds.addAll(mongoTemplate.findDistinct(
+            withWarehouse, "warehouseId", SkuLocationInventory.class, String.class));
+        return List.copyOf(warehouseIds);
+    }
+}
@@ -0,0 +1,74 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Optional aggregate cache in front of multi-get reads
+ *
+ * Backed by the application's CacheManager when one is configured (caches
+ * license-plates and location-states); otherwise every lookup misses and
+ * nothing is stored. Entries are evicted when this pod saves the aggregate,
+ * so caches shared between pods, or local caches with several pods writing,
+ * need a short time-to-live. Cached aggregates are shared and must not be
+ * mutated. Entries are keyed by the bound warehouse as well as the id, since
+ * location codes repeat across warehouse databases.
+ */
+@Component
+public class TrackingCache {
+
+    public static final String LICENSE_PLATES = "license-plates";
+    public static final String LOCATION_STATES = "location-states";
+
+    private final CacheManager cacheManager;
+
+    public TrackingCache(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager.getIfAvailable();
+    }
+
+    public boolean isEnabled() {
+        return cacheManager != null;
+    }
+
+    /**
+     * Cached values among ids, keyed by id
+     */
+    public <T> Map<String, T> getAll(String name, Collection<String> ids, Class<T> type) {
+        Cache cache = cache(name);
+        if (cache == null) {
+            return Map.of();
+        }
+        Map<String, T> hits = new HashMap<>();
+        for (String id : ids) {
+            T value = cache.get(WarehouseContext.key(id), type);
+            if (value != null) {
+                hits.put(id, value);
+            }
+        }
+        return hits;
+    }
+
+    public void putAll(String name, Map<String, ?> values) {
+        Cache cache = cache(name);
+        if (cache != null) {
+            values.forEach((id, value) -> cache.put(WarehouseContext.key(id), value));
+        }
+    }
+
+    public void evict(String name, String id) {
+        Cache cache = cache(name);
+        if (cache != null) {
+            cache.evict(WarehouseContext.key(id));
+        }
+    }
+
+    private Cache cache(String name) {
+        return cacheManager == null ? null : cacheManager.getCache(name);
+    }
+}
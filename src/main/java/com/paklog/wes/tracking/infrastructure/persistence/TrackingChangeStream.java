@@ -0,0 +1,198 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.paklog.wes.tracking.application.service.StoredChangeListener;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.ChangeStreamProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One MongoDB change stream per database over location_states and
+ * license_plates, fanned out to every StoredChangeListener on this pod
+ *
+ * Every pod watches every database, so listeners see writes made through any
+ * pod, bulk upserts and server-side corrections alike. The stream starts at
+ * the time the pod is ready; a stream that fails is reopened after the last
+ * change delivered, or from now when that point has left the oplog.
+ * Requires a replica set.
+ */
+@Component
+public class TrackingChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingChangeStream.class);
+    // The oplog no longer holds the resume point
+    private static final int HISTORY_LOST = 286;
+
+    private final ChangeStreamProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final WarehouseRouting routing;
+    private final TrackingMetrics metrics;
+    private final List<StoredChangeListener> listeners;
+    private final String locationStates;
+    private final String licensePlates;
+
+    private ExecutorService watchers;
+    private volatile boolean running;
+
+    public TrackingChangeStream(ChangeStreamProperties properties, MongoTemplate mongoTemplate,
+                                WarehouseRouting routing, TrackingMetrics metrics,
+                                List<StoredChangeListener> listeners) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.routing = routing;
+        this.metrics = metrics;
+        this.listeners = List.copyOf(listeners);
+        this.locationStates = mongoTemplate.getCollectionName(LocationState.class);
+        this.licensePlates = mongoTemplate.getCollectionName(LicensePlate.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || listeners.isEmpty()) {
+            logger.info("Tracking change stream disabled");
+            return;
+        }
+        running = true;
+        watchers = Executors.newVirtualThreadPerTaskExecutor();
+        for (WarehouseRouting.Route route : routing.routes()) {
+            watchers.execute(() -> watch(route));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (watchers != null) {
+            watchers.shutdownNow();
+        }
+    }
+
+    private void watch(WarehouseRouting.Route route) {
+        MongoDatabase database = WarehouseContext.call(route.warehouseId(), mongoTemplate::getDb);
+        if (properties.isPreImages()) {
+            enablePreImages(database);
+        }
+
+        BsonDocument resumeAfter = null;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(database, resumeAfter)) {
+                logger.info("Watching {} and {} in database {}", locationStates, licensePlates, route.database());
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        WarehouseContext.run(route.warehouseId(), () -> dispatch(change));
+                        resumeAfter = change.getResumeToken();
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                if (e instanceof MongoCommandException command && command.getErrorCode() == HISTORY_LOST) {
+                    resumeAfter = null;
+                }
+                metrics.recordChangeStream(route.database(), "restarted");
+                logger.warn("Change stream on database {} failed; reopening in {}", route.database(),
+                    properties.getRetryDelay(), e);
+                try {
+                    Thread.sleep(properties.getRetryDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(MongoDatabase database,
+                                                                         BsonDocument resumeAfter) {
+        List<Bson> pipeline = List.of(
+            Aggregates.match(Filters.and(
+                Filters.in("ns.coll", locationStates, licensePlates),
+                Filters.in("operationType", "insert", "update", "replace")
+            )),
+            // License plates carry their whole movement history; listeners need only the latest
+            new Document("$set", new Document("fullDocument.movements", new Document("$cond", Arrays.asList(
+                new Document("$isArray", "$fullDocument.movements"),
+                new Document("$slice", Arrays.asList("$fullDocument.movements", -1)),
+                "$$REMOVE"
+            ))))
+        );
+        ChangeStreamIterable<Document> stream = database.watch(pipeline)
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .fullDocumentBeforeChange(properties.isPreImages()
+                ? FullDocumentBeforeChange.WHEN_AVAILABLE
+                : FullDocumentBeforeChange.OFF)
+            .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeAfter != null) {
+            stream = stream.resumeAfter(resumeAfter);
+        }
+        return stream.cursor();
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> change) {
+        Document document = change.getFullDocument();
+        // Deleted before the lookup; a later change or none will follow
+        if (document == null || !document.containsKey("_id") || change.getNamespace() == null) {
+            return;
+        }
+
+        if (locationStates.equals(change.getNamespace().getCollectionName())) {
+            LocationState state = mongoTemplate.getConverter().read(LocationState.class, document);
+            notifyListeners(listener -> listener.onLocationStateStored(state));
+        } else {
+            LicensePlate licensePlate = mongoTemplate.getConverter().read(LicensePlate.class, document);
+            Document before = change.getFullDocumentBeforeChange();
+            String previousLocationId = before != null ? before.getString("currentLocationId") : null;
+            notifyListeners(listener -> listener.onLicensePlateStored(licensePlate, previousLocationId));
+        }
+        metrics.recordChangeStream(change.getNamespace().getDatabaseName(), "delivered");
+    }
+
+    private void notifyListeners(Consumer<StoredChangeListener> notification) {
+        for (StoredChangeListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (Exception e) {
+                logger.error("Stored change listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    // Without pre-images a move cannot report where the license plate was
+    private void enablePreImages(MongoDatabase database) {
+        try {
+            database.runCommand(new Document("collMod", licensePlates)
+                .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (Exception e) {
+            logger.warn("Could not enable pre-images on {} in database {}; moves will not report their origin",
+                licensePlates, database.getName(), e);
+        }
+    }
+}
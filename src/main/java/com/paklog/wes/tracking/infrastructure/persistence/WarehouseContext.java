@@ -0,0 +1,66 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import java.util.function.Supplier;
+
+/**
+ * Warehouse the current thread is working for, which selects the database
+ * when warehouse routing is enabled
+ *
+ * Bound per request by WarehouseContextFilter and per record by the event
+ * handler. Threads without a warehouse use the default database.
+ */
+public final class WarehouseContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private WarehouseContext() {
+    }
+
+    /**
+     * Warehouse bound to this thread, or null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String warehouseId) {
+        if (warehouseId == null || warehouseId.isBlank()) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(warehouseId);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Run action for warehouseId, restoring the previous binding afterwards
+     */
+    public static <T> T call(String warehouseId, Supplier<T> action) {
+        String previous = CURRENT.get();
+        set(warehouseId);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void run(String warehouseId, Runnable action) {
+        call(warehouseId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * id qualified by the bound warehouse, for keys that must not be shared
+     * across databases
+     */
+    public static String key(String id) {
+        String warehouseId = CURRENT.get();
+        return warehouseId == null ? id : warehouseId + '|' + id;
+    }
+}
@@ -0,0 +1,81 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Warehouse of a license plate or location, for requests and events that
+ * name one only by id
+ *
+ * Listed in the default database by kind and id. An id not listed yet is
+ * looked up in every database and listed once found; license plates and
+ * locations never change warehouse, so a listing is never updated.
+ */
+@Component
+public class WarehouseDirectory {
+
+    static final String COLLECTION = "warehouse_directory";
+
+    private final MongoTemplate mongoTemplate;
+    private final WarehouseRouting routing;
+
+    public WarehouseDirectory(MongoTemplate mongoTemplate, WarehouseRouting routing) {
+        this.mongoTemplate = mongoTemplate;
+        this.routing = routing;
+    }
+
+    /**
+     * Whether warehouses live in more than one database, so a call without a
+     * warehouse cannot simply use the default one
+     */
+    public boolean isRouted() {
+        return routing.routes().size() > 1;
+    }
+
+    /**
+     * Warehouse holding licensePlateId, or null when routing is off or no database has it
+     */
+    public String licensePlateWarehouse(String licensePlateId) {
+        return resolve("license-plate:", LicensePlate.class, licensePlateId);
+    }
+
+    /**
+     * Warehouse holding locationId, or null when routing is off or no database has it
+     */
+    public String locationWarehouse(String locationId) {
+        return resolve("location:", LocationState.class, locationId);
+    }
+
+    private String resolve(String kind, Class<?> entity, String id) {
+        if (id == null || !isRouted()) {
+            return null;
+        }
+        String key = kind + id;
+        Document listed = WarehouseContext.call(null, () -> mongoTemplate.findById(key, Document.class, COLLECTION));
+        if (listed != null) {
+            return listed.getString("warehouseId");
+        }
+
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("warehouseId");
+        String collection = mongoTemplate.getCollectionName(entity);
+        String warehouseId = routing.fanOut(() -> mongoTemplate.findOne(query, Document.class, collection)).stream()
+            .filter(Objects::nonNull)
+            .map(document -> document.getString("warehouseId"))
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null);
+        if (warehouseId != null) {
+            WarehouseContext.run(null, () -> mongoTemplate.save(
+                new Document("_id", key).append("warehouseId", warehouseId), COLLECTION));
+        }
+        return warehouseId;
+    }
+}
@@ -0,0 +1,112 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Maps warehouses to databases and runs queries across all of them
+ *
+ * Each routed warehouse keeps license plates, location states and their
+ * projections in its own database, so its indexes and working set are its
+ * own. Warehouses without a mapping share the default database.
+ */
+@Component
+public class WarehouseRouting {
+
+    /**
+     * One database, entered by binding warehouseId (null for the default database)
+     */
+    public record Route(String database, String warehouseId) {
+    }
+
+    private final boolean enabled;
+    private final String defaultDatabase;
+    private final Map<String, String> databases;
+    private final List<Route> routes;
+    private final ExecutorService fanOutPool;
+
+    public WarehouseRouting(WarehouseRoutingProperties properties, MongoProperties mongoProperties) {
+        this.enabled = properties.isEnabled();
+        this.defaultDatabase = mongoProperties.getMongoClientDatabase();
+        this.databases = Map.copyOf(properties.getDatabases());
+
+        // One route per database; warehouses sharing a database are queried once
+        Map<String, Route> byDatabase = new LinkedHashMap<>();
+        byDatabase.put(defaultDatabase, new Route(defaultDatabase, null));
+        if (enabled) {
+            properties.getDatabases().forEach((warehouseId, database) ->
+                byDatabase.putIfAbsent(database, new Route(database, warehouseId)));
+        }
+        this.routes = List.copyOf(byDatabase.values());
+
+        if (routes.size() > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            this.fanOutPool = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(properties.getFanOutParallelism(), routes.size())), runnable -> {
+                    Thread thread = new Thread(runnable, "warehouse-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        } else {
+            this.fanOutPool = null;
+        }
+    }
+
+    public String defaultDatabase() {
+        return defaultDatabase;
+    }
+
+    /**
+     * Database holding warehouseId's data
+     */
+    public String database(String warehouseId) {
+        if (!enabled || warehouseId == null) {
+            return defaultDatabase;
+        }
+        return databases.getOrDefault(warehouseId, defaultDatabase);
+    }
+
+    /**
+     * Every database in use, the default one first
+     */
+    public List<Route> routes() {
+        return routes;
+    }
+
+    /**
+     * Run query once per database, concurrently, and return the results in route order
+     *
+     * Must not be called from inside another fan-out.
+     */
+    public <T> List<T> fanOut(Supplier<T> query) {
+        if (fanOutPool == null) {
+            return Collections.singletonList(WarehouseContext.call(null, query));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            futures.add(CompletableFuture.supplyAsync(() -> WarehouseContext.call(route.warehouseId(), query),
+                fanOutPool));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (fanOutPool != null) {
+            fanOutPool.shutdownNow();
+        }
+    }
+}
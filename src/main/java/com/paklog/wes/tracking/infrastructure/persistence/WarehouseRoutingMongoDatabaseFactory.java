@@ -0,0 +1,28 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+/**
+ * MongoDatabaseFactory that resolves the database from the warehouse bound to
+ * the calling thread
+ *
+ * MongoTemplate asks the factory for the database on every operation, so
+ * repositories and templates are routed without knowing about it.
+ */
+public class WarehouseRoutingMongoDatabaseFactory extends SimpleMongoClientDatabaseFactory {
+
+    private final WarehouseRouting routing;
+
+    public WarehouseRoutingMongoDatabaseFactory(MongoClient mongoClient, WarehouseRouting routing) {
+        super(mongoClient, routing.defaultDatabase());
+        this.routing = routing;
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        return getMongoDatabase(routing.database(WarehouseContext.current()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.Set;
+
+/**
+ * Captures the operation time of every write into the issuing thread's
+ * CausalContext
+ *
+ * The sync driver reports command events on the calling thread. Standalone
+ * servers return no operation time, in which case nothing is recorded.
+ */
+public class WriteTimeListener implements CommandListener {
+
+    private static final Set<String> WRITE_COMMANDS = Set.of("insert", "update", "delete", "findAndModify");
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (WRITE_COMMANDS.contains(event.getCommandName())) {
+            CausalToken token = CausalToken.from(event.getResponse());
+            if (token != null) {
+                CausalContext.recordWrite(token);
+            }
+        }
+    }
+}
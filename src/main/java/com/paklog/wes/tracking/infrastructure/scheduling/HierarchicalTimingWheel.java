@@ -0,0 +1,219 @@
+package com.paklog.wes.tracking.infrastructure.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for keyed deadlines
+ *
+ * Each level has 64 slots; a slot on level n spans 64^n ticks. Scheduling,
+ * re-scheduling and cancelling a key are O(1). Timers far in the future sit in
+ * a coarse slot and cascade down one level at a time as the wheel turns.
+ * Scheduling an existing key replaces its previous deadline.
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final Slot<K, V>[][] wheels;
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(Duration tick, int levels, long startMillis) {
+        if (tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond");
+        }
+        if (levels < 1 || levels > 8) {
+            throw new IllegalArgumentException("Levels must be between 1 and 8");
+        }
+
+        this.tickMillis = tick.toMillis();
+        this.levels = levels;
+        this.wheels = new Slot[levels][WHEEL_SIZE];
+        for (int level = 0; level < levels; level++) {
+            for (int index = 0; index < WHEEL_SIZE; index++) {
+                wheels[level][index] = new Slot<>();
+            }
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule (or re-schedule) a deadline for key
+     */
+    public synchronized void schedule(K key, long deadlineMillis, V payload) {
+        Entry<K, V> previous = entries.remove(key);
+        if (previous != null) {
+            previous.unlink();
+        }
+
+        long expiryTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Entry<K, V> entry = new Entry<>(key, payload, deadlineMillis, expiryTick);
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * Cancel the deadline for key
+     */
+    public synchronized boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    /**
+     * Advance the wheel and return every timer whose deadline has passed
+     */
+    public synchronized List<Timeout<K, V>> advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<Timeout<K, V>> expired = new ArrayList<>();
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    int index = (int) ((currentTick >>> (BITS * level)) & MASK);
+                    for (Entry<K, V> entry : wheels[level][index].drain()) {
+                        place(entry);
+                    }
+                }
+            }
+
+            for (Entry<K, V> entry : wheels[0][(int) (currentTick & MASK)].drain()) {
+                if (entry.expiryTick <= currentTick) {
+                    entries.remove(entry.key);
+                    expired.add(new Timeout<>(entry.key, entry.payload, entry.deadlineMillis));
+                } else {
+                    place(entry);
+                }
+            }
+        }
+
+        return expired;
+    }
+
+    public synchronized boolean isScheduled(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void place(Entry<K, V> entry) {
+        long delta = entry.expiryTick - currentTick;
+        long slotTick = entry.expiryTick;
+
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+
+        // Beyond the outermost wheel: park in its last slot and re-evaluate on cascade
+        long span = 1L << (BITS * levels);
+        if (delta >= span) {
+            slotTick = currentTick + span - 1;
+        }
+
+        int index = (int) ((slotTick >>> (BITS * level)) & MASK);
+        wheels[level][index].append(entry);
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Expired timer
+     */
+    public record Timeout<K, V>(K key, V payload, long deadlineMillis) {}
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V payload;
+        private final long deadlineMillis;
+        private final long expiryTick;
+        private Slot<K, V> slot;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        private Entry(K key, V payload, long deadlineMillis, long expiryTick) {
+            this.key = key;
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.expiryTick = expiryTick;
+        }
+
+        private void unlink() {
+            if (slot != null) {
+                slot.remove(this);
+            }
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list so removal does not need a scan
+     */
+    private static final class Slot<K, V> {
+        private Entry<K, V> head;
+        private Entry<K, V> tail;
+
+        private void append(Entry<K, V> entry) {
+            entry.slot = this;
+            entry.prev = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        private void remove(Entry<K, V> entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.slot = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        private List<Entry<K, V>> drain() {
+            List<Entry<K, V>> drained = new ArrayList<>();
+            Entry<K, V> current = head;
+            while (current != null) {
+                Entry<K, V> next = current.next;
+                current.slot = null;
+                current.prev = null;
+                current.next = null;
+                drained.add(current);
+                current = next;
+            }
+            head = null;
+            tail = null;
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Point-in-time copy of a warehouse's WarehouseStateView
+ *
+ * highWaterMark is the latest lastUpdated the view held before the copy was
+ * taken; after loading, only locations updated since then need replaying.
+ */
+public record WarehouseSnapshot(
+    String warehouseId,
+    LocalDateTime highWaterMark,
+    LocalDateTime takenAt,
+    List<LocationOccupancy> locations
+) {
+}
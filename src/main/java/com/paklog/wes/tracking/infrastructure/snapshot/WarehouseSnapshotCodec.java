@@ -0,0 +1,264 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format for warehouse snapshots
+ *
+ * Layout (big-endian): magic, version, high-water mark, taken-at, location
+ * count, warehouse id, zone and status dictionaries, then one record per
+ * location, followed by a CRC32 of everything before it. Zones and statuses
+ * are written once and referenced by index. Timestamps are UTC epoch millis.
+ *
+ * Files are written to a temporary file and atomically moved into place, so a
+ * reader sees the previous snapshot or the new one, never a partial write.
+ * They are read through a read-only memory mapping: the page cache backs the
+ * buffer, and no heap copy of the file is made.
+ */
+public final class WarehouseSnapshotCodec {
+
+    static final int MAGIC = 0x504B5753; // "PKWS"
+    static final short VERSION = 1;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NO_DECIMAL = Byte.MIN_VALUE;
+    // Unsigned short lengths: string bytes and license plates per location
+    private static final int MAX_LENGTH = 0xFFFF;
+
+    private static final int FLAG_BLOCKED = 1;
+    private static final int FLAG_MAX_QUANTITY = 1 << 1;
+
+    private WarehouseSnapshotCodec() {
+    }
+
+    public static void write(Path file, WarehouseSnapshot snapshot) throws IOException {
+        Map<String, Integer> zones = new LinkedHashMap<>();
+        Map<OccupancyStatus, Integer> statuses = new LinkedHashMap<>();
+        for (LocationOccupancy location : snapshot.locations()) {
+            if (location.zone() != null) {
+                zones.putIfAbsent(location.zone(), zones.size());
+            }
+            if (location.occupancyStatus() != null) {
+                statuses.putIfAbsent(location.occupancyStatus(), statuses.size());
+            }
+        }
+        if (zones.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many zones for a snapshot: " + zones.size());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new CheckedOutputStream(raw, crc), 1 << 16));
+
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(toMillis(snapshot.highWaterMark()));
+            out.writeLong(toMillis(snapshot.takenAt()));
+            out.writeInt(snapshot.locations().size());
+            writeString(out, snapshot.warehouseId());
+
+            out.writeInt(zones.size());
+            for (String zone : zones.keySet()) {
+                writeString(out, zone);
+            }
+            out.writeInt(statuses.size());
+            for (OccupancyStatus status : statuses.keySet()) {
+                writeString(out, status.name());
+            }
+
+            for (LocationOccupancy location : snapshot.locations()) {
+                writeString(out, location.locationId());
+                out.writeShort(location.zone() != null ? zones.get(location.zone()) : -1);
+                out.writeByte(location.occupancyStatus() != null ? statuses.get(location.occupancyStatus()) : -1);
+                int flags = (location.blocked() ? FLAG_BLOCKED : 0)
+                    | (location.maxQuantity() != null ? FLAG_MAX_QUANTITY : 0);
+                out.writeByte(flags);
+                out.writeInt(location.currentQuantity());
+                if (location.maxQuantity() != null) {
+                    out.writeInt(location.maxQuantity());
+                }
+                writeDecimal(out, location.currentWeight());
+                writeDecimal(out, location.currentVolume());
+                out.writeLong(toMillis(location.lastUpdated()));
+                if (location.licensePlateIds().size() > MAX_LENGTH) {
+                    throw new IllegalArgumentException("Too many license plates at " + location.locationId());
+                }
+                out.writeShort(location.licensePlateIds().size());
+                for (String licensePlateId : location.licensePlateIds()) {
+                    writeString(out, licensePlateId);
+                }
+            }
+            out.flush();
+
+            // Trailer goes straight to the channel so it is not part of its own checksum
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, (int) crc.getValue()));
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a snapshot; IOException when the file is truncated, corrupt or of
+     * another format version
+     */
+    public static WarehouseSnapshot read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 2L || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a warehouse snapshot (" + size + " bytes): " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int bodyLength = buffer.capacity() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(bodyLength));
+        if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+            throw new IOException("Checksum mismatch in warehouse snapshot " + file);
+        }
+        buffer.limit(bodyLength);
+
+        try {
+            return decode(buffer, file);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed warehouse snapshot " + file, e);
+        }
+    }
+
+    private static WarehouseSnapshot decode(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a warehouse snapshot: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported warehouse snapshot version " + version + ": " + file);
+        }
+        LocalDateTime highWaterMark = fromMillis(buffer.getLong());
+        LocalDateTime takenAt = fromMillis(buffer.getLong());
+        int count = buffer.getInt();
+        byte[] scratch = new byte[MAX_LENGTH];
+        String warehouseId = readString(buffer, scratch);
+
+        String[] zones = new String[buffer.getInt()];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = readString(buffer, scratch);
+        }
+        OccupancyStatus[] statuses = new OccupancyStatus[buffer.getInt()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = OccupancyStatus.valueOf(readString(buffer, scratch));
+        }
+
+        List<LocationOccupancy> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String locationId = readString(buffer, scratch);
+            short zone = buffer.getShort();
+            byte status = buffer.get();
+            byte flags = buffer.get();
+            int currentQuantity = buffer.getInt();
+            Integer maxQuantity = (flags & FLAG_MAX_QUANTITY) != 0 ? buffer.getInt() : null;
+            BigDecimal currentWeight = readDecimal(buffer);
+            BigDecimal currentVolume = readDecimal(buffer);
+            LocalDateTime lastUpdated = fromMillis(buffer.getLong());
+            String[] licensePlateIds = new String[Short.toUnsignedInt(buffer.getShort())];
+            for (int j = 0; j < licensePlateIds.length; j++) {
+                licensePlateIds[j] = readString(buffer, scratch);
+            }
+            locations.add(new LocationOccupancy(
+                locationId,
+                warehouseId,
+                zone >= 0 ? zones[zone] : null,
+                status >= 0 ? statuses[status] : null,
+                (flags & FLAG_BLOCKED) != 0,
+                currentQuantity,
+                maxQuantity,
+                currentWeight,
+                currentVolume,
+                lastUpdated,
+                List.of(licensePlateIds)
+            ));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Trailing bytes in warehouse snapshot " + file);
+        }
+        return new WarehouseSnapshot(warehouseId, highWaterMark, takenAt, locations);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("String too long for a snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Scale byte plus unscaled long; totals are far inside that range
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(NO_DECIMAL);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (value.scale() <= NO_DECIMAL || value.scale() > Byte.MAX_VALUE || unscaled.bitLength() >= Long.SIZE) {
+            throw new IllegalArgumentException("Decimal out of snapshot range: " + value);
+        }
+        out.writeByte(value.scale());
+        out.writeLong(unscaled.longValue());
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        byte scale = buffer.get();
+        return scale == NO_DECIMAL ? null : BigDecimal.valueOf(buffer.getLong(), scale);
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp == null ? NO_TIME : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis == NO_TIME ? null
+            : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,230 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.application.service.WarehouseStateView;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import com.paklog.wes.tracking.infrastructure.config.SnapshotProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Warms WarehouseStateView from local snapshots and keeps them current
+ *
+ * On startup each configured warehouse is loaded from its snapshot file and
+ * only locations updated since the snapshot's high-water mark are replayed
+ * from MongoDB (warehouse_last_updated index); a missing or unreadable
+ * snapshot falls back to a full warehouse scan. Every interval the view
+ * catches up on changes made by other pods the same way and the snapshot is
+ * rewritten. A final snapshot is written on shutdown.
+ */
+@Component
+public class WarehouseSnapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarehouseSnapshotter.class);
+    private static final String EXTENSION = ".snapshot";
+
+    private final SnapshotProperties properties;
+    private final WarehouseStateView view;
+    private final MongoTemplate mongoTemplate;
+    private final TrackingMetrics metrics;
+
+    private ScheduledExecutorService scheduler;
+
+    public WarehouseSnapshotter(
+            SnapshotProperties properties,
+            WarehouseStateView view,
+            MongoTemplate mongoTemplate,
+            TrackingMetrics metrics
+    ) {
+        this.properties = properties;
+        this.view = view;
+        this.mongoTemplate = mongoTemplate;
+        this.metrics = metrics;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Warehouse snapshots disabled");
+            return;
+        }
+
+        for (String warehouseId : properties.getWarehouses()) {
+            try {
+                warmUp(warehouseId);
+            } catch (Exception e) {
+                logger.warn("Failed to warm up warehouse {}; it will be caught up on the next refresh",
+                    warehouseId, e);
+            }
+        }
+
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warehouse-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        for (String warehouseId : properties.getWarehouses()) {
+            try {
+                write(warehouseId);
+            } catch (Exception e) {
+                logger.warn("Failed to write snapshot for warehouse {} on shutdown", warehouseId, e);
+            }
+        }
+    }
+
+    /**
+     * Load a warehouse's snapshot into the view and replay what changed after it
+     */
+    WarmUp warmUp(String warehouseId) {
+        view.track(warehouseId);
+
+        WarehouseSnapshot snapshot = load(warehouseId);
+        LocalDateTime since = null;
+        int loaded = 0;
+        if (snapshot != null) {
+            for (LocationOccupancy location : snapshot.locations()) {
+                view.apply(location);
+            }
+            loaded = snapshot.locations().size();
+            since = snapshot.highWaterMark();
+        }
+        int replayed = replay(warehouseId, since);
+        view.markWarm(warehouseId);
+
+        logger.info("Warmed up warehouse {}: {} locations from snapshot, {} replayed from MongoDB{}",
+            warehouseId, loaded, replayed, since == null ? " (full scan)" : " since " + since);
+        return new WarmUp(loaded, replayed, since == null);
+    }
+
+    /**
+     * Catch up every tracked warehouse and rewrite its snapshot
+     */
+    void refreshAll() {
+        for (String warehouseId : properties.getWarehouses()) {
+            try {
+                if (!view.isTracked(warehouseId)) {
+                    warmUp(warehouseId);
+                } else {
+                    replay(warehouseId, view.highWaterMark(warehouseId));
+                    // A warm-up that failed part way is complete once a replay succeeds
+                    view.markWarm(warehouseId);
+                }
+                write(warehouseId);
+            } catch (Exception e) {
+                logger.warn("Failed to refresh snapshot for warehouse {}", warehouseId, e);
+            }
+        }
+    }
+
+    /**
+     * Write the view's current state for a warehouse
+     */
+    void write(String warehouseId) throws IOException {
+        if (!view.isTracked(warehouseId)) {
+            return;
+        }
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            // Captured before the copy: anything changed while copying is newer and gets replayed
+            LocalDateTime highWaterMark = view.highWaterMark(warehouseId);
+            List<LocationOccupancy> locations = List.copyOf(view.locations(warehouseId));
+            Path file = file(warehouseId);
+            Files.createDirectories(file.getParent());
+            WarehouseSnapshotCodec.write(file,
+                new WarehouseSnapshot(warehouseId, highWaterMark, LocalDateTime.now(), locations));
+            outcome = "ok";
+        } finally {
+            metrics.recordSnapshot("write", outcome, System.nanoTime() - start);
+        }
+    }
+
+    Path file(String warehouseId) {
+        return Path.of(properties.getDirectory())
+            .resolve(warehouseId.replaceAll("[^A-Za-z0-9._-]", "_") + EXTENSION);
+    }
+
+    private WarehouseSnapshot load(String warehouseId) {
+        long start = System.nanoTime();
+        String outcome = "invalid";
+        try {
+            WarehouseSnapshot snapshot = WarehouseSnapshotCodec.read(file(warehouseId));
+            if (!warehouseId.equals(snapshot.warehouseId())) {
+                logger.warn("Snapshot {} holds warehouse {}, ignoring it", file(warehouseId), snapshot.warehouseId());
+                return null;
+            }
+            outcome = "ok";
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            outcome = "missing";
+            return null;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable snapshot for warehouse {}: {}", warehouseId, e.getMessage());
+            return null;
+        } finally {
+            metrics.recordSnapshot("load", outcome, System.nanoTime() - start);
+        }
+    }
+
+    private int replay(String warehouseId, LocalDateTime since) {
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            Criteria criteria = Criteria.where("warehouseId").is(warehouseId);
+            if (since != null) {
+                criteria = criteria.and("lastUpdated").gte(since.minus(properties.getReplayOverlap()));
+            }
+            Query query = new Query(criteria);
+            int replayed = WarehouseContext.call(warehouseId, () -> {
+                int count = 0;
+                try (Stream<LocationState> stream = mongoTemplate.stream(query, LocationState.class)) {
+                    for (LocationState state : (Iterable<LocationState>) stream::iterator) {
+                        view.apply(LocationOccupancy.from(state));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            outcome = "ok";
+            return replayed;
+        } finally {
+            metrics.recordSnapshot("replay", outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Locations taken from the snapshot and replayed from MongoDB during a warm-up
+     */
+    record WarmUp(int loaded, int replayed, boolean fullScan) {}
+}
@@ -0,0 +1,65 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Head sampler for root spans, keyed by the operation in the parent Context
+ * (set by TraceOperationFilter from the request's route), else by span name
+ *
+ * Child spans follow their parent. Unsampled root spans are recorded (not
+ * exported), and so are their children, so {@link SlowOrFailedSpanProcessor}
+ * can export whole traces that turn out to fail or run slow. Children of
+ * spans that are not recorded at all, such as a remote caller's unsampled
+ * span, are dropped.
+ */
+public class AdaptiveTraceSampler implements Sampler {
+
+    /**
+     * Sampling operation for a span started in this Context without a parent span
+     */
+    public static final ContextKey<String> OPERATION = ContextKey.named("paklog.tracking.operation");
+
+    private final TelemetrySampler sampler;
+
+    public AdaptiveTraceSampler(TelemetrySampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks
+    ) {
+        Span parentSpan = Span.fromContext(parentContext);
+        SpanContext parent = parentSpan.getSpanContext();
+        if (parent.isValid()) {
+            if (parent.isSampled()) {
+                return SamplingResult.recordAndSample();
+            }
+            return parentSpan.isRecording() ? SamplingResult.recordOnly() : SamplingResult.drop();
+        }
+        String operation = parentContext.get(OPERATION);
+        return sampler.sample(operation != null ? operation : name)
+            ? SamplingResult.recordAndSample()
+            : SamplingResult.recordOnly();
+    }
+
+    @Override
+    public String getDescription() {
+        return "AdaptiveTraceSampler";
+    }
+}
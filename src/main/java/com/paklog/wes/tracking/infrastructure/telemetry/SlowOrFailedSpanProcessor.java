@@ -0,0 +1,170 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports traces that were not sampled but failed or ran slow
+ *
+ * Sampled spans are left to the regular batch processor. Unsampled child
+ * spans are held by trace until the trace's root span ends; the trace is
+ * then exported whole when the root ran slow or any of its spans failed, and
+ * discarded otherwise. Held spans are bounded in number, and traces whose
+ * root has not ended within a minute are discarded. Kept spans are queued
+ * and exported in batches from a background thread, like the SDK's
+ * BatchSpanProcessor, which in this SDK version drops unsampled spans; the
+ * thread ending the span only copies it. When the queue is full, further
+ * spans are dropped until it drains.
+ */
+public class SlowOrFailedSpanProcessor implements SpanProcessor {
+
+    private static final int MAX_QUEUE = 2048;
+    private static final int MAX_BATCH = 512;
+    private static final Duration EXPORT_DELAY = Duration.ofSeconds(5);
+    private static final Duration EXPORT_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_HELD_SPANS = 8192;
+    private static final Duration MAX_HELD_AGE = Duration.ofMinutes(1);
+
+    private final SpanExporter exporter;
+    private final TelemetrySampler sampler;
+    private final BlockingQueue<SpanData> queue = new ArrayBlockingQueue<>(MAX_QUEUE);
+    // Unsampled child spans by trace id, until the trace's root ends
+    private final ConcurrentHashMap<String, HeldTrace> held = new ConcurrentHashMap<>();
+    private final AtomicInteger heldSpans = new AtomicInteger();
+    private final ScheduledExecutorService exportThread;
+
+    public SlowOrFailedSpanProcessor(SpanExporter exporter, TelemetrySampler sampler) {
+        this.exporter = exporter;
+        this.sampler = sampler;
+        this.exportThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slow-or-failed-span-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delayMillis = EXPORT_DELAY.toMillis();
+        exportThread.scheduleWithFixedDelay(this::exportQueued, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span.getSpanContext().isSampled()) {
+            return;
+        }
+        SpanData data = span.toSpanData();
+        boolean failed = data.getStatus().getStatusCode() == StatusCode.ERROR;
+        SpanContext parent = data.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            hold(data, failed);
+            return;
+        }
+
+        HeldTrace trace = held.remove(data.getTraceId());
+        if (trace != null) {
+            heldSpans.addAndGet(-trace.spans.size());
+        }
+        boolean slow = sampler.isSlow(span.getLatencyNanos());
+        if (!slow && !failed && (trace == null || !trace.failed)) {
+            return;
+        }
+        if (trace != null) {
+            trace.spans.forEach(queue::offer);
+        }
+        if (queue.offer(data) && queue.size() >= MAX_BATCH) {
+            exportThread.execute(this::exportQueued);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        CompletableResultCode result = new CompletableResultCode();
+        exportThread.execute(() -> {
+            exportQueued();
+            result.succeed();
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        // The exporter is shared with the batch processor, which shuts it down
+        CompletableResultCode result = forceFlush();
+        exportThread.shutdown();
+        return result;
+    }
+
+    private void hold(SpanData data, boolean failed) {
+        if (heldSpans.incrementAndGet() > MAX_HELD_SPANS) {
+            heldSpans.decrementAndGet();
+            return;
+        }
+        // Atomic with the root's removal, so a span is never added to a trace already released
+        held.compute(data.getTraceId(), (traceId, trace) -> {
+            HeldTrace holding = trace != null ? trace : new HeldTrace(System.nanoTime());
+            holding.spans.add(data);
+            holding.failed |= failed;
+            return holding;
+        });
+    }
+
+    // Runs on the export thread only
+    private void exportQueued() {
+        long now = System.nanoTime();
+        held.forEach((traceId, trace) -> {
+            if (now - trace.heldSince > MAX_HELD_AGE.toNanos() && held.remove(traceId, trace)) {
+                heldSpans.addAndGet(-trace.spans.size());
+            }
+        });
+
+        List<SpanData> batch = new ArrayList<>(MAX_BATCH);
+        while (queue.drainTo(batch, MAX_BATCH) > 0) {
+            exporter.export(batch).join(EXPORT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            batch = new ArrayList<>(MAX_BATCH);
+        }
+    }
+
+    /**
+     * Child spans of one unsampled trace; changed only inside ConcurrentHashMap.compute
+     */
+    private static final class HeldTrace {
+
+        private final long heldSince;
+        private final List<SpanData> spans = new ArrayList<>();
+        private boolean failed;
+
+        HeldTrace(long heldSince) {
+            this.heldSince = heldSince;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import org.slf4j.Logger;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-operation sampling decisions for logs and traces
+ *
+ * A normal operation is kept with its configured probability, and at most
+ * maxPerSecond kept per operation per second, so telemetry volume stays flat
+ * as load rises. Errors and slow operations bypass sampling; callers report
+ * those through {@link #isSlow(long)} and always log them.
+ *
+ * Sampled log statements go through {@link #atInfo(Logger, String)} and
+ * {@link #atDebug(Logger, String)}, which hand back a no-op builder when the
+ * statement is not kept; pass costly arguments as suppliers so they are only
+ * evaluated for kept statements.
+ */
+@Component
+public class TelemetrySampler {
+
+    private final boolean enabled;
+    private final double defaultRate;
+    private final Map<String, Double> rates;
+    private final int maxPerSecond;
+    private final long slowThresholdNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public TelemetrySampler(TelemetrySamplingProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.defaultRate = properties.getDefaultRate();
+        this.rates = Map.copyOf(properties.getRates());
+        this.maxPerSecond = properties.getMaxPerSecond();
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    /**
+     * Whether to keep telemetry for one normal occurrence of an operation
+     */
+    public boolean sample(String operation) {
+        if (!enabled) {
+            return true;
+        }
+        double rate = rates.getOrDefault(operation, defaultRate);
+        if (rate <= 0.0) {
+            return false;
+        }
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return false;
+        }
+        return windows.computeIfAbsent(operation, ignored -> new Window())
+            .tryAcquire(System.nanoTime() / 1_000_000_000L, maxPerSecond);
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= slowThresholdNanos;
+    }
+
+    public LoggingEventBuilder atInfo(Logger logger, String operation) {
+        return logger.isInfoEnabled() && sample(operation) ? logger.atInfo() : NOPLoggingEventBuilder.singleton();
+    }
+
+    public LoggingEventBuilder atDebug(Logger logger, String operation) {
+        return logger.isDebugEnabled() && sample(operation) ? logger.atDebug() : NOPLoggingEventBuilder.singleton();
+    }
+
+    /**
+     * Kept-count for the current second
+     */
+    private static final class Window {
+
+        private volatile long second = -1;
+        private final AtomicInteger kept = new AtomicInteger();
+
+        boolean tryAcquire(long now, int max) {
+            if (now != second) {
+                synchronized (this) {
+                    if (now != second) {
+                        kept.set(0);
+                        second = now;
+                    }
+                }
+            }
+            return kept.incrementAndGet() <= max;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.paklog.wes.tracking;
+
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Startup time and time to first request
+ *
+ * Runs the full application against an embedded mongod with Kafka listeners
+ * held back (no broker needed; the producer only connects on first publish).
+ * Measures from SpringApplication.run to ApplicationReadyEvent, and to the
+ * first answered API request. Run after mvn -Pfast-start package with
+ * -Dspring.aot.enabled=true to measure the AOT-processed context.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=StartupTimeBenchmarkTest
+ */
+@Tag("benchmark")
+class StartupTimeBenchmarkTest {
+
+    @Test
+    void startupAndFirstRequest() throws Exception {
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V6_0)) {
+            String mongoUri = "mongodb://localhost:" + mongod.current().getServerAddress().getPort()
+                + "/physical_tracking";
+
+            AtomicLong readyAt = new AtomicLong();
+            SpringApplication application = new SpringApplication(PhysicalTrackingServiceApplication.class);
+            application.addListeners(event -> {
+                if (event instanceof ApplicationReadyEvent) {
+                    readyAt.set(System.nanoTime());
+                }
+            });
+
+            long start = System.nanoTime();
+            try (ConfigurableApplicationContext context = application.run(
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + mongoUri,
+                    "--spring.kafka.listener.auto-startup=false",
+                    "--management.tracing.enabled=false",
+                    "--logging.level.root=WARN")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+                HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/api/v1/tracking/license-plates/LP-STARTUP")).build(),
+                    HttpResponse.BodyHandlers.ofString()
+                );
+                long firstResponse = System.nanoTime();
+
+                System.out.printf("aot=%s: ready in %d ms, first request answered at %d ms%n",
+                    AotDetector.useGeneratedArtifacts(),
+                    (readyAt.get() - start) / 1_000_000, (firstResponse - start) / 1_000_000);
+
+                assertEquals(404, response.statusCode());
+            }
+        }
+    }
+}
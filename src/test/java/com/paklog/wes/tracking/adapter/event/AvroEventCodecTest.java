@@ -0,0 +1,181 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AvroEventCodecTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000);
+
+    private final TrackingEventSchemas schemas = new TrackingEventSchemas();
+    private final AvroEventCodec codec = new AvroEventCodec(schemas);
+
+    @Test
+    void schemas_shouldCoverEveryPublishedEventType() {
+        assertEquals(8, schemas.types().size());
+        assertTrue(schemas.types().contains("com.paklog.tracking.licenseplate.moved"));
+        assertTrue(schemas.types().contains("com.paklog.tracking.licenseplate.overstayed"));
+    }
+
+    @Test
+    void encodeDecode_shouldRoundTripEveryEventType() {
+        for (String type : schemas.types()) {
+            Map<String, Object> data = sampleData(schemas.latest(type));
+
+            AvroEventCodec.Encoded encoded = codec.encode(type, data);
+
+            assertEquals(TrackingEventSchemas.uri(schemas.latest(type)), encoded.dataschema());
+            assertEquals(data, codec.decode(type, encoded.dataschema(), encoded.bytes()), type);
+        }
+    }
+
+    @Test
+    void encode_shouldWriteNullStringsAsEmpty() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("locationId", "LOC-1");
+        data.put("warehouseId", "WH-1");
+        data.put("reason", null);
+
+        AvroEventCodec.Encoded encoded = codec.encode("com.paklog.tracking.location.blocked", data);
+
+        assertEquals("", codec.decode("com.paklog.tracking.location.blocked",
+            encoded.dataschema(), encoded.bytes()).get("reason"));
+    }
+
+    @Test
+    void binaryData_shouldMatchJsonData() throws Exception {
+        KafkaPublishProperties binaryProperties = new KafkaPublishProperties();
+        binaryProperties.setEncoding(KafkaPublishProperties.Encoding.BINARY);
+        TrackingEventPublisher json = publisher(new KafkaPublishProperties());
+        TrackingEventPublisher binary = publisher(binaryProperties);
+        ObjectMapper mapper = new ObjectMapper();
+
+        for (String type : schemas.types()) {
+            Map<String, Object> data = sampleData(schemas.latest(type));
+
+            CloudEvent jsonEvent = json.buildEvent(type, "subject", data);
+            CloudEvent binaryEvent = binary.buildEvent(type, "subject", data);
+
+            Map<String, Object> jsonData = mapper.readValue(jsonEvent.getData().toBytes(), new TypeReference<>() {});
+            Map<String, Object> binaryData = codec.decode(
+                type, binaryEvent.getDataSchema(), binaryEvent.getData().toBytes()
+            );
+            assertEquals(jsonData.keySet(), binaryData.keySet(), type);
+            for (Map.Entry<String, Object> entry : jsonData.entrySet()) {
+                assertEquals(entry.getValue(), String.valueOf(binaryData.get(entry.getKey())), type);
+            }
+            assertEquals("application/json", jsonEvent.getDataContentType());
+            assertNull(jsonEvent.getDataSchema());
+        }
+    }
+
+    @Test
+    void latestSchema_shouldReadEveryEarlierVersion() {
+        for (String type : schemas.types()) {
+            Schema latest = schemas.latest(type);
+            for (Schema version : schemas.versions(type)) {
+                SchemaCompatibility.SchemaPairCompatibility compatibility =
+                    SchemaCompatibility.checkReaderWriterCompatibility(latest, version);
+                assertEquals(SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE,
+                    compatibility.getType(), TrackingEventSchemas.uri(version) + ": " + compatibility.getDescription());
+            }
+        }
+    }
+
+    @Test
+    void decode_shouldFillDefaultsForFieldsMissingFromWriterSchema() throws Exception {
+        // An older writer without locationId and lotNumber
+        Schema writer = new Schema.Parser().parse("""
+            {"type": "record", "name": "ItemAdded", "namespace": "com.paklog.tracking.events", "fields": [
+              {"name": "licensePlateId", "type": "string"},
+              {"name": "sku", "type": "string"},
+              {"name": "quantity", "type": "int"}
+            ]}""");
+        Schema reader = new Schema.Parser().parse("""
+            {"type": "record", "name": "ItemAdded", "namespace": "com.paklog.tracking.events", "fields": [
+              {"name": "licensePlateId", "type": "string"},
+              {"name": "sku", "type": "string"},
+              {"name": "quantity", "type": "int"},
+              {"name": "locationId", "type": "string", "default": ""},
+              {"name": "lotNumber", "type": ["null", "string"], "default": null}
+            ]}""");
+
+        GenericRecord written = new GenericData.Record(writer);
+        written.put("licensePlateId", "LP-1");
+        written.put("sku", "SKU-1");
+        written.put("quantity", 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(writer).write(written, encoder);
+        encoder.flush();
+
+        Map<String, Object> data = codec.decode(writer, reader, out.toByteArray());
+
+        assertEquals("LP-1", data.get("licensePlateId"));
+        assertEquals(3, data.get("quantity"));
+        assertEquals("", data.get("locationId"));
+        assertNull(data.get("lotNumber"));
+    }
+
+    @Test
+    void decode_shouldRejectUnknownDataschema() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(
+            "com.paklog.tracking.item.added", URI.create("urn:paklog:schema:com.paklog.tracking.item.added:v99"),
+            new byte[0]
+        ));
+    }
+
+    private TrackingEventPublisher publisher(KafkaPublishProperties properties) {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, CloudEvent> template = mock(KafkaTemplate.class);
+        TrackingMetrics metrics = new TrackingMetrics(
+            new SimpleMeterRegistry(), new TelemetrySampler(new TelemetrySamplingProperties())
+        );
+        return new TrackingEventPublisher(template, metrics, codec, mock(PublishSpool.class), properties);
+    }
+
+    static Map<String, Object> sampleData(Schema schema) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (Schema.Field field : schema.getFields()) {
+            Schema fieldSchema = field.schema();
+            Object value;
+            if (fieldSchema.getLogicalType() instanceof LogicalTypes.LocalTimestampMillis) {
+                value = TIMESTAMP.truncatedTo(ChronoUnit.MILLIS);
+            } else {
+                value = switch (fieldSchema.getType()) {
+                    case INT -> 7;
+                    case LONG -> 3_600L;
+                    default -> field.name() + "-1";
+                };
+            }
+            data.put(field.name(), value);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,108 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import com.paklog.wes.tracking.infrastructure.config.KafkaProducerConfig;
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Structured JSON vs binary Avro CloudEvents: build + serialize throughput
+ * and bytes on the wire per event (record value plus headers)
+ *
+ * Uses the producer serializer configuration the service runs with, so the
+ * numbers cover exactly what the producer hands to the record accumulator.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class EventEncodingBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int EVENTS = 500_000;
+
+    @Test
+    void structuredJsonVersusBinaryAvro() {
+        Result json = run(KafkaPublishProperties.Encoding.JSON);
+        Result binary = run(KafkaPublishProperties.Encoding.BINARY);
+
+        for (Result result : new Result[] {json, binary}) {
+            System.out.printf("%-6s %,.0f events/s, %d bytes/event (value %d + headers %d)%n",
+                result.encoding(), result.eventsPerSecond(), result.valueBytes() + result.headerBytes(),
+                result.valueBytes(), result.headerBytes());
+        }
+
+        assertTrue(binary.valueBytes() + binary.headerBytes() < json.valueBytes() + json.headerBytes());
+    }
+
+    private Result run(KafkaPublishProperties.Encoding encoding) {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setEncoding(encoding);
+
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, CloudEvent> template = mock(KafkaTemplate.class);
+        TrackingMetrics metrics = new TrackingMetrics(
+            new SimpleMeterRegistry(), new TelemetrySampler(new TelemetrySamplingProperties())
+        );
+        TrackingEventPublisher publisher = new TrackingEventPublisher(
+            template, metrics, new AvroEventCodec(new TrackingEventSchemas()), mock(PublishSpool.class), properties
+        );
+        CloudEventSerializer serializer = new CloudEventSerializer();
+        serializer.configure(new HashMap<>(KafkaProducerConfig.producerConfigs(properties)), false);
+
+        for (int i = 0; i < WARMUP; i++) {
+            serialize(publisher, serializer, i);
+        }
+
+        long valueBytes = 0;
+        long headerBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            RecordHeaders headers = new RecordHeaders();
+            valueBytes += serializer.serialize("tracking-events", headers, event(publisher, i)).length;
+            for (Header header : headers) {
+                headerBytes += header.key().length() + header.value().length;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        return new Result(encoding, EVENTS / seconds, valueBytes / EVENTS, headerBytes / EVENTS);
+    }
+
+    private static void serialize(TrackingEventPublisher publisher, CloudEventSerializer serializer, int i) {
+        serializer.serialize("tracking-events", new RecordHeaders(), event(publisher, i));
+    }
+
+    private static CloudEvent event(TrackingEventPublisher publisher, int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("licensePlateId", "LP-" + i);
+        data.put("warehouseId", "WH-1");
+        data.put("locationId", "A-01-02-03");
+        data.put("arrivedAt", LocalDateTime.of(2024, 3, 1, 8, 30));
+        data.put("dwellSeconds", 86_400L + i);
+        return publisher.buildEvent("com.paklog.tracking.licenseplate.overstayed", "LP-" + i, data);
+    }
+
+    private record Result(
+        KafkaPublishProperties.Encoding encoding,
+        double eventsPerSecond,
+        long valueBytes,
+        long headerBytes
+    ) {}
+}
@@ -0,0 +1,74 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+class PublishSpoolTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private PublishSpool spool;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(PublishSpool.COLLECTION);
+        spool = new PublishSpool(mongoTemplate);
+    }
+
+    @Test
+    void spooledEvent_shouldBeClaimedOnceWithItsAttributesAndData() {
+        CloudEvent event = CloudEventBuilder.v1()
+            .withId("E-1")
+            .withSource(URI.create("physical-tracking-service"))
+            .withType("com.paklog.tracking.location.blocked")
+            .withSubject("LOC-1")
+            .withTime(OffsetDateTime.parse("2026-10-18T08:30:00Z"))
+            .withDataContentType("application/json")
+            .withData("{\"locationId\":\"LOC-1\"}".getBytes(StandardCharsets.UTF_8))
+            .build();
+        spool.add("tracking-events", "LOC-1", event);
+
+        List<PublishSpool.Spooled> claimed = spool.claim(10);
+
+        assertEquals(1, claimed.size());
+        PublishSpool.Spooled spooled = claimed.get(0);
+        assertEquals("tracking-events", spooled.topic());
+        assertEquals("LOC-1", spooled.key());
+        assertEquals(event.getId(), spooled.event().getId());
+        assertEquals(event.getType(), spooled.event().getType());
+        assertEquals(event.getTime(), spooled.event().getTime());
+        assertArrayEquals(event.getData().toBytes(), spooled.event().getData().toBytes());
+        assertTrue(spool.claim(10).isEmpty(), "Claimed entries are not handed out again");
+
+        spool.remove(spooled.id());
+        assertEquals(0, mongoTemplate.getCollection(PublishSpool.COLLECTION).countDocuments());
+    }
+}
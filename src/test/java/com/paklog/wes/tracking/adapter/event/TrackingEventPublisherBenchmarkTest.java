@@ -0,0 +1,145 @@
+package com.paklog.wes.tracking.adapter.event;
+
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Publish path throughput and publish-to-ack p99 against a broker stand-in
+ *
+ * MockProducer stands in for the broker and acknowledges everything pending
+ * once per simulated request round trip. Measures the client side of the
+ * publish path (event build, send slot accounting, completion callbacks);
+ * compression and linger only take effect against a real broker.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class TrackingEventPublisherBenchmarkTest {
+
+    private static final int PUBLISHER_THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 50_000;
+
+    @Test
+    void publishThroughputAtBrokerRoundTrips() throws Exception {
+        for (Duration roundTrip : List.of(Duration.ofMillis(1), Duration.ofMillis(5))) {
+            run(roundTrip);
+        }
+    }
+
+    private void run(Duration roundTrip) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                    .percentiles(0.5, 0.99)
+                    .build()
+                    .merge(config);
+            }
+        });
+
+        MockProducer<String, CloudEvent> broker = new MockProducer<String, CloudEvent>(
+            false, new StringSerializer(), (topic, event) -> event.getData().toBytes()
+        ) {
+            @Override
+            public void close(Duration timeout) {
+                // KafkaTemplate closes non-transactional producers after each send
+            }
+        };
+        KafkaTemplate<String, CloudEvent> template = new KafkaTemplate<>(new ProducerFactory<>() {
+            @Override
+            public Producer<String, CloudEvent> createProducer() {
+                return broker;
+            }
+        });
+
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setMaxInFlight(20_000);
+        properties.setBackpressureWait(Duration.ofSeconds(5));
+        TrackingMetrics metrics = new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties()));
+        TrackingEventPublisher publisher = new TrackingEventPublisher(
+            template, metrics, new AvroEventCodec(new TrackingEventSchemas()), mock(PublishSpool.class), properties
+        );
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread acker = new Thread(() -> {
+            while (running.get()) {
+                sleep(roundTrip);
+                while (broker.completeNext()) {
+                    // drain everything sent during this round trip
+                }
+            }
+        }, "broker-stand-in");
+        acker.start();
+
+        ExecutorService publishers = Executors.newFixedThreadPool(PUBLISHER_THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < PUBLISHER_THREADS; t++) {
+            int thread = t;
+            futures.add(publishers.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    publisher.publishLicensePlateMoved(
+                        "LP-" + thread + "-" + i, "LOC-A", "LOC-B", "RELOCATION", "bench"
+                    );
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        while (publisher.inFlightCount() > 0) {
+            sleep(roundTrip);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        running.set(false);
+        acker.join();
+        publishers.shutdown();
+
+        Timer acked = registry.get(TrackingMetrics.PUBLISH).tag("outcome", "acked").timer();
+        ValueAtPercentile[] percentiles = acked.takeSnapshot().percentileValues();
+        int events = PUBLISHER_THREADS * EVENTS_PER_THREAD;
+
+        System.out.printf("round trip %dms: %,d events in %.2fs = %,.0f events/s, p50 %.2fms, p99 %.2fms%n",
+            roundTrip.toMillis(), events, seconds, events / seconds,
+            percentiles[0].value(TimeUnit.MILLISECONDS), percentiles[1].value(TimeUnit.MILLISECONDS));
+
+        assertEquals(events, acked.count());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
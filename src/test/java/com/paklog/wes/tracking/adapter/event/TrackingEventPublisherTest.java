@@ -1,21 +1,28 @@
 package com.paklog.wes.tracking.adapter.event;
 
+import com.paklog.wes.tracking.infrastructure.config.KafkaPublishProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
 import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,7 +32,13 @@ class TrackingEventPublisherTest {
     @Mock
     private KafkaTemplate<String, CloudEvent> kafkaTemplate;
 
-    @InjectMocks
+    @Mock
+    private PublishSpool spool;
+
+    private final AvroEventCodec codec = new AvroEventCodec(new TrackingEventSchemas());
+
+    private SimpleMeterRegistry meterRegistry;
+    private TrackingMetrics metrics;
     private TrackingEventPublisher publisher;
 
     @Captor
@@ -33,6 +46,12 @@ class TrackingEventPublisherTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new TrackingMetrics(meterRegistry, new TelemetrySampler(new TelemetrySamplingProperties()));
+        publisher = new TrackingEventPublisher(
+            kafkaTemplate, metrics, codec, spool, new KafkaPublishProperties()
+        );
+
         CompletableFuture<SendResult<String, CloudEvent>> future = new CompletableFuture<>();
         future.complete(null);
         when(kafkaTemplate.send(any(), any(), any())).thenReturn(future);
@@ -122,5 +141,87 @@ class TrackingEventPublisherTest {
 
         assertDoesNotThrow(() -> publisher.publishLocationUnblocked("LOC-ERR", "WH-ERR"));
         verify(kafkaTemplate).send(eq("tracking-events"), eq("LOC-ERR"), any());
+        verify(spool).add(eq("tracking-events"), eq("LOC-ERR"), any());
+    }
+
+    @Test
+    void publishEvent_shouldRecordAckLatencyByOutcome() {
+        CompletableFuture<SendResult<String, CloudEvent>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("broker down"));
+        when(kafkaTemplate.send(eq("tracking-events"), eq("LOC-NACK"), any())).thenReturn(failed);
+
+        publisher.publishLocationUnblocked("LOC-9", "WH-1");
+        publisher.publishLocationUnblocked("LOC-NACK", "WH-1");
+
+        assertEquals(1, meterRegistry.get(TrackingMetrics.PUBLISH)
+            .tags("type", "com.paklog.tracking.location.unblocked", "outcome", "acked").timer().count());
+        assertEquals(1, meterRegistry.get(TrackingMetrics.PUBLISH)
+            .tags("type", "com.paklog.tracking.location.unblocked", "outcome", "failed").timer().count());
+        verify(spool).add(eq("tracking-events"), eq("LOC-NACK"), any());
+        verify(spool, never()).add(eq("tracking-events"), eq("LOC-9"), any());
+    }
+
+    @Test
+    void publishEvent_shouldSpoolWhenInFlightLimitReached() {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setMaxInFlight(1);
+        properties.setBackpressureWait(Duration.ofMillis(1));
+        TrackingEventPublisher bounded = new TrackingEventPublisher(
+            kafkaTemplate, metrics, codec, spool, properties
+        );
+
+        CompletableFuture<SendResult<String, CloudEvent>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("tracking-events"), eq("LOC-SLOW"), any())).thenReturn(pending);
+
+        bounded.publishLocationUnblocked("LOC-SLOW", "WH-1");
+        assertEquals(1, bounded.inFlightCount());
+
+        bounded.publishLocationUnblocked("LOC-NEXT", "WH-1");
+        verify(kafkaTemplate, never()).send(eq("tracking-events"), eq("LOC-NEXT"), any());
+        assertEquals(1, meterRegistry.get(TrackingMetrics.PUBLISH_REJECTED).counter().count());
+        verify(spool).add(eq("tracking-events"), eq("LOC-NEXT"), eventCaptor.capture());
+        assertEquals("LOC-NEXT", eventCaptor.getValue().getSubject());
+
+        pending.complete(null);
+        assertEquals(0, bounded.inFlightCount());
+        bounded.publishLocationUnblocked("LOC-NEXT", "WH-1");
+        verify(kafkaTemplate).send(eq("tracking-events"), eq("LOC-NEXT"), any());
+    }
+
+    @Test
+    void resend_shouldRemoveFromSpoolOnlyOnceAcknowledged() {
+        CloudEvent event = publisher.buildEvent("com.paklog.tracking.location.unblocked", "LOC-1",
+            Map.of("locationId", "LOC-1", "warehouseId", "WH-1"));
+        CompletableFuture<SendResult<String, CloudEvent>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("broker down"));
+        when(kafkaTemplate.send(eq("tracking-events"), eq("LOC-DOWN"), any())).thenReturn(failed);
+
+        assertTrue(publisher.resend(new PublishSpool.Spooled("E-1", "tracking-events", "LOC-DOWN", event)));
+        verify(spool, never()).remove(any());
+
+        assertTrue(publisher.resend(new PublishSpool.Spooled("E-2", "tracking-events", "LOC-1", event)));
+        verify(spool).remove("E-2");
+        verify(spool, never()).add(any(), any(), any());
+    }
+
+    @Test
+    void binaryEncoding_shouldCarryAvroDataAndSchema() {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setEncoding(KafkaPublishProperties.Encoding.BINARY);
+        TrackingEventPublisher binary = new TrackingEventPublisher(
+            kafkaTemplate, metrics, codec, spool, properties
+        );
+
+        binary.publishLicensePlateMoved("LP-1", null, "LOC-1", "PUTAWAY", "tester");
+
+        verify(kafkaTemplate).send(eq("tracking-events"), eq("LP-1"), eventCaptor.capture());
+        CloudEvent event = eventCaptor.getValue();
+
+        assertEquals(AvroEventCodec.CONTENT_TYPE, event.getDataContentType());
+        assertEquals("urn:paklog:schema:com.paklog.tracking.licenseplate.moved:v1",
+            event.getDataSchema().toString());
+        Map<String, Object> data = codec.decode(event.getType(), event.getDataSchema(), event.getData().toBytes());
+        assertEquals("", data.get("fromLocationId"));
+        assertEquals("LOC-1", data.get("toLocationId"));
     }
 }
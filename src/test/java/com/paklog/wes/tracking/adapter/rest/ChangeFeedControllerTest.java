@@ -0,0 +1,96 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.application.service.TrackingChangeFeed;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.ChangeFeedProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ChangeFeedController.class, properties = "paklog.tracking.feed.enabled=true")
+@Import({TrackingChangeFeed.class, TrackingMetrics.class, TelemetrySampler.class, SimpleMeterRegistry.class})
+@EnableConfigurationProperties({ChangeFeedProperties.class, TelemetrySamplingProperties.class})
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TrackingChangeFeed feed;
+
+    @Autowired
+    private ChangeFeedProperties properties;
+
+    @AfterEach
+    void closeSubscriptions() {
+        feed.stop();
+        properties.setMaxSubscribers(new ChangeFeedProperties().getMaxSubscribers());
+    }
+
+    @Test
+    void subscribe_shouldStreamMatchingLocationChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/tracking/changes")
+                .param("warehouseId", "WH-1")
+                .param("zone", "ZONE-A")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        LocationState ignored = LocationState.create("LOC-2", "WH-1", "ZONE-B", 10, null, null);
+        LocationState matching = LocationState.create("LOC-1", "WH-1", "ZONE-A", 10, null, null);
+        feed.onLocationStateChanged(ignored);
+        feed.onLocationStateChanged(matching);
+
+        String body = awaitContent(result, "LOC-1");
+        assertTrue(body.contains("event:location"));
+        assertTrue(body.contains("\"occupancyStatus\":\"EMPTY\""));
+        assertFalse(body.contains("LOC-2"));
+    }
+
+    @Test
+    void subscribe_shouldReturnServiceUnavailableWhenFull() throws Exception {
+        properties.setMaxSubscribers(0);
+
+        mockMvc.perform(get("/api/v1/tracking/changes")
+                .param("warehouseId", "WH-1")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void subscribe_shouldRequireWarehouse() throws Exception {
+        mockMvc.perform(get("/api/v1/tracking/changes").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isBadRequest());
+    }
+
+    // Deltas are sent from virtual threads; wait for them to reach the response
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertEquals(200, result.getResponse().getStatus());
+        return body;
+    }
+}
@@ -0,0 +1,80 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.paklog.wes.tracking.application.service.OccupancyHistoryService;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = OccupancyHistoryController.class)
+// TraceOperationFilter is part of every web slice
+@EnableConfigurationProperties(TelemetrySamplingProperties.class)
+class OccupancyHistoryControllerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 3, 1, 11, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OccupancyHistoryService historyService;
+
+    @Test
+    void getLocationUtilization_shouldReturnBuckets() throws Exception {
+        when(historyService.locationCurve("LOC-1", UtilizationBucket.Granularity.MINUTE, FROM, TO))
+            .thenReturn(List.of(new UtilizationBucket(FROM, 2, 20.0, 10.0, 30.0, 30.0, 1)));
+
+        mockMvc.perform(get("/api/v1/tracking/locations/LOC-1/utilization")
+                .param("from", "2024-03-01T10:00:00")
+                .param("to", "2024-03-01T11:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].samples", is(2)))
+            .andExpect(jsonPath("$[0].averageUtilization", is(20.0)));
+    }
+
+    @Test
+    void getZoneUtilization_shouldDefaultRangeToGranularity() throws Exception {
+        mockMvc.perform(get("/api/v1/tracking/zones/ZONE-A/utilization")
+                .param("warehouseId", "WH-1")
+                .param("granularity", "HOUR")
+                .param("to", "2024-03-01T11:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(historyService).zoneCurve("WH-1", "ZONE-A", UtilizationBucket.Granularity.HOUR, TO.minusDays(7), TO);
+    }
+
+    @Test
+    void getLocationUtilization_shouldRejectRangeWiderThanGranularityAllows() throws Exception {
+        mockMvc.perform(get("/api/v1/tracking/locations/LOC-1/utilization")
+                .param("granularity", "MINUTE")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-03-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/tracking/locations/LOC-1/utilization")
+                .param("from", "2024-03-01T11:00:00")
+                .param("to", "2024-03-01T10:00:00"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(historyService);
+    }
+}
@@ -2,34 +2,67 @@ package com.paklog.wes.tracking.adapter.rest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paklog.wes.tracking.adapter.rest.dto.AddItemRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.AllocateLicensePlateRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.BatchGetRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.ConsolidateLicensePlateRequest;
 import com.paklog.wes.tracking.adapter.rest.dto.CreateLicensePlateRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.ImportLocationsRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.LocationDefinitionRequest;
 import com.paklog.wes.tracking.adapter.rest.dto.MoveLicensePlateRequest;
 import com.paklog.wes.tracking.application.service.PhysicalTrackingService;
 import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
 import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.ReadRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.config.ResponseCacheProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.CausalContext;
+import com.paklog.wes.tracking.infrastructure.persistence.CausalToken;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseDirectory;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonTimestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = PhysicalTrackingController.class)
+@Import({ResponseBodyCache.class, TrackingMetrics.class, TelemetrySampler.class, SimpleMeterRegistry.class})
+@EnableConfigurationProperties({ReadRoutingProperties.class, ResponseCacheProperties.class,
+    TelemetrySamplingProperties.class})
 class PhysicalTrackingControllerTest {
 
     @Autowired
@@ -41,6 +74,9 @@ class PhysicalTrackingControllerTest {
     @MockBean
     private PhysicalTrackingService trackingService;
 
+    @MockBean
+    private WarehouseDirectory directory;
+
     private LicensePlate sampleLicensePlate;
     private LocationState sampleLocationState;
 
@@ -98,6 +134,82 @@ class PhysicalTrackingControllerTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getLicensePlate_shouldRunInTheWarehouseTheDirectoryFinds() throws Exception {
+        AtomicReference<String> warehouse = new AtomicReference<>();
+        when(directory.isRouted()).thenReturn(true);
+        when(directory.licensePlateWarehouse("LP-123")).thenReturn("WH-PEAK");
+        when(trackingService.getLicensePlate("LP-123")).thenAnswer(invocation -> {
+            warehouse.set(WarehouseContext.current());
+            return Optional.of(sampleLicensePlate);
+        });
+
+        mockMvc.perform(get("/api/v1/tracking/license-plates/LP-123"))
+            .andExpect(status().isOk());
+
+        assertEquals("WH-PEAK", warehouse.get());
+    }
+
+    @Test
+    void moveLicensePlate_shouldRejectUnknownWarehouseWhenRouted() throws Exception {
+        when(directory.isRouted()).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/LP-404/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new MoveLicensePlateRequest("LOC-1", MovementType.PUTAWAY, null))))
+            .andExpect(status().isBadRequest());
+
+        verify(trackingService, never()).moveLicensePlate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createLicensePlate_shouldReturnCausalTokenOfItsWrite() throws Exception {
+        CausalToken token = new CausalToken(new BsonTimestamp(1_700_000_000, 3), null);
+        when(trackingService.createLicensePlate(anyString(), anyString(), any(), anyString(), anyString()))
+            .thenAnswer(invocation -> {
+                CausalContext.recordWrite(token);
+                return sampleLicensePlate;
+            });
+
+        CreateLicensePlateRequest request = new CreateLicensePlateRequest(
+            "LP-123", "WH-1", LicensePlateType.PALLET, "CONT-1"
+        );
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string(CausalTokenFilter.HEADER, token.encode()));
+
+        assertNull(CausalContext.current());
+    }
+
+    @Test
+    void getLicensePlate_shouldReadAfterPresentedCausalToken() throws Exception {
+        CausalToken token = new CausalToken(new BsonTimestamp(1_700_000_000, 7), null);
+        AtomicReference<CausalToken> seen = new AtomicReference<>();
+        when(trackingService.getLicensePlate("LP-123")).thenAnswer(invocation -> {
+            seen.set(CausalContext.current());
+            return Optional.of(sampleLicensePlate);
+        });
+
+        mockMvc.perform(get("/api/v1/tracking/license-plates/LP-123")
+                .header(CausalTokenFilter.HEADER, token.encode()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(CausalTokenFilter.HEADER));
+
+        assertEquals(token, seen.get());
+        assertNull(CausalContext.current());
+    }
+
+    @Test
+    void getLicensePlate_shouldRejectMalformedCausalToken() throws Exception {
+        mockMvc.perform(get("/api/v1/tracking/license-plates/LP-123")
+                .header(CausalTokenFilter.HEADER, "garbage"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void listLicensePlates_shouldReturnResultsForLocation() throws Exception {
         when(trackingService.getLicensePlatesAtLocation("LOC-1")).thenReturn(List.of(sampleLicensePlate));
@@ -131,6 +243,40 @@ class PhysicalTrackingControllerTest {
             .andExpect(jsonPath("$.licensePlateId", is("LP-123")));
     }
 
+    @Test
+    void moveLicensePlate_whenAnotherWriterWon_shouldReturnConflict() throws Exception {
+        when(trackingService.moveLicensePlate(eq("LP-123"), eq("LOC-2"), eq(MovementType.RELOCATION), eq("tester"), eq("reason")))
+            .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        MoveLicensePlateRequest request = new MoveLicensePlateRequest("LOC-2", MovementType.RELOCATION, "reason");
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/LP-123/move")
+                .header("X-User-Id", "tester")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    void consolidateLicensePlate_shouldNestInParent() throws Exception {
+        when(trackingService.consolidateLicensePlate("LP-123", "LP-PARENT", "tester", "build pallet"))
+            .thenReturn(sampleLicensePlate);
+
+        ConsolidateLicensePlateRequest request = new ConsolidateLicensePlateRequest("LP-PARENT", "build pallet");
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/LP-123/consolidate")
+                .header("X-User-Id", "tester")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.licensePlateId", is("LP-123")));
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/LP-123/consolidate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ConsolidateLicensePlateRequest(" ", null))))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void addItem_shouldReturnUpdatedLicensePlate() throws Exception {
         when(trackingService.addItemToLicensePlate(eq("LP-123"), anyString(), any(), anyInt(), any(), any(), anyString()))
@@ -189,6 +335,18 @@ class PhysicalTrackingControllerTest {
             .andExpect(jsonPath("$[0].locationId", is("LOC-1")));
     }
 
+    @Test
+    void getOccupancyCounts_shouldReturnCountsPerStatus() throws Exception {
+        when(trackingService.getOccupancyCounts("WH-1"))
+            .thenReturn(Map.of(OccupancyStatus.EMPTY, 12L, OccupancyStatus.FULL, 3L));
+
+        mockMvc.perform(get("/api/v1/tracking/locations/occupancy")
+                .param("warehouseId", "WH-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.EMPTY", is(12)))
+            .andExpect(jsonPath("$.FULL", is(3)));
+    }
+
     @Test
     void blockAndUnblockLocation_shouldReturnUpdatedState() throws Exception {
         when(trackingService.blockLocation("LOC-1", "maintenance")).thenReturn(sampleLocationState);
@@ -203,4 +361,158 @@ class PhysicalTrackingControllerTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.locationId", is("LOC-1")));
     }
+
+    @Test
+    void allocateEmptyLicensePlate_shouldReturnClaimedPlateOrNotFound() throws Exception {
+        when(trackingService.allocateEmptyLicensePlate("WH-1", LicensePlateType.TOTE, "station-1"))
+            .thenReturn(Optional.of(sampleLicensePlate));
+        when(trackingService.allocateEmptyLicensePlate("WH-2", LicensePlateType.TOTE, "station-1"))
+            .thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/allocate")
+                .header("X-User-Id", "station-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new AllocateLicensePlateRequest("WH-1", LicensePlateType.TOTE))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.licensePlateId", is("LP-123")));
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/allocate")
+                .header("X-User-Id", "station-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new AllocateLicensePlateRequest("WH-2", LicensePlateType.TOTE))))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findSkuLocations_shouldReturnProjectionRows() throws Exception {
+        SkuLocationInventory row = mock(SkuLocationInventory.class);
+        when(row.getSku()).thenReturn("SKU-1");
+        when(row.getLocationId()).thenReturn("LOC-1");
+        when(row.getQuantity()).thenReturn(5);
+        when(trackingService.getSkuLocations("WH-1", "SKU-1", null)).thenReturn(List.of(row));
+
+        mockMvc.perform(get("/api/v1/tracking/skus/SKU-1/locations")
+                .param("warehouseId", "WH-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].locationId", is("LOC-1")))
+            .andExpect(jsonPath("$[0].quantity", is(5)));
+    }
+
+    @Test
+    void importLocations_shouldProvisionDefinitionsAndReturnCounts() throws Exception {
+        when(trackingService.provisionLocations(anyList())).thenReturn(new UpsertCounts(1, 1));
+        ImportLocationsRequest request = new ImportLocationsRequest(List.of(
+            new LocationDefinitionRequest("A-01", "WH-1", "ZONE-A", 40, new BigDecimal("800"),
+                new BigDecimal("2.4"), 1.0, 2.0, 0.0, "RF-1"),
+            new LocationDefinitionRequest("A-02", "WH-1", "ZONE-A", 40, new BigDecimal("800"),
+                new BigDecimal("2.4"), null, null, null, null)
+        ));
+
+        mockMvc.perform(post("/api/v1/tracking/locations/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received", is(2)))
+            .andExpect(jsonPath("$.created", is(1)))
+            .andExpect(jsonPath("$.updated", is(1)));
+
+        verify(trackingService).provisionLocations(List.of(
+            request.locations().get(0).toDefinition(), request.locations().get(1).toDefinition()
+        ));
+    }
+
+    @Test
+    void importLocations_shouldProvisionEachWarehouseInItsOwnContext() throws Exception {
+        List<String> warehouses = new ArrayList<>();
+        when(trackingService.provisionLocations(anyList())).thenAnswer(invocation -> {
+            warehouses.add(WarehouseContext.current());
+            return new UpsertCounts(((List<?>) invocation.getArgument(0)).size(), 0);
+        });
+        ImportLocationsRequest request = new ImportLocationsRequest(List.of(
+            new LocationDefinitionRequest("A-01", "WH-1", "ZONE-A", 40, new BigDecimal("800"),
+                new BigDecimal("2.4"), null, null, null, null),
+            new LocationDefinitionRequest("B-01", "WH-2", "ZONE-B", 40, new BigDecimal("800"),
+                new BigDecimal("2.4"), null, null, null, null),
+            new LocationDefinitionRequest("A-02", "WH-1", "ZONE-A", 40, new BigDecimal("800"),
+                new BigDecimal("2.4"), null, null, null, null)
+        ));
+
+        mockMvc.perform(post("/api/v1/tracking/locations/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received", is(3)))
+            .andExpect(jsonPath("$.created", is(3)));
+
+        assertEquals(List.of("WH-1", "WH-2"), warehouses);
+        verify(trackingService).provisionLocations(List.of(
+            request.locations().get(0).toDefinition(), request.locations().get(2).toDefinition()
+        ));
+        assertNull(WarehouseContext.current());
+    }
+
+    @Test
+    void importLocations_shouldRejectDefinitionWithoutCapacity() throws Exception {
+        ImportLocationsRequest request = new ImportLocationsRequest(List.of(
+            new LocationDefinitionRequest("A-01", "WH-1", null, null, new BigDecimal("800"),
+                new BigDecimal("2.4"), null, null, null, null)
+        ));
+
+        mockMvc.perform(post("/api/v1/tracking/locations/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLicensePlates_shouldReturnResultsInRequestOrderWithNotFoundMarkers() throws Exception {
+        when(trackingService.getLicensePlates(anyList())).thenReturn(Map.of("LP-123", sampleLicensePlate));
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchGetRequest(List.of("LP-404", "LP-123")))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results", hasSize(2)))
+            .andExpect(jsonPath("$.results[0].id", is("LP-404")))
+            .andExpect(jsonPath("$.results[0].found", is(false)))
+            .andExpect(jsonPath("$.results[1].id", is("LP-123")))
+            .andExpect(jsonPath("$.results[1].found", is(true)))
+            .andExpect(jsonPath("$.results[1].value.currentLocationId", is("LOC-1")))
+            .andExpect(jsonPath("$.found", is(1)))
+            .andExpect(jsonPath("$.notFound", is(1)));
+    }
+
+    @Test
+    void getLocationStates_shouldReturnStatesById() throws Exception {
+        when(trackingService.getLocationStates(anyList())).thenReturn(Map.of("LOC-1", sampleLocationState));
+
+        mockMvc.perform(post("/api/v1/tracking/locations/state/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchGetRequest(List.of("LOC-1")))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results[0].value.locationId", is("LOC-1")))
+            .andExpect(jsonPath("$.found", is(1)))
+            .andExpect(jsonPath("$.notFound", is(0)));
+    }
+
+    @Test
+    void getLicensePlates_shouldRejectBatchLargerThanLimit() throws Exception {
+        List<String> ids = Collections.nCopies(new ReadRoutingProperties().getMaxBatchSize() + 1, "LP-1");
+
+        mockMvc.perform(post("/api/v1/tracking/license-plates/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchGetRequest(ids))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLicensePlates_shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/tracking/license-plates/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchGetRequest(List.of()))))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,167 @@
+package com.paklog.wes.tracking.adapter.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.ResponseCacheProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodyCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ResponseCacheProperties properties;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sameVersion_shouldBeServedFromCache() throws Exception {
+        ResponseBodyCache cache = cache();
+        LocationState state = location("LOC-1");
+
+        byte[] first = cache.locationState(state);
+        byte[] second = cache.locationState(state);
+
+        assertSame(first, second);
+        assertEquals("LOC-1", objectMapper.readTree(first).get("locationId").asText());
+        assertEquals(1.0, outcomes(ResponseBodyCache.LOCATION_STATE, "hit"));
+        assertEquals(1.0, outcomes(ResponseBodyCache.LOCATION_STATE, "miss"));
+    }
+
+    @Test
+    void newerVersion_shouldBeSerializedAgainEvenWithinTheSameMillisecond() throws Exception {
+        ResponseBodyCache cache = cache();
+        LicensePlate lp = LicensePlate.create("LP-1", "WH-1", LicensePlateType.PALLET, "C-1", "tester");
+        lp.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        ReflectionTestUtils.setField(lp, "version", 1L);
+        byte[] before = cache.licensePlate(lp, lp.getCurrentLocationId());
+
+        // Saved again within the same millisecond: only the version tells the copies apart
+        LocalDateTime updatedAt = lp.getUpdatedAt();
+        lp.moveTo("LOC-9", MovementType.PUTAWAY, "tester", null);
+        ReflectionTestUtils.setField(lp, "updatedAt", updatedAt);
+        ReflectionTestUtils.setField(lp, "version", 2L);
+        byte[] after = cache.licensePlate(lp, lp.getCurrentLocationId());
+
+        assertNotSame(before, after);
+        assertEquals("LOC-9", objectMapper.readTree(after).get("currentLocationId").asText());
+    }
+
+    @Test
+    void nestedLicensePlate_shouldReportParentLocationWithoutCaching() throws Exception {
+        ResponseBodyCache cache = cache();
+        LicensePlate cage = LicensePlate.create("LP-CAGE", "WH-1", LicensePlateType.CAGE, "C-1", "tester");
+        LicensePlate tote = LicensePlate.create("LP-TOTE", "WH-1", LicensePlateType.TOTE, "C-2", "tester");
+        tote.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.nestInto(cage, "tester", null);
+        cage.attachChild(tote);
+
+        byte[] first = cache.licensePlate(tote, "LOC-1");
+        byte[] second = cache.licensePlate(tote, "LOC-2");
+
+        assertEquals("LOC-1", objectMapper.readTree(first).get("currentLocationId").asText());
+        assertEquals("LOC-2", objectMapper.readTree(second).get("currentLocationId").asText());
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    void savedChange_shouldEvictEntry() {
+        ResponseBodyCache cache = cache();
+        LocationState state = location("LOC-1");
+        byte[] first = cache.locationState(state);
+
+        cache.onLocationStateChanged(state);
+
+        assertEquals(0, cache.bytes());
+        assertNotSame(first, cache.locationState(state));
+    }
+
+    @Test
+    void bytes_shouldStayWithinConfiguredSize() {
+        properties.setMaxSize(DataSize.ofKilobytes(64));
+        ResponseBodyCache cache = cache();
+
+        for (int i = 0; i < 2_000; i++) {
+            cache.locationState(location("LOC-" + i));
+        }
+
+        assertTrue(cache.bytes() > 0);
+        assertTrue(cache.bytes() <= properties.getMaxSize().toBytes());
+    }
+
+    @Test
+    void oversizedResponse_shouldNotBeCached() {
+        properties.setMaxEntrySize(DataSize.ofBytes(16));
+        ResponseBodyCache cache = cache();
+
+        cache.locationState(location("LOC-1"));
+
+        assertEquals(0, cache.bytes());
+        assertEquals(1.0, outcomes(ResponseBodyCache.LOCATION_STATE, "too_large"));
+    }
+
+    @Test
+    void disabled_shouldAlwaysSerialize() {
+        properties.setEnabled(false);
+        ResponseBodyCache cache = cache();
+        LocationState state = location("LOC-1");
+
+        assertNotSame(cache.locationState(state), cache.locationState(state));
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    void sameLocationInAnotherWarehouse_shouldNotBeServedFromCache() throws Exception {
+        ResponseBodyCache cache = cache();
+        LocationState first = location("LOC-1");
+        LocationState second = LocationState.create("LOC-1", "WH-2", "ZONE-B", 20,
+            new BigDecimal("200"), new BigDecimal("100"));
+        ReflectionTestUtils.setField(second, "version", first.getVersion());
+
+        WarehouseContext.run("WH-1", () -> cache.locationState(first));
+        byte[] other = WarehouseContext.call("WH-2", () -> cache.locationState(second));
+
+        assertEquals("ZONE-B", objectMapper.readTree(other).get("zone").asText());
+        assertEquals(2.0, outcomes(ResponseBodyCache.LOCATION_STATE, "miss"));
+    }
+
+    private ResponseBodyCache cache() {
+        TrackingMetrics metrics = new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties()));
+        return new ResponseBodyCache(objectMapper, properties, metrics);
+    }
+
+    private double outcomes(String aggregate, String outcome) {
+        return registry.get(TrackingMetrics.RESPONSE_CACHE)
+            .tag("aggregate", aggregate)
+            .tag("outcome", outcome)
+            .counter()
+            .count();
+    }
+
+    private static LocationState location(String locationId) {
+        LocationState state = LocationState.create(locationId, "WH-1", "ZONE-A", 20,
+            new BigDecimal("200"), new BigDecimal("100"));
+        state.addLicensePlate("LP-" + locationId, 5, new BigDecimal("10"), new BigDecimal("2"));
+        ReflectionTestUtils.setField(state, "version", 0L);
+        return state;
+    }
+}
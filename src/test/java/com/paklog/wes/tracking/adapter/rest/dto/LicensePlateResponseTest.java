@@ -29,6 +29,8 @@ class LicensePlateResponseTest {
         assertEquals(4, response.totalQuantity());
         assertEquals(2, response.items().size());
         assertEquals("SKU-1", response.items().get(0).sku());
+        assertNull(response.parentLicensePlateId());
+        assertTrue(response.childLicensePlateIds().isEmpty());
         assertNotNull(response.createdAt());
         assertNotNull(response.updatedAt());
     }
@@ -0,0 +1,220 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.adapter.event.TrackingEventPublisher;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.DwellAlertProperties;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DwellAlertSchedulerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private TrackingEventPublisher eventPublisher;
+
+    private DwellAlertScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        DwellAlertProperties properties = new DwellAlertProperties();
+        properties.setStaleLocationAfter(Duration.ofMinutes(30));
+        properties.setLicensePlateOverstayAfter(Duration.ofMinutes(10));
+        scheduler = new DwellAlertScheduler(properties, mongoTemplate, eventPublisher,
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()));
+
+        // Acquiring the lease looks for alerts missed while no pod held it
+        lenient().when(mongoTemplate.stream(any(Query.class), eq(LocationState.class)))
+            .thenAnswer(invocation -> Stream.empty());
+        lenient().when(mongoTemplate.stream(any(Query.class), eq(LicensePlate.class)))
+            .thenAnswer(invocation -> Stream.empty());
+    }
+
+    @Test
+    void occupiedLocation_shouldFireStaleAlertAfterDeadline() {
+        LocationState state = LocationState.create(
+            "LOC-1", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        state.addLicensePlate("LP-1", 1, BigDecimal.ONE, BigDecimal.ONE);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(LocationState.class))).thenReturn(state);
+
+        scheduler.onLocationStateChanged(state);
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(20).toMillis());
+        verifyNoInteractions(eventPublisher);
+
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(31).toMillis());
+        verify(eventPublisher).publishLocationStale(
+            eq("LOC-1"), eq("WH-1"), eq(state.getLastMovementAt()), anyLong()
+        );
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    @Test
+    void emptiedLocation_shouldCancelStaleAlert() {
+        LocationState state = LocationState.create(
+            "LOC-2", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        state.addLicensePlate("LP-2", 1, BigDecimal.ONE, BigDecimal.ONE);
+        scheduler.onLocationStateChanged(state);
+
+        state.removeLicensePlate("LP-2", 1, BigDecimal.ONE, BigDecimal.ONE);
+        scheduler.onLocationStateChanged(state);
+
+        scheduler.tick(System.currentTimeMillis() + Duration.ofHours(2).toMillis());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void movedLicensePlate_shouldRearmOverstayAlert() {
+        LicensePlate plate = LicensePlate.create("LP-3", "WH-1", LicensePlateType.PALLET, "C-3", "tester");
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-3", MovementType.PUTAWAY, "worker", null);
+        scheduler.onLicensePlateMoved(plate, null, "LOC-3");
+
+        plate.moveTo(null, MovementType.RELOCATION, "worker", null);
+        scheduler.onLicensePlateMoved(plate, "LOC-3", null);
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(15).toMillis());
+        verifyNoInteractions(eventPublisher);
+
+        plate.moveTo("LOC-4", MovementType.RELOCATION, "worker", null);
+        scheduler.onLicensePlateMoved(plate, null, "LOC-4");
+        when(mongoTemplate.findOne(any(Query.class), eq(LicensePlate.class))).thenReturn(plate);
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(16).toMillis());
+
+        verify(eventPublisher).publishLicensePlateOverstayed(
+            eq("LP-3"), eq("WH-1"), eq("LOC-4"), any(), anyLong()
+        );
+    }
+
+    @Test
+    void consolidatedLicensePlate_shouldHaveNoTimerOfItsOwn() {
+        LicensePlate cage = LicensePlate.create("LP-4", "WH-1", LicensePlateType.CAGE, "C-4", "tester");
+        LicensePlate tote = LicensePlate.create("LP-5", "WH-1", LicensePlateType.TOTE, "C-5", "tester");
+        tote.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.moveTo("LOC-5", MovementType.PUTAWAY, "worker", null);
+        scheduler.onLicensePlateMoved(tote, null, "LOC-5");
+
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+        scheduler.onLicensePlateMoved(tote, "LOC-5", "LOC-6");
+
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    @Test
+    void staleAlert_shouldBeDroppedWhenLocationWasEmptiedThroughAnotherPod() {
+        LocationState state = LocationState.create(
+            "LOC-7", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        state.addLicensePlate("LP-7", 1, BigDecimal.ONE, BigDecimal.ONE);
+        scheduler.onLocationStateChanged(state);
+
+        LocationState emptied = LocationState.create(
+            "LOC-7", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        when(mongoTemplate.findOne(any(Query.class), eq(LocationState.class))).thenReturn(emptied);
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(31).toMillis());
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    @Test
+    void overstayAlert_shouldRearmWhenLicensePlateMovedThroughAnotherPod() throws InterruptedException {
+        LicensePlate plate = LicensePlate.create("LP-8", "WH-1", LicensePlateType.PALLET, "C-8", "tester");
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-8", MovementType.PUTAWAY, "worker", null);
+        scheduler.onLicensePlateMoved(plate, null, "LOC-8");
+
+        Thread.sleep(2);
+        LicensePlate moved = LicensePlate.create("LP-8", "WH-1", LicensePlateType.PALLET, "C-8", "tester");
+        moved.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        moved.moveTo("LOC-9", MovementType.RELOCATION, "worker", null);
+        when(mongoTemplate.findOne(any(Query.class), eq(LicensePlate.class))).thenReturn(moved);
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(11).toMillis());
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, scheduler.scheduledCount());
+    }
+
+    @Test
+    void podWithoutTheLease_shouldNotPublish() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("leases")))
+            .thenThrow(new DuplicateKeyException("held by another pod"));
+        LocationState state = LocationState.create(
+            "LOC-10", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        state.addLicensePlate("LP-10", 1, BigDecimal.ONE, BigDecimal.ONE);
+        scheduler.onLocationStateChanged(state);
+
+        scheduler.tick(System.currentTimeMillis() + Duration.ofMinutes(31).toMillis());
+
+        verifyNoInteractions(eventPublisher);
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(LocationState.class));
+    }
+
+    @Test
+    void acquiringTheLease_shouldFireAlertsThatExpiredWhileAnotherPodHeldIt() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("leases")))
+            .thenThrow(new DuplicateKeyException("held by another pod"))
+            .thenReturn(null);
+        LocationState state = LocationState.create(
+            "LOC-13", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        );
+        state.addLicensePlate("LP-13", 1, BigDecimal.ONE, BigDecimal.ONE);
+        scheduler.onLocationStateChanged(state);
+
+        // Expires while the other pod holds the lease, which then stops without alerting
+        long expiredAt = System.currentTimeMillis() + Duration.ofMinutes(31).toMillis();
+        scheduler.tick(expiredAt);
+        assertEquals(0, scheduler.scheduledCount());
+        verifyNoInteractions(eventPublisher);
+
+        when(mongoTemplate.stream(any(Query.class), eq(LocationState.class))).thenReturn(Stream.of(state));
+        when(mongoTemplate.findOne(any(Query.class), eq(LocationState.class))).thenReturn(state);
+
+        scheduler.tick(expiredAt + Duration.ofSeconds(11).toMillis());
+
+        verify(eventPublisher).publishLocationStale(
+            eq("LOC-13"), eq("WH-1"), eq(state.getLastMovementAt()), anyLong()
+        );
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    @Test
+    void storedChanges_shouldTrackLicensePlatesWrittenThroughOtherPods() {
+        LicensePlate plate = LicensePlate.create("LP-11", "WH-1", LicensePlateType.TOTE, "C-11", "tester");
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-11", MovementType.PUTAWAY, "worker", null);
+        scheduler.onLicensePlateStored(plate, null);
+        assertEquals(1, scheduler.scheduledCount());
+
+        LicensePlate cage = LicensePlate.create("LP-12", "WH-1", LicensePlateType.CAGE, "C-12", "tester");
+        plate.nestInto(cage, "worker", null);
+        scheduler.onLicensePlateStored(plate, "LOC-11");
+        assertEquals(0, scheduler.scheduledCount());
+    }
+}
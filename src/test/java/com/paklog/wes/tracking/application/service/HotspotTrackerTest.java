@@ -0,0 +1,134 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.HotspotProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HotspotTrackerTest {
+
+    private HotspotProperties properties;
+    private SimpleMeterRegistry registry;
+    private HotLocationListener hotLocations;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HotspotProperties();
+        registry = new SimpleMeterRegistry();
+        hotLocations = mock(HotLocationListener.class);
+    }
+
+    @Test
+    void writes_shouldRankLocationsAndLicensePlates() {
+        HotspotTracker tracker = tracker();
+        LicensePlate plate = licensePlate("LP-1", "LOC-A");
+
+        tracker.onLicensePlateMoved(plate, "LOC-A", "LOC-B");
+        tracker.onItemAdded(plate, "SKU-1", null, 1);
+        tracker.onItemRemoved(licensePlate("LP-2", "LOC-B"), "SKU-1", null, 1);
+
+        HotspotTracker.Report report = tracker.currentWindow();
+        assertEquals(List.of("LOC-B", "LOC-A"), report.locations().stream().map(HotspotTracker.Hotspot::id).toList());
+        assertEquals(2, report.locations().get(0).writes());
+        assertEquals(List.of("LP-1", "LP-2"), report.licensePlates().stream().map(HotspotTracker.Hotspot::id).toList());
+        assertNull(tracker.lastWindow());
+    }
+
+    @Test
+    void threshold_shouldHintOncePerWindow() {
+        properties.setLocationThreshold(3);
+        HotspotTracker tracker = tracker();
+        LicensePlate plate = licensePlate("LP-1", "LOC-A");
+
+        for (int i = 0; i < 5; i++) {
+            tracker.onItemAdded(plate, "SKU-1", null, 1);
+        }
+
+        verify(hotLocations).onHotLocation("WH-1", "LOC-A", 3);
+        assertTrue(tracker.isHot("LOC-A"));
+        assertFalse(tracker.isHot("LOC-B"));
+        assertEquals(1.0, registry.get(TrackingMetrics.HOTSPOT_HINTS).counter().count());
+
+        // Still hot for one more window, then forgotten
+        tracker.rotate(Instant.now());
+        assertTrue(tracker.isHot("LOC-A"));
+        tracker.rotate(Instant.now());
+        assertFalse(tracker.isHot("LOC-A"));
+    }
+
+    @Test
+    void failingListener_shouldNotFailTheWrite() {
+        properties.setLocationThreshold(1);
+        doThrow(new IllegalStateException("boom")).when(hotLocations).onHotLocation(anyString(), anyString(), anyLong());
+        HotspotTracker tracker = tracker();
+
+        assertDoesNotThrow(() -> tracker.onItemAdded(licensePlate("LP-1", "LOC-A"), "SKU-1", null, 1));
+        assertTrue(tracker.isHot("LOC-A"));
+    }
+
+    @Test
+    void rotate_shouldPublishLastWindowAndReplaceGauges() {
+        HotspotTracker tracker = tracker();
+        LicensePlate plate = licensePlate("LP-1", "LOC-A");
+        tracker.onItemAdded(plate, "SKU-1", null, 1);
+        tracker.onItemAdded(plate, "SKU-1", null, 1);
+
+        tracker.rotate(Instant.now());
+
+        assertEquals("LOC-A", tracker.lastWindow().locations().get(0).id());
+        assertTrue(tracker.currentWindow().locations().isEmpty());
+        assertEquals(2.0, registry.get(TrackingMetrics.HOTSPOT_WRITES)
+            .tags("kind", HotspotTracker.LOCATION, "id", "LOC-A").gauge().value());
+
+        tracker.onItemAdded(licensePlate("LP-2", "LOC-B"), "SKU-1", null, 1);
+        tracker.rotate(Instant.now());
+
+        assertNull(registry.find(TrackingMetrics.HOTSPOT_WRITES).tags("id", "LOC-A").gauge());
+        Gauge hot = registry.get(TrackingMetrics.HOTSPOT_WRITES)
+            .tags("kind", HotspotTracker.LOCATION, "id", "LOC-B").gauge();
+        assertEquals(1.0, hot.value());
+    }
+
+    @Test
+    void disabled_shouldCountNothing() {
+        properties.setEnabled(false);
+        HotspotTracker tracker = tracker();
+
+        tracker.onItemAdded(licensePlate("LP-1", "LOC-A"), "SKU-1", null, 1);
+
+        assertTrue(tracker.currentWindow().locations().isEmpty());
+        assertTrue(tracker.currentWindow().licensePlates().isEmpty());
+    }
+
+    private HotspotTracker tracker() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("hotLocations", hotLocations);
+        TrackingMetrics metrics = new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties()));
+        return new HotspotTracker(properties, metrics, beans.getBeanProvider(HotLocationListener.class));
+    }
+
+    private static LicensePlate licensePlate(String id, String locationId) {
+        LicensePlate plate = LicensePlate.create(id, "WH-1", LicensePlateType.TOTE, "CONT-" + id, "tester");
+        // A new license plate cannot be moved until something is put in it
+        plate.addItem("SKU-" + id, null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo(locationId, MovementType.PUTAWAY, "worker", "putaway");
+        return plate;
+    }
+}
@@ -0,0 +1,79 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.infrastructure.config.LicensePlateArchiveProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LicensePlateArchiverTest {
+
+    private LicensePlateArchiveProperties properties;
+    private LicensePlateRepository repository;
+    private SimpleMeterRegistry registry;
+    private LicensePlateArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LicensePlateArchiveProperties();
+        properties.setBatchSize(100);
+        properties.setPause(Duration.ZERO);
+        repository = mock(LicensePlateRepository.class);
+        registry = new SimpleMeterRegistry();
+        archiver = new LicensePlateArchiver(properties, repository,
+            new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties())),
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()));
+    }
+
+    @Test
+    void archive_shouldRunBatchesUntilOneComesBackShort() {
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        when(repository.archiveFinalStates(any(), anyInt())).thenReturn(100, 100, 40);
+
+        assertEquals(240, archiver.archive(now));
+
+        verify(repository, times(3)).archiveFinalStates(eq(now.minusDays(30)), eq(100));
+        assertEquals(240.0, archived("archived"));
+    }
+
+    @Test
+    void archive_shouldStopAtMaxBatchesPerRun() {
+        properties.setMaxBatchesPerRun(2);
+        when(repository.archiveFinalStates(any(), anyInt())).thenReturn(100);
+
+        assertEquals(200, archiver.archive(LocalDateTime.now()));
+
+        verify(repository, times(2)).archiveFinalStates(any(), anyInt());
+    }
+
+    @Test
+    void failedBatch_shouldEndTheRunAndBeCounted() {
+        when(repository.archiveFinalStates(any(), anyInt()))
+            .thenReturn(100)
+            .thenThrow(new IllegalStateException("primary stepped down"));
+
+        assertEquals(100, archiver.archive(LocalDateTime.now()));
+
+        verify(repository, times(2)).archiveFinalStates(any(), anyInt());
+        assertEquals(1.0, archived("failed"));
+    }
+
+    private double archived(String outcome) {
+        return registry.get(TrackingMetrics.ARCHIVE).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.ReconciliationProperties;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+class LocationStateReconcilerTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private LocationStateRepository locationStateRepository;
+
+    private LocationStateReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        licensePlateRepository.deleteAll();
+        locationStateRepository.deleteAll();
+
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setParallelism(2);
+        properties.setBatchSize(2);
+        reconciler = new LocationStateReconciler(mongoTemplate, properties,
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()));
+    }
+
+    @Test
+    void run_shouldCorrectOnlyDriftedLocations() {
+        LicensePlate plate = LicensePlate.create("LP-1", "WH-1", LicensePlateType.PALLET, "C-1", "tester");
+        plate.addItem("SKU-1", null, 4, new BigDecimal("2.5"), BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+        licensePlateRepository.save(plate);
+
+        // Double-counted by a lost update
+        LocationState drifted = LocationState.create(
+            "LOC-A", "WH-1", "ZONE-1", 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        drifted.addLicensePlate("LP-1", 8, new BigDecimal("5.0"), new BigDecimal("2"));
+
+        // Still lists a license plate that has left
+        LocationState ghost = LocationState.create(
+            "LOC-B", "WH-1", "ZONE-2", 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        ghost.addLicensePlate("LP-GONE", 3, BigDecimal.ONE, BigDecimal.ONE);
+
+        LocationState clean = LocationState.create(
+            "LOC-C", "WH-1", "ZONE-2", 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        LocationState otherWarehouse = LocationState.create(
+            "LOC-D", "WH-2", "ZONE-1", 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        otherWarehouse.addLicensePlate("LP-X", 1, BigDecimal.ONE, BigDecimal.ONE);
+        locationStateRepository.saveAll(List.of(drifted, ghost, clean, otherWarehouse));
+
+        ReconciliationReport dryRun = reconciler.run("WH-1", true);
+        assertEquals(3, dryRun.scanned());
+        assertEquals(2, dryRun.drifted());
+        assertEquals(0, dryRun.corrected());
+        assertEquals(7, dryRun.quantityDrift());
+
+        LocationState loadedBefore = locationStateRepository.findById("LOC-A").orElseThrow();
+        ReconciliationReport report = reconciler.run("WH-1", false);
+        assertEquals(2, report.partitions());
+        assertEquals(2, report.corrected());
+        assertEquals(0, report.conflicts());
+        assertEquals(0, report.failedPartitions());
+
+        LocationState fixed = locationStateRepository.findById("LOC-A").orElseThrow();
+        assertEquals(List.of("LP-1"), fixed.getLicensePlateIds());
+        assertEquals(4, fixed.getCurrentQuantity());
+        assertEquals(0, new BigDecimal("2.5").compareTo(fixed.getCurrentWeight()));
+        // The correction moved the version on, so a copy loaded before it cannot overwrite it
+        assertEquals(loadedBefore.getVersion() + 1, fixed.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> locationStateRepository.save(loadedBefore));
+
+        LocationState emptied = locationStateRepository.findById("LOC-B").orElseThrow();
+        assertTrue(emptied.isEmpty());
+        assertEquals(1, locationStateRepository.findById("LOC-D").orElseThrow().getLicensePlateCount());
+
+        assertEquals(0, reconciler.run("WH-1", false).drifted());
+    }
+}
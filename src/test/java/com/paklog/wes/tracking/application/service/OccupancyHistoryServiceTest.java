@@ -0,0 +1,141 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.OccupancySample;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import com.paklog.wes.tracking.domain.repository.OccupancyHistoryRepository;
+import com.paklog.wes.tracking.infrastructure.config.OccupancyHistoryProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OccupancyHistoryServiceTest {
+
+    private OccupancyHistoryProperties properties;
+    private OccupancyHistoryRepository repository;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OccupancyHistoryProperties();
+        repository = mock(OccupancyHistoryRepository.class);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void flush_shouldWriteBufferedSamplesInBatches() {
+        properties.setBatchSize(2);
+        OccupancyHistoryService service = service();
+        for (int i = 0; i < 5; i++) {
+            service.onLocationStateChanged(location("LOC-" + i, i));
+        }
+
+        assertEquals(5, service.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OccupancySample>> batches = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(3)).insertSamples(batches.capture());
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(25.0, batches.getAllValues().get(0).get(1).utilization());
+        assertEquals(5.0, samples("write", "written"));
+    }
+
+    @Test
+    void fullBuffer_shouldDropSamplesWithoutBlocking() {
+        properties.setBufferSize(2);
+        OccupancyHistoryService service = service();
+
+        for (int i = 0; i < 3; i++) {
+            service.onLocationStateChanged(location("LOC-" + i, 1));
+        }
+
+        assertEquals(1.0, samples("buffer", "dropped"));
+        assertEquals(2, service.flush());
+    }
+
+    @Test
+    void failedBatch_shouldBeCountedAndSkipped() {
+        doThrow(new IllegalStateException("down")).when(repository).insertSamples(anyList());
+        OccupancyHistoryService service = service();
+        service.onLocationStateChanged(location("LOC-1", 1));
+
+        assertEquals(0, service.flush());
+        assertEquals(1.0, samples("write", "failed"));
+        assertEquals(0, service.flush());
+    }
+
+    @Test
+    void missingCollections_shouldKeepSamplesBuffered() {
+        doThrow(new IllegalStateException("down")).doNothing()
+            .when(repository).ensureCollections(any(), any());
+        OccupancyHistoryService service = service();
+        service.onLocationStateChanged(location("LOC-1", 1));
+
+        assertEquals(0, service.flush());
+        verify(repository, never()).insertSamples(anyList());
+        assertEquals(1, service.flush());
+    }
+
+    @Test
+    void rollUp_shouldCoverMinutesThenHoursSinceLastRunLessLateness() {
+        properties.setRollupInterval(Duration.ofMinutes(1));
+        properties.setLateness(Duration.ofMinutes(2));
+        OccupancyHistoryService service = service();
+        LocalDateTime first = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+        service.rollUp(first);
+        service.rollUp(first.plusMinutes(1));
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).rollUp(UtilizationBucket.Granularity.MINUTE, first.minusMinutes(3));
+        order.verify(repository).rollUp(UtilizationBucket.Granularity.HOUR, first.minusMinutes(3));
+        order.verify(repository).rollUp(UtilizationBucket.Granularity.MINUTE, first.minusMinutes(2));
+        order.verify(repository).rollUp(UtilizationBucket.Granularity.HOUR, first.minusMinutes(2));
+    }
+
+    @Test
+    void disabled_shouldNotSample() {
+        properties.setEnabled(false);
+        OccupancyHistoryService service = service();
+
+        service.onLocationStateChanged(location("LOC-1", 1));
+
+        assertEquals(0, service.flush());
+    }
+
+    private OccupancyHistoryService service() {
+        TrackingMetrics metrics = new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties()));
+        return new OccupancyHistoryService(properties, repository, metrics);
+    }
+
+    private double samples(String stage, String outcome) {
+        return registry.get(TrackingMetrics.HISTORY_SAMPLES)
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .counter()
+            .count();
+    }
+
+    private static LocationState location(String locationId, int quantity) {
+        LocationState state = LocationState.create(locationId, "WH-1", "ZONE-A", 4, null, null);
+        if (quantity > 0) {
+            state.addLicensePlate("LP-" + locationId, quantity, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        return state;
+    }
+}
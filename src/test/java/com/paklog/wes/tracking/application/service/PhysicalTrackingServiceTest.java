@@ -3,21 +3,36 @@ package com.paklog.wes.tracking.application.service;
 import com.paklog.wes.tracking.adapter.event.TrackingEventPublisher;
 import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
 import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.AggregateLoader;
 import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
 import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.domain.repository.TrackingReadRepository;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.LocationProvisioningProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,16 +47,36 @@ class PhysicalTrackingServiceTest {
     @Mock
     private LocationStateRepository locationStateRepository;
     @Mock
+    private SkuLocationInventoryRepository skuInventoryRepository;
+    @Mock
+    private TrackingReadRepository readRepository;
+    @Mock
+    private AggregateLoader aggregateLoader;
+    @Mock
     private TrackingEventPublisher eventPublisher;
+    @Mock
+    private TrackingChangeListener changeListener;
 
+    private final LocationProvisioningProperties locationProperties = new LocationProvisioningProperties();
+    private final WarehouseStateView stateView = new WarehouseStateView();
+    private SimpleMeterRegistry meterRegistry;
     private PhysicalTrackingService service;
 
     @BeforeEach
     void setUp() {
-        service = new PhysicalTrackingService(licensePlateRepository, locationStateRepository, eventPublisher);
+        meterRegistry = new SimpleMeterRegistry();
+        TelemetrySampler sampler = new TelemetrySampler(new TelemetrySamplingProperties());
+        service = new PhysicalTrackingService(
+            licensePlateRepository, locationStateRepository, skuInventoryRepository, readRepository, aggregateLoader,
+            eventPublisher, List.of(changeListener), new TrackingMetrics(meterRegistry, sampler), sampler,
+            locationProperties, stateView
+        );
 
         lenient().when(licensePlateRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
         lenient().when(locationStateRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(aggregateLoader.loadOrCreateLocationState(anyString(), any())).thenAnswer(invocation ->
+            aggregateLoader.loadLocationState(invocation.getArgument(0))
+                .orElseGet(invocation.<Supplier<LocationState>>getArgument(1)));
     }
 
     @Test
@@ -69,9 +104,9 @@ class PhysicalTrackingServiceTest {
         );
         fromState.addLicensePlate("LP-200", plate.getTotalQuantity(), plate.getTotalWeight(), plate.getTotalVolume());
 
-        when(licensePlateRepository.findById("LP-200")).thenReturn(Optional.of(plate));
-        when(locationStateRepository.findById("LOC-1")).thenReturn(Optional.of(fromState));
-        when(locationStateRepository.findById("LOC-2")).thenReturn(Optional.empty());
+        when(aggregateLoader.loadLicensePlate("LP-200")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-1")).thenReturn(Optional.of(fromState));
+        when(aggregateLoader.loadLocationState("LOC-2")).thenReturn(Optional.empty());
 
         LicensePlate updated = service.moveLicensePlate(
             "LP-200", "LOC-2", MovementType.RELOCATION, "worker-2", "move"
@@ -94,6 +129,218 @@ class PhysicalTrackingServiceTest {
         verify(eventPublisher).publishLicensePlateMoved(
             "LP-200", "LOC-1", "LOC-2", MovementType.RELOCATION.name(), "worker-2"
         );
+        verify(aggregateLoader).loadOrCreateLocationState(eq("LOC-2"), any());
+        verify(aggregateLoader).locationStateSaved("LOC-1");
+        verify(aggregateLoader).locationStateSaved("LOC-2");
+        verify(aggregateLoader).licensePlateSaved("LP-200");
+    }
+
+    @Test
+    void moveLicensePlate_whenLocationSavedConcurrently_shouldReapplyToFreshState() {
+        LicensePlate plate = LicensePlate.create("LP-250", "WH-1", LicensePlateType.TOTE, "CONT-25", "tester");
+        plate.addItem("SKU-1", null, 2, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        LocationState stale = LocationState.create(
+            "LOC-7", "WH-1", null, 10, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        LocationState fresh = LocationState.create(
+            "LOC-7", "WH-1", null, 10, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        fresh.addLicensePlate("LP-OTHER", 3, BigDecimal.ONE, BigDecimal.ONE);
+
+        when(aggregateLoader.loadLicensePlate("LP-250")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-7")).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(locationStateRepository.save(stale)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        service.moveLicensePlate("LP-250", "LOC-7", MovementType.PUTAWAY, "worker", null);
+
+        verify(locationStateRepository).save(fresh);
+        assertEquals(List.of("LP-OTHER", "LP-250"), fresh.getLicensePlateIds());
+        assertEquals(5, fresh.getCurrentQuantity());
+        verify(changeListener).onLocationStateChanged(fresh);
+        verify(changeListener, never()).onLocationStateChanged(stale);
+        assertEquals(1, meterRegistry.get(TrackingMetrics.WRITE_CONFLICTS)
+            .tags("command", "move_license_plate", "aggregate", "location_state").counter().count());
+    }
+
+    @Test
+    void moveLicensePlate_whenLicensePlateSavedConcurrently_shouldFailBeforeWritingLocations() {
+        LicensePlate plate = placedPlate("LP-260", LicensePlateType.TOTE, 2, "LOC-1");
+        LocationState fromState = LocationState.create(
+            "LOC-1", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        fromState.addLicensePlate("LP-260", 2, BigDecimal.ONE, BigDecimal.ONE);
+
+        when(aggregateLoader.loadLicensePlate("LP-260")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-1")).thenReturn(Optional.of(fromState));
+        when(aggregateLoader.loadLocationState("LOC-2")).thenReturn(Optional.empty());
+        when(licensePlateRepository.save(plate)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+            service.moveLicensePlate("LP-260", "LOC-2", MovementType.RELOCATION, "worker", null));
+
+        verify(locationStateRepository, never()).save(any());
+        verify(aggregateLoader).licensePlateSaved("LP-260");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void moveLicensePlate_overCapacity_shouldWriteNothing() {
+        LicensePlate plate = placedPlate("LP-270", LicensePlateType.PALLET, 20, "LOC-1");
+        LocationState fromState = LocationState.create(
+            "LOC-1", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        fromState.addLicensePlate("LP-270", 20, BigDecimal.ONE, BigDecimal.ONE);
+        LocationState full = LocationState.create(
+            "LOC-2", "WH-1", null, 10, new BigDecimal("1000"), new BigDecimal("100")
+        );
+
+        when(aggregateLoader.loadLicensePlate("LP-270")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-1")).thenReturn(Optional.of(fromState));
+        when(aggregateLoader.loadLocationState("LOC-2")).thenReturn(Optional.of(full));
+
+        assertThrows(IllegalStateException.class, () ->
+            service.moveLicensePlate("LP-270", "LOC-2", MovementType.RELOCATION, "worker", null));
+
+        verify(licensePlateRepository, never()).save(any());
+        verify(locationStateRepository, never()).save(any());
+    }
+
+    @Test
+    void consolidateLicensePlate_shouldNestAndResizeParentAtLocation() {
+        LicensePlate pallet = placedPlate("LP-210", LicensePlateType.PALLET, 2, "LOC-5");
+        LicensePlate carton = placedPlate("LP-211", LicensePlateType.CARTON, 3, "LOC-5");
+        LocationState state = LocationState.create(
+            "LOC-5", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        state.addLicensePlate("LP-210", 2, BigDecimal.ONE, BigDecimal.ONE);
+        state.addLicensePlate("LP-211", 3, BigDecimal.ONE, BigDecimal.ONE);
+
+        when(aggregateLoader.loadLicensePlate("LP-210")).thenReturn(Optional.of(pallet));
+        when(aggregateLoader.loadLicensePlate("LP-211")).thenReturn(Optional.of(carton));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(state));
+
+        LicensePlate nested = service.consolidateLicensePlate("LP-211", "LP-210", "worker", "build pallet");
+
+        assertEquals("LP-210", nested.getParentLicensePlateId());
+        assertNull(nested.getCurrentLocationId());
+        assertEquals(5, pallet.getTotalQuantity());
+        assertEquals(List.of("LP-210"), state.getLicensePlateIds());
+        assertEquals(5, state.getCurrentQuantity());
+        verify(locationStateRepository, times(1)).save(state);
+        verify(licensePlateRepository).save(pallet);
+        verify(licensePlateRepository).save(carton);
+        verify(changeListener).onLicensePlateMoved(carton, "LOC-5", "LOC-5");
+        verify(eventPublisher).publishLicensePlateMoved(
+            "LP-211", "LOC-5", "LOC-5", MovementType.CONSOLIDATION.name(), "worker"
+        );
+    }
+
+    @Test
+    void consolidateLicensePlate_whenParentSavedConcurrently_shouldReattachToFreshParent() {
+        LicensePlate stale = placedPlate("LP-212", LicensePlateType.PALLET, 2, "LOC-5");
+        LicensePlate fresh = placedPlate("LP-212", LicensePlateType.PALLET, 2, "LOC-5");
+        fresh.addItem("SKU-X", null, 4, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        LicensePlate carton = placedPlate("LP-213", LicensePlateType.CARTON, 3, "LOC-5");
+        LocationState state = LocationState.create(
+            "LOC-5", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        state.addLicensePlate("LP-212", 6, BigDecimal.ONE, BigDecimal.ONE);
+        state.addLicensePlate("LP-213", 3, BigDecimal.ONE, BigDecimal.ONE);
+
+        when(aggregateLoader.loadLicensePlate("LP-212")).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(aggregateLoader.loadLicensePlate("LP-213")).thenReturn(Optional.of(carton));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(state));
+        when(licensePlateRepository.save(stale)).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        service.consolidateLicensePlate("LP-213", "LP-212", "worker", null);
+
+        // The carton is saved first, so the conflict on its parent is retried rather than failing the command
+        verify(licensePlateRepository).save(carton);
+        verify(licensePlateRepository).save(fresh);
+        assertEquals(Set.of("LP-213"), fresh.getChildLicensePlateIds());
+        assertEquals(9, fresh.getTotalQuantity());
+        verify(locationStateRepository).save(state);
+        assertEquals(1, meterRegistry.get(TrackingMetrics.WRITE_CONFLICTS)
+            .tags("command", "consolidate_license_plate", "aggregate", "license_plate").counter().count());
+    }
+
+    @Test
+    void moveLicensePlate_withNestedChildren_shouldWriteOnlyTheParent() {
+        LicensePlate pallet = placedPlate("LP-220", LicensePlateType.PALLET, 2, "LOC-5");
+        LicensePlate carton = placedPlate("LP-221", LicensePlateType.CARTON, 3, "LOC-5");
+        carton.nestInto(pallet, "worker", null);
+        pallet.attachChild(carton);
+        LocationState fromState = LocationState.create(
+            "LOC-5", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        fromState.addLicensePlate("LP-220", 5, new BigDecimal("2"), new BigDecimal("2"));
+
+        when(aggregateLoader.loadLicensePlate("LP-220")).thenReturn(Optional.of(pallet));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(fromState));
+        when(aggregateLoader.loadLocationState("LOC-6")).thenReturn(Optional.empty());
+
+        service.moveLicensePlate("LP-220", "LOC-6", MovementType.RELOCATION, "worker", null);
+
+        ArgumentCaptor<LocationState> stateCaptor = ArgumentCaptor.forClass(LocationState.class);
+        verify(locationStateRepository, times(2)).save(stateCaptor.capture());
+        assertTrue(stateCaptor.getAllValues().get(0).isEmpty());
+        assertEquals(5, stateCaptor.getAllValues().get(1).getCurrentQuantity());
+        verify(licensePlateRepository, times(1)).save(any());
+        verify(aggregateLoader, never()).loadLicensePlate("LP-221");
+        assertNull(carton.getCurrentLocationId());
+        assertEquals("LP-220", carton.getParentLicensePlateId());
+    }
+
+    @Test
+    void moveLicensePlate_whenNested_shouldTakeItOutOfItsParent() {
+        LicensePlate pallet = placedPlate("LP-230", LicensePlateType.PALLET, 2, "LOC-5");
+        LicensePlate carton = placedPlate("LP-231", LicensePlateType.CARTON, 3, "LOC-5");
+        carton.nestInto(pallet, "worker", null);
+        pallet.attachChild(carton);
+        LocationState fromState = LocationState.create(
+            "LOC-5", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        fromState.addLicensePlate("LP-230", 5, new BigDecimal("2"), new BigDecimal("2"));
+
+        when(aggregateLoader.loadLicensePlate("LP-230")).thenReturn(Optional.of(pallet));
+        when(aggregateLoader.loadLicensePlate("LP-231")).thenReturn(Optional.of(carton));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(fromState));
+        when(aggregateLoader.loadLocationState("LOC-6")).thenReturn(Optional.empty());
+
+        LicensePlate moved = service.moveLicensePlate("LP-231", "LOC-6", MovementType.PICKING, "worker", null);
+
+        assertEquals("LOC-6", moved.getCurrentLocationId());
+        assertNull(moved.getParentLicensePlateId());
+        assertFalse(pallet.hasChildren());
+        assertEquals(2, pallet.getTotalQuantity());
+        assertEquals(List.of("LP-230"), fromState.getLicensePlateIds());
+        assertEquals(2, fromState.getCurrentQuantity());
+        verify(eventPublisher).publishLicensePlateMoved(
+            "LP-231", "LOC-5", "LOC-6", MovementType.PICKING.name(), "worker"
+        );
+    }
+
+    @Test
+    void addItemToLicensePlate_whenNested_shouldRollUpToParentLocation() {
+        LicensePlate pallet = placedPlate("LP-240", LicensePlateType.PALLET, 2, "LOC-5");
+        LicensePlate carton = placedPlate("LP-241", LicensePlateType.CARTON, 3, "LOC-5");
+        carton.nestInto(pallet, "worker", null);
+        pallet.attachChild(carton);
+        LocationState state = LocationState.create(
+            "LOC-5", "WH-1", null, 100, new BigDecimal("1000"), new BigDecimal("100")
+        );
+        state.addLicensePlate("LP-240", 5, new BigDecimal("2"), new BigDecimal("2"));
+
+        when(aggregateLoader.loadLicensePlate("LP-240")).thenReturn(Optional.of(pallet));
+        when(aggregateLoader.loadLicensePlate("LP-241")).thenReturn(Optional.of(carton));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(state));
+
+        service.addItemToLicensePlate("LP-241", "SKU-2", null, 4, null, null, "EA");
+
+        assertEquals(7, carton.getTotalQuantity());
+        assertEquals(9, pallet.getTotalQuantity());
+        assertEquals(9, state.getCurrentQuantity());
+        verify(licensePlateRepository).save(pallet);
     }
 
     @Test
@@ -109,8 +356,8 @@ class PhysicalTrackingServiceTest {
         );
         locationState.addLicensePlate("LP-300", 0, BigDecimal.ZERO, BigDecimal.ZERO);
 
-        when(licensePlateRepository.findById("LP-300")).thenReturn(Optional.of(plate));
-        when(locationStateRepository.findById("LOC-3")).thenReturn(Optional.of(locationState));
+        when(aggregateLoader.loadLicensePlate("LP-300")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-3")).thenReturn(Optional.of(locationState));
 
         LicensePlate updated = service.addItemToLicensePlate(
             "LP-300", "SKU-1", "LOT-1", 3, new BigDecimal("6.5"), new BigDecimal("1.5"), "EA"
@@ -143,8 +390,8 @@ class PhysicalTrackingServiceTest {
         );
         locationState.addLicensePlate("LP-400", 0, BigDecimal.ZERO, BigDecimal.ZERO);
 
-        when(licensePlateRepository.findById("LP-400")).thenReturn(Optional.of(plate));
-        when(locationStateRepository.findById("LOC-4")).thenReturn(Optional.of(locationState));
+        when(aggregateLoader.loadLicensePlate("LP-400")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-4")).thenReturn(Optional.of(locationState));
 
         LicensePlate updated = service.removeItemFromLicensePlate(
             "LP-400", "SKU-9", "LOT-9", 2
@@ -169,7 +416,7 @@ class PhysicalTrackingServiceTest {
             "LOC-5", "WH-2", "ZONE-X", 10, new BigDecimal("100"), new BigDecimal("50")
         );
 
-        when(locationStateRepository.findById("LOC-5")).thenReturn(Optional.of(state));
+        when(aggregateLoader.loadLocationState("LOC-5")).thenReturn(Optional.of(state));
 
         LocationState blocked = service.blockLocation("LOC-5", "maintenance");
 
@@ -186,7 +433,7 @@ class PhysicalTrackingServiceTest {
         );
         state.block("incident");
 
-        when(locationStateRepository.findById("LOC-6")).thenReturn(Optional.of(state));
+        when(aggregateLoader.loadLocationState("LOC-6")).thenReturn(Optional.of(state));
 
         LocationState unblocked = service.unblockLocation("LOC-6");
 
@@ -197,33 +444,180 @@ class PhysicalTrackingServiceTest {
     }
 
     @Test
-    void getLicensePlate_shouldReturnFromRepository() {
+    void getLicensePlate_shouldReturnFromReadRepository() {
         LicensePlate plate = LicensePlate.create(
             "LP-500", "WH-4", LicensePlateType.PALLET, "CONT-5", "tester"
         );
-        when(licensePlateRepository.findById("LP-500")).thenReturn(Optional.of(plate));
+        when(readRepository.findLicensePlate("LP-500")).thenReturn(Optional.of(plate));
 
         Optional<LicensePlate> result = service.getLicensePlate("LP-500");
 
         assertTrue(result.isPresent());
         assertEquals("LP-500", result.get().getLicensePlateId());
-        verify(licensePlateRepository).findById("LP-500");
+        verify(licensePlateRepository, never()).findById(any());
+    }
+
+    @Test
+    void getOccupancyCounts_shouldUseTheViewOnlyOnceTheWarehouseIsWarm() {
+        when(readRepository.countLocationsByOccupancy("WH-1")).thenReturn(Map.of(OccupancyStatus.EMPTY, 7L));
+        stateView.track("WH-1");
+
+        assertEquals(Map.of(OccupancyStatus.EMPTY, 7L), service.getOccupancyCounts("WH-1"));
+
+        LocationState state = LocationState.create("LOC-1", "WH-1", "ZONE-A", 10, BigDecimal.TEN, BigDecimal.TEN);
+        state.addLicensePlate("LP-1", 1, BigDecimal.ONE, BigDecimal.ONE);
+        stateView.onLocationStateStored(state);
+        stateView.markWarm("WH-1");
+
+        assertEquals(Map.of(state.getOccupancyStatus(), 1L), service.getOccupancyCounts("WH-1"));
+        verify(readRepository, times(1)).countLocationsByOccupancy("WH-1");
     }
 
     @Test
-    void getLocationStateAndStates_shouldDelegateToRepositories() {
+    void getEffectiveLocationIds_shouldResolveNestedLicensePlatesThroughParents() {
+        LicensePlate cage = LicensePlate.create("LP-510", "WH-4", LicensePlateType.CAGE, "CONT-510", "tester");
+        LicensePlate tote = LicensePlate.create("LP-511", "WH-4", LicensePlateType.TOTE, "CONT-511", "tester");
+        LicensePlate loose = LicensePlate.create("LP-512", "WH-4", LicensePlateType.TOTE, "CONT-512", "tester");
+        cage.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        cage.moveTo("LOC-8", MovementType.PUTAWAY, "worker", null);
+        tote.addItem("SKU-2", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+        loose.addItem("SKU-3", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        loose.moveTo("LOC-9", MovementType.PUTAWAY, "worker", null);
+        when(readRepository.findLicensePlatesByIds(List.of("LP-510"))).thenReturn(Map.of("LP-510", cage));
+        when(readRepository.findLicensePlate("LP-510")).thenReturn(Optional.of(cage));
+
+        Map<String, String> locations = service.getEffectiveLocationIds(List.of(tote, loose));
+
+        assertEquals(Map.of("LP-511", "LOC-8", "LP-512", "LOC-9"), locations);
+        assertEquals("LOC-8", service.getEffectiveLocationId(tote));
+        assertEquals("LOC-9", service.getEffectiveLocationId(loose));
+    }
+
+    @Test
+    void getLocationStateAndStates_shouldDelegateToReadRepository() {
         LocationState state = LocationState.create(
             "LOC-7", "WH-5", "ZONE-Z", 10, new BigDecimal("100"), new BigDecimal("50")
         );
-        when(locationStateRepository.findById("LOC-7")).thenReturn(Optional.of(state));
-        when(locationStateRepository.findByWarehouseId("WH-5")).thenReturn(List.of(state));
+        when(readRepository.findLocationState("LOC-7")).thenReturn(Optional.of(state));
+        when(readRepository.findLocationStates("WH-5")).thenReturn(List.of(state));
 
         LocationState single = service.getLocationState("LOC-7");
         List<LocationState> states = service.getLocationStates("WH-5");
 
         assertEquals("LOC-7", single.getLocationId());
         assertEquals(1, states.size());
-        verify(locationStateRepository).findById("LOC-7");
-        verify(locationStateRepository).findByWarehouseId("WH-5");
+        assertNull(service.getLocationState("LOC-missing"));
+        verifyNoInteractions(locationStateRepository);
+    }
+
+    @Test
+    void moveLicensePlate_shouldNotifyListenersAndSurviveListenerFailure() {
+        LicensePlate plate = LicensePlate.create(
+            "LP-600", "WH-1", LicensePlateType.TOTE, "CONT-6", "tester"
+        );
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+
+        when(aggregateLoader.loadLicensePlate("LP-600")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLocationState("LOC-8")).thenReturn(Optional.empty());
+        doThrow(new RuntimeException("listener failure"))
+            .when(changeListener).onLocationStateChanged(any());
+
+        LicensePlate moved = service.moveLicensePlate(
+            "LP-600", "LOC-8", MovementType.PUTAWAY, "worker", "putaway"
+        );
+
+        assertEquals("LOC-8", moved.getCurrentLocationId());
+        verify(changeListener).onLicensePlateMoved(moved, null, "LOC-8");
+        verify(eventPublisher).publishLicensePlateMoved(
+            "LP-600", null, "LOC-8", MovementType.PUTAWAY.name(), "worker"
+        );
+    }
+
+    @Test
+    void allocateEmptyLicensePlate_shouldDelegateToAtomicClaim() {
+        LicensePlate plate = LicensePlate.create(
+            "LP-700", "WH-1", LicensePlateType.TOTE, "CONT-7", "tester"
+        );
+        when(licensePlateRepository.allocateEmptyLicensePlate("WH-1", LicensePlateType.TOTE, "station-1"))
+            .thenReturn(Optional.of(plate));
+
+        Optional<LicensePlate> allocated = service.allocateEmptyLicensePlate("WH-1", LicensePlateType.TOTE, "station-1");
+
+        assertTrue(allocated.isPresent());
+        assertEquals("LP-700", allocated.get().getLicensePlateId());
+        verify(licensePlateRepository, never()).findEmptyAvailableLicensePlates(any());
+    }
+
+    @Test
+    void provisionLocations_shouldUpsertInConfiguredBatches() {
+        locationProperties.setBatchSize(2);
+        List<LocationDefinition> definitions = List.of(
+            definition("LOC-A"), definition("LOC-B"), definition("LOC-C"), definition("LOC-D"), definition("LOC-E")
+        );
+        when(locationStateRepository.upsertDefinitions(anyList()))
+            .thenAnswer(invocation -> new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0));
+
+        UpsertCounts counts = service.provisionLocations(definitions);
+
+        assertEquals(new UpsertCounts(5, 0), counts);
+        verify(locationStateRepository, times(2)).upsertDefinitions(argThat(batch -> batch.size() == 2));
+        verify(locationStateRepository).upsertDefinitions(argThat(batch -> batch.size() == 1));
+        verify(aggregateLoader).locationStateSaved("LOC-E");
+    }
+
+    @Test
+    void moveLicensePlate_shouldCountFallbackCreationOfUnprovisionedLocation() {
+        locationProperties.setFallbackMaxQuantity(7);
+        LicensePlate plate = LicensePlate.create(
+            "LP-900", "WH-9", LicensePlateType.TOTE, "CONT-9", "tester"
+        );
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        when(aggregateLoader.loadLicensePlate("LP-900")).thenReturn(Optional.of(plate));
+
+        service.moveLicensePlate("LP-900", "LOC-UNKNOWN", MovementType.PUTAWAY, "worker", null);
+
+        ArgumentCaptor<LocationState> stateCaptor = ArgumentCaptor.forClass(LocationState.class);
+        verify(locationStateRepository).save(stateCaptor.capture());
+        assertEquals(7, stateCaptor.getValue().getMaxQuantity());
+        assertEquals(1, meterRegistry.get(TrackingMetrics.LOCATION_FALLBACK)
+            .tags("command", "move_license_plate", "warehouse", "WH-9").counter().count());
+    }
+
+    @Test
+    void commands_shouldRecordCommandAndPhaseTimers() {
+        LicensePlate plate = LicensePlate.create(
+            "LP-800", "WH-1", LicensePlateType.TOTE, "CONT-8", "tester"
+        );
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        when(aggregateLoader.loadLicensePlate("LP-800")).thenReturn(Optional.of(plate));
+        when(aggregateLoader.loadLicensePlate("missing")).thenReturn(Optional.empty());
+        when(aggregateLoader.loadLocationState("LOC-9")).thenReturn(Optional.empty());
+
+        service.moveLicensePlate("LP-800", "LOC-9", MovementType.PUTAWAY, "worker", null);
+        assertThrows(IllegalArgumentException.class, () ->
+            service.moveLicensePlate("missing", "LOC-9", MovementType.PUTAWAY, "worker", null));
+
+        assertEquals(1, meterRegistry.get(TrackingMetrics.COMMAND)
+            .tags("command", "move_license_plate", "exception", "none").timer().count());
+        assertEquals(1, meterRegistry.get(TrackingMetrics.COMMAND)
+            .tags("command", "move_license_plate", "exception", "IllegalArgumentException").timer().count());
+        for (String phase : List.of("load", "capacity_check", "save", "listeners", "publish")) {
+            assertTrue(meterRegistry.get(TrackingMetrics.PHASE)
+                .tags("command", "move_license_plate", "phase", phase).timer().count() > 0, phase);
+        }
+    }
+
+    private static LocationDefinition definition(String locationId) {
+        return new LocationDefinition(locationId, "WH-1", "ZONE-A", 40, new BigDecimal("800"), new BigDecimal("2"),
+            null, null, null, null);
+    }
+
+    private static LicensePlate placedPlate(String id, LicensePlateType type, int quantity, String locationId) {
+        LicensePlate plate = LicensePlate.create(id, "WH-1", type, "CONT-" + id, "tester");
+        plate.addItem("SKU-" + id, null, quantity, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo(locationId, MovementType.PUTAWAY, "worker", null);
+        return plate;
     }
 }
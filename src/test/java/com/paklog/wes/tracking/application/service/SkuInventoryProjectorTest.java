@@ -0,0 +1,116 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.readmodel.SkuQuantityDelta;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SkuInventoryProjectorTest {
+
+    @Mock
+    private SkuLocationInventoryRepository inventoryRepository;
+    @Mock
+    private LicensePlateRepository licensePlateRepository;
+    @Mock
+    private SkuProjectionRepairer repairer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SkuInventoryProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        projector = new SkuInventoryProjector(inventoryRepository, licensePlateRepository, repairer,
+            new TrackingMetrics(meterRegistry, new TelemetrySampler(new TelemetrySamplingProperties())));
+    }
+
+    @Test
+    void move_shouldShiftEveryItemBetweenLocations() {
+        LicensePlate plate = LicensePlate.create("LP-1", "WH-1", LicensePlateType.PALLET, "C-1", "tester");
+        plate.addItem("SKU-1", "LOT-1", 5, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.addItem("SKU-2", null, 2, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-B", MovementType.RELOCATION, "worker", null);
+
+        projector.onLicensePlateMoved(plate, "LOC-A", "LOC-B");
+
+        verify(inventoryRepository).applyDeltas(List.of(
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-A", -5),
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-B", 5),
+            new SkuQuantityDelta("WH-1", "SKU-2", null, "LOC-A", -2),
+            new SkuQuantityDelta("WH-1", "SKU-2", null, "LOC-B", 2)
+        ));
+    }
+
+    @Test
+    void itemChanges_shouldApplyAtCurrentLocationOnly() {
+        LicensePlate plate = LicensePlate.create("LP-2", "WH-1", LicensePlateType.TOTE, "C-2", "tester");
+        plate.addItem("SKU-1", null, 5, BigDecimal.ONE, BigDecimal.ONE, "EA");
+
+        projector.onItemAdded(plate, "SKU-1", null, 5);
+        verifyNoInteractions(inventoryRepository);
+
+        plate.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+        projector.onItemAdded(plate, "SKU-1", null, 3);
+        projector.onItemRemoved(plate, "SKU-1", null, 1);
+
+        verify(inventoryRepository).applyDeltas(List.of(new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-A", 3)));
+        verify(inventoryRepository).applyDeltas(List.of(new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-A", -1)));
+    }
+
+    @Test
+    void nesting_shouldResolveChildrenThroughTheirParent() {
+        LicensePlate pallet = LicensePlate.create("LP-3", "WH-1", LicensePlateType.PALLET, "C-3", "tester");
+        LicensePlate carton = LicensePlate.create("LP-4", "WH-1", LicensePlateType.CARTON, "C-4", "tester");
+        carton.addItem("SKU-1", null, 4, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        carton.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+        carton.nestInto(pallet, "worker", null);
+        pallet.attachChild(carton);
+        when(licensePlateRepository.findAllById(Set.of("LP-4"))).thenReturn(List.of(carton));
+        when(licensePlateRepository.findById("LP-3")).thenReturn(Optional.of(pallet));
+
+        pallet.moveTo("LOC-B", MovementType.RELOCATION, "worker", null);
+        projector.onLicensePlateMoved(pallet, "LOC-A", "LOC-B");
+        projector.onItemAdded(carton, "SKU-1", null, 2);
+
+        verify(inventoryRepository).applyDeltas(List.of(
+            new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-A", -4),
+            new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-B", 4)
+        ));
+        verify(inventoryRepository).applyDeltas(List.of(new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-B", 2)));
+    }
+
+    @Test
+    void failedDeltas_shouldMarkTheWarehouseForRepairInsteadOfThrowing() {
+        LicensePlate plate = LicensePlate.create("LP-5", "WH-1", LicensePlateType.TOTE, "C-5", "tester");
+        plate.addItem("SKU-1", null, 5, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+        doThrow(new IllegalStateException("write failed")).when(inventoryRepository).applyDeltas(anyCollection());
+
+        projector.onItemAdded(plate, "SKU-1", null, 1);
+
+        verify(repairer).markForRepair("WH-1");
+        assertEquals(1, meterRegistry.get(TrackingMetrics.SKU_PROJECTION)
+            .tags("warehouse", "WH-1", "outcome", "failed").counter().count());
+    }
+}
@@ -0,0 +1,102 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.repository.SkuLocationInventoryRepository;
+import com.paklog.wes.tracking.infrastructure.config.SkuProjectionProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseRouting;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SkuProjectionRepairerTest {
+
+    @Mock
+    private SkuLocationInventoryRepository inventoryRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SkuProjectionRepairer repairer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repairer = new SkuProjectionRepairer(new SkuProjectionProperties(), inventoryRepository,
+            new TrackingMetrics(meterRegistry, new TelemetrySampler(new TelemetrySamplingProperties())),
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()), mongoTemplate);
+    }
+
+    @Test
+    void markedWarehouse_shouldBeRebuiltInItsOwnContextUntilARebuildSucceeds() {
+        List<String> warehouses = new ArrayList<>();
+        when(inventoryRepository.rebuild("WH-1"))
+            .thenThrow(new IllegalStateException("primary stepped down"))
+            .thenAnswer(invocation -> {
+                warehouses.add(WarehouseContext.current());
+                return 3L;
+            });
+
+        repairer.markForRepair("WH-1");
+        repairer.repairMarked();
+        assertTrue(repairer.isMarked("WH-1"), "A failed rebuild is retried at the next repair");
+
+        repairer.repairMarked();
+        assertFalse(repairer.isMarked("WH-1"));
+        assertEquals(List.of("WH-1"), warehouses);
+        assertEquals(1, outcome("WH-1", "rebuild_failed"));
+        assertEquals(1, outcome("WH-1", "repaired"));
+
+        repairer.repairMarked();
+        verify(inventoryRepository, times(2)).rebuild("WH-1");
+    }
+
+    @Test
+    void sweep_shouldRebuildEveryWarehouseOnTheLeaseHolderOnly() {
+        when(inventoryRepository.findWarehouseIds()).thenReturn(List.of("WH-1", "WH-2"));
+
+        repairer.sweep(System.currentTimeMillis());
+
+        verify(inventoryRepository).rebuild("WH-1");
+        verify(inventoryRepository).rebuild("WH-2");
+        assertEquals(1, outcome("WH-2", "swept"));
+
+        // Another pod holds the lease
+        SkuProjectionRepairer other = new SkuProjectionRepairer(new SkuProjectionProperties(), inventoryRepository,
+            new TrackingMetrics(meterRegistry, new TelemetrySampler(new TelemetrySamplingProperties())),
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()), mongoTemplate);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), anyString()))
+            .thenThrow(new DuplicateKeyException("held"));
+
+        other.sweep(System.currentTimeMillis());
+
+        verify(inventoryRepository, times(1)).findWarehouseIds();
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq("leases"));
+    }
+
+    private double outcome(String warehouseId, String outcome) {
+        return meterRegistry.get(TrackingMetrics.SKU_PROJECTION)
+            .tags("warehouse", warehouseId, "outcome", outcome).counter().count();
+    }
+}
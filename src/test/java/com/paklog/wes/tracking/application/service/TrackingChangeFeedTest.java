@@ -0,0 +1,187 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.ChangeFeedProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingChangeFeedTest {
+
+    private ChangeFeedProperties properties;
+    private SimpleMeterRegistry registry;
+    private TrackingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChangeFeedProperties();
+        registry = new SimpleMeterRegistry();
+        metrics = new TrackingMetrics(registry, new TelemetrySampler(new TelemetrySamplingProperties()));
+    }
+
+    @Test
+    void locationChange_shouldReachOnlyMatchingSubscribers() {
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+        RecordingSink zoneA = new RecordingSink();
+        RecordingSink zoneB = new RecordingSink();
+        RecordingSink otherWarehouse = new RecordingSink();
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", Set.of("ZONE-A"), null), zoneA);
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", Set.of("ZONE-B"), null), zoneB);
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-2", null, null), otherWarehouse);
+
+        feed.onLocationStateStored(location("LOC-1", "ZONE-A"));
+
+        assertEquals(1, zoneA.received.size());
+        TrackingChange.LocationChanged change = (TrackingChange.LocationChanged) zoneA.received.get(0);
+        assertEquals("LOC-1", change.locationId());
+        assertEquals(1, change.licensePlateCount());
+        assertTrue(zoneB.received.isEmpty());
+        assertTrue(otherWarehouse.received.isEmpty());
+    }
+
+    @Test
+    void licensePlateMove_shouldMatchZoneOfEitherEnd() {
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+        RecordingSink zoneA = new RecordingSink();
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", Set.of("ZONE-A"), null), zoneA);
+        LicensePlate lp = LicensePlate.create("LP-1", "WH-1", LicensePlateType.PALLET, "C-1", "tester");
+        lp.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        lp.moveTo("LOC-9", MovementType.RELOCATION, "tester", null);
+
+        feed.onLocationStateStored(location("LOC-1", "ZONE-A"));
+        feed.onLocationStateStored(location("LOC-9", "ZONE-B"));
+        feed.onLicensePlateStored(lp, "LOC-1");
+
+        TrackingChange.LicensePlateChanged moved = (TrackingChange.LicensePlateChanged) zoneA.received.get(1);
+        assertEquals("ZONE-A", moved.fromZone());
+        assertEquals("ZONE-B", moved.zone());
+        assertEquals(zoneA.received.get(0).sequence() + 2, moved.sequence());
+    }
+
+    @Test
+    void licensePlateWriteInPlace_shouldNotReportAMove() {
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", null, null), sink);
+        LicensePlate lp = LicensePlate.create("LP-2", "WH-1", LicensePlateType.PALLET, "C-2", "tester");
+        lp.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        lp.moveTo("LOC-9", MovementType.PUTAWAY, "tester", null);
+
+        feed.onLicensePlateStored(lp, "LOC-9");
+        feed.onLicensePlateStored(lp, null);
+
+        assertEquals(2, sink.received.size());
+        for (TrackingChange change : sink.received) {
+            assertNull(((TrackingChange.LicensePlateChanged) change).fromLocationId());
+            assertEquals("LOC-9", ((TrackingChange.LicensePlateChanged) change).locationId());
+        }
+    }
+
+    @Test
+    void slowSubscriber_shouldBeShedWithoutAffectingOthers() {
+        properties.setBufferSize(2);
+        List<Runnable> stalled = new ArrayList<>();
+        Executor neverRuns = stalled::add;
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, neverRuns);
+        RecordingSink slowSink = new RecordingSink();
+        TrackingChangeFeed.Subscription slow = feed.subscribe(
+            new TrackingChangeFeed.Filter("WH-1", null, null), slowSink).orElseThrow();
+        RecordingSink otherSink = new RecordingSink();
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-2", null, null), otherSink);
+
+        for (int i = 0; i < 3; i++) {
+            feed.onLocationStateStored(location("LOC-" + i, "ZONE-A"));
+        }
+
+        assertTrue(slow.isClosed());
+        assertEquals(0, slow.buffered());
+        assertEquals(1, feed.subscriptions().size());
+        assertEquals(1.0, registry.get(TrackingMetrics.FEED_SHED).tag("reason", "slow_consumer").counter().count());
+
+        // Last queued task is the close that tells the client to resync
+        stalled.get(stalled.size() - 1).run();
+        assertEquals(TrackingChangeFeed.SLOW_CONSUMER, slowSink.closeReason);
+        assertTrue(slowSink.received.isEmpty());
+    }
+
+    @Test
+    void failingSink_shouldBeRemoved() {
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+        RecordingSink broken = new RecordingSink();
+        broken.fail = true;
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", null, null), broken);
+
+        feed.onLocationStateStored(location("LOC-1", "ZONE-A"));
+
+        assertTrue(feed.subscriptions().isEmpty());
+        assertTrue(broken.closed);
+        assertNull(broken.closeReason);
+    }
+
+    @Test
+    void subscribe_shouldRejectBeyondMaxSubscribers() {
+        properties.setMaxSubscribers(1);
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+
+        assertTrue(feed.subscribe(new TrackingChangeFeed.Filter("WH-1", null, null), new RecordingSink()).isPresent());
+        assertTrue(feed.subscribe(new TrackingChangeFeed.Filter("WH-1", null, null), new RecordingSink()).isEmpty());
+    }
+
+    @Test
+    void stop_shouldCloseSubscribersWithReason() {
+        TrackingChangeFeed feed = new TrackingChangeFeed(properties, metrics, Runnable::run);
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(new TrackingChangeFeed.Filter("WH-1", null, null), sink);
+
+        feed.stop();
+
+        assertTrue(sink.closed);
+        assertEquals(TrackingChangeFeed.SHUTDOWN, sink.closeReason);
+    }
+
+    private static LocationState location(String locationId, String zone) {
+        LocationState state = LocationState.create(locationId, "WH-1", zone, 10, null, null);
+        state.addLicensePlate("LP-" + locationId, 1, null, null);
+        return state;
+    }
+
+    private static class RecordingSink implements TrackingChangeFeed.Sink {
+        final List<TrackingChange> received = new ArrayList<>();
+        boolean fail;
+        boolean closed;
+        String closeReason;
+
+        @Override
+        public void send(TrackingChange change) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            received.add(change);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close(String reason) {
+            closed = true;
+            closeReason = reason;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.paklog.wes.tracking.application.service;
+
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseStateViewTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    private final WarehouseStateView view = new WarehouseStateView();
+
+    @Test
+    void apply_shouldIgnoreUntrackedWarehouse() {
+        assertFalse(view.apply(location("LOC-1", OccupancyStatus.EMPTY, T0)));
+
+        assertTrue(view.find("WH-1", "LOC-1").isEmpty());
+    }
+
+    @Test
+    void apply_shouldKeepNewestVersionRegardlessOfOrder() {
+        view.track("WH-1");
+
+        assertTrue(view.apply(location("LOC-1", OccupancyStatus.FULL, T0.plusMinutes(5))));
+        assertFalse(view.apply(location("LOC-1", OccupancyStatus.EMPTY, T0)));
+
+        assertEquals(OccupancyStatus.FULL, view.find("WH-1", "LOC-1").orElseThrow().occupancyStatus());
+        assertEquals(T0.plusMinutes(5), view.highWaterMark("WH-1"));
+    }
+
+    @Test
+    void onLocationStateChanged_shouldUpdateTrackedWarehouse() {
+        view.track("WH-1");
+        LocationState state = LocationState.create("LOC-1", "WH-1", "ZONE-A", 10, null, null);
+        state.addLicensePlate("LP-1", 4, BigDecimal.ONE, BigDecimal.ONE);
+
+        view.onLocationStateChanged(state);
+
+        LocationOccupancy held = view.find("WH-1", "LOC-1").orElseThrow();
+        assertEquals(List.of("LP-1"), held.licensePlateIds());
+        assertEquals(4, held.currentQuantity());
+    }
+
+    @Test
+    void storedChanges_shouldReachTrackedWarehouseWithoutACommand() {
+        view.track("WH-1");
+        LocationState provisioned = LocationState.create("LOC-9", "WH-1", "ZONE-B", 10, null, null);
+
+        view.onLocationStateStored(provisioned);
+
+        assertEquals("ZONE-B", view.find("WH-1", "LOC-9").orElseThrow().zone());
+    }
+
+    @Test
+    void isWarm_shouldHoldOnlyOnceWarmUpCompletes() {
+        view.markWarm("WH-1");
+        assertFalse(view.isWarm("WH-1"), "Untracked warehouses cannot be warm");
+
+        view.track("WH-1");
+        assertFalse(view.isWarm("WH-1"));
+
+        view.markWarm("WH-1");
+        assertTrue(view.isWarm("WH-1"));
+    }
+
+    @Test
+    void occupancyCounts_shouldRollUpByStatus() {
+        view.track("WH-1");
+        view.apply(location("LOC-1", OccupancyStatus.EMPTY, T0));
+        view.apply(location("LOC-2", OccupancyStatus.EMPTY, T0));
+        view.apply(location("LOC-3", OccupancyStatus.FULL, T0));
+
+        Map<OccupancyStatus, Long> counts = view.occupancyCounts("WH-1");
+
+        assertEquals(2L, counts.get(OccupancyStatus.EMPTY));
+        assertEquals(1L, counts.get(OccupancyStatus.FULL));
+        assertEquals(3, view.size("WH-1"));
+    }
+
+    private static LocationOccupancy location(String locationId, OccupancyStatus status, LocalDateTime lastUpdated) {
+        return new LocationOccupancy(locationId, "WH-1", "ZONE-A", status, false, 0, 10,
+            BigDecimal.ZERO, BigDecimal.ZERO, lastUpdated, List.of());
+    }
+}
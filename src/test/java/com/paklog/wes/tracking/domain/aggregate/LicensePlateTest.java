@@ -7,6 +7,7 @@ import com.paklog.wes.tracking.domain.valueobject.MovementType;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -187,4 +188,105 @@ class LicensePlateTest {
 
         assertTrue(exception.getMessage().contains("Cannot move"));
     }
+
+    @Test
+    void emptinessFields_shouldTrackItemsStatusAndAllocation() {
+        LicensePlate plate = LicensePlate.create(
+            "LP-020", "WH-001", LicensePlateType.TOTE, "CONT-020", "tester"
+        );
+        assertEquals(0, plate.getItemCount());
+        assertTrue(plate.getEmptyAvailable());
+
+        plate.addItem("SKU-1", null, 2, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        assertEquals(1, plate.getItemCount());
+        assertFalse(plate.getEmptyAvailable());
+
+        plate.removeItem("SKU-1", null, 2);
+        assertEquals(0, plate.getItemCount());
+        assertEquals(LicensePlateStatus.CONSUMED, plate.getStatus());
+        assertFalse(plate.getEmptyAvailable());
+    }
+
+    @Test
+    void releaseAllocation_shouldMakeEmptyPlateAvailableAgain() {
+        LicensePlate plate = LicensePlate.create(
+            "LP-021", "WH-001", LicensePlateType.TOTE, "CONT-021", "tester"
+        );
+
+        plate.releaseAllocation();
+
+        assertNull(plate.getAllocatedTo());
+        assertTrue(plate.getEmptyAvailable());
+    }
+
+    @Test
+    void nesting_shouldRollChildTotalsIntoParent() {
+        LicensePlate cage = LicensePlate.create("LP-030", "WH-001", LicensePlateType.CAGE, "CONT-030", "tester");
+        LicensePlate tote = LicensePlate.create("LP-031", "WH-001", LicensePlateType.TOTE, "CONT-031", "tester");
+        tote.addItem("SKU-1", null, 4, new BigDecimal("2.0"), new BigDecimal("0.5"), "EA");
+        tote.moveTo("LOC-1", MovementType.PUTAWAY, "worker", null);
+
+        tote.nestInto(cage, "worker", "cage build");
+        cage.attachChild(tote);
+
+        assertEquals("LP-030", tote.getParentLicensePlateId());
+        assertNull(tote.getCurrentLocationId());
+        assertEquals(MovementType.CONSOLIDATION, tote.getLatestMovement().orElseThrow().getType());
+        assertEquals(Set.of("LP-031"), cage.getChildLicensePlateIds());
+        assertEquals(LicensePlateStatus.ACTIVE, cage.getStatus());
+        assertEquals(4, cage.getTotalQuantity());
+        assertEquals(0, new BigDecimal("2.0").compareTo(cage.getTotalWeight()));
+        assertFalse(cage.isEmpty());
+        assertFalse(cage.getEmptyAvailable());
+
+        cage.addItem("SKU-2", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.addItem("SKU-1", null, 2, BigDecimal.ONE, BigDecimal.ZERO, "EA");
+        cage.adjustNestedTotals(2, BigDecimal.ZERO, BigDecimal.ZERO);
+        assertEquals(7, cage.getTotalQuantity());
+
+        cage.detachChild(tote);
+        tote.leaveParent("LOC-2");
+        assertEquals(1, cage.getTotalQuantity());
+        assertNull(tote.getParentLicensePlateId());
+        assertEquals("LOC-2", tote.getCurrentLocationId());
+    }
+
+    @Test
+    void nesting_shouldCountChildrenAsContentsAndNeverOfferNestedPlates() {
+        LicensePlate cage = LicensePlate.create("LP-035", "WH-001", LicensePlateType.CAGE, "CONT-035", "tester");
+        LicensePlate pallet = LicensePlate.create("LP-036", "WH-001", LicensePlateType.PALLET, "CONT-036", "tester");
+        LicensePlate tote = LicensePlate.create("LP-037", "WH-001", LicensePlateType.TOTE, "CONT-037", "tester");
+        tote.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+
+        assertEquals(1, cage.getItemCount());
+        assertFalse(cage.getEmptyAvailable());
+
+        cage.detachChild(tote);
+        assertEquals(0, cage.getItemCount());
+        assertTrue(cage.getEmptyAvailable());
+
+        cage.nestInto(pallet, "worker", null);
+        assertTrue(cage.isEmpty());
+        assertFalse(cage.getEmptyAvailable());
+    }
+
+    @Test
+    void nesting_shouldRejectMovesAndDeeperNesting() {
+        LicensePlate pallet = LicensePlate.create("LP-040", "WH-001", LicensePlateType.PALLET, "CONT-040", "tester");
+        LicensePlate carton = LicensePlate.create("LP-041", "WH-001", LicensePlateType.CARTON, "CONT-041", "tester");
+        LicensePlate other = LicensePlate.create("LP-042", "WH-001", LicensePlateType.PALLET, "CONT-042", "tester");
+        carton.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        pallet.addItem("SKU-2", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        carton.nestInto(pallet, "worker", null);
+        pallet.attachChild(carton);
+
+        assertThrows(IllegalStateException.class,
+            () -> carton.moveTo("LOC-1", MovementType.RELOCATION, "worker", null));
+        assertThrows(IllegalStateException.class, () -> carton.nestInto(other, "worker", null));
+        assertThrows(IllegalStateException.class, () -> pallet.nestInto(other, "worker", null));
+        assertThrows(IllegalStateException.class, () -> carton.attachChild(other));
+        assertThrows(IllegalArgumentException.class, () -> pallet.nestInto(pallet, "worker", null));
+    }
 }
@@ -4,6 +4,7 @@ import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,4 +179,46 @@ class LocationStateTest {
         assertEquals(BigDecimal.ZERO, state.getCurrentVolume());
         assertEquals(0, state.getCurrentQuantity());
     }
+
+    @Test
+    void reconcile_shouldReplaceTotalsAndRecomputeOccupancy() {
+        LocationState state = LocationState.create(
+            "LOC-12", "WH-2", "ZONE-G", 10,
+            new BigDecimal("100"), new BigDecimal("40")
+        );
+        state.addLicensePlate("LP-1", 2, new BigDecimal("10"), new BigDecimal("5"));
+        state.addLicensePlate("LP-1", 2, new BigDecimal("10"), new BigDecimal("5"));
+
+        state.reconcile(List.of("LP-1"), 2, new BigDecimal("10"), new BigDecimal("5"));
+
+        assertEquals(List.of("LP-1"), state.getLicensePlateIds());
+        assertEquals(2, state.getCurrentQuantity());
+        assertEquals(new BigDecimal("10"), state.getCurrentWeight());
+
+        state.reconcile(List.of(), 0, BigDecimal.ZERO, BigDecimal.ZERO);
+        assertEquals(OccupancyStatus.EMPTY, state.getOccupancyStatus());
+    }
+
+    @Test
+    void resizeLicensePlate_shouldApplyDeltaAndCheckGrowth() {
+        LocationState state = LocationState.create(
+            "LOC-9", "WH-1", "ZONE-A", 10,
+            new BigDecimal("100.0"), new BigDecimal("50.0")
+        );
+        state.addLicensePlate("LP-1", 4, new BigDecimal("10"), new BigDecimal("5"));
+
+        state.resizeLicensePlate("LP-1", 5, new BigDecimal("10"), new BigDecimal("5"));
+        assertEquals(9, state.getCurrentQuantity());
+        assertEquals(List.of("LP-1"), state.getLicensePlateIds());
+
+        assertThrows(IllegalStateException.class,
+            () -> state.resizeLicensePlate("LP-1", 2, BigDecimal.ZERO, BigDecimal.ZERO));
+        assertEquals(9, state.getCurrentQuantity());
+
+        state.resizeLicensePlate("LP-1", -9, new BigDecimal("-20"), new BigDecimal("-10"));
+        assertEquals(0, state.getCurrentQuantity());
+        assertEquals(0, BigDecimal.ZERO.compareTo(state.getCurrentWeight()));
+        assertThrows(IllegalArgumentException.class,
+            () -> state.resizeLicensePlate("LP-2", 1, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
 }
@@ -4,10 +4,15 @@ import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
 import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
 import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.persistence.LicensePlateRepositoryCustomImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
@@ -17,6 +22,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,9 +42,13 @@ class LicensePlateRepositoryTest {
     @Autowired
     private LicensePlateRepository repository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     void cleanDatabase() {
         repository.deleteAll();
+        mongoTemplate.dropCollection(LicensePlateRepositoryCustomImpl.ARCHIVE);
     }
 
     @Test
@@ -122,4 +133,81 @@ class LicensePlateRepositoryTest {
         long count = repository.countByWarehouseId("WH-2");
         assertEquals(2, count);
     }
+
+    @Test
+    void backfillEmptinessFields_shouldCountNestedPlatesAndWithholdNestedOnes() {
+        LicensePlate cage = LicensePlate.create("LP-CAGE", "WH-4", LicensePlateType.CAGE, "CONT-7", "tester");
+        LicensePlate pallet = LicensePlate.create("LP-PALLET", "WH-4", LicensePlateType.PALLET, "CONT-8", "tester");
+        LicensePlate tote = LicensePlate.create("LP-TOTE", "WH-4", LicensePlateType.TOTE, "CONT-9", "tester");
+        tote.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+        cage.detachChild(tote);
+        cage.nestInto(pallet, "worker", null);
+        pallet.attachChild(cage);
+        repository.saveAll(List.of(cage, pallet));
+
+        // As written before nested license plates counted
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("LP-PALLET")),
+            new Update().set("itemCount", 0), LicensePlate.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("LP-CAGE")),
+            new Update().set("emptyAvailable", true), LicensePlate.class);
+
+        assertEquals(2, repository.backfillEmptinessFields());
+        assertEquals(List.of("LP-CAGE"), repository.findEmptyLicensePlates().stream()
+            .map(LicensePlate::getLicensePlateId).toList());
+        assertTrue(repository.findEmptyAvailableLicensePlates("WH-4").isEmpty());
+        assertEquals(0, repository.backfillEmptinessFields());
+    }
+
+    @Test
+    void allocateEmptyLicensePlate_shouldClaimEachPlateOnce() {
+        repository.save(LicensePlate.create("LP-A1", "WH-3", LicensePlateType.TOTE, "CONT-A1", "tester"));
+        repository.save(LicensePlate.create("LP-A2", "WH-3", LicensePlateType.TOTE, "CONT-A2", "tester"));
+        repository.save(LicensePlate.create("LP-A3", "WH-3", LicensePlateType.PALLET, "CONT-A3", "tester"));
+
+        LicensePlate first = repository.allocateEmptyLicensePlate("WH-3", LicensePlateType.TOTE, "station-1")
+            .orElseThrow();
+        LicensePlate second = repository.allocateEmptyLicensePlate("WH-3", LicensePlateType.TOTE, "station-2")
+            .orElseThrow();
+
+        assertNotEquals(first.getLicensePlateId(), second.getLicensePlateId());
+        assertEquals("station-1", first.getAllocatedTo());
+        assertFalse(first.getEmptyAvailable());
+        assertTrue(repository.allocateEmptyLicensePlate("WH-3", LicensePlateType.TOTE, "station-3").isEmpty());
+        assertEquals(1, repository.findEmptyAvailableLicensePlates("WH-3").size());
+    }
+
+    @Test
+    void archiveFinalStates_shouldMoveOnlyOldFinalStatePlatesInBatches() {
+        for (int i = 0; i < 3; i++) {
+            LicensePlate closed = LicensePlate.create(
+                "LP-C" + i, "WH-4", LicensePlateType.TOTE, "CONT-C" + i, "tester"
+            );
+            closed.close();
+            repository.save(closed);
+        }
+        repository.save(LicensePlate.create("LP-LIVE", "WH-4", LicensePlateType.TOTE, "CONT-LIVE", "tester"));
+        LicensePlate cage = LicensePlate.create("LP-CAGE", "WH-4", LicensePlateType.CAGE, "CONT-CAGE", "tester");
+        LicensePlate tote = LicensePlate.create("LP-TOTE", "WH-4", LicensePlateType.TOTE, "CONT-TOTE", "tester");
+        tote.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+        cage.close();
+        repository.saveAll(List.of(cage, tote));
+
+        assertEquals(0, repository.archiveFinalStates(LocalDateTime.now().minusDays(1), 10));
+        assertEquals(2, repository.archiveFinalStates(LocalDateTime.now().plusMinutes(1), 2));
+        assertEquals(1, repository.archiveFinalStates(LocalDateTime.now().plusMinutes(1), 2));
+        assertEquals(0, repository.archiveFinalStates(LocalDateTime.now().plusMinutes(1), 2));
+
+        assertEquals(Set.of("LP-LIVE", "LP-CAGE", "LP-TOTE"), repository.findByWarehouseId("WH-4").stream()
+            .map(LicensePlate::getLicensePlateId).collect(Collectors.toSet()));
+        LicensePlate archived = mongoTemplate.findById(
+            "LP-C1", LicensePlate.class, LicensePlateRepositoryCustomImpl.ARCHIVE
+        );
+        assertNotNull(archived);
+        assertEquals(LicensePlateStatus.CLOSED, archived.getStatus());
+        assertEquals(3, mongoTemplate.getCollection(LicensePlateRepositoryCustomImpl.ARCHIVE).countDocuments());
+    }
 }
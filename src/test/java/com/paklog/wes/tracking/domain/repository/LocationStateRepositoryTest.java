@@ -1,11 +1,15 @@
 package com.paklog.wes.tracking.domain.repository;
 
 import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
 import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
@@ -32,6 +36,9 @@ class LocationStateRepositoryTest {
     @Autowired
     private LocationStateRepository repository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     void cleanDatabase() {
         repository.deleteAll();
@@ -108,4 +115,76 @@ class LocationStateRepositoryTest {
         assertEquals(1, containing.size());
         assertEquals("LOC-4", containing.get(0).getLocationId());
     }
+
+    @Test
+    void upsertDefinitions_shouldCreateNewAndUpdateMasterDataOfExistingLocations() {
+        LocationState occupied = LocationState.create(
+            "LOC-6", "WH-3", null, 1000, new BigDecimal("1000"), new BigDecimal("10")
+        );
+        occupied.addLicensePlate("LP-6", 4, new BigDecimal("40"), new BigDecimal("2"));
+        repository.save(occupied);
+
+        LocationStateRepositoryCustom.UpsertCounts counts = repository.upsertDefinitions(List.of(
+            new LocationDefinition("LOC-6", "WH-3", "ZONE-C", 20, new BigDecimal("500"), new BigDecimal("5"),
+                1.5, 2.5, 0.0, "RF-C"),
+            new LocationDefinition("LOC-7", "WH-3", "ZONE-C", 10, new BigDecimal("250"), new BigDecimal("2.5"),
+                3.5, 2.5, 0.0, "RF-C")
+        ));
+
+        assertEquals(new LocationStateRepositoryCustom.UpsertCounts(1, 1), counts);
+
+        LocationState updated = repository.findById("LOC-6").orElseThrow();
+        assertEquals("ZONE-C", updated.getZone());
+        assertEquals(20, updated.getMaxQuantity());
+        assertEquals(0, new BigDecimal("500").compareTo(updated.getMaxWeight()));
+        assertEquals("RF-C", updated.getRfidZone());
+        assertEquals(List.of("LP-6"), updated.getLicensePlateIds());
+        assertEquals(4, updated.getCurrentQuantity());
+
+        LocationState created = repository.findById("LOC-7").orElseThrow();
+        assertEquals(OccupancyStatus.EMPTY, created.getOccupancyStatus());
+        assertTrue(created.getLicensePlateIds().isEmpty());
+        assertEquals(0, created.getCurrentQuantity());
+        assertEquals(0, BigDecimal.ZERO.compareTo(created.getCurrentWeight()));
+        assertFalse(created.getIsBlocked());
+        assertEquals(3.5, created.getXCoordinate());
+        assertEquals(1, repository.findByWarehouseIdAndZone("WH-3", "ZONE-C").stream()
+            .filter(state -> state.getLocationId().equals("LOC-7")).count());
+    }
+
+    @Test
+    void save_shouldRejectStaleCopiesIncludingAfterBulkUpserts() {
+        repository.save(LocationState.create(
+            "LOC-8", "WH-4", null, 10, new BigDecimal("100"), new BigDecimal("10")
+        ));
+        LocationState first = repository.findById("LOC-8").orElseThrow();
+        LocationState second = repository.findById("LOC-8").orElseThrow();
+
+        first.addLicensePlate("LP-8", 1, BigDecimal.ONE, BigDecimal.ONE);
+        repository.save(first);
+        second.addLicensePlate("LP-9", 1, BigDecimal.ONE, BigDecimal.ONE);
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(second));
+
+        LocationState beforeUpsert = repository.findById("LOC-8").orElseThrow();
+        repository.upsertDefinitions(List.of(new LocationDefinition(
+            "LOC-8", "WH-4", null, 20, new BigDecimal("100"), new BigDecimal("10"), null, null, null, null)));
+        beforeUpsert.block("stale");
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(beforeUpsert));
+        assertEquals(List.of("LP-8"), repository.findById("LOC-8").orElseThrow().getLicensePlateIds());
+    }
+
+    @Test
+    void backfillVersions_shouldVersionDocumentsWrittenWithoutOne() {
+        mongoTemplate.getCollection("location_states").insertOne(new Document("_id", "LOC-9")
+            .append("warehouseId", "WH-4")
+            .append("licensePlateIds", List.of())
+            .append("currentQuantity", 0));
+
+        assertEquals(1, repository.backfillVersions());
+        assertEquals(0, repository.backfillVersions());
+        LocationState legacy = repository.findById("LOC-9").orElseThrow();
+        assertEquals(0L, legacy.getVersion());
+        repository.save(legacy);
+        assertEquals(1L, repository.findById("LOC-9").orElseThrow().getVersion());
+    }
 }
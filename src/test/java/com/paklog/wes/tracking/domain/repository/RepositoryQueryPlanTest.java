@@ -0,0 +1,338 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression suite
+ *
+ * Calls every repository query method, captures the filter it sends through a
+ * driver CommandListener and runs explain() for that filter; fails if a plan
+ * falls back to COLLSCAN or examines far more keys or documents than it
+ * returns. Adding a repository method without a plan case fails the build.
+ */
+@Testcontainers
+@DataMongoTest(properties = "spring.data.mongodb.auto-index-creation=true")
+class RepositoryQueryPlanTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    private static final ReadCommandCapture COMMANDS = new ReadCommandCapture();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private LocationStateRepository locationStateRepository;
+
+    @Autowired
+    private SkuLocationInventoryRepository skuInventoryRepository;
+
+    private LocalDateTime since;
+
+    @BeforeEach
+    void seed() {
+        licensePlateRepository.deleteAll();
+        locationStateRepository.deleteAll();
+
+        since = LocalDateTime.now().minusMinutes(5);
+
+        List<LocationState> locations = new ArrayList<>();
+        List<LicensePlate> plates = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+            for (int l = 0; l < 100; l++) {
+                String locationId = "WH-" + w + "-LOC-" + l;
+                LocationState state = LocationState.create(
+                    locationId, "WH-" + w, "ZONE-" + (l % 5), 100,
+                    new BigDecimal("1000"), new BigDecimal("100")
+                );
+                state.setCoordinates((double) l, 0.0, 0.0, "RF-" + (l % 10));
+
+                if (l % 3 == 0) {
+                    LicensePlate lp = LicensePlate.create(
+                        "LP-" + w + "-" + l, "WH-" + w,
+                        l % 2 == 0 ? LicensePlateType.PALLET : LicensePlateType.TOTE,
+                        "C-" + w + "-" + l, "seed"
+                    );
+                    lp.addItem("SKU-" + (l % 20), "LOT-1", 5, BigDecimal.ONE, BigDecimal.ONE, "EA");
+                    lp.moveTo(locationId, MovementType.PUTAWAY, "seed", null);
+                    if (l % 9 == 0) {
+                        lp.setOwner("OWNER-" + (l % 4));
+                    }
+                    plates.add(lp);
+                    state.addLicensePlate(lp.getLicensePlateId(), 5, BigDecimal.ONE, BigDecimal.ONE);
+                }
+                if (l % 10 == 0) {
+                    plates.add(LicensePlate.create(
+                        "LP-EMPTY-" + w + "-" + l, "WH-" + w, LicensePlateType.TOTE, "E-" + w + "-" + l, "seed"
+                    ));
+                }
+                if (l % 17 == 0) {
+                    state.block("seed");
+                }
+                locations.add(state);
+            }
+        }
+
+        locationStateRepository.saveAll(locations);
+        licensePlateRepository.saveAll(plates);
+        for (int w = 0; w < 3; w++) {
+            skuInventoryRepository.rebuild("WH-" + w);
+        }
+    }
+
+    @Test
+    void everyRepositoryQueryMethod_shouldHavePlanCase() {
+        assertEquals(declaredQueryMethods(LicensePlateRepository.class), licensePlateCases().keySet());
+        assertEquals(declaredQueryMethods(LocationStateRepository.class), locationStateCases().keySet());
+        assertEquals(declaredQueryMethods(SkuLocationInventoryRepository.class), skuInventoryCases().keySet());
+    }
+
+    @TestFactory
+    Stream<DynamicTest> licensePlateQueries_shouldUseIndexes() {
+        Map<String, Runnable> cases = licensePlateCases();
+        cases.put("allocateEmptyLicensePlate",
+            () -> licensePlateRepository.allocateEmptyLicensePlate("WH-1", LicensePlateType.TOTE, "planner"));
+        cases.put("archiveFinalStates", () -> licensePlateRepository.archiveFinalStates(LocalDateTime.now(), 100));
+        return planTests(cases);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> locationStateQueries_shouldUseIndexes() {
+        return planTests(locationStateCases());
+    }
+
+    @TestFactory
+    Stream<DynamicTest> skuInventoryQueries_shouldUseIndexes() {
+        return planTests(skuInventoryCases());
+    }
+
+    private Map<String, Runnable> licensePlateCases() {
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+        cases.put("findByWarehouseId", () -> licensePlateRepository.findByWarehouseId("WH-1"));
+        cases.put("findByWarehouseIdAndStatus",
+            () -> licensePlateRepository.findByWarehouseIdAndStatus("WH-1", LicensePlateStatus.AT_LOCATION));
+        cases.put("findByWarehouseIdAndType",
+            () -> licensePlateRepository.findByWarehouseIdAndType("WH-1", LicensePlateType.TOTE));
+        cases.put("findByCurrentLocationId", () -> licensePlateRepository.findByCurrentLocationId("WH-1-LOC-3"));
+        cases.put("findByCurrentLocationIdAndStatus", () -> licensePlateRepository
+            .findByCurrentLocationIdAndStatus("WH-1-LOC-3", LicensePlateStatus.AT_LOCATION));
+        cases.put("findByContainerCode", () -> licensePlateRepository.findByContainerCode("C-1-3"));
+        cases.put("findByOwnerId", () -> licensePlateRepository.findByOwnerId("OWNER-1"));
+        cases.put("findActiveLicensePlates", () -> licensePlateRepository.findActiveLicensePlates());
+        cases.put("findActiveLicensePlatesAtLocation",
+            () -> licensePlateRepository.findActiveLicensePlatesAtLocation("WH-1-LOC-3"));
+        cases.put("findByCreatedAtAfter", () -> licensePlateRepository.findByCreatedAtAfter(since));
+        cases.put("findByWarehouseIdAndCreatedAtAfter",
+            () -> licensePlateRepository.findByWarehouseIdAndCreatedAtAfter("WH-1", since));
+        cases.put("findByStatus", () -> licensePlateRepository.findByStatus(LicensePlateStatus.IN_TRANSIT));
+        cases.put("findContainingSku", () -> licensePlateRepository.findContainingSku("SKU-3"));
+        cases.put("findContainingSkuAtLocation",
+            () -> licensePlateRepository.findContainingSkuAtLocation("WH-1-LOC-3", "SKU-3"));
+        cases.put("findEmptyLicensePlates", () -> licensePlateRepository.findEmptyLicensePlates());
+        cases.put("findEmptyAvailableLicensePlates",
+            () -> licensePlateRepository.findEmptyAvailableLicensePlates("WH-1"));
+        cases.put("countByWarehouseId", () -> licensePlateRepository.countByWarehouseId("WH-1"));
+        cases.put("countByCurrentLocationId", () -> licensePlateRepository.countByCurrentLocationId("WH-1-LOC-3"));
+        cases.put("countByWarehouseIdAndStatus",
+            () -> licensePlateRepository.countByWarehouseIdAndStatus("WH-1", LicensePlateStatus.AT_LOCATION));
+        return cases;
+    }
+
+    private Map<String, Runnable> locationStateCases() {
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+        cases.put("findByWarehouseId", () -> locationStateRepository.findByWarehouseId("WH-1"));
+        cases.put("findByWarehouseIdAndZone", () -> locationStateRepository.findByWarehouseIdAndZone("WH-1", "ZONE-2"));
+        cases.put("findByWarehouseIdAndOccupancyStatus",
+            () -> locationStateRepository.findByWarehouseIdAndOccupancyStatus("WH-1", OccupancyStatus.EMPTY));
+        cases.put("findByWarehouseIdAndIsBlockedTrue",
+            () -> locationStateRepository.findByWarehouseIdAndIsBlockedTrue("WH-1"));
+        cases.put("findEmptyLocations", () -> locationStateRepository.findEmptyLocations("WH-1"));
+        cases.put("findFullLocations", () -> locationStateRepository.findFullLocations("WH-1"));
+        cases.put("findLocationsRequiringAttention",
+            () -> locationStateRepository.findLocationsRequiringAttention("WH-1"));
+        cases.put("findAvailableLocations", () -> locationStateRepository.findAvailableLocations("WH-1", "ZONE-2"));
+        cases.put("findContainingLicensePlate", () -> locationStateRepository.findContainingLicensePlate("LP-1-3"));
+        cases.put("findStaleLocations",
+            () -> locationStateRepository.findStaleLocations("WH-1", LocalDateTime.now()));
+        cases.put("findByWarehouseIdAndRfidZone",
+            () -> locationStateRepository.findByWarehouseIdAndRfidZone("WH-1", "RF-3"));
+        cases.put("findByWarehouseIdAndLastUpdatedAfter",
+            () -> locationStateRepository.findByWarehouseIdAndLastUpdatedAfter("WH-1", since));
+        cases.put("countByWarehouseIdAndOccupancyStatus",
+            () -> locationStateRepository.countByWarehouseIdAndOccupancyStatus("WH-1", OccupancyStatus.EMPTY));
+        cases.put("countByWarehouseIdAndIsBlockedTrue",
+            () -> locationStateRepository.countByWarehouseIdAndIsBlockedTrue("WH-1"));
+        return cases;
+    }
+
+    private Map<String, Runnable> skuInventoryCases() {
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+        cases.put("findByWarehouseIdAndSku", () -> skuInventoryRepository.findByWarehouseIdAndSku("WH-1", "SKU-3"));
+        cases.put("findByWarehouseIdAndSkuAndLotNumber",
+            () -> skuInventoryRepository.findByWarehouseIdAndSkuAndLotNumber("WH-1", "SKU-3", "LOT-1"));
+        return cases;
+    }
+
+    private Stream<DynamicTest> planTests(Map<String, Runnable> cases) {
+        return cases.entrySet().stream()
+            .map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+                BsonDocument command = capture(entry.getValue());
+                assertIndexedPlan(command.getString(command.getFirstKey()).getValue(), entry.getKey(),
+                    filterOf(command));
+            }));
+    }
+
+    /**
+     * Run a repository call and return the first read it sent to the server
+     */
+    private static BsonDocument capture(Runnable call) {
+        COMMANDS.clear();
+        call.run();
+        assertFalse(COMMANDS.isEmpty(), "No read command was issued");
+        return COMMANDS.get(0);
+    }
+
+    // Count methods are sent as an aggregate starting with the $match
+    private static BsonDocument filterOf(BsonDocument command) {
+        return switch (command.getFirstKey()) {
+            case "find" -> command.getDocument("filter", new BsonDocument());
+            case "aggregate" -> command.getArray("pipeline").get(0).asDocument().getDocument("$match");
+            case "count", "findAndModify" -> command.getDocument("query", new BsonDocument());
+            default -> throw new IllegalStateException("Unexpected command " + command.getFirstKey());
+        };
+    }
+
+    private void assertIndexedPlan(String collection, String method, BsonDocument filter) {
+        Document explain = mongoTemplate.getCollection(collection)
+            .find(filter)
+            .explain(ExplainVerbosity.EXECUTION_STATS);
+
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        assertFalse(containsStage(queryPlanner.get("winningPlan"), "COLLSCAN"),
+            () -> method + " falls back to COLLSCAN: " + queryPlanner.toJson());
+
+        Document stats = explain.get("executionStats", Document.class);
+        long returned = stats.get("nReturned", Number.class).longValue();
+        long keysExamined = stats.get("totalKeysExamined", Number.class).longValue();
+        long docsExamined = stats.get("totalDocsExamined", Number.class).longValue();
+
+        assertTrue(keysExamined <= allowedExamined(returned),
+            () -> method + " examined " + keysExamined + " keys for " + returned + " results");
+        assertTrue(docsExamined <= allowedExamined(returned),
+            () -> method + " examined " + docsExamined + " documents for " + returned + " results");
+    }
+
+    private static long allowedExamined(long returned) {
+        // Room for $in seeks and multikey duplicates, not for range scans
+        return returned * 2 + 10;
+    }
+
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    private static Set<String> declaredQueryMethods(Class<?> repository) {
+        return Arrays.stream(repository.getDeclaredMethods())
+            .filter(method -> !method.isDefault() && !method.isSynthetic())
+            .map(Method::getName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Keeps the reads the driver sends; the sync driver reports them on the
+     * calling thread, before the server answers
+     */
+    private static class ReadCommandCapture implements CommandListener {
+
+        private static final Set<String> READ_COMMANDS = Set.of("find", "aggregate", "count", "findAndModify");
+
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (READ_COMMANDS.contains(event.getCommandName())) {
+                // The event's document is only valid during the callback
+                commands.add(event.getCommand().clone());
+            }
+        }
+
+        boolean isEmpty() {
+            return commands.isEmpty();
+        }
+
+        BsonDocument get(int index) {
+            return commands.get(index);
+        }
+
+        void clear() {
+            commands.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureReadCommands {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureReadCommands() {
+            return settings -> settings.addCommandListener(COMMANDS);
+        }
+    }
+}
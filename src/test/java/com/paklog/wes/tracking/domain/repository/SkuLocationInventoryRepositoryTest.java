@@ -0,0 +1,109 @@
+package com.paklog.wes.tracking.domain.repository;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.readmodel.SkuLocationInventory;
+import com.paklog.wes.tracking.domain.readmodel.SkuQuantityDelta;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+class SkuLocationInventoryRepositoryTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private SkuLocationInventoryRepository repository;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void cleanDatabase() {
+        repository.deleteAll();
+        licensePlateRepository.deleteAll();
+    }
+
+    @Test
+    void applyDeltas_shouldAccumulateAndDropEmptiedRows() {
+        repository.applyDeltas(List.of(
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-A", 5),
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-A", 3),
+            new SkuQuantityDelta("WH-1", "SKU-1", null, "LOC-B", 2)
+        ));
+
+        List<SkuLocationInventory> rows = repository.findByWarehouseIdAndSku("WH-1", "SKU-1");
+        assertEquals(2, rows.size());
+        assertEquals(8, repository.findByWarehouseIdAndSkuAndLotNumber("WH-1", "SKU-1", "LOT-1").get(0).getQuantity());
+
+        // Move LOC-A -> LOC-B
+        repository.applyDeltas(List.of(
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-A", -8),
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-B", 8)
+        ));
+
+        rows = repository.findByWarehouseIdAndSku("WH-1", "SKU-1");
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().allMatch(row -> "LOC-B".equals(row.getLocationId())));
+    }
+
+    @Test
+    void rebuild_shouldMatchLicensePlateContents() {
+        LicensePlate first = LicensePlate.create("LP-1", "WH-1", LicensePlateType.PALLET, "C-1", "tester");
+        first.addItem("SKU-1", "LOT-1", 4, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        first.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+
+        LicensePlate second = LicensePlate.create("LP-2", "WH-1", LicensePlateType.TOTE, "C-2", "tester");
+        second.addItem("SKU-1", "LOT-1", 6, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        second.addItem("SKU-2", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        second.moveTo("LOC-A", MovementType.PUTAWAY, "worker", null);
+
+        LicensePlate inTransit = LicensePlate.create("LP-3", "WH-1", LicensePlateType.TOTE, "C-3", "tester");
+        inTransit.addItem("SKU-1", "LOT-1", 100, BigDecimal.ONE, BigDecimal.ONE, "EA");
+
+        licensePlateRepository.saveAll(List.of(first, second, inTransit));
+        repository.applyDeltas(List.of(
+            new SkuQuantityDelta("WH-1", "SKU-9", null, "LOC-Z", 1),
+            new SkuQuantityDelta("WH-1", "SKU-1", "LOT-1", "LOC-A", 3)
+        ));
+        // Written before the run started; a row touched while it runs would be kept as is
+        mongoTemplate.updateMulti(new Query(Criteria.where("warehouseId").is("WH-1")),
+            new Update().set("lastUpdated", LocalDateTime.now().minusMinutes(1)), SkuLocationInventory.class);
+
+        assertEquals(2, repository.rebuild("WH-1"));
+
+        List<SkuLocationInventory> sku1 = repository.findByWarehouseIdAndSku("WH-1", "SKU-1");
+        assertEquals(1, sku1.size());
+        assertEquals("LOC-A", sku1.get(0).getLocationId());
+        assertEquals(10, sku1.get(0).getQuantity());
+        assertTrue(repository.findByWarehouseIdAndSku("WH-1", "SKU-9").isEmpty());
+    }
+}
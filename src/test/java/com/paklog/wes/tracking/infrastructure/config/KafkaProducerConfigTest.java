@@ -0,0 +1,65 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.jackson.JsonFormat;
+import io.cloudevents.kafka.CloudEventSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaProducerConfigTest {
+
+    @Test
+    void throughputProfile_shouldUseZstdAndLongLinger() {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setProfile(KafkaPublishProperties.Profile.THROUGHPUT);
+
+        Map<String, Object> configs = KafkaProducerConfig.producerConfigs(properties);
+
+        assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(20, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(true, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("all", configs.get(ProducerConfig.ACKS_CONFIG));
+    }
+
+    @Test
+    void explicitProperties_shouldOverrideProfile() {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setProfile(KafkaPublishProperties.Profile.LOW_LATENCY);
+        properties.setCompressionType("zstd");
+        properties.setLinger(Duration.ofMillis(2));
+        properties.setIdempotent(false);
+
+        Map<String, Object> configs = KafkaProducerConfig.producerConfigs(properties);
+
+        assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(2, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(false, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertFalse(configs.containsKey(ProducerConfig.ACKS_CONFIG));
+        assertEquals(1000L, configs.get(ProducerConfig.MAX_BLOCK_MS_CONFIG));
+    }
+
+    @Test
+    void jsonEncoding_shouldUseStructuredCloudEvents() {
+        Map<String, Object> configs = KafkaProducerConfig.producerConfigs(new KafkaPublishProperties());
+
+        assertEquals(CloudEventSerializer.class, configs.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+        assertEquals(Encoding.STRUCTURED, configs.get(CloudEventSerializer.ENCODING_CONFIG));
+        assertEquals(JsonFormat.CONTENT_TYPE, configs.get(CloudEventSerializer.EVENT_FORMAT_CONFIG));
+    }
+
+    @Test
+    void binaryEncoding_shouldUseBinaryCloudEvents() {
+        KafkaPublishProperties properties = new KafkaPublishProperties();
+        properties.setEncoding(KafkaPublishProperties.Encoding.BINARY);
+
+        Map<String, Object> configs = KafkaProducerConfig.producerConfigs(properties);
+
+        assertEquals(Encoding.BINARY, configs.get(CloudEventSerializer.ENCODING_CONFIG));
+        assertFalse(configs.containsKey(CloudEventSerializer.EVENT_FORMAT_CONFIG));
+    }
+}
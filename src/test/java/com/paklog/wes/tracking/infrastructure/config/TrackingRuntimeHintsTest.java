@@ -0,0 +1,58 @@
+package com.paklog.wes.tracking.infrastructure.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    TrackingRuntimeHintsTest() {
+        new TrackingRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void everyMongoDocument_shouldHaveReflectionHints() throws Exception {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Document.class));
+
+        for (BeanDefinition document : scanner.findCandidateComponents("com.paklog.wes.tracking")) {
+            Class<?> type = Class.forName(document.getBeanClassName());
+            assertTrue(TrackingRuntimeHints.MAPPED_TYPES.contains(type), type + " has no hints");
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+        }
+    }
+
+    @Test
+    void typesLoadedByName_shouldExistAndHaveHints() throws Exception {
+        for (String name : TrackingRuntimeHints.INBOUND_EVENTS) {
+            Class.forName(name);
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(name))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), name);
+        }
+        for (String name : TrackingRuntimeHints.INSTANTIATED_BY_NAME) {
+            Class.forName(name);
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(name))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints), name);
+        }
+    }
+
+    @Test
+    void eventSchemasAndFormats_shouldBeIncludedAsResources() {
+        assertTrue(RuntimeHintsPredicates.resource()
+            .forResource("schemas/tracking/licenseplate-moved.v1.avsc").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+            .forResource("META-INF/services/io.cloudevents.core.format.EventFormat").test(hints));
+    }
+}
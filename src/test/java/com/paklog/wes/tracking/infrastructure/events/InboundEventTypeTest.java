@@ -0,0 +1,60 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundEventTypeTest {
+
+    @Test
+    void peek_shouldPreferCloudEventsTypeHeader() {
+        ConsumerRecord<String, byte[]> record = record("{\"type\":\"PickingCompletedEvent\"}");
+        record.headers().add(InboundEventType.TYPE_HEADER, "WaveReleasedEvent".getBytes(StandardCharsets.UTF_8));
+
+        InboundEventType.Peek peek = InboundEventType.peek(record);
+
+        assertEquals("WaveReleasedEvent", peek.type());
+        assertEquals(InboundEventType.Source.HEADER, peek.source());
+    }
+
+    @Test
+    void peek_shouldScanPayloadWithoutHeader() {
+        InboundEventType.Peek peek = InboundEventType.peek(record(
+            "{ \"orderId\": \"O-1\",\n  \"type\" : \"PackingCompletedEvent\", \"cartonId\": \"C-1\" }"
+        ));
+
+        assertEquals("PackingCompletedEvent", peek.type());
+        assertEquals(InboundEventType.Source.PREFIX_SCAN, peek.source());
+    }
+
+    @Test
+    void scan_shouldIgnoreNestedTypeMembersAndTypeValues() {
+        String json = "{\"items\":[{\"type\":\"EACH\"}],\"note\":\"type\",\"meta\":{\"type\":\"x\"},"
+            + "\"type\":\"InventoryMovedEvent\"}";
+
+        assertEquals("InventoryMovedEvent", InboundEventType.scan(bytes(json)));
+    }
+
+    @Test
+    void scan_shouldGiveUpOnEscapesMissingTypeAndLongPrefixes() {
+        assertNull(InboundEventType.scan(bytes("{\"note\":\"a \\\"quoted\\\" word\",\"type\":\"X\"}")));
+        assertNull(InboundEventType.scan(bytes("{\"orderId\":\"O-1\"}")));
+        assertNull(InboundEventType.scan(bytes("{\"type\":42}")));
+        assertNull(InboundEventType.scan(null));
+
+        String padding = "x".repeat(InboundEventType.SCAN_LIMIT);
+        assertNull(InboundEventType.scan(bytes("{\"pad\":\"" + padding + "\",\"type\":\"X\"}")));
+        assertSame(InboundEventType.Peek.UNKNOWN, InboundEventType.peek(record("{\"orderId\":\"O-1\"}")));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String json) {
+        return new ConsumerRecord<>("wes-pick-events", 0, 0L, "key", bytes(json));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,228 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.paklog.wes.tracking.infrastructure.config.KeyOrderedConsumerProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyOrderedDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> acknowledged = new CopyOnWriteArrayList<>();
+    private KeyOrderedDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void dispatch_shouldRunSameKeyInOffsetOrder() throws Exception {
+        dispatcher = dispatcher(true, 4, 100, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> handled = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch("test", record(0, "k"), ack(0), List.of("LP-1"), () -> {
+            await(release);
+            handled.add(0L);
+        });
+        for (long offset = 1; offset < 5; offset++) {
+            long current = offset;
+            dispatcher.dispatch("test", record(current, "k"), ack(current), List.of("LP-1"),
+                () -> handled.add(current));
+        }
+        Thread.sleep(50);
+        assertTrue(handled.isEmpty());
+
+        release.countDown();
+        awaitAcknowledged(4);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), handled);
+        assertEquals(4, meterRegistry.get(TrackingMetrics.CONSUME_KEY_WAIT)
+            .tags("listener", "test", "blocked", "true").timer().count());
+    }
+
+    @Test
+    void dispatch_shouldRunDifferentKeysConcurrently() throws Exception {
+        dispatcher = dispatcher(true, 4, 100, Duration.ofSeconds(5));
+        // Both tasks must be running at once to pass the barrier
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        dispatcher.dispatch("test", record(0, "k"), ack(0), List.of("LP-1"), () -> await(barrier));
+        dispatcher.dispatch("test", record(1, "k"), ack(1), List.of("LP-2"), () -> await(barrier));
+
+        awaitAcknowledged(1);
+        assertFalse(barrier.isBroken());
+    }
+
+    @Test
+    void dispatch_shouldWaitForEveryEarlierRecordSharingAnyKey() throws Exception {
+        dispatcher = dispatcher(true, 4, 100, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch disjointHandled = new CountDownLatch(1);
+        List<String> handled = new CopyOnWriteArrayList<>();
+
+        // Two plates moved into the same location, from another topic's partition as well
+        dispatcher.dispatch("test", record(0, "a"), ack(0), List.of("license-plate:LP-1", "location:LOC-1"), () -> {
+            await(release);
+            handled.add("LP-1");
+        });
+        dispatcher.dispatch("other", new ConsumerRecord<>("wes-pack-events", 0, 0L, "b", new byte[0]),
+            () -> { }, List.of("license-plate:LP-2", "location:LOC-1", "location:LOC-1"), () -> handled.add("LP-2"));
+        dispatcher.dispatch("test", record(1, "c"), ack(1), List.of("license-plate:LP-3", "location:LOC-2"), () -> {
+            handled.add("LP-3");
+            disjointHandled.countDown();
+        });
+
+        assertTrue(disjointHandled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(List.of("LP-3"), handled);
+
+        release.countDown();
+        awaitAcknowledged(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handled.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of("LP-3", "LP-1", "LP-2"), handled);
+    }
+
+    @Test
+    void dispatch_shouldAcknowledgeOnlyContiguousOffsets() throws Exception {
+        dispatcher = dispatcher(true, 4, 100, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch laterHandled = new CountDownLatch(2);
+
+        dispatcher.dispatch("test", record(0, "a"), ack(0), List.of("LP-1"), () -> await(release));
+        dispatcher.dispatch("test", record(1, "b"), ack(1), List.of("LP-2"), laterHandled::countDown);
+        dispatcher.skip(record(2, "c"), ack(2));
+        dispatcher.dispatch("test", record(3, "d"), ack(3), List.of("LP-3"), laterHandled::countDown);
+
+        assertTrue(laterHandled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertTrue(acknowledged.isEmpty());
+        assertEquals(4, dispatcher.uncommittedCount());
+
+        release.countDown();
+        awaitAcknowledged(3);
+        assertEquals(List.of(3L), acknowledged);
+        assertEquals(0, dispatcher.uncommittedCount());
+    }
+
+    @Test
+    void dispatch_shouldWaitWhenMaxInFlightReached() throws Exception {
+        dispatcher = dispatcher(true, 4, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondDispatched = new AtomicBoolean();
+
+        dispatcher.dispatch("test", record(0, "a"), ack(0), List.of("LP-1"), () -> await(release));
+        assertEquals(1.0, meterRegistry.get(TrackingMetrics.CONSUME_IN_FLIGHT).gauge().value());
+        Thread consumer = new Thread(() -> {
+            dispatcher.dispatch("test", record(1, "b"), ack(1), List.of("LP-2"), () -> { });
+            secondDispatched.set(true);
+        });
+        consumer.start();
+        Thread.sleep(50);
+        assertFalse(secondDispatched.get());
+
+        release.countDown();
+        consumer.join(5_000);
+        assertTrue(secondDispatched.get());
+        awaitAcknowledged(1);
+    }
+
+    @Test
+    void revoke_shouldDrainThenStopAcknowledging() throws Exception {
+        dispatcher = dispatcher(true, 4, 100, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(2);
+
+        dispatcher.dispatch("test", record(0, "a"), ack(0), List.of("LP-1"), handled::countDown);
+        dispatcher.dispatch("test", record(1, "b"), ack(1), List.of("LP-2"), () -> {
+            await(release);
+            handled.countDown();
+        });
+        awaitAcknowledged(0);
+
+        dispatcher.onPartitionsRevokedBeforeCommit(null, List.of(new TopicPartition("wms-events", 0)));
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        // Offset 1 finished after the drain timeout; the new owner redelivers it
+        assertEquals(List.of(0L), acknowledged);
+        assertEquals(0, dispatcher.uncommittedCount());
+    }
+
+    @Test
+    void dispatch_whenDisabled_shouldRunInlineAndAcknowledgeEachRecord() {
+        dispatcher = dispatcher(false, 4, 100, Duration.ofSeconds(5));
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        dispatcher.dispatch("test", record(0, "a"), ack(0), List.of("LP-1"),
+            () -> threads.add(Thread.currentThread().getName()));
+        dispatcher.skip(record(1, "b"), ack(1));
+
+        assertEquals(List.of(Thread.currentThread().getName()), threads);
+        assertEquals(List.of(0L, 1L), acknowledged);
+    }
+
+    private KeyOrderedDispatcher dispatcher(boolean enabled, int workers, int maxInFlight, Duration drainTimeout) {
+        KeyOrderedConsumerProperties properties = new KeyOrderedConsumerProperties();
+        properties.setEnabled(enabled);
+        properties.setWorkers(workers);
+        properties.setMaxInFlight(maxInFlight);
+        properties.setDrainTimeout(drainTimeout);
+        TelemetrySampler sampler = new TelemetrySampler(new TelemetrySamplingProperties());
+        return new KeyOrderedDispatcher(properties, new TrackingMetrics(meterRegistry, sampler));
+    }
+
+    private Acknowledgment ack(long offset) {
+        return () -> acknowledged.add(offset);
+    }
+
+    private void awaitAcknowledged(long offset) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!acknowledged.contains(offset) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(acknowledged.contains(offset), "offset " + offset + " not acknowledged: " + acknowledged);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key) {
+        return new ConsumerRecord<>("wms-events", 0, offset, key, new byte[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.paklog.wes.tracking.infrastructure.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.wes.tracking.application.service.PhysicalTrackingService;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepositoryCustom.UpsertCounts;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.KeyOrderedConsumerProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseContext;
+import com.paklog.wes.tracking.infrastructure.persistence.WarehouseDirectory;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarehouseEventHandlerTest {
+
+    @Mock
+    private PhysicalTrackingService trackingService;
+
+    @Mock
+    private WarehouseDirectory directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WarehouseEventHandler handler;
+    private int acknowledged;
+    private final Acknowledgment acknowledgment = () -> acknowledged++;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        TelemetrySampler sampler = new TelemetrySampler(new TelemetrySamplingProperties());
+        TrackingMetrics metrics = new TrackingMetrics(meterRegistry, sampler);
+        handler = new WarehouseEventHandler(
+            trackingService, metrics, new ObjectMapper(), sampler,
+            new KeyOrderedDispatcher(new KeyOrderedConsumerProperties(), metrics), directory
+        );
+    }
+
+    @Test
+    void handleInventoryMoved_shouldMoveLicensePlate() {
+        handler.handleInventoryMoved(record("""
+            {"type":"InventoryMovedEvent","licensePlateId":"LP-1","fromLocation":"A","toLocation":"B",
+             "performedBy":"user-1","quantity":5}"""), acknowledgment);
+
+        verify(trackingService).moveLicensePlate("LP-1", "B", MovementType.REPLENISHMENT, "user-1", "Inventory movement");
+        assertEquals(1, meterRegistry.get(TrackingMetrics.CONSUME)
+            .tags("listener", "handleInventoryMoved", "type", "InventoryMovedEvent").timer().count());
+    }
+
+    @Test
+    void handleInventoryMoved_shouldMoveInTheEventsWarehouse() {
+        List<String> warehouses = new ArrayList<>();
+        when(trackingService.moveLicensePlate(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            warehouses.add(WarehouseContext.current());
+            return null;
+        });
+        when(directory.licensePlateWarehouse("LP-2")).thenReturn("WH-2");
+
+        handler.handleInventoryMoved(record("""
+            {"type":"InventoryMovedEvent","warehouseId":"WH-PEAK","licensePlateId":"LP-1","toLocation":"B"}"""),
+            acknowledgment);
+        // An older producer without warehouseId: the license plate's warehouse is looked up
+        handler.handleInventoryMoved(record("""
+            {"type":"InventoryMovedEvent","licensePlateId":"LP-2","toLocation":"B"}"""), acknowledgment);
+
+        assertEquals(List.of("WH-PEAK", "WH-2"), warehouses);
+    }
+
+    @Test
+    void handleInventoryMoved_shouldFailRatherThanUseDefaultDatabaseWhenWarehouseUnknown() {
+        when(directory.isRouted()).thenReturn(true);
+
+        handler.handleInventoryMoved(record("""
+            {"type":"InventoryMovedEvent","licensePlateId":"LP-404","toLocation":"B"}"""), acknowledgment);
+
+        verifyNoInteractions(trackingService);
+        assertEquals(1, meterRegistry.get(TrackingMetrics.CONSUME_FAILED)
+            .tags("listener", "handleInventoryMoved", "type", "InventoryMovedEvent").counter().count());
+    }
+
+    @Test
+    void handleInventoryMoved_shouldSkipOtherTypesWithoutParsing() {
+        // Not valid JSON past the type member: parsing would fail
+        handler.handleInventoryMoved(record("{\"type\":\"InventoryAdjustedEvent\", <truncated"), acknowledgment);
+
+        ConsumerRecord<String, byte[]> withHeader = record("not json at all");
+        withHeader.headers().add(InboundEventType.TYPE_HEADER, "InventoryAdjustedEvent".getBytes(StandardCharsets.UTF_8));
+        handler.handleInventoryMoved(withHeader, acknowledgment);
+
+        verifyNoInteractions(trackingService);
+        assertEquals(1, skipped("handleInventoryMoved", "prefix_scan"));
+        assertEquals(1, skipped("handleInventoryMoved", "header"));
+        assertEquals(0, meterRegistry.find(TrackingMetrics.CONSUME).timers().size());
+        assertEquals(2, acknowledged);
+    }
+
+    @Test
+    void handlePackingCompleted_shouldParseWhenTypeCannotBeScanned() {
+        when(trackingService.getLicensePlate("LP-O-1-C-1")).thenReturn(Optional.empty());
+
+        // Escaped string ahead of the type member defeats the prefix scan
+        handler.handlePackingCompleted(record("""
+            {"note":"\\"fragile\\"","type":"PackingCompletedEvent","orderId":"O-1","warehouseId":"WH-1",
+             "cartonId":"C-1"}"""), acknowledgment);
+        handler.handlePackingCompleted(record("""
+            {"note":"\\"fragile\\"","type":"PackingStartedEvent","orderId":"O-2"}"""), acknowledgment);
+
+        verify(trackingService).createLicensePlate("LP-O-1-C-1", "WH-1", LicensePlateType.CARTON, "C-1", "system");
+        verify(trackingService, never()).moveLicensePlate(any(), any(), any(), any(), any());
+        assertEquals(1, skipped("handlePackingCompleted", "parsed"));
+        assertEquals(2, acknowledged);
+    }
+
+    @Test
+    void orderingKeys_shouldNameEveryAggregateTheEventWrites() {
+        assertEquals(List.of("license-plate:LP-1", "location:A", "location:B"),
+            new InventoryMovedEvent("InventoryMovedEvent", "WH-1", "LP-1", "A", "B", null).orderingKeys());
+        assertEquals(List.of("license-plate:LP-1", "location:B"),
+            new InventoryMovedEvent("InventoryMovedEvent", "WH-1", "LP-1", null, "B", null).orderingKeys());
+        assertEquals(List.of("license-plate:LP-O-1-C-1", "location:STAGE-S1"),
+            new PackingCompletedEvent("PackingCompletedEvent", "O-1", "WH-1", "C-1", "S1").orderingKeys());
+        assertEquals(List.of("order:O-2"),
+            new PackingCompletedEvent("PackingCompletedEvent", "O-2", "WH-1", null, "S1").orderingKeys());
+    }
+
+    @Test
+    void handleLocationCreated_shouldSwallowMalformedPayload() {
+        handler.handleLocationCreated(List.of(record("{\"locationId\": ")));
+
+        verifyNoInteractions(trackingService);
+    }
+
+    @Test
+    void handleLocationCreated_shouldProvisionWholePollInOneCall() {
+        handler.handleLocationCreated(List.of(
+            record("""
+                {"type":"LocationCreatedEvent","locationId":"A-01","warehouseId":"WH-1","zone":"ZONE-A",
+                 "maxQuantity":40,"maxWeight":800.5,"maxVolume":2.4,"xCoordinate":12.5,"yCoordinate":3.0,
+                 "zCoordinate":1.2,"rfidZone":"RF-1"}"""),
+            record("{\"type\":\"LocationDeletedEvent\",\"locationId\":\"A-02\"}"),
+            // No capacity: not enough to provision
+            record("{\"type\":\"LocationCreatedEvent\",\"locationId\":\"A-03\",\"warehouseId\":\"WH-1\"}"),
+            record("""
+                {"type":"LocationCreatedEvent","locationId":"A-04","warehouseId":"WH-1",
+                 "maxQuantity":10,"maxWeight":100,"maxVolume":1}""")
+        ));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LocationDefinition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(trackingService).provisionLocations(captor.capture());
+        List<LocationDefinition> definitions = captor.getValue();
+        assertEquals(List.of("A-01", "A-04"), definitions.stream().map(LocationDefinition::locationId).toList());
+        assertEquals(new LocationDefinition("A-01", "WH-1", "ZONE-A", 40, new BigDecimal("800.5"),
+            new BigDecimal("2.4"), 12.5, 3.0, 1.2, "RF-1"), definitions.get(0));
+        assertEquals(1, skipped("handleLocationCreated", "prefix_scan"));
+    }
+
+    @Test
+    void handleLocationCreated_shouldProvisionEachWarehouseInItsOwnContext() {
+        List<String> warehouses = new ArrayList<>();
+        when(trackingService.provisionLocations(anyList())).thenAnswer(invocation -> {
+            warehouses.add(WarehouseContext.current());
+            return UpsertCounts.NONE;
+        });
+
+        handler.handleLocationCreated(List.of(
+            record("""
+                {"type":"LocationCreatedEvent","locationId":"A-01","warehouseId":"WH-1",
+                 "maxQuantity":10,"maxWeight":100,"maxVolume":1}"""),
+            record("""
+                {"type":"LocationCreatedEvent","locationId":"B-01","warehouseId":"WH-2",
+                 "maxQuantity":10,"maxWeight":100,"maxVolume":1}"""),
+            record("""
+                {"type":"LocationCreatedEvent","locationId":"A-02","warehouseId":"WH-1",
+                 "maxQuantity":10,"maxWeight":100,"maxVolume":1}""")
+        ));
+
+        assertEquals(List.of("WH-1", "WH-2"), warehouses);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LocationDefinition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(trackingService, times(2)).provisionLocations(captor.capture());
+        assertEquals(List.of("A-01", "A-02"),
+            captor.getAllValues().get(0).stream().map(LocationDefinition::locationId).toList());
+        assertNull(WarehouseContext.current());
+    }
+
+    private double skipped(String listener, String source) {
+        return meterRegistry.get(TrackingMetrics.CONSUME_SKIPPED)
+            .tags("listener", listener, "source", source).counter().count();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String json) {
+        return new ConsumerRecord<>("wms-events", 0, 0L, "key", json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.paklog.wes.tracking.infrastructure.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void underCapacity_shouldCountExactly() {
+        SpaceSaving<String> counters = new SpaceSaving<>(10);
+        for (int i = 0; i < 5; i++) {
+            counters.offer("A");
+        }
+        counters.offer("B");
+        counters.offer("B");
+        counters.offer("C");
+
+        assertEquals(new SpaceSaving.Counter<>("A", 5, 0), counters.estimate("A"));
+        assertEquals(new SpaceSaving.Counter<>("B", 2, 0), counters.estimate("B"));
+        assertEquals(List.of("A", "B", "C"), counters.top(10).stream().map(SpaceSaving.Counter::key).toList());
+        assertEquals(List.of("A"), counters.top(1).stream().map(SpaceSaving.Counter::key).toList());
+        assertEquals(0, counters.estimate("D").count());
+    }
+
+    @Test
+    void fullTable_shouldReplaceLowestCountAndInheritItAsError() {
+        SpaceSaving<String> counters = new SpaceSaving<>(2);
+        counters.offer("A");
+        counters.offer("A");
+        counters.offer("B");
+
+        SpaceSaving.Counter<String> c = counters.offer("C");
+
+        assertEquals(new SpaceSaving.Counter<>("C", 2, 1), c);
+        assertEquals(1, c.guaranteed());
+        assertEquals(0, counters.estimate("B").count());
+        assertEquals(2, counters.size());
+    }
+
+    @Test
+    void skewedStream_shouldKeepHeavyHittersWithinErrorBounds() {
+        int capacity = 50;
+        SpaceSaving<String> counters = new SpaceSaving<>(capacity);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            // A few hot locations on top of a long tail of cold ones
+            String key = random.nextInt(10) < 3 ? "HOT-" + random.nextInt(3) : "COLD-" + random.nextInt(5_000);
+            exact.merge(key, 1L, Long::sum);
+            counters.offer(key);
+        }
+
+        List<SpaceSaving.Counter<String>> top = counters.top(3);
+        assertEquals(3, top.size());
+        for (SpaceSaving.Counter<String> counter : top) {
+            assertTrue(counter.key().startsWith("HOT-"), counter.key());
+            long actual = exact.get(counter.key());
+            assertTrue(counter.count() >= actual);
+            assertTrue(counter.guaranteed() <= actual);
+            assertTrue(counter.error() <= total / capacity);
+        }
+        assertEquals(capacity, counters.size());
+    }
+
+    @Test
+    void capacity_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<String>(0));
+    }
+}
@@ -0,0 +1,138 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+@Import({CoalescingAggregateLoader.class, TrackingCache.class,
+    TrackingMetrics.class, TelemetrySampler.class, SimpleMeterRegistry.class})
+@EnableConfigurationProperties(TelemetrySamplingProperties.class)
+class CoalescingAggregateLoaderTest {
+
+    private static final int CALLERS = 16;
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private CoalescingAggregateLoader loader;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private LocationStateRepository locationStateRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanDatabase() {
+        licensePlateRepository.deleteAll();
+        locationStateRepository.deleteAll();
+    }
+
+    @Test
+    void loadOrCreate_shouldCreateExactlyOneStateUnderConcurrentCallers() throws Exception {
+        List<LocationState> states = concurrently(() -> loader.loadOrCreateLocationState("LOC-NEW", () ->
+            LocationState.create("LOC-NEW", "WH-1", null, 1000, new BigDecimal("1000"), new BigDecimal("10"))));
+
+        assertEquals(1, locationStateRepository.count());
+        assertTrue(states.stream().allMatch(state -> "LOC-NEW".equals(state.getLocationId())));
+        assertEquals(CALLERS, distinctInstances(states));
+        assertEquals(1.0, loadCount("location_state", "created"));
+    }
+
+    @Test
+    void load_shouldHandEachCallerItsOwnInstance() throws Exception {
+        licensePlateRepository.save(LicensePlate.create("LP-1", "WH-1", LicensePlateType.TOTE, "CONT-1", "tester"));
+
+        List<LicensePlate> plates = concurrently(() -> loader.loadLicensePlate("LP-1").orElseThrow());
+
+        assertEquals(CALLERS, distinctInstances(plates));
+        plates.get(0).addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        assertTrue(plates.get(1).isEmpty());
+        assertEquals(CALLERS, loadCount("license_plate", "fetched") + loadCount("license_plate", "coalesced"));
+    }
+
+    @Test
+    void load_shouldReturnEmptyForMissingAggregate() {
+        assertTrue(loader.loadLicensePlate("missing").isEmpty());
+        assertTrue(loader.loadLocationState("missing").isEmpty());
+    }
+
+    private <T> List<T> concurrently(Callable<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int distinctInstances(List<?> values) {
+        Set<Object> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        identities.addAll(values);
+        return identities.size();
+    }
+
+    private double loadCount(String aggregate, String outcome) {
+        Counter counter = meterRegistry.find(TrackingMetrics.LOAD)
+            .tags("aggregate", aggregate, "outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
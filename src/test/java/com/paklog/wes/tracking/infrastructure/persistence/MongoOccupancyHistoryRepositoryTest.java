@@ -0,0 +1,140 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.domain.readmodel.OccupancySample;
+import com.paklog.wes.tracking.domain.readmodel.UtilizationBucket;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+@Import(MongoOccupancyHistoryRepository.class)
+class MongoOccupancyHistoryRepositoryTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    // Start of the previous local hour; matches a UTC hour bucket wherever the offset is whole hours
+    private static final LocalDateTime HOUR = LocalDateTime.now().withMinute(0).withSecond(0).withNano(0)
+        .minusHours(1);
+
+    @Autowired
+    private MongoOccupancyHistoryRepository repository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void resetCollections() {
+        for (String collection : List.of(MongoOccupancyHistoryRepository.SAMPLES,
+                MongoOccupancyHistoryRepository.MINUTES, MongoOccupancyHistoryRepository.HOURS)) {
+            mongoTemplate.dropCollection(collection);
+        }
+        repository.ensureCollections(Duration.ofDays(7), Duration.ofDays(30));
+    }
+
+    @Test
+    void ensureCollections_shouldCreateTimeSeriesOnceAndTolerateRepeats() {
+        repository.ensureCollections(Duration.ofDays(7), Duration.ofDays(30));
+
+        Document options = mongoTemplate.getDb().listCollections()
+            .filter(new Document("name", MongoOccupancyHistoryRepository.SAMPLES))
+            .first();
+        assertNotNull(options);
+        assertEquals("timeseries", options.getString("type"));
+    }
+
+    @Test
+    void rollUp_shouldBuildMinuteAndHourBucketsPerLocation() {
+        repository.insertSamples(List.of(
+            sample("LOC-1", HOUR.plusSeconds(5), 10),
+            sample("LOC-1", HOUR.plusSeconds(40), 30),
+            sample("LOC-1", HOUR.plusMinutes(1).plusSeconds(10), 50),
+            sample("LOC-2", HOUR.plusSeconds(20), 80)
+        ));
+
+        repository.rollUp(UtilizationBucket.Granularity.MINUTE, HOUR);
+        repository.rollUp(UtilizationBucket.Granularity.HOUR, HOUR);
+
+        List<UtilizationBucket> minutes = repository.findLocationCurve("LOC-1",
+            UtilizationBucket.Granularity.MINUTE, HOUR, HOUR.plusHours(1));
+        assertEquals(2, minutes.size());
+        assertEquals(HOUR, minutes.get(0).bucketStart());
+        assertEquals(2, minutes.get(0).samples());
+        assertEquals(20.0, minutes.get(0).averageUtilization(), 1e-9);
+        assertEquals(10.0, minutes.get(0).minUtilization(), 1e-9);
+        assertEquals(30.0, minutes.get(0).lastUtilization(), 1e-9);
+
+        List<UtilizationBucket> hours = repository.findLocationCurve("LOC-1",
+            UtilizationBucket.Granularity.HOUR, HOUR, HOUR.plusHours(1));
+        assertEquals(1, hours.size());
+        assertEquals(3, hours.get(0).samples());
+        assertEquals(30.0, hours.get(0).averageUtilization(), 1e-9);
+        assertEquals(50.0, hours.get(0).maxUtilization(), 1e-9);
+        assertEquals(50.0, hours.get(0).lastUtilization(), 1e-9);
+    }
+
+    @Test
+    void rollUp_shouldReplaceBucketsWhenRepeated() {
+        repository.insertSamples(List.of(sample("LOC-1", HOUR.plusSeconds(5), 10)));
+        repository.rollUp(UtilizationBucket.Granularity.MINUTE, HOUR);
+
+        repository.insertSamples(List.of(sample("LOC-1", HOUR.plusSeconds(50), 40)));
+        repository.rollUp(UtilizationBucket.Granularity.MINUTE, HOUR.plusSeconds(30));
+
+        List<UtilizationBucket> minutes = repository.findLocationCurve("LOC-1",
+            UtilizationBucket.Granularity.MINUTE, HOUR, HOUR.plusMinutes(1));
+        assertEquals(1, minutes.size());
+        assertEquals(2, minutes.get(0).samples());
+        assertEquals(40.0, minutes.get(0).lastUtilization(), 1e-9);
+        assertEquals(1, mongoTemplate.getCollection(MongoOccupancyHistoryRepository.MINUTES).countDocuments());
+    }
+
+    @Test
+    void findZoneCurve_shouldCombineLocationsOfZone() {
+        repository.insertSamples(List.of(
+            sample("LOC-1", HOUR.plusSeconds(5), 10),
+            sample("LOC-2", HOUR.plusSeconds(20), 80),
+            sample("LOC-2", HOUR.plusSeconds(30), 60)
+        ));
+        repository.rollUp(UtilizationBucket.Granularity.MINUTE, HOUR);
+
+        List<UtilizationBucket> zone = repository.findZoneCurve("WH-1", "ZONE-A",
+            UtilizationBucket.Granularity.MINUTE, HOUR, HOUR.plusHours(1));
+
+        assertEquals(1, zone.size());
+        assertEquals(2, zone.get(0).locations());
+        assertEquals(3, zone.get(0).samples());
+        assertEquals(50.0, zone.get(0).averageUtilization(), 1e-9);
+        assertEquals(10.0, zone.get(0).minUtilization(), 1e-9);
+        assertEquals(35.0, zone.get(0).lastUtilization(), 1e-9);
+        assertTrue(repository.findZoneCurve("WH-1", "ZONE-B",
+            UtilizationBucket.Granularity.MINUTE, HOUR, HOUR.plusHours(1)).isEmpty());
+    }
+
+    private static OccupancySample sample(String locationId, LocalDateTime at, double utilization) {
+        return new OccupancySample("WH-1", "ZONE-A", locationId, at, utilization, (int) utilization,
+            OccupancyStatus.PARTIALLY_OCCUPIED);
+    }
+}
@@ -0,0 +1,208 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.ReadPreference;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateStatus;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import com.paklog.wes.tracking.infrastructure.config.ReadRoutingConfig;
+import com.paklog.wes.tracking.infrastructure.config.ReadRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest(properties = {"paklog.tracking.reads.enabled=true",
+    "paklog.tracking.reads.queries.location-states.read-preference=nearest"})
+@Import({RoutedTrackingReadRepository.class, ReadRoutingConfig.class, TrackingCache.class,
+    TrackingMetrics.class, TelemetrySampler.class, SimpleMeterRegistry.class})
+@EnableConfigurationProperties({ReadRoutingProperties.class, TelemetrySamplingProperties.class})
+class RoutedTrackingReadRepositoryTest {
+
+    // Single-node replica set, so writes report an operation time
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private RoutedTrackingReadRepository reads;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private LocationStateRepository locationStateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void cleanDatabase() {
+        licensePlateRepository.deleteAll();
+        locationStateRepository.deleteAll();
+        mongoTemplate.dropCollection(LicensePlateRepositoryCustomImpl.ARCHIVE);
+        CausalContext.clear();
+    }
+
+    @AfterEach
+    void clearContext() {
+        CausalContext.clear();
+    }
+
+    @Test
+    void write_shouldRecordCausalTokenOnWritingThread() {
+        licensePlateRepository.save(licensePlate("LP-1", "LOC-1"));
+
+        CausalToken token = CausalContext.lastWrite();
+
+        assertNotNull(token);
+        assertNotNull(token.clusterTime());
+        assertTrue(reads.findLicensePlate("LP-1").isPresent());
+    }
+
+    @Test
+    void read_shouldHonourTokenPresentedByAnotherClient() {
+        licensePlateRepository.save(licensePlate("LP-2", "LOC-2"));
+        String header = CausalContext.lastWrite().encode();
+        CausalContext.clear();
+
+        CausalContext.observe(CausalToken.decode(header));
+
+        assertEquals(1, reads.findLicensePlatesAtLocation("LOC-2").size());
+    }
+
+    @Test
+    void reads_shouldServeEveryQueryType() {
+        licensePlateRepository.save(licensePlate("LP-3", "LOC-3"));
+        locationStateRepository.save(LocationState.create(
+            "LOC-3", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        ));
+
+        assertTrue(reads.findLicensePlate("LP-3").isPresent());
+        assertTrue(reads.findLicensePlate("missing").isEmpty());
+        assertEquals(1, reads.findLicensePlatesAtLocation("LOC-3").size());
+        assertEquals("WH-1", reads.findLocationState("LOC-3").orElseThrow().getWarehouseId());
+        assertEquals(1, reads.findLocationStates("WH-1").size());
+        assertEquals(Map.of(OccupancyStatus.EMPTY, 1L), reads.countLocationsByOccupancy("WH-1"));
+        assertTrue(reads.findSkuLocations("WH-1", "SKU-1", null).isEmpty());
+    }
+
+    @Test
+    void findLicensePlatesAtLocation_shouldIncludeLicensePlatesNestedInThoseThere() {
+        LicensePlate cage = licensePlate("LP-8", "LOC-8");
+        LicensePlate tote = licensePlate("LP-9", "LOC-9");
+        tote.nestInto(cage, "worker", null);
+        cage.attachChild(tote);
+        licensePlateRepository.save(cage);
+        licensePlateRepository.save(tote);
+        licensePlateRepository.save(licensePlate("LP-10", "LOC-9"));
+
+        assertEquals(List.of("LP-8", "LP-9"), reads.findLicensePlatesAtLocation("LOC-8").stream()
+            .map(LicensePlate::getLicensePlateId).toList());
+        assertEquals(List.of("LP-10"), reads.findLicensePlatesAtLocation("LOC-9").stream()
+            .map(LicensePlate::getLicensePlateId).toList());
+    }
+
+    @Test
+    void findByIds_shouldReturnOnlyExistingAggregatesWithOneQueryPerCollection() {
+        licensePlateRepository.save(licensePlate("LP-4", "LOC-4"));
+        licensePlateRepository.save(licensePlate("LP-5", "LOC-4"));
+        locationStateRepository.save(LocationState.create(
+            "LOC-4", "WH-1", "ZONE-A", 10, new BigDecimal("100"), new BigDecimal("50")
+        ));
+
+        Map<String, LicensePlate> plates = reads.findLicensePlatesByIds(List.of("LP-5", "missing", "LP-4", "LP-5"));
+        Map<String, LocationState> states = reads.findLocationStatesByIds(List.of("LOC-4", "missing"));
+
+        assertEquals(Set.of("LP-4", "LP-5"), plates.keySet());
+        assertEquals("LOC-4", plates.get("LP-5").getCurrentLocationId());
+        assertEquals(Set.of("LOC-4"), states.keySet());
+    }
+
+    @Test
+    void idReads_shouldFallBackToArchive() {
+        LicensePlate closed = licensePlate("LP-6", "LOC-6");
+        closed.close();
+        licensePlateRepository.save(closed);
+        licensePlateRepository.save(licensePlate("LP-7", "LOC-6"));
+        assertEquals(1, licensePlateRepository.archiveFinalStates(LocalDateTime.now().plusMinutes(1), 10));
+
+        assertEquals(LicensePlateStatus.CLOSED, reads.findLicensePlate("LP-6").orElseThrow().getStatus());
+        assertEquals(Set.of("LP-6", "LP-7"),
+            reads.findLicensePlatesByIds(List.of("LP-6", "LP-7", "missing")).keySet());
+        // Operational queries see only live plates
+        assertEquals(List.of("LP-7"), reads.findLicensePlatesAtLocation("LOC-6").stream()
+            .map(LicensePlate::getLicensePlateId).toList());
+    }
+
+    @Test
+    void preference_shouldComeFromPerQueryRouteOrDefaults() {
+        assertEquals(ReadPreference.nearest(90_000, TimeUnit.MILLISECONDS),
+            reads.preference(ReadRoutingProperties.Query.LOCATION_STATES));
+        assertEquals(ReadPreference.secondaryPreferred(90_000, TimeUnit.MILLISECONDS),
+            reads.preference(ReadRoutingProperties.Query.LICENSE_PLATE));
+    }
+
+    @Test
+    void readPreference_shouldRejectStalenessBelowServerMinimum() {
+        ReadRoutingProperties.Route route = new ReadRoutingProperties.Route();
+        route.setMaxStaleness(Duration.ofSeconds(30));
+
+        assertThrows(IllegalArgumentException.class, () -> RoutedTrackingReadRepository.readPreference(route));
+
+        route.setReadPreference("primary");
+        assertEquals(ReadPreference.primary(), RoutedTrackingReadRepository.readPreference(route));
+    }
+
+    @Test
+    void causalToken_shouldRoundTripAndPickLater() {
+        CausalToken earlier = new CausalToken(new BsonTimestamp(100, 1), null);
+        CausalToken later = new CausalToken(new BsonTimestamp(100, 2), null);
+
+        assertEquals(earlier, CausalToken.decode(earlier.encode()));
+        assertSame(later, CausalToken.later(earlier, later));
+        assertSame(earlier, CausalToken.later(earlier, null));
+        assertThrows(IllegalArgumentException.class, () -> CausalToken.decode("not-a-token"));
+    }
+
+    private static LicensePlate licensePlate(String id, String locationId) {
+        LicensePlate plate = LicensePlate.create(id, "WH-1", LicensePlateType.TOTE, "CONT-" + id, "tester");
+        // A new license plate cannot be moved until something is put in it
+        plate.addItem("SKU-" + id, null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo(locationId, MovementType.PUTAWAY, "worker", "putaway");
+        return plate;
+    }
+}
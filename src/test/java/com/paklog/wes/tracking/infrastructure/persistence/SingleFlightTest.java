@@ -0,0 +1,122 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void load_shouldShareOneCallAmongConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<SingleFlight.Result<String>> leader = startBlockedLoad("LP-1", release, calls);
+
+        List<Future<SingleFlight.Result<String>>> joiners = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            joiners.add(executor.submit(() -> flight.load("LP-1", key -> "unexpected-" + calls.incrementAndGet())));
+        }
+        awaitWaiters("LP-1", 7);
+        release.countDown();
+
+        assertFalse(leader.get(5, TimeUnit.SECONDS).coalesced());
+        for (Future<SingleFlight.Result<String>> joiner : joiners) {
+            SingleFlight.Result<String> result = joiner.get(5, TimeUnit.SECONDS);
+            assertTrue(result.coalesced());
+            assertEquals("value-LP-1", result.value());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void load_shouldShareFailureWithoutCachingIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Result<String>> leader = executor.submit(() -> flight.load("LP-2", key -> {
+            loading.countDown();
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<SingleFlight.Result<String>> joiner = executor.submit(() -> flight.load("LP-2", key -> "late"));
+        awaitWaiters("LP-2", 1);
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class, failureOf(leader));
+        assertInstanceOf(IllegalStateException.class, failureOf(joiner));
+        assertEquals("fresh", flight.load("LP-2", key -> "fresh").value());
+    }
+
+    @Test
+    void forget_shouldStartNewCallForLaterCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<SingleFlight.Result<String>> detached = startBlockedLoad("LP-3", release, calls);
+
+        flight.forget("LP-3");
+        SingleFlight.Result<String> after = flight.load("LP-3", key -> "after-write");
+        release.countDown();
+
+        assertFalse(after.coalesced());
+        assertEquals("after-write", after.value());
+        assertEquals("value-LP-3", detached.get(5, TimeUnit.SECONDS).value());
+    }
+
+    private Future<SingleFlight.Result<String>> startBlockedLoad(String id, CountDownLatch release,
+                                                                 AtomicInteger calls) throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        Future<SingleFlight.Result<String>> leader = executor.submit(() -> flight.load(id, key -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "value-" + key;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    private void awaitWaiters(String key, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.waiters(key) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, flight.waiters(key));
+    }
+
+    private static Throwable failureOf(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingCacheTest {
+
+    @Test
+    void withoutCacheManager_shouldMissAndStoreNothing() {
+        TrackingCache cache = new TrackingCache(new StaticListableBeanFactory().getBeanProvider(CacheManager.class));
+
+        cache.putAll(TrackingCache.LICENSE_PLATES, Map.of("LP-1", "value"));
+
+        assertFalse(cache.isEnabled());
+        assertTrue(cache.getAll(TrackingCache.LICENSE_PLATES, List.of("LP-1"), String.class).isEmpty());
+    }
+
+    @Test
+    void withCacheManager_shouldReturnHitsAndForgetEvictedIds() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("cacheManager", new ConcurrentMapCacheManager());
+        TrackingCache cache = new TrackingCache(beans.getBeanProvider(CacheManager.class));
+
+        cache.putAll(TrackingCache.LOCATION_STATES, Map.of("LOC-1", "one", "LOC-2", "two"));
+        cache.evict(TrackingCache.LOCATION_STATES, "LOC-2");
+
+        assertTrue(cache.isEnabled());
+        assertEquals(Map.of("LOC-1", "one"),
+            cache.getAll(TrackingCache.LOCATION_STATES, List.of("LOC-1", "LOC-2", "LOC-3"), String.class));
+    }
+
+    @Test
+    void sameIdInAnotherWarehouse_shouldNotShareEntries() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("cacheManager", new ConcurrentMapCacheManager());
+        TrackingCache cache = new TrackingCache(beans.getBeanProvider(CacheManager.class));
+
+        WarehouseContext.run("WH-1", () -> cache.putAll(TrackingCache.LOCATION_STATES, Map.of("LOC-1", "wh-1")));
+
+        assertEquals(Map.of(), WarehouseContext.call("WH-2",
+            () -> cache.getAll(TrackingCache.LOCATION_STATES, List.of("LOC-1"), String.class)));
+        WarehouseContext.run("WH-2", () -> cache.evict(TrackingCache.LOCATION_STATES, "LOC-1"));
+        assertEquals(Map.of("LOC-1", "wh-1"), WarehouseContext.call("WH-1",
+            () -> cache.getAll(TrackingCache.LOCATION_STATES, List.of("LOC-1"), String.class)));
+    }
+}
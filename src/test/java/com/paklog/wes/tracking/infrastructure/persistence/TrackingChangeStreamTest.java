@@ -0,0 +1,155 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.paklog.wes.tracking.application.service.StoredChangeListener;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.repository.LocationStateRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.LocationDefinition;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.infrastructure.config.ChangeStreamProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest
+class TrackingChangeStreamTest {
+
+    // Change streams need a replica set; the container runs a single-node one
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private LocationStateRepository locationStateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final RecordingListener listener = new RecordingListener();
+    private TrackingChangeStream stream;
+
+    @BeforeEach
+    void startStream() throws InterruptedException {
+        licensePlateRepository.deleteAll();
+        locationStateRepository.deleteAll();
+        if (!mongoTemplate.collectionExists(LicensePlate.class)) {
+            mongoTemplate.createCollection(LicensePlate.class);
+        }
+
+        ChangeStreamProperties properties = new ChangeStreamProperties();
+        properties.setEnabled(true);
+        stream = new TrackingChangeStream(properties, mongoTemplate,
+            new WarehouseRouting(new WarehouseRoutingProperties(), new MongoProperties()),
+            new TrackingMetrics(new SimpleMeterRegistry(), new TelemetrySampler(new TelemetrySamplingProperties())),
+            List.of(listener));
+        stream.start();
+
+        // The stream opens asynchronously and starts at the time it opens
+        await(() -> {
+            locationStateRepository.save(LocationState.create(
+                "LOC-WARMUP", "WH-1", "ZONE-A", 10, BigDecimal.TEN, BigDecimal.TEN));
+            return !listener.locations.isEmpty();
+        });
+        listener.locations.clear();
+    }
+
+    @AfterEach
+    void stopStream() {
+        stream.stop();
+    }
+
+    @Test
+    void bulkUpserts_shouldReachListenersWithoutAnyCommand() throws InterruptedException {
+        locationStateRepository.upsertDefinitions(List.of(
+            new LocationDefinition("LOC-1", "WH-1", "ZONE-A", 20, BigDecimal.TEN, BigDecimal.TEN,
+                null, null, null, null),
+            new LocationDefinition("LOC-2", "WH-1", "ZONE-B", 20, BigDecimal.TEN, BigDecimal.TEN,
+                null, null, null, null)
+        ));
+
+        await(() -> listener.locations.stream().map(LocationState::getLocationId).toList()
+            .containsAll(List.of("LOC-1", "LOC-2")));
+        assertEquals("ZONE-B", listener.locations.stream()
+            .filter(state -> state.getLocationId().equals("LOC-2")).findFirst().orElseThrow().getZone());
+    }
+
+    @Test
+    void licensePlateMove_shouldReportPreviousLocationAndOnlyTheLatestMovement() throws InterruptedException {
+        LicensePlate plate = LicensePlate.create("LP-1", "WH-1", LicensePlateType.TOTE, "CONT-1", "tester");
+        plate.addItem("SKU-1", null, 1, BigDecimal.ONE, BigDecimal.ONE, "EA");
+        plate.moveTo("LOC-1", MovementType.PUTAWAY, "worker", null);
+        plate = licensePlateRepository.save(plate);
+        plate.moveTo("LOC-2", MovementType.RELOCATION, "worker", null);
+        licensePlateRepository.save(plate);
+
+        await(() -> listener.licensePlates.stream().anyMatch(stored -> "LOC-2".equals(stored.location())));
+        StoredLicensePlate moved = listener.licensePlates.stream()
+            .filter(stored -> "LOC-2".equals(stored.location()))
+            .findFirst().orElseThrow();
+        assertEquals("LOC-1", moved.previousLocationId());
+        assertEquals(1, moved.licensePlate().getMovements().size());
+        assertEquals("LOC-1", moved.licensePlate().getLatestMovement().orElseThrow().getFromLocationId());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the change stream");
+            Thread.sleep(100);
+        }
+    }
+
+    private record StoredLicensePlate(LicensePlate licensePlate, String previousLocationId) {
+
+        String location() {
+            return licensePlate.getCurrentLocationId();
+        }
+    }
+
+    private static class RecordingListener implements StoredChangeListener {
+        final List<LocationState> locations = new CopyOnWriteArrayList<>();
+        final List<StoredLicensePlate> licensePlates = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onLocationStateStored(LocationState state) {
+            locations.add(state);
+        }
+
+        @Override
+        public void onLicensePlateStored(LicensePlate licensePlate, String previousLocationId) {
+            licensePlates.add(new StoredLicensePlate(licensePlate, previousLocationId));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.paklog.wes.tracking.infrastructure.persistence;
+
+import com.mongodb.client.MongoClient;
+import com.paklog.wes.tracking.domain.aggregate.LicensePlate;
+import com.paklog.wes.tracking.domain.repository.LicensePlateRepository;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingConfig;
+import com.paklog.wes.tracking.infrastructure.config.WarehouseRoutingProperties;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@DataMongoTest(properties = {
+    "paklog.tracking.routing.enabled=true",
+    "paklog.tracking.routing.databases.WH-PEAK=tracking_wh_peak",
+    "paklog.tracking.routing.databases.WH-EAST=tracking_east",
+    "paklog.tracking.routing.databases.WH-EAST-2=tracking_east"
+})
+@Import({WarehouseRoutingConfig.class, WarehouseRouting.class, WarehouseDirectory.class})
+@EnableConfigurationProperties(WarehouseRoutingProperties.class)
+class WarehouseRoutingTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0.5");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", MONGO::getConnectionString);
+    }
+
+    @Autowired
+    private WarehouseRouting routing;
+
+    @Autowired
+    private WarehouseDirectory directory;
+
+    @Autowired
+    private LicensePlateRepository licensePlateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @BeforeEach
+    void cleanDatabases() {
+        routing.fanOut(() -> {
+            licensePlateRepository.deleteAll();
+            return null;
+        });
+    }
+
+    @AfterEach
+    void clearContext() {
+        WarehouseContext.clear();
+    }
+
+    @Test
+    void repositories_shouldWriteToTheBoundWarehouseDatabase() {
+        WarehouseContext.run("WH-PEAK", () -> licensePlateRepository.save(plate("LP-PEAK", "WH-PEAK")));
+        licensePlateRepository.save(plate("LP-SHARED", "WH-SMALL"));
+
+        assertEquals(1, count("tracking_wh_peak"));
+        assertEquals(1, count(routing.defaultDatabase()));
+        assertTrue(licensePlateRepository.findById("LP-PEAK").isEmpty());
+        assertTrue(WarehouseContext.call("WH-PEAK", () -> licensePlateRepository.findById("LP-PEAK")).isPresent());
+        // Unmapped warehouses share the default database
+        assertTrue(WarehouseContext.call("WH-SMALL", () -> licensePlateRepository.findById("LP-SHARED")).isPresent());
+    }
+
+    @Test
+    void routes_shouldQueryEachDatabaseOnce() {
+        assertEquals("tracking_east", routing.database("WH-EAST-2"));
+        assertEquals(routing.defaultDatabase(), routing.database("WH-SMALL"));
+        assertEquals(routing.defaultDatabase(), routing.database(null));
+        assertEquals(List.of(routing.defaultDatabase(), "tracking_wh_peak", "tracking_east"),
+            routing.routes().stream().map(WarehouseRouting.Route::database).toList());
+    }
+
+    @Test
+    void fanOut_shouldRunTheQueryInEveryDatabaseConcurrently() {
+        WarehouseContext.run("WH-PEAK", () -> licensePlateRepository.save(plate("LP-1", "WH-PEAK")));
+        WarehouseContext.run("WH-EAST", () -> licensePlateRepository.save(plate("LP-2", "WH-EAST")));
+        WarehouseContext.run("WH-EAST-2", () -> licensePlateRepository.save(plate("LP-3", "WH-EAST-2")));
+        licensePlateRepository.save(plate("LP-4", "WH-SMALL"));
+
+        List<Long> counts = routing.fanOut(licensePlateRepository::count);
+
+        assertEquals(List.of(1L, 1L, 2L), counts);
+        assertNull(WarehouseContext.current());
+    }
+
+    @Test
+    void routedDatabases_shouldHaveEntityIndexes() {
+        Set<String> indexes = WarehouseContext.call("WH-PEAK",
+            () -> mongoTemplate.indexOps(LicensePlate.class).getIndexInfo()).stream()
+            .map(IndexInfo::getName)
+            .collect(Collectors.toSet());
+
+        assertTrue(indexes.containsAll(Set.of("warehouse_status", "location_status", "status_updated")), indexes::toString);
+    }
+
+    @Test
+    void directory_shouldFindAndListTheDatabaseHoldingALicensePlate() {
+        mongoTemplate.dropCollection(WarehouseDirectory.COLLECTION);
+        WarehouseContext.run("WH-PEAK", () -> licensePlateRepository.save(plate("LP-PEAK", "WH-PEAK")));
+
+        assertTrue(directory.isRouted());
+        assertEquals("WH-PEAK", directory.licensePlateWarehouse("LP-PEAK"));
+        assertEquals(1, mongoClient.getDatabase(routing.defaultDatabase())
+            .getCollection(WarehouseDirectory.COLLECTION).countDocuments(new Document("_id", "license-plate:LP-PEAK")));
+        assertNull(directory.licensePlateWarehouse("LP-MISSING"));
+    }
+
+    @Test
+    void disabledRouting_shouldUseTheDefaultDatabaseOnly() {
+        WarehouseRoutingProperties properties = new WarehouseRoutingProperties();
+        properties.setDatabases(Map.of("WH-PEAK", "tracking_wh_peak"));
+        MongoProperties mongoProperties = new MongoProperties();
+        mongoProperties.setDatabase("tracking");
+        WarehouseRouting disabled = new WarehouseRouting(properties, mongoProperties);
+
+        assertEquals("tracking", disabled.database("WH-PEAK"));
+        assertEquals(List.of("inline"), disabled.fanOut(() -> "inline"));
+    }
+
+    private long count(String database) {
+        return mongoClient.getDatabase(database).getCollection("license_plates").countDocuments(new Document());
+    }
+
+    private static LicensePlate plate(String id, String warehouseId) {
+        return LicensePlate.create(id, warehouseId, LicensePlateType.TOTE, "CONT-" + id, "tester");
+    }
+}
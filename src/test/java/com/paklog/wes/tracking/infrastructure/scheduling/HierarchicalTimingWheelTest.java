@@ -0,0 +1,83 @@
+package com.paklog.wes.tracking.infrastructure.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advanceTo_shouldExpireOnlyDueTimers() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(Duration.ofMillis(10), 4, START);
+        wheel.schedule("A", START + 50, "a");
+        wheel.schedule("B", START + 500, "b");
+
+        assertTrue(wheel.advanceTo(START + 40).isEmpty());
+
+        List<HierarchicalTimingWheel.Timeout<String, String>> expired = wheel.advanceTo(START + 50);
+        assertEquals(1, expired.size());
+        assertEquals("A", expired.get(0).key());
+        assertEquals("a", expired.get(0).payload());
+        assertEquals(1, wheel.size());
+
+        assertEquals("B", wheel.advanceTo(START + 500).get(0).key());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_shouldReplaceExistingDeadline() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(Duration.ofMillis(10), 4, START);
+        wheel.schedule("A", START + 50, "first");
+        wheel.schedule("A", START + 5_000, "second");
+
+        assertTrue(wheel.advanceTo(START + 4_990).isEmpty());
+
+        List<HierarchicalTimingWheel.Timeout<String, String>> expired = wheel.advanceTo(START + 5_000);
+        assertEquals(1, expired.size());
+        assertEquals("second", expired.get(0).payload());
+    }
+
+    @Test
+    void cancel_shouldPreventExpiry() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(Duration.ofMillis(10), 4, START);
+        wheel.schedule("A", START + 50, "a");
+
+        assertTrue(wheel.cancel("A"));
+        assertFalse(wheel.cancel("A"));
+        assertTrue(wheel.advanceTo(START + 1_000).isEmpty());
+    }
+
+    @Test
+    void pastDeadline_shouldExpireOnNextTick() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(Duration.ofMillis(10), 4, START);
+        wheel.schedule("A", START - 60_000, "late");
+
+        assertEquals(1, wheel.advanceTo(START + 10).size());
+    }
+
+    @Test
+    void timersAcrossLevels_shouldCascadeAndExpireInOrder() {
+        HierarchicalTimingWheel<Integer, Integer> wheel = new HierarchicalTimingWheel<>(Duration.ofMillis(1), 3, 0);
+        long[] deadlines = {3, 63, 64, 65, 4_095, 4_096, 70_000, 300_000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i], i);
+        }
+
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = 1; now <= 300_000; now++) {
+            for (HierarchicalTimingWheel.Timeout<Integer, Integer> timeout : wheel.advanceTo(now)) {
+                assertEquals(deadlines[timeout.key()], now, "timer " + timeout.key() + " fired at wrong tick");
+                firedAt.add(now);
+            }
+        }
+
+        assertEquals(deadlines.length, firedAt.size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.application.service.WarehouseStateView;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Warm-up cost of a warehouse view at 100k and 250k locations: snapshot write,
+ * memory-mapped load into WarehouseStateView, and as a baseline the entity
+ * mapping a MongoDB full scan pays for the same locations before any network
+ * or server time
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class WarehouseSnapshotBenchmarkTest {
+
+    private static final int[] SIZES = {100_000, 250_000};
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotLoadVersusEntityMapping() throws IOException {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        for (int size : SIZES) {
+            List<LocationState> states = warehouse(size);
+            List<LocationOccupancy> locations = new ArrayList<>(size);
+            List<Document> documents = new ArrayList<>(size);
+            for (LocationState state : states) {
+                locations.add(LocationOccupancy.from(state));
+                Document document = new Document();
+                converter.write(state, document);
+                documents.add(document);
+            }
+            Path file = directory.resolve("WH-" + size + ".snapshot");
+            LocalDateTime now = LocalDateTime.now();
+            WarehouseSnapshot snapshot = new WarehouseSnapshot("WH-1", now, now, locations);
+
+            long writeNanos = Long.MAX_VALUE;
+            long loadNanos = Long.MAX_VALUE;
+            long mapNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                WarehouseSnapshotCodec.write(file, snapshot);
+                writeNanos = Math.min(writeNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                WarehouseStateView view = new WarehouseStateView();
+                view.track("WH-1");
+                for (LocationOccupancy location : WarehouseSnapshotCodec.read(file).locations()) {
+                    view.apply(location);
+                }
+                loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+                assertEquals(size, view.size("WH-1"));
+
+                start = System.nanoTime();
+                WarehouseStateView mapped = new WarehouseStateView();
+                mapped.track("WH-1");
+                for (Document document : documents) {
+                    mapped.apply(LocationOccupancy.from(converter.read(LocationState.class, document)));
+                }
+                mapNanos = Math.min(mapNanos, System.nanoTime() - start);
+            }
+
+            long bytes = Files.size(file);
+            System.out.printf("%,d locations: snapshot %,d KB (%d bytes/location), write %d ms, "
+                    + "mmap load %d ms, entity mapping alone %d ms%n",
+                size, bytes / 1024, bytes / size, writeNanos / 1_000_000, loadNanos / 1_000_000,
+                mapNanos / 1_000_000);
+
+            assertTrue(loadNanos < mapNanos);
+        }
+    }
+
+    private static List<LocationState> warehouse(int size) {
+        List<LocationState> states = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocationState state = LocationState.create(
+                String.format("A-%03d-%02d-%02d", i / 1000, (i / 10) % 100, i % 10), "WH-1",
+                "ZONE-" + (i % 20), 100, new BigDecimal("1000"), new BigDecimal("10"));
+            // Two thirds occupied, one or two license plates each
+            if (i % 3 != 0) {
+                state.addLicensePlate("LP-" + i + "-A", 10, new BigDecimal("12.5"), new BigDecimal("0.25"));
+                if (i % 3 == 2) {
+                    state.addLicensePlate("LP-" + i + "-B", 5, new BigDecimal("7.5"), new BigDecimal("0.125"));
+                }
+            }
+            states.add(state);
+        }
+        return states;
+    }
+}
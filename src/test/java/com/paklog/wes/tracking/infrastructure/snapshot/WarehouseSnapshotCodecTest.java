@@ -0,0 +1,101 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.domain.readmodel.LocationOccupancy;
+import com.paklog.wes.tracking.domain.valueobject.OccupancyStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseSnapshotCodecTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeThenRead_shouldRoundTripEveryField() throws IOException {
+        LocationOccupancy occupied = new LocationOccupancy("A-01", "WH-1", "ZONE-A",
+            OccupancyStatus.PARTIALLY_OCCUPIED, false, 12, 100,
+            new BigDecimal("45.250"), new BigDecimal("1.5"), NOW, List.of("LP-1", "LP-2"));
+        LocationOccupancy sparse = new LocationOccupancy("B-01", "WH-1", null,
+            null, true, 0, null, null, null, null, List.of());
+        WarehouseSnapshot snapshot = new WarehouseSnapshot("WH-1", NOW, NOW.plusSeconds(5), List.of(occupied, sparse));
+        Path file = directory.resolve("WH-1.snapshot");
+
+        WarehouseSnapshotCodec.write(file, snapshot);
+        WarehouseSnapshot read = WarehouseSnapshotCodec.read(file);
+
+        assertEquals(snapshot, read);
+        assertFalse(Files.exists(directory.resolve("WH-1.snapshot.tmp")));
+    }
+
+    @Test
+    void write_shouldReplaceExistingSnapshot() throws IOException {
+        Path file = directory.resolve("WH-1.snapshot");
+        WarehouseSnapshotCodec.write(file, snapshot(3));
+
+        WarehouseSnapshotCodec.write(file, snapshot(1));
+
+        assertEquals(1, WarehouseSnapshotCodec.read(file).locations().size());
+    }
+
+    @Test
+    void read_shouldRejectCorruptedSnapshot() throws IOException {
+        Path file = directory.resolve("WH-1.snapshot");
+        WarehouseSnapshotCodec.write(file, snapshot(3));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> WarehouseSnapshotCodec.read(file));
+        assertTrue(e.getMessage().contains("Checksum"));
+    }
+
+    @Test
+    void read_shouldRejectTruncatedSnapshot() throws IOException {
+        Path file = directory.resolve("WH-1.snapshot");
+        WarehouseSnapshotCodec.write(file, snapshot(3));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> WarehouseSnapshotCodec.read(file));
+    }
+
+    @Test
+    void read_shouldRejectOtherFormatVersion() throws IOException {
+        Path file = directory.resolve("WH-1.snapshot");
+        WarehouseSnapshotCodec.write(file, snapshot(1));
+        byte[] bytes = Files.readAllBytes(file);
+        // Bump the version and re-seal the checksum, so only the version check can fail
+        ByteBuffer.wrap(bytes).putShort(Integer.BYTES, (short) (WarehouseSnapshotCodec.VERSION + 1));
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - Integer.BYTES, (int) crc.getValue());
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> WarehouseSnapshotCodec.read(file));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    private static WarehouseSnapshot snapshot(int locations) {
+        List<LocationOccupancy> entries = new ArrayList<>();
+        for (int i = 0; i < locations; i++) {
+            entries.add(new LocationOccupancy("LOC-" + i, "WH-1", "ZONE-A", OccupancyStatus.EMPTY, false,
+                0, 10, BigDecimal.ZERO, BigDecimal.ZERO, NOW, List.of()));
+        }
+        return new WarehouseSnapshot("WH-1", NOW, NOW, entries);
+    }
+}
@@ -0,0 +1,121 @@
+package com.paklog.wes.tracking.infrastructure.snapshot;
+
+import com.paklog.wes.tracking.application.service.WarehouseStateView;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.SnapshotProperties;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import com.paklog.wes.tracking.infrastructure.metrics.TrackingMetrics;
+import com.paklog.wes.tracking.infrastructure.telemetry.TelemetrySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarehouseSnapshotterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    Path directory;
+
+    private SnapshotProperties properties;
+    private WarehouseStateView view;
+    private WarehouseSnapshotter snapshotter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SnapshotProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setWarehouses(List.of("WH-1"));
+        properties.setReplayOverlap(Duration.ofMinutes(2));
+        view = new WarehouseStateView();
+        TrackingMetrics metrics = new TrackingMetrics(
+            new SimpleMeterRegistry(), new TelemetrySampler(new TelemetrySamplingProperties())
+        );
+        snapshotter = new WarehouseSnapshotter(properties, view, mongoTemplate, metrics);
+    }
+
+    @Test
+    void warmUp_withoutSnapshot_shouldScanWholeWarehouse() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(query.capture(), eq(LocationState.class)))
+            .thenReturn(Stream.of(location("LOC-1"), location("LOC-2")));
+
+        WarehouseSnapshotter.WarmUp warmUp = snapshotter.warmUp("WH-1");
+
+        assertTrue(warmUp.fullScan());
+        assertEquals(2, warmUp.replayed());
+        assertEquals(2, view.size("WH-1"));
+        assertTrue(view.isWarm("WH-1"));
+        assertFalse(query.getValue().getQueryObject().containsKey("lastUpdated"));
+    }
+
+    @Test
+    void warmUp_fromSnapshot_shouldReplayOnlySinceHighWaterMark() throws IOException {
+        when(mongoTemplate.stream(any(Query.class), eq(LocationState.class)))
+            .thenReturn(Stream.of(location("LOC-1"), location("LOC-2")));
+        snapshotter.warmUp("WH-1");
+        snapshotter.write("WH-1");
+        LocalDateTime highWaterMark = view.highWaterMark("WH-1");
+        assertTrue(Files.exists(snapshotter.file("WH-1")));
+
+        WarehouseStateView restarted = new WarehouseStateView();
+        WarehouseSnapshotter afterRestart = new WarehouseSnapshotter(properties, restarted, mongoTemplate,
+            new TrackingMetrics(new SimpleMeterRegistry(), new TelemetrySampler(new TelemetrySamplingProperties())));
+        LocationState changed = location("LOC-2");
+        changed.addLicensePlate("LP-9", 3, BigDecimal.ONE, BigDecimal.ONE);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(query.capture(), eq(LocationState.class))).thenReturn(Stream.of(changed));
+
+        WarehouseSnapshotter.WarmUp warmUp = afterRestart.warmUp("WH-1");
+
+        assertFalse(warmUp.fullScan());
+        assertEquals(2, warmUp.loaded());
+        assertEquals(1, warmUp.replayed());
+        assertEquals(List.of("LP-9"), restarted.find("WH-1", "LOC-2").orElseThrow().licensePlateIds());
+        Document lastUpdated = (Document) query.getValue().getQueryObject().get("lastUpdated");
+        assertEquals(highWaterMark.truncatedTo(ChronoUnit.MILLIS).minus(properties.getReplayOverlap()),
+            lastUpdated.get("$gte"));
+    }
+
+    @Test
+    void warmUp_withCorruptSnapshot_shouldFallBackToFullScan() throws IOException {
+        Files.writeString(snapshotter.file("WH-1"), "not a snapshot");
+        when(mongoTemplate.stream(any(Query.class), eq(LocationState.class)))
+            .thenReturn(Stream.of(location("LOC-1")));
+
+        WarehouseSnapshotter.WarmUp warmUp = snapshotter.warmUp("WH-1");
+
+        assertTrue(warmUp.fullScan());
+        assertEquals(1, view.size("WH-1"));
+    }
+
+    private static LocationState location(String locationId) {
+        return LocationState.create(locationId, "WH-1", "ZONE-A", 10, null, null);
+    }
+}
@@ -0,0 +1,176 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowOrFailedSpanProcessorTest {
+
+    private final RecordingExporter sampledExporter = new RecordingExporter();
+    private final RecordingExporter promotedExporter = new RecordingExporter();
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setDefaultRate(0.0);
+        properties.setRates(Map.of("always", 1.0, "block_location", 1.0));
+        properties.setSlowThreshold(Duration.ofMillis(100));
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+
+        tracerProvider = SdkTracerProvider.builder()
+            .setSampler(new AdaptiveTraceSampler(sampler))
+            .addSpanProcessor(SimpleSpanProcessor.create(sampledExporter))
+            .addSpanProcessor(new SlowOrFailedSpanProcessor(promotedExporter, sampler))
+            .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void sampledRootSpan_shouldBeExportedNormally() {
+        tracer.spanBuilder("always").startSpan().end();
+        flush();
+
+        assertEquals(List.of("always"), sampledExporter.names());
+        assertTrue(promotedExporter.names().isEmpty());
+    }
+
+    @Test
+    void unsampledSpan_shouldBeDroppedUnlessFailedOrSlow() {
+        tracer.spanBuilder("normal").startSpan().end();
+
+        Span failed = tracer.spanBuilder("failed").startSpan();
+        failed.setStatus(StatusCode.ERROR);
+        failed.end();
+
+        long start = System.nanoTime();
+        tracer.spanBuilder("slow").setStartTimestamp(start, TimeUnit.NANOSECONDS).startSpan()
+            .end(start + Duration.ofMillis(150).toNanos(), TimeUnit.NANOSECONDS);
+
+        flush();
+        assertTrue(sampledExporter.names().isEmpty());
+        assertEquals(List.of("failed", "slow"), promotedExporter.names());
+    }
+
+    @Test
+    void childSpans_shouldFollowParentDecision() {
+        Span parent = tracer.spanBuilder("always").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("child").startSpan().end();
+        }
+        parent.end();
+
+        Span unsampled = tracer.spanBuilder("normal").startSpan();
+        try (Scope ignored = unsampled.makeCurrent()) {
+            Span child = tracer.spanBuilder("child-of-unsampled").startSpan();
+            assertTrue(child.isRecording(), "Children of unsampled roots are recorded for promotion");
+            assertFalse(child.getSpanContext().isSampled());
+            child.end();
+        }
+        unsampled.end();
+
+        flush();
+        assertEquals(List.of("child", "always"), sampledExporter.names());
+        assertTrue(promotedExporter.names().isEmpty(), "A fast trace without failures is discarded whole");
+    }
+
+    @Test
+    void slowRoot_shouldBeExportedWithItsChildren() {
+        long start = System.nanoTime();
+        Span root = tracer.spanBuilder("slow").setStartTimestamp(start, TimeUnit.NANOSECONDS).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("query").startSpan();
+            try (Scope inner = child.makeCurrent()) {
+                tracer.spanBuilder("fetch").startSpan().end();
+            }
+            child.end();
+        }
+        root.end(start + Duration.ofMillis(150).toNanos(), TimeUnit.NANOSECONDS);
+
+        flush();
+        assertTrue(sampledExporter.names().isEmpty());
+        assertEquals(List.of("fetch", "query", "slow"), promotedExporter.names());
+        assertEquals(1, promotedExporter.spans.stream().map(SpanData::getTraceId).distinct().count());
+    }
+
+    @Test
+    void failedChild_shouldPromoteItsWholeTrace() {
+        Span root = tracer.spanBuilder("normal").startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            tracer.spanBuilder("fine").startSpan().end();
+            Span failed = tracer.spanBuilder("failed").startSpan();
+            failed.setStatus(StatusCode.ERROR);
+            failed.end();
+        }
+        root.end();
+
+        flush();
+        assertEquals(List.of("fine", "failed", "normal"), promotedExporter.names());
+    }
+
+    @Test
+    void rootSpan_shouldBeSampledByTheOperationInItsContext() {
+        try (Scope ignored = Context.current().with(AdaptiveTraceSampler.OPERATION, "block_location").makeCurrent()) {
+            tracer.spanBuilder("http post").startSpan().end();
+        }
+        tracer.spanBuilder("http post").startSpan().end();
+
+        flush();
+        assertEquals(List.of("http post"), sampledExporter.names());
+    }
+
+    private void flush() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+    }
+
+    private static final class RecordingExporter implements SpanExporter {
+
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        List<String> names() {
+            return spans.stream().map(SpanData::getName).toList();
+        }
+    }
+}
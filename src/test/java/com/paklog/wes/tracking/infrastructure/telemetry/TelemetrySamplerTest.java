@@ -0,0 +1,89 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetrySamplerTest {
+
+    @Test
+    void sample_shouldKeepEverythingWhenDisabled() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setEnabled(false);
+        properties.setDefaultRate(0.0);
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(sampler.sample("move_license_plate"));
+        }
+    }
+
+    @Test
+    void sample_shouldApplyPerOperationRates() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setDefaultRate(0.0);
+        properties.setRates(Map.of("block_location", 1.0, "move_license_plate", 0.1));
+        properties.setMaxPerSecond(Integer.MAX_VALUE);
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+
+        int kept = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (sampler.sample("move_license_plate")) {
+                kept++;
+            }
+        }
+
+        assertTrue(sampler.sample("block_location"));
+        assertFalse(sampler.sample("add_item"));
+        assertTrue(kept > 9_000 && kept < 11_000, "kept " + kept);
+    }
+
+    @Test
+    void sample_shouldCapKeptOperationsPerSecond() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setDefaultRate(1.0);
+        properties.setMaxPerSecond(10);
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+
+        int kept = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (sampler.sample("move_license_plate")) {
+                kept++;
+            }
+        }
+
+        // The loop may straddle a second boundary
+        assertTrue(kept >= 10 && kept <= 20, "kept " + kept);
+        assertTrue(sampler.sample("add_item"));
+    }
+
+    @Test
+    void isSlow_shouldCompareAgainstThreshold() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setSlowThreshold(Duration.ofMillis(100));
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+
+        assertTrue(sampler.isSlow(Duration.ofMillis(100).toNanos()));
+        assertFalse(sampler.isSlow(Duration.ofMillis(99).toNanos()));
+    }
+
+    @Test
+    void atInfo_shouldNotEvaluateArgumentsOfDroppedStatements() {
+        TelemetrySamplingProperties properties = new TelemetrySamplingProperties();
+        properties.setDefaultRate(0.0);
+        TelemetrySampler sampler = new TelemetrySampler(properties);
+        Logger logger = LoggerFactory.getLogger(TelemetrySamplerTest.class);
+        Supplier<Object> argument = () -> fail("argument evaluated");
+
+        assertSame(NOPLoggingEventBuilder.singleton(), sampler.atInfo(logger, "move_license_plate"));
+        sampler.atInfo(logger, "move_license_plate").addArgument(argument).log("Placed at {}");
+    }
+}
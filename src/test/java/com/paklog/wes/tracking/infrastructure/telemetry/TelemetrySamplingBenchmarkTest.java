@@ -0,0 +1,148 @@
+package com.paklog.wes.tracking.infrastructure.telemetry;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.paklog.wes.tracking.domain.aggregate.LocationState;
+import com.paklog.wes.tracking.infrastructure.config.TelemetrySamplingProperties;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-operation telemetry cost: log everything and trace everything versus
+ * the sampled configuration
+ *
+ * Logs go through a real logback appender and pattern encoder into a
+ * discarding stream; spans go through the SDK into a counting exporter, so
+ * the numbers cover formatting, encoding and span recording but not I/O.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class TelemetrySamplingBenchmarkTest {
+
+    private static final int WARMUP = 100_000;
+    private static final int OPERATIONS = 1_000_000;
+
+    private final LocationState state = locationState();
+
+    @Test
+    void loggingOverhead() {
+        Logger logger = discardingLogger();
+        TelemetrySampler sampled = new TelemetrySampler(new TelemetrySamplingProperties());
+
+        double eager = measure(() -> logger.info("Moving license plate {} to location {}: {}",
+            "LP-1", "LOC-1", state.toString()));
+        double lazy = measure(() -> sampled.atInfo(logger, "move_license_plate")
+            .addArgument("LP-1").addArgument("LOC-1").addArgument(state::toString)
+            .log("Moving license plate {} to location {}: {}"));
+
+        System.out.printf("logging: every operation %.0f ns/op, sampled %.0f ns/op%n", eager, lazy);
+        assertTrue(lazy < eager);
+    }
+
+    @Test
+    void tracingOverhead() {
+        CountingExporter exporter = new CountingExporter();
+        TelemetrySampler sampler = new TelemetrySampler(new TelemetrySamplingProperties());
+
+        double always = measureSpans(Sampler.alwaysOn(), exporter, sampler);
+        double adaptive = measureSpans(new AdaptiveTraceSampler(sampler), exporter, sampler);
+
+        System.out.printf("tracing: every operation %.0f ns/op, sampled %.0f ns/op%n", always, adaptive);
+    }
+
+    private static double measureSpans(Sampler traceSampler, SpanExporter exporter, TelemetrySampler sampler) {
+        try (SdkTracerProvider provider = SdkTracerProvider.builder()
+                .setSampler(traceSampler)
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .addSpanProcessor(new SlowOrFailedSpanProcessor(exporter, sampler))
+                .build()) {
+            Tracer tracer = provider.get("benchmark");
+            return measure(() -> tracer.spanBuilder("http post /api/v1/tracking/license-plates/{id}/move")
+                .startSpan()
+                .setAttribute("licensePlateId", "LP-1")
+                .end());
+        }
+    }
+
+    private static double measure(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / (double) OPERATIONS;
+    }
+
+    private static Logger discardingLogger() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        ch.qos.logback.classic.Logger logger = context.getLogger("telemetry-sampling-benchmark");
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static LocationState locationState() {
+        LocationState state = LocationState.create(
+            "LOC-1", "WH-1", "ZONE-A", 20, new BigDecimal("200"), new BigDecimal("100")
+        );
+        state.addLicensePlate("LP-1", 5, new BigDecimal("10.5"), new BigDecimal("3.2"));
+        return state;
+    }
+
+    private static final class CountingExporter implements SpanExporter {
+
+        private final LongAdder exported = new LongAdder();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.add(spans.size());
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.paklog.wes.tracking.loadtest;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.kafka.CloudEventSerializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the Kafka broker
+ *
+ * Outbound, a producer factory whose producers are MockProducers: the
+ * publisher runs its real send path, CloudEvent serialization included, and
+ * every send is acknowledged at once. Inbound, each subscribed topic has a
+ * fixed number of partitions, each drained by one thread in polls of up to
+ * maxPoll records, so records with the same key are handled in order as they
+ * would be by a listener container.
+ */
+final class InProcessKafka implements AutoCloseable {
+
+    private static final int HISTORY_LIMIT = 10_000;
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicLong produced = new AtomicLong();
+    private final InProcessProducerFactory producerFactory = new InProcessProducerFactory(produced);
+
+    /**
+     * Register as the application's producer factory before the context starts
+     */
+    DefaultKafkaProducerFactory<Object, Object> producerFactory() {
+        return producerFactory;
+    }
+
+    /**
+     * Records sent by the application
+     */
+    long produced() {
+        return produced.get();
+    }
+
+    /**
+     * Deliver the topic to a batch listener
+     */
+    void subscribe(String topic, int partitions, int maxPoll,
+                   Consumer<List<ConsumerRecord<String, byte[]>>> listener) {
+        if (topics.putIfAbsent(topic, new Topic(topic, partitions, maxPoll, listener)) != null) {
+            throw new IllegalStateException("Already subscribed to " + topic);
+        }
+    }
+
+    /**
+     * Deliver the topic to a record listener
+     */
+    void subscribeEach(String topic, int partitions, Consumer<ConsumerRecord<String, byte[]>> listener) {
+        subscribe(topic, partitions, 500, records -> records.forEach(listener));
+    }
+
+    /**
+     * Append a record; completes once the listener has handled the poll it was in
+     */
+    CompletableFuture<Void> send(String topic, String key, byte[] value) {
+        Topic target = topics.get(topic);
+        if (target == null) {
+            throw new IllegalArgumentException("No subscriber for " + topic);
+        }
+        return target.append(key, value);
+    }
+
+    @Override
+    public void close() {
+        topics.values().forEach(Topic::close);
+    }
+
+    private static final class Topic {
+
+        private final List<Partition> partitions = new ArrayList<>();
+
+        private Topic(String name, int partitions, int maxPoll,
+                      Consumer<List<ConsumerRecord<String, byte[]>>> listener) {
+            for (int i = 0; i < partitions; i++) {
+                this.partitions.add(new Partition(name, i, maxPoll, listener));
+            }
+        }
+
+        private CompletableFuture<Void> append(String key, byte[] value) {
+            return partitions.get(Math.floorMod(key.hashCode(), partitions.size())).append(key, value);
+        }
+
+        private void close() {
+            partitions.forEach(Partition::close);
+        }
+    }
+
+    private static final class Partition {
+
+        private final String topic;
+        private final int partition;
+        private final int maxPoll;
+        private final Consumer<List<ConsumerRecord<String, byte[]>>> listener;
+        private final BlockingQueue<Appended> queue = new LinkedBlockingQueue<>();
+        private final AtomicLong nextOffset = new AtomicLong();
+        private final Thread consumer;
+        private volatile boolean running = true;
+
+        private Partition(String topic, int partition, int maxPoll,
+                          Consumer<List<ConsumerRecord<String, byte[]>>> listener) {
+            this.topic = topic;
+            this.partition = partition;
+            this.maxPoll = Math.max(1, maxPoll);
+            this.listener = listener;
+            this.consumer = new Thread(this::poll, "in-process-kafka-" + topic + "-" + partition);
+            this.consumer.setDaemon(true);
+            this.consumer.start();
+        }
+
+        private synchronized CompletableFuture<Void> append(String key, byte[] value) {
+            ConsumerRecord<String, byte[]> record =
+                new ConsumerRecord<>(topic, partition, nextOffset.getAndIncrement(), key, value);
+            Appended appended = new Appended(record, new CompletableFuture<>());
+            queue.add(appended);
+            return appended.handled();
+        }
+
+        private void poll() {
+            List<Appended> batch = new ArrayList<>(maxPoll);
+            List<ConsumerRecord<String, byte[]>> records = new ArrayList<>(maxPoll);
+            while (running) {
+                try {
+                    Appended first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxPoll - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (Appended appended : batch) {
+                    records.add(appended.record());
+                }
+                try {
+                    listener.accept(List.copyOf(records));
+                    batch.forEach(appended -> appended.handled().complete(null));
+                } catch (RuntimeException e) {
+                    batch.forEach(appended -> appended.handled().completeExceptionally(e));
+                }
+                batch.clear();
+                records.clear();
+            }
+        }
+
+        private void close() {
+            running = false;
+            consumer.interrupt();
+        }
+    }
+
+    private record Appended(ConsumerRecord<String, byte[]> record, CompletableFuture<Void> handled) {
+    }
+
+    /**
+     * Producer factory handing out acknowledging MockProducers
+     */
+    private static final class InProcessProducerFactory extends DefaultKafkaProducerFactory<Object, Object> {
+
+        private final AtomicLong produced;
+
+        private InProcessProducerFactory(AtomicLong produced) {
+            super(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "in-process:9092"));
+            this.produced = produced;
+        }
+
+        @Override
+        protected Producer<Object, Object> createRawProducer(Map<String, Object> rawConfigs) {
+            ValueSerializer valueSerializer = new ValueSerializer();
+            valueSerializer.configure(rawConfigs, false);
+            Serializer<Object> keySerializer =
+                (topic, key) -> key != null ? key.toString().getBytes(StandardCharsets.UTF_8) : null;
+            return new MockProducer<>(true, keySerializer, valueSerializer) {
+
+                @Override
+                public synchronized Future<RecordMetadata> send(ProducerRecord<Object, Object> record,
+                                                                Callback callback) {
+                    Future<RecordMetadata> result = super.send(record, callback);
+                    // MockProducer keeps every record it sent; keep memory flat over a long run
+                    if (produced.incrementAndGet() % HISTORY_LIMIT == 0) {
+                        clear();
+                    }
+                    return result;
+                }
+            };
+        }
+    }
+
+    /**
+     * CloudEvents through the configured CloudEventSerializer, anything else as a string
+     */
+    private static final class ValueSerializer implements Serializer<Object> {
+
+        private final CloudEventSerializer cloudEvents = new CloudEventSerializer();
+
+        @Override
+        public void configure(Map<String, ?> configs, boolean isKey) {
+            cloudEvents.configure(configs, isKey);
+        }
+
+        @Override
+        public byte[] serialize(String topic, Object data) {
+            // MockProducer calls the header-less variant, which CloudEventSerializer rejects
+            if (data instanceof CloudEvent event) {
+                return cloudEvents.serialize(topic, new RecordHeaders(), event);
+            }
+            return data != null ? data.toString().getBytes(StandardCharsets.UTF_8) : null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.paklog.wes.tracking.loadtest;
+
+import com.paklog.wes.tracking.loadtest.ShiftStep.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput per operation
+ *
+ * Latencies are recorded in microseconds into one HdrHistogram Recorder per
+ * operation (three significant digits), so recording from many workers is
+ * wait-free and percentiles are exact to the histogram's precision.
+ */
+final class LatencyReport {
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long nanos, boolean succeeded) {
+        recorders.get(operation).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (!succeeded) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Everything recorded so far, per operation; call once recording has stopped
+     */
+    Map<Operation, Histogram> histograms() {
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Histogram interval = entry.getValue().getIntervalHistogram();
+            histograms.merge(entry.getKey(), interval, (total, more) -> {
+                total.add(more);
+                return total;
+            });
+        }
+        return histograms;
+    }
+
+    long errors(Operation operation) {
+        return errors.get(operation).sum();
+    }
+
+    /**
+     * One line per operation that ran: count, errors, throughput over elapsed, percentiles in ms
+     */
+    void print(PrintStream out, Duration elapsed) {
+        double seconds = Math.max(1, elapsed.toMillis()) / 1000.0;
+        out.printf("%-22s %9s %7s %9s %8s %8s %8s %8s %8s%n",
+            "operation", "count", "errors", "ops/s", "p50", "p90", "p99", "p99.9", "max ms");
+        long total = 0;
+        for (Map.Entry<Operation, Histogram> entry : histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            out.printf("%-22s %,9d %7d %,9.0f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                entry.getKey(), count, errors(entry.getKey()), count / seconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+        }
+        out.printf("%-22s %,9d %7s %,9.0f%n", "total", total, "", total / seconds);
+    }
+
+    /**
+     * Full percentile distribution of each operation as an .hgrm file, values in ms
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : histograms().entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
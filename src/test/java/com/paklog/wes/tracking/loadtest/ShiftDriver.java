@@ -0,0 +1,147 @@
+package com.paklog.wes.tracking.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays shift steps against a running service
+ *
+ * Steps are split into one lane per worker by key, keeping each license
+ * plate's steps in order on one worker. A worker does not wait for the events
+ * it publishes; it only waits before the next step on the same key, so REST
+ * calls and event handling overlap as they do in production. REST latency is
+ * request to response; event latency is publish to handled.
+ */
+final class ShiftDriver {
+
+    private static final String API = "/api/v1/tracking";
+
+    private final String baseUrl;
+    private final InProcessKafka kafka;
+    private final ObjectMapper objectMapper;
+    private final LatencyReport report;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    ShiftDriver(String baseUrl, InProcessKafka kafka, ObjectMapper objectMapper, LatencyReport report) {
+        this.baseUrl = baseUrl + API;
+        this.kafka = kafka;
+        this.objectMapper = objectMapper;
+        this.report = report;
+    }
+
+    /**
+     * Run steps on that many workers; returns the wall time until every step and event completed
+     */
+    Duration run(List<ShiftStep> steps, int workers) {
+        List<List<ShiftStep>> lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (ShiftStep step : steps) {
+            lanes.get(Math.floorMod(step.key().hashCode(), workers)).add(step);
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "shift-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            CompletableFuture.allOf(lanes.stream()
+                    .map(lane -> CompletableFuture.runAsync(() -> runLane(lane), pool))
+                    .toArray(CompletableFuture[]::new))
+                .join();
+            return Duration.ofNanos(System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void runLane(List<ShiftStep> lane) {
+        Map<String, CompletableFuture<Void>> pending = new HashMap<>();
+        for (ShiftStep step : lane) {
+            CompletableFuture<Void> previous = pending.remove(step.key());
+            if (previous != null) {
+                await(previous);
+            }
+            switch (step) {
+                case ShiftStep.Rest rest -> call(rest);
+                case ShiftStep.Event event -> pending.put(event.key(), publish(event));
+            }
+        }
+        pending.values().forEach(ShiftDriver::await);
+    }
+
+    private void call(ShiftStep.Rest step) {
+        HttpRequest.BodyPublisher body = step.body() != null
+            ? HttpRequest.BodyPublishers.ofByteArray(json(step.body()))
+            : HttpRequest.BodyPublishers.noBody();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + step.path()))
+            .header("Content-Type", "application/json")
+            .header("X-User-Id", "loadtest")
+            .method(step.method(), body)
+            .build();
+
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            succeeded = response.statusCode() < 300;
+        } catch (IOException e) {
+            succeeded = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (step.measured()) {
+            report.record(step.operation(), System.nanoTime() - start, succeeded);
+        }
+    }
+
+    private CompletableFuture<Void> publish(ShiftStep.Event step) {
+        byte[] payload = json(step.payload());
+        long start = System.nanoTime();
+        return kafka.send(step.topic(), step.key(), payload).whenComplete((ignored, failure) -> {
+            if (step.measured()) {
+                report.record(step.operation(), System.nanoTime() - start, failure == null);
+            }
+        });
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value, e);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            // Already recorded as an error
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.paklog.wes.tracking.loadtest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shape and size of a simulated shift
+ *
+ * Read from loadtest.* system properties so a run can be resized from the
+ * command line; the same profile always generates the same shift.
+ */
+record ShiftProfile(
+    long seed,
+    String warehouseId,
+    int reserveLocations,
+    int pickFaces,
+    int packStations,
+    int shipDoors,
+    int skus,
+    int flows,
+    int warmupFlows,
+    int workers,
+    int partitions,
+    Map<Flow, Integer> mix,
+    String mongoUri
+) {
+
+    /**
+     * Unit of work drawn from the mix; each expands into one or more steps
+     */
+    enum Flow {
+        RECEIVING,
+        REPLENISHMENT,
+        WAVE_PICK,
+        PACK_OUT,
+        SHIP,
+        READ
+    }
+
+    static final String DEFAULT_MIX = "receiving:10,replenishment:10,wave_pick:45,pack_out:12,ship:12,read:11";
+
+    ShiftProfile {
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+    }
+
+    static ShiftProfile fromSystemProperties() {
+        return new ShiftProfile(
+            Long.getLong("loadtest.seed", 42L),
+            System.getProperty("loadtest.warehouse-id", "WH-LOAD"),
+            Integer.getInteger("loadtest.reserve-locations", 2_000),
+            Integer.getInteger("loadtest.pick-faces", 500),
+            Integer.getInteger("loadtest.pack-stations", 12),
+            Integer.getInteger("loadtest.ship-doors", 8),
+            Integer.getInteger("loadtest.skus", 5_000),
+            Integer.getInteger("loadtest.flows", 20_000),
+            Integer.getInteger("loadtest.warmup-flows", 2_000),
+            Integer.getInteger("loadtest.workers", 16),
+            Integer.getInteger("loadtest.partitions", 6),
+            parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+            System.getProperty("loadtest.mongo-uri")
+        );
+    }
+
+    /**
+     * Parse flow:weight pairs, e.g. receiving:10,wave_pick:45; unlisted flows get weight 0
+     */
+    static Map<Flow, Integer> parseMix(String mix) {
+        Map<Flow, Integer> weights = new EnumMap<>(Flow.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected flow:weight, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            weights.put(Flow.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,52 @@
+package com.paklog.wes.tracking.loadtest;
+
+/**
+ * One request or event of a simulated shift
+ *
+ * Steps with the same key touch the same license plate (or order) and are
+ * replayed in order; steps with different keys may run concurrently.
+ */
+sealed interface ShiftStep {
+
+    /**
+     * What a step is measured as
+     */
+    enum Operation {
+        IMPORT_LOCATIONS,
+        LOCATION_CREATED,
+        CREATE_LICENSE_PLATE,
+        ADD_ITEM,
+        PUTAWAY,
+        REPLENISH,
+        PICK,
+        PICK_COMPLETED,
+        PACK_OUT,
+        PACK_ITEM,
+        SHIP,
+        GET_LICENSE_PLATE,
+        GET_LOCATION_STATE
+    }
+
+    Operation operation();
+
+    String key();
+
+    /**
+     * False for warm-up steps, which run but are not recorded
+     */
+    boolean measured();
+
+    /**
+     * REST call; body is serialized as JSON when present
+     */
+    record Rest(Operation operation, String key, boolean measured, String method, String path, Object body)
+        implements ShiftStep {
+    }
+
+    /**
+     * Record published to an inbound topic; payload is serialized as JSON
+     */
+    record Event(Operation operation, String key, boolean measured, String topic, Object payload)
+        implements ShiftStep {
+    }
+}
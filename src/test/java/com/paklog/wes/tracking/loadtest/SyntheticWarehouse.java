@@ -0,0 +1,414 @@
+package com.paklog.wes.tracking.loadtest;
+
+import com.paklog.wes.tracking.adapter.rest.dto.AddItemRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.CreateLicensePlateRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.ImportLocationsRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.LocationDefinitionRequest;
+import com.paklog.wes.tracking.adapter.rest.dto.MoveLicensePlateRequest;
+import com.paklog.wes.tracking.domain.valueobject.LicensePlateType;
+import com.paklog.wes.tracking.domain.valueobject.MovementType;
+import com.paklog.wes.tracking.loadtest.ShiftProfile.Flow;
+import com.paklog.wes.tracking.loadtest.ShiftStep.Operation;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A generated warehouse and one shift of work against it
+ *
+ * Locations are reserve slots, pick faces, pack stations and ship doors.
+ * The shift is drawn flow by flow from the profile's mix with a seeded random,
+ * while a model of the warehouse is kept alongside: pallets are received into
+ * reserve slots with room, replenished to pick faces, picked into orders,
+ * packed into cartons and shipped. A flow whose precondition does not hold
+ * (nothing in reserve to replenish, no order to pack) becomes a receiving, or
+ * a read when reserve is full, so every step is valid against the model. The
+ * same profile always yields the same steps.
+ */
+final class SyntheticWarehouse {
+
+    static final String PICK_EVENTS = "wes-pick-events";
+    static final String PACK_EVENTS = "wes-pack-events";
+    static final String LOCATION_EVENTS = "wms-location-events";
+    static final String INVENTORY_EVENTS = "wms-inventory-events";
+
+    static final int RESERVE_CAPACITY = 240;
+    static final int PICK_FACE_CAPACITY = 400;
+    private static final int STAGE_CAPACITY = 1_000_000;
+    private static final int IMPORT_BATCH = 500;
+    private static final BigDecimal MAX_WEIGHT = new BigDecimal("1000000");
+    private static final BigDecimal MAX_VOLUME = new BigDecimal("10000");
+    private static final BigDecimal UNIT_WEIGHT = new BigDecimal("0.5");
+    private static final BigDecimal UNIT_VOLUME = new BigDecimal("0.002");
+
+    private final ShiftProfile profile;
+    private final Random random;
+    private final int[] reserveUsed;
+    private final int[] pickFaceUsed;
+    private final List<Pallet> inReserve = new ArrayList<>();
+    private final List<Pallet> atPickFace = new ArrayList<>();
+    private final Deque<Order> picked = new ArrayDeque<>();
+    private final Deque<String> packed = new ArrayDeque<>();
+    private final List<String> licensePlates = new ArrayList<>();
+    private final List<ShiftStep> setup;
+    private final List<ShiftStep> shift;
+    private final Map<Flow, Integer> flowCounts = new EnumMap<>(Flow.class);
+
+    private Order openOrder;
+    private int palletSequence;
+    private int orderSequence;
+
+    SyntheticWarehouse(ShiftProfile profile) {
+        this.profile = profile;
+        this.random = new Random(profile.seed());
+        this.reserveUsed = new int[profile.reserveLocations()];
+        this.pickFaceUsed = new int[profile.pickFaces()];
+        this.setup = generateSetup();
+        this.shift = generateShift();
+    }
+
+    /**
+     * Location provisioning, run before the shift
+     */
+    List<ShiftStep> setup() {
+        return setup;
+    }
+
+    List<ShiftStep> shift() {
+        return shift;
+    }
+
+    /**
+     * Flows as actually generated, after fallbacks
+     */
+    Map<Flow, Integer> flowCounts() {
+        return flowCounts;
+    }
+
+    int reserveUsed(int slot) {
+        return reserveUsed[slot];
+    }
+
+    int pickFaceUsed(int face) {
+        return pickFaceUsed[face];
+    }
+
+    static String reserveLocation(int slot) {
+        return String.format("R-%05d", slot);
+    }
+
+    static String pickFace(int face) {
+        return String.format("P-%05d", face);
+    }
+
+    private List<ShiftStep> generateSetup() {
+        List<ShiftStep> steps = new ArrayList<>();
+
+        // Storage comes from the location master as bulk imports
+        List<LocationDefinitionRequest> storage = new ArrayList<>();
+        for (int slot = 0; slot < profile.reserveLocations(); slot++) {
+            storage.add(location(reserveLocation(slot), "RESERVE", RESERVE_CAPACITY, slot));
+        }
+        for (int face = 0; face < profile.pickFaces(); face++) {
+            storage.add(location(pickFace(face), "PICK", PICK_FACE_CAPACITY, face));
+        }
+        for (int from = 0; from < storage.size(); from += IMPORT_BATCH) {
+            List<LocationDefinitionRequest> batch =
+                storage.subList(from, Math.min(storage.size(), from + IMPORT_BATCH));
+            steps.add(new ShiftStep.Rest(Operation.IMPORT_LOCATIONS, "import-" + from, true, "POST",
+                "/locations/import", new ImportLocationsRequest(List.copyOf(batch))));
+        }
+
+        // Pack and ship areas arrive as location events
+        for (int station = 0; station < profile.packStations(); station++) {
+            steps.add(locationCreated(stage(station), "PACK"));
+        }
+        for (int door = 0; door < profile.shipDoors(); door++) {
+            steps.add(locationCreated(door(door), "SHIP"));
+        }
+        return steps;
+    }
+
+    private List<ShiftStep> generateShift() {
+        List<ShiftStep> steps = new ArrayList<>();
+        int totalWeight = profile.mix().values().stream().mapToInt(Integer::intValue).sum();
+        for (int flow = 0; flow < profile.flows(); flow++) {
+            boolean measured = flow >= profile.warmupFlows();
+            Flow drawn = draw(totalWeight);
+            Flow generated = switch (drawn) {
+                case RECEIVING -> receive(steps, measured);
+                case REPLENISHMENT -> replenish(steps, measured) ? drawn : receive(steps, measured);
+                case WAVE_PICK -> pick(steps, measured) ? drawn : receive(steps, measured);
+                case PACK_OUT -> packOut(steps, measured) ? drawn : receive(steps, measured);
+                case SHIP -> ship(steps, measured) ? drawn : receive(steps, measured);
+                case READ -> read(steps, measured);
+            };
+            flowCounts.merge(generated, 1, Integer::sum);
+        }
+        return steps;
+    }
+
+    private Flow draw(int totalWeight) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<Flow, Integer> entry : profile.mix().entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /**
+     * New pallet of one to three SKU lots, put away into a reserve slot with room
+     */
+    private Flow receive(List<ShiftStep> steps, boolean measured) {
+        List<Line> lines = new ArrayList<>();
+        int total = 0;
+        for (int line = 1 + random.nextInt(3); line > 0; line--) {
+            Line item = new Line(String.format("SKU-%05d", random.nextInt(profile.skus())),
+                "LOT-" + (1 + random.nextInt(3)), 10 + random.nextInt(51));
+            lines.add(item);
+            total += item.quantity();
+        }
+        int slot = slotWithRoom(reserveUsed, RESERVE_CAPACITY, total);
+        if (slot < 0) {
+            return read(steps, measured);
+        }
+
+        String id = String.format("LP-P%06d", palletSequence++);
+        steps.add(new ShiftStep.Rest(Operation.CREATE_LICENSE_PLATE, id, measured, "POST", "/license-plates",
+            new CreateLicensePlateRequest(id, profile.warehouseId(), LicensePlateType.PALLET, "CONT-" + id)));
+        for (Line line : lines) {
+            steps.add(addItem(Operation.ADD_ITEM, id, measured, line));
+        }
+        steps.add(move(Operation.PUTAWAY, id, measured, reserveLocation(slot), MovementType.PUTAWAY,
+            "Receiving putaway"));
+
+        reserveUsed[slot] += total;
+        inReserve.add(new Pallet(id, slot, lines, total));
+        licensePlates.add(id);
+        return Flow.RECEIVING;
+    }
+
+    /**
+     * Reserve pallet to a pick face with room, reported by the inventory service
+     */
+    private boolean replenish(List<ShiftStep> steps, boolean measured) {
+        if (inReserve.isEmpty()) {
+            return false;
+        }
+        int index = random.nextInt(inReserve.size());
+        Pallet pallet = inReserve.get(index);
+        int face = slotWithRoom(pickFaceUsed, PICK_FACE_CAPACITY, pallet.total);
+        if (face < 0) {
+            return false;
+        }
+        removeAt(inReserve, index);
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "InventoryMovedEvent");
+        event.put("warehouseId", profile.warehouseId());
+        event.put("licensePlateId", pallet.id);
+        event.put("fromLocation", reserveLocation(pallet.location));
+        event.put("toLocation", pickFace(face));
+        event.put("performedBy", "reach-truck-" + random.nextInt(20));
+        event.put("quantity", pallet.total);
+        steps.add(new ShiftStep.Event(Operation.REPLENISH, pallet.id, measured, INVENTORY_EVENTS, event));
+
+        reserveUsed[pallet.location] -= pallet.total;
+        pickFaceUsed[face] += pallet.total;
+        pallet.location = face;
+        atPickFace.add(pallet);
+        return true;
+    }
+
+    /**
+     * A few units of one lot off a pick-face pallet into the open order
+     */
+    private boolean pick(List<ShiftStep> steps, boolean measured) {
+        if (atPickFace.isEmpty()) {
+            return false;
+        }
+        int index = random.nextInt(atPickFace.size());
+        Pallet pallet = atPickFace.get(index);
+        int lineIndex = random.nextInt(pallet.lines.size());
+        Line line = pallet.lines.get(lineIndex);
+        int quantity = 1 + random.nextInt(Math.min(5, line.quantity()));
+
+        steps.add(new ShiftStep.Rest(Operation.PICK, pallet.id, measured, "DELETE",
+            "/license-plates/" + pallet.id + "/items?sku=" + line.sku() + "&lotNumber=" + line.lot()
+                + "&quantity=" + quantity, null));
+
+        pickFaceUsed[pallet.location] -= quantity;
+        pallet.total -= quantity;
+        if (line.quantity() == quantity) {
+            pallet.lines.remove(lineIndex);
+        } else {
+            pallet.lines.set(lineIndex, new Line(line.sku(), line.lot(), line.quantity() - quantity));
+        }
+        if (pallet.lines.isEmpty()) {
+            removeAt(atPickFace, index);
+        }
+
+        if (openOrder == null) {
+            openOrder = new Order(String.format("ORD-%06d", orderSequence++), 1 + random.nextInt(4));
+        }
+        openOrder.lines.add(new Line(line.sku(), line.lot(), quantity));
+        if (openOrder.lines.size() >= openOrder.size) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "PickingCompletedEvent");
+            event.put("orderId", openOrder.id);
+            event.put("warehouseId", profile.warehouseId());
+            steps.add(new ShiftStep.Event(Operation.PICK_COMPLETED, openOrder.id, measured, PICK_EVENTS, event));
+            picked.add(openOrder);
+            openOrder = null;
+        }
+        return true;
+    }
+
+    /**
+     * Picked order packed into a carton at a station: the pack event, then its contents
+     */
+    private boolean packOut(List<ShiftStep> steps, boolean measured) {
+        Order order = picked.poll();
+        if (order == null) {
+            return false;
+        }
+        // Matches the license plate id the pack event handler creates
+        String carton = "LP-" + order.id + "-C1";
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "PackingCompletedEvent");
+        event.put("orderId", order.id);
+        event.put("warehouseId", profile.warehouseId());
+        event.put("cartonId", "C1");
+        event.put("stationId", String.format("P%02d", random.nextInt(profile.packStations())));
+        steps.add(new ShiftStep.Event(Operation.PACK_OUT, carton, measured, PACK_EVENTS, event));
+        for (Line line : order.lines) {
+            steps.add(addItem(Operation.PACK_ITEM, carton, measured, line));
+        }
+        packed.add(carton);
+        licensePlates.add(carton);
+        return true;
+    }
+
+    private boolean ship(List<ShiftStep> steps, boolean measured) {
+        String carton = packed.poll();
+        if (carton == null) {
+            return false;
+        }
+        steps.add(move(Operation.SHIP, carton, measured, door(random.nextInt(profile.shipDoors())),
+            MovementType.SHIP, "Loaded"));
+        return true;
+    }
+
+    private Flow read(List<ShiftStep> steps, boolean measured) {
+        if (!licensePlates.isEmpty() && random.nextBoolean()) {
+            String id = licensePlates.get(random.nextInt(licensePlates.size()));
+            steps.add(new ShiftStep.Rest(Operation.GET_LICENSE_PLATE, id, measured, "GET",
+                "/license-plates/" + id, null));
+        } else {
+            String location = random.nextBoolean()
+                ? reserveLocation(random.nextInt(profile.reserveLocations()))
+                : pickFace(random.nextInt(profile.pickFaces()));
+            steps.add(new ShiftStep.Rest(Operation.GET_LOCATION_STATE, location, measured, "GET",
+                "/locations/" + location + "/state", null));
+        }
+        return Flow.READ;
+    }
+
+    /**
+     * Random slot that can take quantity more units, or -1 when none can
+     */
+    private int slotWithRoom(int[] used, int capacity, int quantity) {
+        int start = random.nextInt(used.length);
+        for (int i = 0; i < used.length; i++) {
+            int slot = (start + i) % used.length;
+            if (used[slot] + quantity <= capacity) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private LocationDefinitionRequest location(String id, String zone, int capacity, int index) {
+        return new LocationDefinitionRequest(id, profile.warehouseId(), zone, capacity, MAX_WEIGHT, MAX_VOLUME,
+            (double) (index / 100), (double) (index % 100), 0.0, null);
+    }
+
+    private ShiftStep locationCreated(String id, String zone) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "LocationCreatedEvent");
+        event.put("locationId", id);
+        event.put("warehouseId", profile.warehouseId());
+        event.put("zone", zone);
+        event.put("maxQuantity", STAGE_CAPACITY);
+        event.put("maxWeight", MAX_WEIGHT);
+        event.put("maxVolume", MAX_VOLUME);
+        return new ShiftStep.Event(Operation.LOCATION_CREATED, id, true, LOCATION_EVENTS, event);
+    }
+
+    private ShiftStep addItem(Operation operation, String id, boolean measured, Line line) {
+        return new ShiftStep.Rest(operation, id, measured, "POST", "/license-plates/" + id + "/items",
+            new AddItemRequest(line.sku(), line.lot(), line.quantity(), UNIT_WEIGHT, UNIT_VOLUME, "EA"));
+    }
+
+    private ShiftStep move(Operation operation, String id, boolean measured, String to, MovementType type,
+                           String reason) {
+        return new ShiftStep.Rest(operation, id, measured, "POST", "/license-plates/" + id + "/move",
+            new MoveLicensePlateRequest(to, type, reason));
+    }
+
+    private static String stage(int station) {
+        return String.format("STAGE-P%02d", station);
+    }
+
+    private static String door(int door) {
+        return String.format("DOOR-%02d", door);
+    }
+
+    private static <T> void removeAt(List<T> list, int index) {
+        // Order does not matter; swap with the last to keep removal O(1)
+        T last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+        }
+    }
+
+    private record Line(String sku, String lot, int quantity) {
+    }
+
+    private static final class Pallet {
+
+        private final String id;
+        private final List<Line> lines;
+        private int location;
+        private int total;
+
+        private Pallet(String id, int location, List<Line> lines, int total) {
+            this.id = id;
+            this.location = location;
+            this.lines = lines;
+            this.total = total;
+        }
+    }
+
+    private static final class Order {
+
+        private final String id;
+        private final int size;
+        private final List<Line> lines = new ArrayList<>();
+
+        private Order(String id, int size) {
+            this.id = id;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.paklog.wes.tracking.loadtest;
+
+import com.paklog.wes.tracking.loadtest.ShiftProfile.Flow;
+import com.paklog.wes.tracking.loadtest.ShiftStep.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticWarehouseTest {
+
+    @Test
+    void sameProfile_shouldGenerateTheSameShift() {
+        assertEquals(new SyntheticWarehouse(profile(7, ShiftProfile.DEFAULT_MIX)).shift(),
+            new SyntheticWarehouse(profile(7, ShiftProfile.DEFAULT_MIX)).shift());
+        assertNotEquals(new SyntheticWarehouse(profile(7, ShiftProfile.DEFAULT_MIX)).shift(),
+            new SyntheticWarehouse(profile(8, ShiftProfile.DEFAULT_MIX)).shift());
+    }
+
+    @Test
+    void shift_shouldKeepLocationsWithinCapacity() {
+        ShiftProfile profile = profile(3, ShiftProfile.DEFAULT_MIX);
+        SyntheticWarehouse warehouse = new SyntheticWarehouse(profile);
+
+        for (int slot = 0; slot < profile.reserveLocations(); slot++) {
+            int used = warehouse.reserveUsed(slot);
+            assertTrue(used >= 0 && used <= SyntheticWarehouse.RESERVE_CAPACITY, "reserve " + slot + ": " + used);
+        }
+        for (int face = 0; face < profile.pickFaces(); face++) {
+            int used = warehouse.pickFaceUsed(face);
+            assertTrue(used >= 0 && used <= SyntheticWarehouse.PICK_FACE_CAPACITY, "face " + face + ": " + used);
+        }
+    }
+
+    @Test
+    void shift_shouldOnlyTouchLicensePlatesAfterCreatingThem() {
+        Set<String> created = new HashSet<>();
+        for (ShiftStep step : new SyntheticWarehouse(profile(11, ShiftProfile.DEFAULT_MIX)).shift()) {
+            switch (step.operation()) {
+                case CREATE_LICENSE_PLATE, PACK_OUT -> assertTrue(created.add(step.key()), step.key());
+                case ADD_ITEM, PUTAWAY, REPLENISH, PICK, PACK_ITEM, SHIP, GET_LICENSE_PLATE ->
+                    assertTrue(created.contains(step.key()), step + " before create");
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Test
+    void shift_shouldFollowTheMixAndMeasureAfterWarmUp() {
+        SyntheticWarehouse warehouse = new SyntheticWarehouse(profile(5, "receiving:1,read:1"));
+        List<ShiftStep> shift = warehouse.shift();
+
+        assertEquals(Set.of(Flow.RECEIVING, Flow.READ), warehouse.flowCounts().keySet());
+        assertEquals(1_000, warehouse.flowCounts().values().stream().mapToInt(Integer::intValue).sum());
+        assertFalse(shift.get(0).measured());
+        assertTrue(shift.get(shift.size() - 1).measured());
+        assertTrue(shift.stream().noneMatch(step -> step.operation() == Operation.PICK));
+    }
+
+    @Test
+    void setup_shouldImportStorageInBatchesAndAnnounceDocks() {
+        List<ShiftStep> setup = new SyntheticWarehouse(profile(1, ShiftProfile.DEFAULT_MIX)).setup();
+
+        assertEquals(2, setup.stream().filter(step -> step.operation() == Operation.IMPORT_LOCATIONS).count());
+        assertEquals(6, setup.stream().filter(step -> step.operation() == Operation.LOCATION_CREATED).count());
+    }
+
+    @Test
+    void parseMix_shouldRejectMalformedMixes() {
+        assertEquals(Map.of(Flow.WAVE_PICK, 3, Flow.SHIP, 1), ShiftProfile.parseMix("wave_pick:3, ship:1"));
+        assertThrows(IllegalArgumentException.class, () -> ShiftProfile.parseMix("wave_pick"));
+        assertThrows(IllegalArgumentException.class, () -> ShiftProfile.parseMix("unloading:1"));
+        assertThrows(IllegalArgumentException.class, () -> ShiftProfile.parseMix("read:0"));
+    }
+
+    private static ShiftProfile profile(long seed, String mix) {
+        return new ShiftProfile(seed, "WH-LOAD", 600, 100, 4, 2, 200, 1_000, 100, 4, 2,
+            ShiftProfile.parseMix(mix), null);
+    }
+}
@@ -0,0 +1,105 @@
+package com.paklog.wes.tracking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.wes.tracking.PhysicalTrackingServiceApplication;
+import com.paklog.wes.tracking.infrastructure.events.WarehouseEventHandler;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A full warehouse shift against the whole application
+ *
+ * Generates a warehouse and a shift of receiving, replenishment, wave picking,
+ * pack-out, shipping and reads from loadtest.* system properties (see
+ * ShiftProfile), then replays it over HTTP and through WarehouseEventHandler.
+ * MongoDB is an embedded mongod, or loadtest.mongo-uri when set; Kafka is
+ * InProcessKafka, so nothing outside the JVM is needed once the mongod binary
+ * is cached. Prints count, errors, throughput and latency percentiles per
+ * operation and writes each operation's full distribution to
+ * target/loadtest/*.hgrm.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=WarehouseShiftLoadTest [-Dloadtest.flows=100000 -Dloadtest.workers=32]
+ */
+@Tag("benchmark")
+class WarehouseShiftLoadTest {
+
+    @Test
+    void warehouseShift() throws Exception {
+        ShiftProfile profile = ShiftProfile.fromSystemProperties();
+        SyntheticWarehouse warehouse = new SyntheticWarehouse(profile);
+
+        if (profile.mongoUri() != null) {
+            runShift(profile, warehouse, profile.mongoUri());
+            return;
+        }
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V6_0)) {
+            runShift(profile, warehouse, "mongodb://localhost:" + mongod.current().getServerAddress().getPort()
+                + "/physical_tracking_loadtest");
+        }
+    }
+
+    private void runShift(ShiftProfile profile, SyntheticWarehouse warehouse, String mongoUri) throws Exception {
+        try (InProcessKafka kafka = new InProcessKafka()) {
+            SpringApplication application = new SpringApplication(PhysicalTrackingServiceApplication.class);
+            // Replaces the auto-configured producer factory; listeners stay stopped
+            application.addInitializers(context -> context.getBeanFactory()
+                .registerSingleton("kafkaProducerFactory", kafka.producerFactory()));
+
+            try (ConfigurableApplicationContext context = application.run(
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + mongoUri,
+                    "--spring.kafka.listener.auto-startup=false",
+                    "--paklog.kafka.consumer.key-ordered.enabled=false",
+                    "--management.tracing.enabled=false",
+                    "--logging.level.root=WARN")) {
+                context.getBeanProvider(DefaultKafkaProducerFactoryCustomizer.class).orderedStream()
+                    .forEach(customizer -> customizer.customize(kafka.producerFactory()));
+
+                // Records are handled inline and complete with their poll; acknowledgements are not tracked
+                WarehouseEventHandler handler = context.getBean(WarehouseEventHandler.class);
+                kafka.subscribeEach(SyntheticWarehouse.PICK_EVENTS, profile.partitions(),
+                    record -> handler.handlePickingCompleted(record, () -> { }));
+                kafka.subscribeEach(SyntheticWarehouse.PACK_EVENTS, profile.partitions(),
+                    record -> handler.handlePackingCompleted(record, () -> { }));
+                kafka.subscribeEach(SyntheticWarehouse.INVENTORY_EVENTS, profile.partitions(),
+                    record -> handler.handleInventoryMoved(record, () -> { }));
+                kafka.subscribe(SyntheticWarehouse.LOCATION_EVENTS, profile.partitions(), 500,
+                    handler::handleLocationCreated);
+
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                LatencyReport report = new LatencyReport();
+                ShiftDriver driver = new ShiftDriver("http://localhost:" + port, kafka,
+                    context.getBean(ObjectMapper.class), report);
+
+                Duration setup = driver.run(warehouse.setup(), 1);
+                Duration shift = driver.run(warehouse.shift(), profile.workers());
+
+                System.out.printf("seed %d: %,d locations provisioned in %d ms; %,d flows %s as %,d steps "
+                        + "on %d workers in %d ms (%,d events published)%n",
+                    profile.seed(), profile.reserveLocations() + profile.pickFaces() + profile.packStations()
+                        + profile.shipDoors(), setup.toMillis(), profile.flows(), warehouse.flowCounts(),
+                    warehouse.shift().size(), profile.workers(), shift.toMillis(), kafka.produced());
+                report.print(System.out, shift);
+                report.write(Path.of("target", "loadtest"));
+
+                assertEquals(0, report.errors(ShiftStep.Operation.CREATE_LICENSE_PLATE));
+                assertEquals(0, report.errors(ShiftStep.Operation.PUTAWAY));
+                assertTrue(kafka.produced() > 0);
+            }
+        }
+    }
+}